@@ -0,0 +1,127 @@
+/**
+ * Copyright (c) 2018 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.misc.concurrency.tasking.benchmark;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import com.esferixis.misc.concurrency.tasking.Task;
+import com.esferixis.misc.concurrency.tasking.TaskRunner;
+
+/**
+ * @author Ariel Favio Carrizo
+ * 
+ * Suma paralela de un array, dividiéndolo recursivamente
+ * en mitades hasta llegar al tamaño de bloque.
+ * Mide el paralelismo de datos con tareas de grano medio
+ */
+public final class ArraySumWorkload extends Workload {
+	private static final class SumTask extends Task {
+		private static final long serialVersionUID = 1L;
+		
+		private final long[] array;
+		private final int fromIndex;
+		private final int toIndex;
+		private final int chunkSize;
+		private final LongAdder result;
+		
+		public SumTask(long[] array, int fromIndex, int toIndex, int chunkSize, LongAdder result) {
+			this.array = array;
+			this.fromIndex = fromIndex;
+			this.toIndex = toIndex;
+			this.chunkSize = chunkSize;
+			this.result = result;
+		}
+		
+		@Override
+		public void run(TaskRunner taskRunner) {
+			if ( this.toIndex - this.fromIndex <= this.chunkSize ) {
+				long sum = 0;
+				
+				for ( int i = this.fromIndex ; i < this.toIndex ; i++ ) {
+					sum += this.array[i];
+				}
+				
+				this.result.add(sum);
+			}
+			else {
+				final int middleIndex = ( this.fromIndex + this.toIndex ) >>> 1;
+				
+				taskRunner.run(new SumTask(this.array, this.fromIndex, middleIndex, this.chunkSize, this.result));
+				taskRunner.run(new SumTask(this.array, middleIndex, this.toIndex, this.chunkSize, this.result));
+			}
+		}
+
+		@Override
+		protected long getRelativeRunningTime_implementation() {
+			if ( this.toIndex - this.fromIndex <= this.chunkSize ) {
+				return this.toIndex - this.fromIndex;
+			}
+			else {
+				return 1;
+			}
+		}
+	}
+	
+	private final long[] array;
+	private final int chunkSize;
+	private final long expectedResult;
+	
+	/**
+	 * @post Crea la carga de trabajo con la longitud del array
+	 * 		 y el tamaño de bloque especificados
+	 */
+	public ArraySumWorkload(int length, int chunkSize) {
+		super("arraySum(" + length + "/" + chunkSize + ")");
+		
+		this.array = new long[length];
+		this.chunkSize = chunkSize;
+		
+		long expectedResult = 0;
+		
+		for ( int i = 0 ; i < length ; i++ ) {
+			this.array[i] = mix(i) & 0xFFFF;
+			expectedResult += this.array[i];
+		}
+		
+		this.expectedResult = expectedResult;
+	}
+
+	@Override
+	public Task createRootTask(LongAdder result) {
+		return new SumTask(this.array, 0, this.array.length, this.chunkSize, result);
+	}
+
+	@Override
+	public long getExpectedResult() {
+		return this.expectedResult;
+	}
+}
@@ -0,0 +1,141 @@
+/**
+ * Copyright (c) 2018 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.misc.concurrency.tasking.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.esferixis.misc.concurrency.tasking.Task;
+import com.esferixis.misc.concurrency.tasking.TaskRunner;
+
+/**
+ * @author Ariel Favio Carrizo
+ * 
+ * Abanico ancho, la tarea raíz lanza en bloque una gran cantidad de
+ * tareas hoja independientes con un poco de cálculo cada una.
+ * Mide el lanzamiento en bloque y la distribución de tareas
+ */
+public final class FanOutWorkload extends Workload {
+	private static final class LeafTask extends Task {
+		private static final long serialVersionUID = 1L;
+		
+		private final long seed;
+		private final int work;
+		private final LongAdder result;
+		
+		public LeafTask(long seed, int work, LongAdder result) {
+			this.seed = seed;
+			this.work = work;
+			this.result = result;
+		}
+		
+		@Override
+		public void run(TaskRunner taskRunner) {
+			this.result.add(leafValue(this.seed, this.work));
+		}
+
+		@Override
+		protected long getRelativeRunningTime_implementation() {
+			return this.work;
+		}
+	}
+	
+	private final int width;
+	private final int work;
+	private final long expectedResult;
+	
+	/**
+	 * @post Crea la carga de trabajo con la cantidad de tareas hoja y
+	 * 		 el trabajo de cada una especificados
+	 */
+	public FanOutWorkload(int width, int work) {
+		super("fanOut(" + width + "x" + work + ")");
+		
+		this.width = width;
+		this.work = work;
+		
+		long expectedResult = 0;
+		
+		for ( int i = 0 ; i < width ; i++ ) {
+			expectedResult += leafValue(i, work);
+		}
+		
+		this.expectedResult = expectedResult;
+	}
+	
+	/**
+	 * @post Calcula el valor de la tarea hoja con la semilla y
+	 * 		 el trabajo especificados
+	 */
+	private static long leafValue(long seed, int work) {
+		long value = seed;
+		
+		for ( int i = 0 ; i < work ; i++ ) {
+			value = mix(value);
+		}
+		
+		return value & 0xFF;
+	}
+
+	@Override
+	public Task createRootTask(final LongAdder result) {
+		final int width = this.width;
+		final int work = this.work;
+		
+		return new Task() {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			public void run(TaskRunner taskRunner) {
+				final List<Task> leaves = new ArrayList<Task>(width);
+				
+				for ( int i = 0 ; i < width ; i++ ) {
+					leaves.add(new LeafTask(i, work, result));
+				}
+				
+				taskRunner.runAll(leaves);
+			}
+
+			@Override
+			protected long getRelativeRunningTime_implementation() {
+				return width;
+			}
+			
+		};
+	}
+
+	@Override
+	public long getExpectedResult() {
+		return this.expectedResult;
+	}
+}
@@ -0,0 +1,106 @@
+/**
+ * Copyright (c) 2018 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.misc.concurrency.tasking.benchmark;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import com.esferixis.misc.concurrency.tasking.Task;
+import com.esferixis.misc.concurrency.tasking.TaskRunner;
+
+/**
+ * @author Ariel Favio Carrizo
+ * 
+ * Fibonacci recursivo, una tarea por llamada.
+ * Mide el costo por tarea de grano muy fino
+ */
+public final class FibonacciWorkload extends Workload {
+	private static final class FibonacciTask extends Task {
+		private static final long serialVersionUID = 1L;
+		
+		private final int n;
+		private final LongAdder result;
+		
+		public FibonacciTask(int n, LongAdder result) {
+			this.n = n;
+			this.result = result;
+		}
+		
+		@Override
+		public void run(TaskRunner taskRunner) {
+			if ( this.n < 2 ) {
+				this.result.add(this.n);
+			}
+			else {
+				taskRunner.run(new FibonacciTask(this.n-1, this.result));
+				taskRunner.run(new FibonacciTask(this.n-2, this.result));
+			}
+		}
+
+		@Override
+		protected long getRelativeRunningTime_implementation() {
+			return 1;
+		}
+	}
+	
+	private final int n;
+	private final long expectedResult;
+	
+	/**
+	 * @post Crea la carga de trabajo con el número especificado
+	 */
+	public FibonacciWorkload(int n) {
+		super("fib(" + n + ")");
+		
+		this.n = n;
+		
+		long previous = 0;
+		long current = 1;
+		
+		for ( int i = 0 ; i < n ; i++ ) {
+			final long next = previous + current;
+			previous = current;
+			current = next;
+		}
+		
+		this.expectedResult = previous;
+	}
+
+	@Override
+	public Task createRootTask(LongAdder result) {
+		return new FibonacciTask(this.n, result);
+	}
+
+	@Override
+	public long getExpectedResult() {
+		return this.expectedResult;
+	}
+}
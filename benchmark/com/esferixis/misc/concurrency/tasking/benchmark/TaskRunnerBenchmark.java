@@ -0,0 +1,350 @@
+/**
+ * Copyright (c) 2018 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.misc.concurrency.tasking.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.esferixis.misc.concurrency.tasking.TaskRunner;
+import com.esferixis.misc.concurrency.tasking.implementations.TaskTreeFuture;
+
+/**
+ * @author Ariel Favio Carrizo
+ * 
+ * Benchmark de los ejecutadores de tareas.
+ * 
+ * Mide, para cada configuración de ejecutador de tareas, carga de
+ * trabajo y cantidad de threads (De 1 a N, en potencias de dos),
+ * el throughput en operaciones por segundo, los bytes asignados
+ * por operación, y la aceleración respecto de un thread.
+ * 
+ * Cada medición tiene iteraciones de calentamiento descartadas,
+ * seguidas de iteraciones medidas de duración fija.
+ * Cada operación se espera con TaskTreeFuture, y su resultado se
+ * verifica.
+ * 
+ * Argumentos (Todos opcionales):
+ * 
+ * 		-threads N				Cantidad máxima de threads (Por defecto la cantidad de procesadores)
+ * 		-warmup N				Iteraciones de calentamiento (Por defecto 3)
+ * 		-iterations N			Iteraciones medidas (Por defecto 5)
+ * 		-iterationMillis N		Duración de cada iteración (Por defecto 1000)
+ * 		-runner TEXTO			Sólo las configuraciones cuyo nombre contiene el texto
+ * 		-workload TEXTO			Sólo las cargas de trabajo cuyo nombre contiene el texto
+ */
+public final class TaskRunnerBenchmark {
+	/**
+	 * Resultado de una medición
+	 */
+	private static final class Result {
+		private final double meanOpsPerSecond;
+		private final double opsPerSecondStandardDeviation;
+		private final double bytesPerOp;
+		
+		public Result(double meanOpsPerSecond, double opsPerSecondStandardDeviation, double bytesPerOp) {
+			this.meanOpsPerSecond = meanOpsPerSecond;
+			this.opsPerSecondStandardDeviation = opsPerSecondStandardDeviation;
+			this.bytesPerOp = bytesPerOp;
+		}
+	}
+	
+	private final int maxThreads;
+	private final int warmupIterations;
+	private final int measuredIterations;
+	private final long iterationNanos;
+	
+	private final com.sun.management.ThreadMXBean allocationThreadMXBean;
+	
+	/**
+	 * @post Crea el benchmark con la cantidad máxima de threads, las iteraciones
+	 * 		 de calentamiento, las medidas y la duración de iteración especificadas
+	 */
+	private TaskRunnerBenchmark(int maxThreads, int warmupIterations, int measuredIterations, long iterationMillis) {
+		this.maxThreads = maxThreads;
+		this.warmupIterations = warmupIterations;
+		this.measuredIterations = measuredIterations;
+		this.iterationNanos = iterationMillis * 1000000L;
+		
+		final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+		
+		if ( ( threadMXBean instanceof com.sun.management.ThreadMXBean ) && ( (com.sun.management.ThreadMXBean) threadMXBean ).isThreadAllocatedMemorySupported() ) {
+			this.allocationThreadMXBean = (com.sun.management.ThreadMXBean) threadMXBean;
+			this.allocationThreadMXBean.setThreadAllocatedMemoryEnabled(true);
+		}
+		else {
+			this.allocationThreadMXBean = null;
+		}
+	}
+	
+	/**
+	 * @post Devuelve las cargas de trabajo por defecto
+	 */
+	private static Workload[] getDefaultWorkloads() {
+		return new Workload[] {
+			new FibonacciWorkload(22),
+			new ArraySumWorkload(1 << 20, 4096),
+			new UnbalancedTreeWorkload(2000, 4, 0.2475d),
+			new FanOutWorkload(10000, 16)
+		};
+	}
+	
+	/**
+	 * @post Devuelve la cantidad total de bytes asignados por todos los threads vivos,
+	 * 		 si no se puede medir devuelve -1
+	 */
+	private long getAllocatedBytes() {
+		if ( this.allocationThreadMXBean != null ) {
+			long allocatedBytes = 0;
+			
+			for ( long eachAllocatedBytes : this.allocationThreadMXBean.getThreadAllocatedBytes(this.allocationThreadMXBean.getAllThreadIds()) ) {
+				if ( eachAllocatedBytes > 0 ) {
+					allocatedBytes += eachAllocatedBytes;
+				}
+			}
+			
+			return allocatedBytes;
+		}
+		else {
+			return -1;
+		}
+	}
+	
+	/**
+	 * @post Ejecuta una operación de la carga de trabajo con el ejecutador
+	 * 		 de tareas especificado, y verifica el resultado
+	 */
+	private static void runOperation(TaskRunner taskRunner, Workload workload) {
+		final LongAdder result = new LongAdder();
+		
+		try {
+			TaskTreeFuture.run(taskRunner, workload.createRootTask(result)).get();
+		} catch (InterruptedException | ExecutionException e) {
+			throw new RuntimeException(e);
+		}
+		
+		if ( result.sum() != workload.getExpectedResult() ) {
+			throw new IllegalStateException("Wrong result for " + workload.getName() + ": expected " + workload.getExpectedResult() + ", got " + result.sum());
+		}
+	}
+	
+	/**
+	 * @post Ejecuta operaciones durante una iteración, y devuelve la cantidad
+	 * 		 de operaciones y los nanosegundos transcurridos
+	 */
+	private long[] runIteration(TaskRunner taskRunner, Workload workload) {
+		final long startNanoTime = System.nanoTime();
+		long elapsedNanos;
+		long operations = 0;
+		
+		do {
+			runOperation(taskRunner, workload);
+			operations++;
+			
+			elapsedNanos = System.nanoTime() - startNanoTime;
+		} while ( elapsedNanos < this.iterationNanos );
+		
+		return new long[] { operations, elapsedNanos };
+	}
+	
+	/**
+	 * @post Mide la carga de trabajo con la configuración y la cantidad de threads
+	 * 		 especificadas
+	 */
+	private Result measure(TaskRunnerConfiguration configuration, int threads, Workload workload) {
+		final TaskRunnerConfiguration.Instance instance = configuration.create(threads);
+		
+		try {
+			final TaskRunner taskRunner = instance.getTaskRunner();
+			
+			for ( int i = 0 ; i < this.warmupIterations ; i++ ) {
+				this.runIteration(taskRunner, workload);
+			}
+			
+			System.gc();
+			
+			final double[] opsPerSecond = new double[this.measuredIterations];
+			long totalOperations = 0;
+			final long startAllocatedBytes = this.getAllocatedBytes();
+			
+			for ( int i = 0 ; i < this.measuredIterations ; i++ ) {
+				final long[] iterationResult = this.runIteration(taskRunner, workload);
+				
+				totalOperations += iterationResult[0];
+				opsPerSecond[i] = (double) iterationResult[0] * 1e9d / (double) iterationResult[1];
+			}
+			
+			final long endAllocatedBytes = this.getAllocatedBytes();
+			
+			double mean = 0.0d;
+			for ( double eachOpsPerSecond : opsPerSecond ) {
+				mean += eachOpsPerSecond;
+			}
+			mean /= opsPerSecond.length;
+			
+			double variance = 0.0d;
+			for ( double eachOpsPerSecond : opsPerSecond ) {
+				variance += ( eachOpsPerSecond - mean ) * ( eachOpsPerSecond - mean );
+			}
+			variance /= Math.max(1, opsPerSecond.length - 1);
+			
+			final double bytesPerOp;
+			
+			if ( ( startAllocatedBytes >= 0 ) && ( endAllocatedBytes >= startAllocatedBytes ) ) {
+				bytesPerOp = (double) ( endAllocatedBytes - startAllocatedBytes ) / (double) totalOperations;
+			}
+			else {
+				bytesPerOp = Double.NaN;
+			}
+			
+			return new Result(mean, Math.sqrt(variance), bytesPerOp);
+		}
+		finally {
+			instance.dispose();
+		}
+	}
+	
+	/**
+	 * @post Devuelve las cantidades de threads a medir, potencias
+	 * 		 de dos hasta el máximo, y el máximo
+	 */
+	private List<Integer> getThreadCounts() {
+		final List<Integer> threadCounts = new ArrayList<Integer>();
+		
+		for ( int threads = 1 ; threads < this.maxThreads ; threads *= 2 ) {
+			threadCounts.add(threads);
+		}
+		
+		threadCounts.add(this.maxThreads);
+		
+		return threadCounts;
+	}
+	
+	/**
+	 * @post Ejecuta el benchmark con las configuraciones y cargas de trabajo
+	 * 		 especificadas, imprimiendo los resultados
+	 */
+	private void run(List<TaskRunnerConfiguration> configurations, List<Workload> workloads) {
+		System.out.println(String.format(Locale.ROOT, "%-45s %-35s %7s %14s %12s %14s %8s", "runner", "workload", "threads", "ops/s", "+-", "bytes/op", "speedup"));
+		
+		for ( Workload eachWorkload : workloads ) {
+			for ( TaskRunnerConfiguration eachConfiguration : configurations ) {
+				final List<Integer> threadCounts;
+				
+				if ( eachConfiguration.isSingleThreaded() ) {
+					threadCounts = new ArrayList<Integer>();
+					threadCounts.add(1);
+				}
+				else {
+					threadCounts = this.getThreadCounts();
+				}
+				
+				double singleThreadOpsPerSecond = Double.NaN;
+				
+				for ( int eachThreadCount : threadCounts ) {
+					final Result result = this.measure(eachConfiguration, eachThreadCount, eachWorkload);
+					
+					if ( eachThreadCount == 1 ) {
+						singleThreadOpsPerSecond = result.meanOpsPerSecond;
+					}
+					
+					System.out.println(String.format(Locale.ROOT, "%-45s %-35s %7d %14.2f %12.2f %14.1f %8.2f", eachConfiguration.getName(), eachWorkload.getName(), eachThreadCount, result.meanOpsPerSecond, result.opsPerSecondStandardDeviation, result.bytesPerOp, result.meanOpsPerSecond / singleThreadOpsPerSecond));
+				}
+			}
+		}
+	}
+	
+	public static void main(String[] args) {
+		int maxThreads = Runtime.getRuntime().availableProcessors();
+		int warmupIterations = 3;
+		int measuredIterations = 5;
+		long iterationMillis = 1000;
+		String runnerFilter = "";
+		String workloadFilter = "";
+		
+		for ( int i = 0 ; i < args.length ; i += 2 ) {
+			if ( i + 1 >= args.length ) {
+				throw new IllegalArgumentException("Missing value for argument '" + args[i] + "'");
+			}
+			
+			final String value = args[i+1];
+			
+			if ( args[i].equals("-threads") ) {
+				maxThreads = Integer.parseInt(value);
+			}
+			else if ( args[i].equals("-warmup") ) {
+				warmupIterations = Integer.parseInt(value);
+			}
+			else if ( args[i].equals("-iterations") ) {
+				measuredIterations = Integer.parseInt(value);
+			}
+			else if ( args[i].equals("-iterationMillis") ) {
+				iterationMillis = Long.parseLong(value);
+			}
+			else if ( args[i].equals("-runner") ) {
+				runnerFilter = value;
+			}
+			else if ( args[i].equals("-workload") ) {
+				workloadFilter = value;
+			}
+			else {
+				throw new IllegalArgumentException("Unknown argument '" + args[i] + "'");
+			}
+		}
+		
+		if ( ( maxThreads <= 0 ) || ( warmupIterations < 0 ) || ( measuredIterations <= 0 ) || ( iterationMillis <= 0 ) ) {
+			throw new IllegalArgumentException("Expected positive threads, iterations and iteration duration");
+		}
+		
+		final List<TaskRunnerConfiguration> configurations = new ArrayList<TaskRunnerConfiguration>();
+		
+		for ( TaskRunnerConfiguration eachConfiguration : TaskRunnerConfiguration.getDefaults() ) {
+			if ( eachConfiguration.getName().contains(runnerFilter) ) {
+				configurations.add(eachConfiguration);
+			}
+		}
+		
+		final List<Workload> workloads = new ArrayList<Workload>();
+		
+		for ( Workload eachWorkload : getDefaultWorkloads() ) {
+			if ( eachWorkload.getName().contains(workloadFilter) ) {
+				workloads.add(eachWorkload);
+			}
+		}
+		
+		new TaskRunnerBenchmark(maxThreads, warmupIterations, measuredIterations, iterationMillis).run(configurations, workloads);
+	}
+}
@@ -0,0 +1,179 @@
+/**
+ * Copyright (c) 2018 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.misc.concurrency.tasking.benchmark;
+
+import java.util.function.Supplier;
+
+import com.esferixis.misc.concurrency.Shutdownable;
+import com.esferixis.misc.concurrency.tasking.TaskRunner;
+import com.esferixis.misc.concurrency.tasking.implementations.AntioverheadFilterTaskRunnerDecorator;
+import com.esferixis.misc.concurrency.tasking.implementations.ConcurrentTaskRunnerBasedOnJSLExecutorService;
+import com.esferixis.misc.concurrency.tasking.implementations.ForkJoinPoolTaskRunner;
+import com.esferixis.misc.concurrency.tasking.implementations.ThresholdedRecursiveTaskRunner;
+import com.esferixis.misc.concurrency.tasking.implementations.TrampolineTaskRunner;
+
+/**
+ * @author Ariel Favio Carrizo
+ * 
+ * Configuración de ejecutador de tareas a medir
+ */
+public abstract class TaskRunnerConfiguration {
+	/**
+	 * Ejecutador de tareas creado por la configuración
+	 */
+	public static final class Instance {
+		private final TaskRunner taskRunner;
+		private final Shutdownable shutdownable;
+		
+		/**
+		 * @post Crea la instancia con el ejecutador de tareas y el
+		 * 		 pool a apagar especificados (Puede ser nulo)
+		 */
+		public Instance(TaskRunner taskRunner, Shutdownable shutdownable) {
+			this.taskRunner = taskRunner;
+			this.shutdownable = shutdownable;
+		}
+		
+		/**
+		 * @post Devuelve el ejecutador de tareas
+		 */
+		public TaskRunner getTaskRunner() {
+			return this.taskRunner;
+		}
+		
+		/**
+		 * @post Libera los recursos del ejecutador de tareas
+		 */
+		public void dispose() {
+			if ( this.shutdownable != null ) {
+				this.shutdownable.shutdown();
+				this.shutdownable.lockThisThreadUntilHasBeenShutdown();
+			}
+		}
+	}
+	
+	private final String name;
+	private final boolean isSingleThreaded;
+	
+	/**
+	 * @post Crea la configuración con el nombre especificado, y si
+	 * 		 sólo usa un thread
+	 */
+	public TaskRunnerConfiguration(String name, boolean isSingleThreaded) {
+		this.name = name;
+		this.isSingleThreaded = isSingleThreaded;
+	}
+	
+	/**
+	 * @post Devuelve el nombre
+	 */
+	public final String getName() {
+		return this.name;
+	}
+	
+	/**
+	 * @post Devuelve si sólo usa un thread, en ése caso
+	 * 		 no se mide la escalabilidad
+	 */
+	public final boolean isSingleThreaded() {
+		return this.isSingleThreaded;
+	}
+	
+	/**
+	 * @post Crea el ejecutador de tareas con la cantidad de threads
+	 * 		 especificada
+	 */
+	public abstract Instance create(int threads);
+	
+	/**
+	 * @post Devuelve las configuraciones por defecto
+	 */
+	public static TaskRunnerConfiguration[] getDefaults() {
+		return new TaskRunnerConfiguration[] {
+			new TaskRunnerConfiguration("Trampoline", true) {
+
+				@Override
+				public Instance create(int threads) {
+					return new Instance(new TrampolineTaskRunner(), null);
+				}
+				
+			},
+			new TaskRunnerConfiguration("JSLExecutorService", false) {
+
+				@Override
+				public Instance create(int threads) {
+					final ConcurrentTaskRunnerBasedOnJSLExecutorService taskRunner = new ConcurrentTaskRunnerBasedOnJSLExecutorService(threads);
+					
+					return new Instance(taskRunner, taskRunner);
+				}
+				
+			},
+			new TaskRunnerConfiguration("ThresholdedRecursive(JSLExecutorService,8)", false) {
+
+				@Override
+				public Instance create(int threads) {
+					final ConcurrentTaskRunnerBasedOnJSLExecutorService taskRunner = new ConcurrentTaskRunnerBasedOnJSLExecutorService(threads);
+					
+					return new Instance(new ThresholdedRecursiveTaskRunner(taskRunner, new DirectTaskRunner(), 8), taskRunner);
+				}
+				
+			},
+			new TaskRunnerConfiguration("AntioverheadFilter(JSLExecutorService,64)", false) {
+
+				@Override
+				public Instance create(int threads) {
+					final ConcurrentTaskRunnerBasedOnJSLExecutorService taskRunner = new ConcurrentTaskRunnerBasedOnJSLExecutorService(threads);
+					
+					return new Instance(new AntioverheadFilterTaskRunnerDecorator(taskRunner, new Supplier<TaskRunner>() {
+
+						@Override
+						public TaskRunner get() {
+							return new DirectTaskRunner();
+						}
+						
+					}, 64), taskRunner);
+				}
+				
+			},
+			new TaskRunnerConfiguration("ForkJoinPool", false) {
+
+				@Override
+				public Instance create(int threads) {
+					final ForkJoinPoolTaskRunner taskRunner = new ForkJoinPoolTaskRunner(threads);
+					
+					return new Instance(taskRunner, taskRunner);
+				}
+				
+			}
+		};
+	}
+}
@@ -0,0 +1,163 @@
+/**
+ * Copyright (c) 2018 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.misc.concurrency.tasking.benchmark;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.esferixis.misc.concurrency.tasking.Task;
+import com.esferixis.misc.concurrency.tasking.TaskRunner;
+
+/**
+ * @author Ariel Favio Carrizo
+ * 
+ * Recorrido de un árbol desbalanceado pseudoaleatorio
+ * (Árbol binomial, como en el benchmark UTS).
+ * 
+ * La raíz tiene una cantidad fija de hijos, y cada uno de los
+ * demás nodos tiene una cantidad fija de hijos con cierta
+ * probabilidad, o ninguno.
+ * Los subárboles tienen tamaños muy distintos, mide el
+ * balanceo de carga.
+ */
+public final class UnbalancedTreeWorkload extends Workload {
+	private static final class NodeTask extends Task {
+		private static final long serialVersionUID = 1L;
+		
+		private final UnbalancedTreeWorkload workload;
+		private final long nodeId;
+		private final LongAdder result;
+		
+		public NodeTask(UnbalancedTreeWorkload workload, long nodeId, LongAdder result) {
+			this.workload = workload;
+			this.nodeId = nodeId;
+			this.result = result;
+		}
+		
+		@Override
+		public void run(TaskRunner taskRunner) {
+			this.result.increment();
+			
+			final int children = this.workload.getChildren(this.nodeId);
+			
+			for ( int i = 0 ; i < children ; i++ ) {
+				taskRunner.run(new NodeTask(this.workload, childId(this.nodeId, i), this.result));
+			}
+		}
+
+		@Override
+		protected long getRelativeRunningTime_implementation() {
+			return 1;
+		}
+	}
+	
+	private final int rootChildren;
+	private final int nonRootChildren;
+	private final long nonRootChildrenThreshold;
+	private final long expectedResult;
+	
+	/**
+	 * @pre La probabilidad de tener hijos multiplicada por la cantidad
+	 * 		de hijos tiene que ser menor a uno, para que el árbol sea finito
+	 * @post Crea la carga de trabajo con la cantidad de hijos de la raíz,
+	 * 		 la de los demás nodos y la probabilidad de que los demás nodos
+	 * 		 tengan hijos especificados
+	 */
+	public UnbalancedTreeWorkload(int rootChildren, int nonRootChildren, double nonRootChildrenProbability) {
+		super("unbalancedTree(" + rootChildren + "," + nonRootChildren + "," + nonRootChildrenProbability + ")");
+		
+		if ( nonRootChildren * nonRootChildrenProbability >= 1.0d ) {
+			throw new IllegalArgumentException("Expected finite tree");
+		}
+		
+		this.rootChildren = rootChildren;
+		this.nonRootChildren = nonRootChildren;
+		this.nonRootChildrenThreshold = (long) ( nonRootChildrenProbability * ( 1L << 32 ) );
+		
+		// Cuenta los nodos sin tareas, con una pila explícita
+		long nodes = 0;
+		long[] stack = new long[64];
+		int stackSize = 0;
+		
+		stack[stackSize++] = 0;
+		
+		while ( stackSize != 0 ) {
+			final long nodeId = stack[--stackSize];
+			nodes++;
+			
+			final int children = this.getChildren(nodeId);
+			
+			if ( stackSize + children > stack.length ) {
+				stack = Arrays.copyOf(stack, Math.max(stack.length * 2, stackSize + children));
+			}
+			
+			for ( int i = 0 ; i < children ; i++ ) {
+				stack[stackSize++] = childId(nodeId, i);
+			}
+		}
+		
+		this.expectedResult = nodes;
+	}
+	
+	/**
+	 * @post Devuelve el identificador del hijo con el índice especificado
+	 * 		 del nodo especificado
+	 */
+	private static long childId(long nodeId, int childIndex) {
+		return mix( nodeId * 31 + childIndex + 1 );
+	}
+	
+	/**
+	 * @post Devuelve la cantidad de hijos del nodo especificado
+	 */
+	private int getChildren(long nodeId) {
+		if ( nodeId == 0 ) {
+			return this.rootChildren;
+		}
+		else if ( ( mix(nodeId) & 0xFFFFFFFFL ) < this.nonRootChildrenThreshold ) {
+			return this.nonRootChildren;
+		}
+		else {
+			return 0;
+		}
+	}
+
+	@Override
+	public Task createRootTask(LongAdder result) {
+		return new NodeTask(this, 0, result);
+	}
+
+	@Override
+	public long getExpectedResult() {
+		return this.expectedResult;
+	}
+}
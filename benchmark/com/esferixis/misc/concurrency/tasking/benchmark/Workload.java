@@ -0,0 +1,90 @@
+/**
+ * Copyright (c) 2018 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.misc.concurrency.tasking.benchmark;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import com.esferixis.misc.concurrency.tasking.Task;
+
+/**
+ * @author Ariel Favio Carrizo
+ * 
+ * Carga de trabajo de benchmark.
+ * 
+ * Cada operación consiste en ejecutar la tarea raíz y todas
+ * sus subtareas, que acumulan el resultado en un sumador.
+ * El resultado se verifica para que la carga de trabajo no
+ * pueda ser eliminada ni ejecutada parcialmente sin que se note
+ */
+public abstract class Workload {
+	private final String name;
+	
+	/**
+	 * @post Crea la carga de trabajo con el nombre especificado
+	 */
+	public Workload(String name) {
+		this.name = name;
+	}
+	
+	/**
+	 * @post Devuelve el nombre
+	 */
+	public final String getName() {
+		return this.name;
+	}
+	
+	/**
+	 * @post Crea la tarea raíz, que acumula el resultado en el
+	 * 		 sumador especificado
+	 */
+	public abstract Task createRootTask(LongAdder result);
+	
+	/**
+	 * @post Devuelve el resultado esperado
+	 */
+	public abstract long getExpectedResult();
+	
+	/**
+	 * @post Mezcla los bits del valor especificado (Función de
+	 * 		 finalización de MurmurHash3), se usa para generar trabajo
+	 * 		 de cálculo y estructuras pseudoaleatorias deterministas
+	 */
+	static long mix(long value) {
+		value ^= value >>> 33;
+		value *= 0xff51afd7ed558ccdL;
+		value ^= value >>> 33;
+		value *= 0xc4ceb9fe1a85ec53L;
+		value ^= value >>> 33;
+		
+		return value;
+	}
+}
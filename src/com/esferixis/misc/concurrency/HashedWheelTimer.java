@@ -0,0 +1,440 @@
+/**
+ * Copyright (c) 2018 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.misc.concurrency;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+import com.esferixis.misc.Preconditions;
+
+/**
+ * @author Ariel Favio Carrizo
+ *
+ *		   Temporizador de rueda con hash.
+ *
+ *		   Pensado para una gran cantidad de timeouts, que en su
+ *		   mayoría se cancelan antes de vencer.
+ *		   Programar y cancelar son operaciones O(1) sin locks, el tiempo
+ *		   se redondea al tick, y las tareas vencidas se ejecutan en el
+ *		   thread del temporizador, así que tienen que ser breves.
+ *
+ *		   Los timeouts cancelados se quitan de la rueda en el siguiente
+ *		   tick, liberando su tarea
+ */
+public final class HashedWheelTimer implements Shutdownable {
+	private static final int WORKER_STATE_INIT = 0;
+	private static final int WORKER_STATE_STARTED = 1;
+	private static final int WORKER_STATE_SHUTDOWN = 2;
+	
+	private static final int TIMEOUT_STATE_PENDING = 0;
+	private static final int TIMEOUT_STATE_CANCELLED = 1;
+	private static final int TIMEOUT_STATE_EXPIRED = 2;
+	
+	/**
+	 * Cantidad máxima de timeouts nuevos que se pasan a la rueda por tick
+	 */
+	private static final int MAX_TRANSFERRED_TIMEOUTS_PER_TICK = 100000;
+	
+	/**
+	 * Timeout programado
+	 */
+	public static final class Timeout implements Cancellable {
+		private static final AtomicIntegerFieldUpdater<Timeout> stateUpdater = AtomicIntegerFieldUpdater.newUpdater(Timeout.class, "state");
+		
+		private final HashedWheelTimer timer;
+		private Runnable task;
+		private final long deadline;
+		
+		private volatile int state;
+		
+		// Estado de la rueda, sólo lo modifica el thread del temporizador
+		private long remainingRounds;
+		private Bucket bucket;
+		private Timeout previous;
+		private Timeout next;
+		
+		/**
+		 * @post Crea el timeout con el temporizador, la tarea y el vencimiento
+		 * 		 (Relativo al inicio del temporizador) especificados
+		 */
+		private Timeout(HashedWheelTimer timer, Runnable task, long deadline) {
+			this.timer = timer;
+			this.task = task;
+			this.deadline = deadline;
+			this.state = TIMEOUT_STATE_PENDING;
+		}
+		
+		/**
+		 * @post Cancela el timeout, si todavía no venció.
+		 * 		 Devuelve si se canceló
+		 */
+		@Override
+		public boolean cancel() {
+			if ( stateUpdater.compareAndSet(this, TIMEOUT_STATE_PENDING, TIMEOUT_STATE_CANCELLED) ) {
+				this.task = null;
+				this.timer.cancelledTimeouts.add(this);
+				
+				return true;
+			}
+			else {
+				return false;
+			}
+		}
+		
+		/**
+		 * @post Devuelve si fue cancelado
+		 */
+		public boolean isCancelled() {
+			return this.state == TIMEOUT_STATE_CANCELLED;
+		}
+		
+		/**
+		 * @post Devuelve si venció
+		 */
+		public boolean isExpired() {
+			return this.state == TIMEOUT_STATE_EXPIRED;
+		}
+		
+		/**
+		 * @post Vence el timeout, ejecutando la tarea si no fue cancelado
+		 */
+		private void expire() {
+			if ( stateUpdater.compareAndSet(this, TIMEOUT_STATE_PENDING, TIMEOUT_STATE_EXPIRED) ) {
+				final Runnable task = this.task;
+				this.task = null;
+				
+				try {
+					task.run();
+				}
+				catch (RuntimeException e) {
+					final Thread thread = Thread.currentThread();
+					thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Casillero de la rueda, lista doblemente enlazada de timeouts
+	 */
+	private static final class Bucket {
+		private Timeout head;
+		private Timeout tail;
+		
+		/**
+		 * @post Agrega el timeout especificado
+		 */
+		public void add(Timeout timeout) {
+			timeout.bucket = this;
+			timeout.previous = this.tail;
+			timeout.next = null;
+			
+			if ( this.tail != null ) {
+				this.tail.next = timeout;
+			}
+			else {
+				this.head = timeout;
+			}
+			
+			this.tail = timeout;
+		}
+		
+		/**
+		 * @post Quita el timeout especificado, y devuelve el siguiente
+		 */
+		public Timeout remove(Timeout timeout) {
+			final Timeout next = timeout.next;
+			
+			if ( timeout.previous != null ) {
+				timeout.previous.next = next;
+			}
+			else {
+				this.head = next;
+			}
+			
+			if ( next != null ) {
+				next.previous = timeout.previous;
+			}
+			else {
+				this.tail = timeout.previous;
+			}
+			
+			timeout.bucket = null;
+			timeout.previous = null;
+			timeout.next = null;
+			
+			return next;
+		}
+	}
+	
+	private static final AtomicIntegerFieldUpdater<HashedWheelTimer> workerStateUpdater = AtomicIntegerFieldUpdater.newUpdater(HashedWheelTimer.class, "workerState");
+	
+	private static HashedWheelTimer sharedTimer = null;
+	
+	private final long tickNanos;
+	private final Bucket[] wheel;
+	private final int mask;
+	
+	private final Queue<Timeout> pendingTimeouts;
+	private final Queue<Timeout> cancelledTimeouts;
+	
+	private final Thread workerThread;
+	private volatile int workerState;
+	private volatile long startNanoTime;
+	private long tick;
+	
+	/**
+	 * @pre La duración del tick y la cantidad de ticks por vuelta tienen que ser
+	 * 		positivas, y la unidad no puede ser nula
+	 * @post Crea el temporizador con la duración de tick y la cantidad de ticks
+	 * 		 por vuelta especificadas.
+	 * 		 La cantidad de ticks por vuelta se redondea a la siguiente potencia de dos.
+	 * 
+	 * 		 El thread del temporizador es daemon, y se inicia al
+	 * 		 programar el primer timeout
+	 */
+	public HashedWheelTimer(long tickDuration, TimeUnit unit, int ticksPerWheel) {
+		Preconditions.checkIsPositive(tickDuration, "tickDuration");
+		Preconditions.checkNotNull(unit, "unit");
+		Preconditions.checkIsPositive(ticksPerWheel, "ticksPerWheel");
+		
+		if ( ticksPerWheel > ( 1 << 30 ) ) {
+			throw new IllegalArgumentException("Too many ticks per wheel");
+		}
+		
+		int wheelSize = 1;
+		while ( wheelSize < ticksPerWheel ) {
+			wheelSize <<= 1;
+		}
+		
+		this.tickNanos = unit.toNanos(tickDuration);
+		this.wheel = new Bucket[wheelSize];
+		this.mask = wheelSize - 1;
+		
+		for ( int i = 0 ; i < wheelSize ; i++ ) {
+			this.wheel[i] = new Bucket();
+		}
+		
+		this.pendingTimeouts = new ConcurrentLinkedQueue<Timeout>();
+		this.cancelledTimeouts = new ConcurrentLinkedQueue<Timeout>();
+		
+		final HashedWheelTimer thisTimer = this;
+		
+		this.workerThread = new Thread(new Runnable() {
+
+			@Override
+			public void run() {
+				thisTimer.runWorker();
+			}
+			
+		}, "HashedWheelTimer");
+		this.workerThread.setDaemon(true);
+		
+		this.workerState = WORKER_STATE_INIT;
+		this.tick = 0;
+	}
+	
+	/**
+	 * @post Crea el temporizador con ticks de 10 milisegundos, y 512 ticks por vuelta
+	 */
+	public HashedWheelTimer() {
+		this(10, TimeUnit.MILLISECONDS, 512);
+	}
+	
+	/**
+	 * @post Devuelve el temporizador compartido.
+	 * 		 No debe apagarse
+	 */
+	public static synchronized HashedWheelTimer getShared() {
+		if ( sharedTimer == null ) {
+			sharedTimer = new HashedWheelTimer();
+		}
+		
+		return sharedTimer;
+	}
+	
+	/**
+	 * @pre La tarea y la unidad no pueden ser nulas, y la demora no puede ser negativa.
+	 * 		El temporizador no tiene que haber sido apagado
+	 * @post Programa la tarea especificada para que se ejecute después de la demora
+	 * 		 especificada, y devuelve el timeout
+	 */
+	public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+		Preconditions.checkNotNull(task, "task");
+		Preconditions.checkIsNotNegative(delay, "delay");
+		Preconditions.checkNotNull(unit, "unit");
+		
+		this.start();
+		
+		final Timeout timeout = new Timeout(this, task, System.nanoTime() - this.startNanoTime + unit.toNanos(delay));
+		this.pendingTimeouts.add(timeout);
+		
+		return timeout;
+	}
+	
+	/**
+	 * @post Inicia el thread del temporizador si no está iniciado, y espera
+	 * 		 a que tenga el tiempo de inicio
+	 */
+	private void start() {
+		switch ( this.workerState ) {
+		case WORKER_STATE_INIT:
+			if ( workerStateUpdater.compareAndSet(this, WORKER_STATE_INIT, WORKER_STATE_STARTED) ) {
+				final long startNanoTime = System.nanoTime();
+				
+				// Cero indica que todavía no fue iniciado
+				this.startNanoTime = ( startNanoTime != 0 ) ? startNanoTime : 1;
+				this.workerThread.start();
+			}
+			break;
+		case WORKER_STATE_STARTED:
+			break;
+		default:
+			throw new IllegalStateException("Timer has been shutdown");
+		}
+		
+		// Si otro thread lo está iniciando, espera a que tenga el tiempo de inicio
+		while ( this.startNanoTime == 0 ) {
+			Thread.yield();
+		}
+	}
+	
+	/**
+	 * @post Ejecuta el ciclo del thread del temporizador
+	 */
+	private void runWorker() {
+		while ( this.workerState == WORKER_STATE_STARTED ) {
+			final long tickDeadline = this.tickNanos * (this.tick + 1);
+			long sleepNanos;
+			
+			while ( ( sleepNanos = tickDeadline - ( System.nanoTime() - this.startNanoTime ) ) > 0 ) {
+				try {
+					TimeUnit.NANOSECONDS.sleep(sleepNanos);
+				} catch (InterruptedException e) {
+					if ( this.workerState != WORKER_STATE_STARTED ) {
+						return;
+					}
+				}
+			}
+			
+			this.removeCancelledTimeouts();
+			this.transferPendingTimeouts();
+			this.expireTimeouts(this.wheel[(int) (this.tick & this.mask)], tickDeadline);
+			
+			this.tick++;
+		}
+	}
+	
+	/**
+	 * @post Quita de la rueda los timeouts cancelados
+	 */
+	private void removeCancelledTimeouts() {
+		Timeout timeout;
+		
+		while ( ( timeout = this.cancelledTimeouts.poll() ) != null ) {
+			if ( timeout.bucket != null ) {
+				timeout.bucket.remove(timeout);
+			}
+		}
+	}
+	
+	/**
+	 * @post Pasa los timeouts nuevos a la rueda
+	 */
+	private void transferPendingTimeouts() {
+		for ( int i = 0 ; i < MAX_TRANSFERRED_TIMEOUTS_PER_TICK ; i++ ) {
+			final Timeout timeout = this.pendingTimeouts.poll();
+			
+			if ( timeout == null ) {
+				break;
+			}
+			
+			if ( timeout.state == TIMEOUT_STATE_PENDING ) {
+				final long timeoutTick = Math.max(timeout.deadline / this.tickNanos, this.tick);
+				
+				timeout.remainingRounds = ( timeoutTick - this.tick ) / this.wheel.length;
+				this.wheel[(int) (timeoutTick & this.mask)].add(timeout);
+			}
+		}
+	}
+	
+	/**
+	 * @post Vence los timeouts del casillero especificado que
+	 * 		 vencen hasta el tiempo especificado
+	 */
+	private void expireTimeouts(Bucket bucket, long deadline) {
+		Timeout timeout = bucket.head;
+		
+		while ( timeout != null ) {
+			if ( timeout.state != TIMEOUT_STATE_PENDING ) {
+				timeout = bucket.remove(timeout);
+			}
+			else if ( ( timeout.remainingRounds <= 0 ) && ( timeout.deadline <= deadline ) ) {
+				final Timeout nextTimeout = bucket.remove(timeout);
+				timeout.expire();
+				timeout = nextTimeout;
+			}
+			else {
+				timeout.remainingRounds--;
+				timeout = timeout.next;
+			}
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see com.esferixis.misc.concurrency.Shutdownable#shutdown()
+	 */
+	@Override
+	public void shutdown() {
+		final int previousState = workerStateUpdater.getAndSet(this, WORKER_STATE_SHUTDOWN);
+		
+		if ( previousState == WORKER_STATE_STARTED ) {
+			this.workerThread.interrupt();
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see com.esferixis.misc.concurrency.Shutdownable#lockThisThreadUntilHasBeenShutdown()
+	 */
+	@Override
+	public void lockThisThreadUntilHasBeenShutdown() {
+		if ( this.workerThread.isAlive() ) {
+			try {
+				this.workerThread.join();
+			} catch (InterruptedException e) {
+				throw new RuntimeException(e);
+			}
+		}
+	}
+}
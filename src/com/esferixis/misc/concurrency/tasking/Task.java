@@ -70,6 +70,17 @@ public abstract class Task implements Serializable {
 		return this.relativeRunningTime;
 	}
 	
+	/**
+	 * @post Devuelve si la tarea realiza operaciones bloqueantes
+	 * 		 (Por ejemplo entrada/salida), que no deberían ocupar
+	 * 		 los threads de un ejecutador de tareas de cálculo.
+	 * 
+	 * 		 Por defecto no es bloqueante
+	 */
+	public boolean isBlocking() {
+		return false;
+	}
+	
 	/**
 	 * @post Ejecuta la tarea con el ejecutador de
 	 * 		 tareas especificado
@@ -31,6 +31,9 @@
  */
 package com.esferixis.misc.concurrency.tasking;
 
+import java.util.Arrays;
+import java.util.Collection;
+
 import com.esferixis.misc.Preconditions;
 
 /**
@@ -60,9 +63,54 @@ public abstract class TaskRunner {
 		this.run_checked(task);
 	}
 	
+	/**
+	 * @pre Ni el array de tareas ni sus elementos pueden ser nulos
+	 * @post Ejecuta las tareas especificadas.
+	 * 
+	 * 		 Equivale a ejecutar cada tarea, pero le permite
+	 * 		 a la implementación lanzarlas en bloque
+	 */
+	public final void runAll(Task... tasks) {
+		Preconditions.checkNotNull(tasks, "tasks");
+		
+		this.runAll(Arrays.asList(tasks));
+	}
+	
+	/**
+	 * @pre Ni la colección de tareas ni sus elementos pueden ser nulos
+	 * @post Ejecuta las tareas especificadas.
+	 * 
+	 * 		 Equivale a ejecutar cada tarea, pero le permite
+	 * 		 a la implementación lanzarlas en bloque
+	 */
+	public final void runAll(Collection<? extends Task> tasks) {
+		Preconditions.checkNotNull(tasks, "tasks");
+		
+		for ( Task eachTask : tasks ) {
+			Preconditions.checkNotNull(eachTask, "task");
+		}
+		
+		if ( !tasks.isEmpty() ) {
+			this.runAll_checked(tasks);
+		}
+	}
+	
 	/**
 	 * @pre La tarea no es nula
 	 * @post Ejecuta la tarea especificada
 	 */
 	protected abstract void run_checked(Task task);
+	
+	/**
+	 * @pre La colección de tareas no es nula ni vacía, y
+	 * 		no tiene elementos nulos
+	 * @post Ejecuta las tareas especificadas.
+	 * 
+	 * 		 Por defecto ejecuta cada tarea por separado
+	 */
+	protected void runAll_checked(Collection<? extends Task> tasks) {
+		for ( Task eachTask : tasks ) {
+			this.run_checked(eachTask);
+		}
+	}
 }
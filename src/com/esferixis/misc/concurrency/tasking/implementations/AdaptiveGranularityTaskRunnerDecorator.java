@@ -0,0 +1,340 @@
+/**
+ * Copyright (c) 2018 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.misc.concurrency.tasking.implementations;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import com.esferixis.misc.Preconditions;
+import com.esferixis.misc.concurrency.tasking.Task;
+import com.esferixis.misc.concurrency.tasking.TaskRunner;
+
+/**
+ * @author Ariel Favio Carrizo
+ *
+ * Decorador del ejecutador de tareas que decide por cada tarea
+ * si ejecutarla en línea, con el ejecutador de tareas inferior,
+ * o forkearla en el ejecutador de tareas superior.
+ * 
+ * A diferencia de AntioverheadFilterTaskRunnerDecorator, el threshold
+ * no se expresa en tiempo relativo sino en nanosegundos.
+ * La equivalencia entre el tiempo de ejecución relativo de las tareas y
+ * el tiempo real se aprende en tiempo de ejecución, midiendo
+ * periódicamente las tareas ejecutadas, y es compartida por todos los
+ * forks del decorador.
+ * 
+ * Cada unidad forkeada acumula tareas en línea hasta alcanzar el
+ * tiempo mínimo especificado, y no acumula una tarea que haría superar
+ * el tiempo máximo, ésta se forkea.
+ * 
+ * La medición de una tarea sólo es exacta si el ejecutador de tareas
+ * inferior no ejecuta las subtareas anidadas en la llamada
+ * (Por ejemplo TrampolineTaskRunner)
+ */
+public final class AdaptiveGranularityTaskRunnerDecorator extends TaskRunner {
+	/**
+	 * Estimador de nanosegundos por unidad de tiempo relativo
+	 */
+	private static final class CostEstimator {
+		private static final double SMOOTHING_FACTOR = 0.125d;
+		
+		private final AtomicLong nanosPerRelativeTimeUnitBits;
+		
+		/**
+		 * @post Crea el estimador con la estimación inicial especificada
+		 */
+		public CostEstimator(double initialNanosPerRelativeTimeUnit) {
+			this.nanosPerRelativeTimeUnitBits = new AtomicLong(Double.doubleToRawLongBits(initialNanosPerRelativeTimeUnit));
+		}
+		
+		/**
+		 * @post Devuelve la estimación de nanosegundos por unidad de tiempo relativo
+		 */
+		public double getNanosPerRelativeTimeUnit() {
+			return Double.longBitsToDouble(this.nanosPerRelativeTimeUnitBits.get());
+		}
+		
+		/**
+		 * @post Registra la medición especificada, mediante promedio
+		 * 		 móvil exponencial
+		 */
+		public void record(long measuredNanos, long relativeRunningTime) {
+			if ( relativeRunningTime > 0 ) {
+				final double sample = (double) measuredNanos / (double) relativeRunningTime;
+				
+				long oldBits;
+				long newBits;
+				
+				do {
+					oldBits = this.nanosPerRelativeTimeUnitBits.get();
+					
+					final double oldValue = Double.longBitsToDouble(oldBits);
+					newBits = Double.doubleToRawLongBits(oldValue + ( sample - oldValue ) * SMOOTHING_FACTOR);
+				} while ( !this.nanosPerRelativeTimeUnitBits.compareAndSet(oldBits, newBits) );
+			}
+		}
+	}
+	
+	/**
+	 * Tarea que ejecuta la tarea original con el decorador
+	 * especificado, opcionalmente midiendo su tiempo de ejecución
+	 */
+	private static final class BoundTask extends Task {
+		private static final long serialVersionUID = -6415328190622869113L;
+		
+		private final Task task;
+		private final AdaptiveGranularityTaskRunnerDecorator decorator;
+		private final boolean measure;
+		
+		/**
+		 * @post Crea la tarea con la tarea original, el decorador
+		 * 		 y si tiene que medir especificados
+		 */
+		public BoundTask(Task task, AdaptiveGranularityTaskRunnerDecorator decorator, boolean measure) {
+			this.task = task;
+			this.decorator = decorator;
+			this.measure = measure;
+		}
+
+		/* (non-Javadoc)
+		 * @see com.esferixis.misc.concurrency.tasking.Task#run(com.esferixis.misc.concurrency.tasking.TaskRunner)
+		 */
+		@Override
+		public void run(TaskRunner taskRunner) {
+			if ( this.measure ) {
+				final long startTime = System.nanoTime();
+				
+				this.task.run(this.decorator);
+				
+				this.decorator.costEstimator.record(System.nanoTime() - startTime, this.task.getRelativeRunningTime());
+			}
+			else {
+				this.task.run(this.decorator);
+			}
+		}
+
+		/* (non-Javadoc)
+		 * @see com.esferixis.misc.concurrency.tasking.Task#isBlocking()
+		 */
+		@Override
+		public boolean isBlocking() {
+			return this.task.isBlocking();
+		}
+
+		/* (non-Javadoc)
+		 * @see com.esferixis.misc.concurrency.tasking.Task#getRelativeRunningTime_implementation()
+		 */
+		@Override
+		protected long getRelativeRunningTime_implementation() {
+			return this.task.getRelativeRunningTime();
+		}
+	}
+	
+	/**
+	 * Tarea raíz de una unidad forkeada, ejecuta la tarea
+	 * especificada con el ejecutador de tareas inferior del
+	 * fork, para que las mediciones de las tareas de la unidad
+	 * no incluyan a las subtareas
+	 */
+	private static final class ForkedUnitRootTask extends Task {
+		private static final long serialVersionUID = 3170492868871045437L;
+		
+		private final BoundTask boundTask;
+		
+		/**
+		 * @post Crea la tarea raíz con la tarea ligada al fork especificada
+		 */
+		public ForkedUnitRootTask(BoundTask boundTask) {
+			this.boundTask = boundTask;
+		}
+
+		/* (non-Javadoc)
+		 * @see com.esferixis.misc.concurrency.tasking.Task#run(com.esferixis.misc.concurrency.tasking.TaskRunner)
+		 */
+		@Override
+		public void run(TaskRunner taskRunner) {
+			this.boundTask.decorator.lowerTaskRunner.run(this.boundTask);
+		}
+
+		/* (non-Javadoc)
+		 * @see com.esferixis.misc.concurrency.tasking.Task#isBlocking()
+		 */
+		@Override
+		public boolean isBlocking() {
+			return this.boundTask.isBlocking();
+		}
+
+		/* (non-Javadoc)
+		 * @see com.esferixis.misc.concurrency.tasking.Task#getRelativeRunningTime_implementation()
+		 */
+		@Override
+		protected long getRelativeRunningTime_implementation() {
+			return this.boundTask.getRelativeRunningTime();
+		}
+	}
+	
+	private static final int DEFAULT_SAMPLING_PERIOD = 16;
+	
+	private final TaskRunner upperTaskRunner;
+	private final Supplier<TaskRunner> lowerTaskRunnerSupplier;
+	
+	private final TaskRunner lowerTaskRunner;
+	
+	private final CostEstimator costEstimator;
+	private final long minForkedRunningNanos;
+	private final long maxForkedRunningNanos;
+	private final int samplingPeriod;
+	
+	private double accumulatedRunningNanos;
+	private int tasksUntilNextSample;
+	
+	/**
+	 * @pre El ejecutador de tareas superior y la fábrica del ejecutador
+	 * 		tareas de capa inferior no pueden ser nulos.
+	 * 		El tiempo mínimo no puede ser negativo y el máximo tiene
+	 * 		que ser mayor o igual que el mínimo
+	 * 
+	 * @post Crea el decorador con el runner de tareas superior,
+	 * 		 el proveedor de runner de tarea inferior,
+	 * 		 y la ventana de tiempo en nanosegundos de las unidades
+	 * 		 forkeadas especificados.
+	 * 
+	 * 		 Inicialmente estima un nanosegundo por unidad de
+	 * 		 tiempo relativo
+	 */
+	public AdaptiveGranularityTaskRunnerDecorator(TaskRunner upperTaskRunner, Supplier<TaskRunner> lowerTaskRunnerSupplier, long minForkedRunningNanos, long maxForkedRunningNanos) {
+		this(upperTaskRunner, lowerTaskRunnerSupplier, minForkedRunningNanos, maxForkedRunningNanos, 1.0d, DEFAULT_SAMPLING_PERIOD);
+	}
+	
+	/**
+	 * @pre El ejecutador de tareas superior y la fábrica del ejecutador
+	 * 		tareas de capa inferior no pueden ser nulos.
+	 * 		El tiempo mínimo no puede ser negativo y el máximo tiene
+	 * 		que ser mayor o igual que el mínimo.
+	 * 		La estimación inicial y el período de muestreo tienen que ser positivos
+	 * 
+	 * @post Crea el decorador con el runner de tareas superior,
+	 * 		 el proveedor de runner de tarea inferior,
+	 * 		 la ventana de tiempo en nanosegundos de las unidades
+	 * 		 forkeadas, la estimación inicial de nanosegundos por unidad
+	 * 		 de tiempo relativo y el período de muestreo (Cada cuántas
+	 * 		 tareas se mide una) especificados.
+	 */
+	public AdaptiveGranularityTaskRunnerDecorator(TaskRunner upperTaskRunner, Supplier<TaskRunner> lowerTaskRunnerSupplier, long minForkedRunningNanos, long maxForkedRunningNanos, double initialNanosPerRelativeTimeUnit, int samplingPeriod) {
+		Preconditions.checkNotNull(upperTaskRunner, "upperTaskRunner");
+		Preconditions.checkNotNull(lowerTaskRunnerSupplier, "lowerTaskRunnerSupplier");
+		Preconditions.checkIsNotNegative(minForkedRunningNanos, "minForkedRunningNanos");
+		Preconditions.checkIsNotNegative(maxForkedRunningNanos - minForkedRunningNanos, "maxForkedRunningNanos - minForkedRunningNanos");
+		Preconditions.checkIsPositive(samplingPeriod, "samplingPeriod");
+		
+		if ( !( initialNanosPerRelativeTimeUnit > 0.0d ) ) {
+			throw new IllegalArgumentException("Expected positive 'initialNanosPerRelativeTimeUnit'");
+		}
+		
+		this.upperTaskRunner = upperTaskRunner;
+		this.lowerTaskRunnerSupplier = lowerTaskRunnerSupplier;
+		this.lowerTaskRunner = this.lowerTaskRunnerSupplier.get();
+		
+		this.costEstimator = new CostEstimator(initialNanosPerRelativeTimeUnit);
+		this.minForkedRunningNanos = minForkedRunningNanos;
+		this.maxForkedRunningNanos = maxForkedRunningNanos;
+		this.samplingPeriod = samplingPeriod;
+		
+		this.accumulatedRunningNanos = 0.0d;
+		this.tasksUntilNextSample = 0;
+	}
+	
+	/**
+	 * @post Crea un fork del decorador especificado, con el
+	 * 		 tiempo acumulado inicial especificado
+	 */
+	private AdaptiveGranularityTaskRunnerDecorator(AdaptiveGranularityTaskRunnerDecorator other, double accumulatedRunningNanos) {
+		this.upperTaskRunner = other.upperTaskRunner;
+		this.lowerTaskRunnerSupplier = other.lowerTaskRunnerSupplier;
+		this.lowerTaskRunner = this.lowerTaskRunnerSupplier.get();
+		
+		this.costEstimator = other.costEstimator;
+		this.minForkedRunningNanos = other.minForkedRunningNanos;
+		this.maxForkedRunningNanos = other.maxForkedRunningNanos;
+		this.samplingPeriod = other.samplingPeriod;
+		
+		this.accumulatedRunningNanos = accumulatedRunningNanos;
+		this.tasksUntilNextSample = 0;
+	}
+	
+	/**
+	 * @post Devuelve la estimación actual de nanosegundos por
+	 * 		 unidad de tiempo relativo
+	 */
+	public double getNanosPerRelativeTimeUnit() {
+		return this.costEstimator.getNanosPerRelativeTimeUnit();
+	}
+
+	/* (non-Javadoc)
+	 * @see com.esferixis.misc.concurrency.tasking.TaskRunner#run_checked(com.esferixis.misc.concurrency.tasking.Task)
+	 */
+	@Override
+	protected void run_checked(Task task) {
+		final double estimatedRunningNanos = task.getRelativeRunningTime() * this.costEstimator.getNanosPerRelativeTimeUnit();
+		final double nextAccumulatedRunningNanos = this.accumulatedRunningNanos + estimatedRunningNanos;
+		
+		final boolean measure = ( this.tasksUntilNextSample-- == 0 );
+		
+		if ( measure ) {
+			this.tasksUntilNextSample = this.samplingPeriod - 1;
+		}
+		
+		if ( this.accumulatedRunningNanos >= this.minForkedRunningNanos ) {
+			// La unidad actual alcanzó el tamaño mínimo, empieza otra
+			this.accumulatedRunningNanos = 0.0d;
+			this.fork(task, estimatedRunningNanos, measure);
+		}
+		else if ( nextAccumulatedRunningNanos > this.maxForkedRunningNanos ) {
+			// La tarea haría superar el tamaño máximo de la unidad actual
+			this.fork(task, estimatedRunningNanos, measure);
+		}
+		else {
+			this.accumulatedRunningNanos = nextAccumulatedRunningNanos;
+			this.lowerTaskRunner.run(new BoundTask(task, this, measure));
+		}
+	}
+	
+	/**
+	 * @post Forkea la tarea especificada en el ejecutador de tareas superior,
+	 * 		 como raíz de una nueva unidad con el tiempo estimado especificado
+	 */
+	private void fork(Task task, double estimatedRunningNanos, boolean measure) {
+		final AdaptiveGranularityTaskRunnerDecorator forkedDecorator = new AdaptiveGranularityTaskRunnerDecorator(this, estimatedRunningNanos);
+		
+		this.upperTaskRunner.run(new ForkedUnitRootTask(new BoundTask(task, forkedDecorator, measure)));
+	}
+}
@@ -70,13 +70,13 @@ public final class AntioverheadFilterTaskRunnerDecorator extends TaskRunner {
 		Preconditions.checkNotNull(upperTaskRunner, "upperTaskRunner");
 		Preconditions.checkNotNull(lowerTaskRunnerSupplier, "lowerTaskRunnerSupplier");
 		
-		Preconditions.checkIsPositive(relativeRunningTimeThreshold, "relativeRunningTimeThreshold");
+		Preconditions.checkIsNotNegative(relativeRunningTimeThreshold, "relativeRunningTimeThreshold");
 		
 		this.upperTaskRunner = upperTaskRunner;
 		this.lowerTaskRunnerSupplier = lowerTaskRunnerSupplier;
 		this.lowerTaskRunner = this.lowerTaskRunnerSupplier.get();
 		
-		this.relativeRunningTimeThreshold = 0;
+		this.relativeRunningTimeThreshold = relativeRunningTimeThreshold;
 	}
 
 	/* (non-Javadoc)
@@ -105,8 +105,8 @@ public final class AntioverheadFilterTaskRunnerDecorator extends TaskRunner {
 	 */
 	private TaskRunner fork() {
 		return TaskRunnerUtil.compose(
-				new AntioverheadFilterTaskRunnerDecorator(this.upperTaskRunner, this.lowerTaskRunnerSupplier, this.relativeRunningTimeThreshold),
-				this.upperTaskRunner
+				this.upperTaskRunner,
+				new AntioverheadFilterTaskRunnerDecorator(this.upperTaskRunner, this.lowerTaskRunnerSupplier, this.relativeRunningTimeThreshold)
 		);
 	}
 }
@@ -0,0 +1,100 @@
+/**
+ * Copyright (c) 2018 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.misc.concurrency.tasking.implementations;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import com.esferixis.misc.Preconditions;
+import com.esferixis.misc.concurrency.tasking.Task;
+import com.esferixis.misc.concurrency.tasking.TaskRunner;
+
+/**
+ * @author Ariel Favio Carrizo
+ * 
+ * Ejecutador de tareas compuesto, que ejecuta las tareas
+ * bloqueantes (Ver Task.isBlocking()) en el ejecutador de tareas
+ * para tareas bloqueantes, y el resto en el ejecutador de tareas
+ * de cálculo.
+ * 
+ * Las subtareas que lancen las tareas también pasan por éste
+ * ejecutador de tareas
+ */
+public final class BlockingAwareTaskRunner extends TaskRunner {
+	private final TaskRunner computingTaskRunner;
+	private final TaskRunner blockingTaskRunner;
+	
+	/**
+	 * @pre Ninguno de los ejecutadores de tareas puede ser nulo
+	 * @post Crea el ejecutador de tareas con el ejecutador de tareas
+	 * 		 de cálculo y el de tareas bloqueantes especificados
+	 */
+	public BlockingAwareTaskRunner(TaskRunner computingTaskRunner, TaskRunner blockingTaskRunner) {
+		Preconditions.checkNotNull(computingTaskRunner, "computingTaskRunner");
+		Preconditions.checkNotNull(blockingTaskRunner, "blockingTaskRunner");
+		
+		this.computingTaskRunner = computingTaskRunner;
+		this.blockingTaskRunner = blockingTaskRunner;
+	}
+
+	/* (non-Javadoc)
+	 * @see com.esferixis.misc.concurrency.tasking.TaskRunner#run_checked(com.esferixis.misc.concurrency.tasking.Task)
+	 */
+	@Override
+	protected void run_checked(Task task) {
+		final TaskRunner targetTaskRunner = task.isBlocking() ? this.blockingTaskRunner : this.computingTaskRunner;
+		
+		targetTaskRunner.run(TaskRunnerUtil.decorate(this, task));
+	}
+
+	/* (non-Javadoc)
+	 * @see com.esferixis.misc.concurrency.tasking.TaskRunner#runAll_checked(java.util.Collection)
+	 */
+	@Override
+	protected void runAll_checked(Collection<? extends Task> tasks) {
+		final List<Task> computingTasks = new ArrayList<Task>(tasks.size());
+		final List<Task> blockingTasks = new ArrayList<Task>();
+		
+		for ( Task eachTask : tasks ) {
+			if ( eachTask.isBlocking() ) {
+				blockingTasks.add(TaskRunnerUtil.decorate(this, eachTask));
+			}
+			else {
+				computingTasks.add(TaskRunnerUtil.decorate(this, eachTask));
+			}
+		}
+		
+		this.computingTaskRunner.runAll(computingTasks);
+		this.blockingTaskRunner.runAll(blockingTasks);
+	}
+}
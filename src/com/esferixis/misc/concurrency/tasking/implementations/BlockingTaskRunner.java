@@ -0,0 +1,279 @@
+/**
+ * Copyright (c) 2018 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.misc.concurrency.tasking.implementations;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.esferixis.misc.Preconditions;
+import com.esferixis.misc.concurrency.Shutdownable;
+import com.esferixis.misc.concurrency.tasking.Task;
+import com.esferixis.misc.concurrency.tasking.TaskRunner;
+
+/**
+ * @author Ariel Favio Carrizo
+ * 
+ * Ejecutador de tareas para tareas bloqueantes (Por ejemplo
+ * entrada/salida).
+ * 
+ * Ejecuta cada tarea en un thread virtual si la plataforma los
+ * soporta, sino en un thread daemon de un pool que crece según
+ * se necesite.
+ * La cantidad de tareas ejecutándose en simultáneo está acotada,
+ * las tareas que exceden el límite esperan en una cola sin ocupar
+ * threads.
+ */
+public final class BlockingTaskRunner extends TaskRunner implements Shutdownable {
+	private static final AtomicLong threadsCounter = new AtomicLong(0);
+	
+	private final ExecutorService executor;
+	private final boolean usesVirtualThreads;
+	
+	private final int maxConcurrentTasks;
+	private final AtomicInteger activeWorkers;
+	private final Queue<Task> pendingTasks;
+	
+	private final Runnable worker;
+	
+	/**
+	 * @pre La cantidad máxima de tareas concurrentes tiene que ser positiva
+	 * @post Crea el ejecutador de tareas con la cantidad máxima
+	 * 		 de tareas concurrentes especificada
+	 */
+	public BlockingTaskRunner(int maxConcurrentTasks) {
+		Preconditions.checkIsPositive(maxConcurrentTasks, "maxConcurrentTasks");
+		
+		final ThreadFactory virtualThreadFactory = createVirtualThreadFactory();
+		
+		if ( virtualThreadFactory != null ) {
+			this.executor = Executors.newCachedThreadPool(virtualThreadFactory);
+			this.usesVirtualThreads = true;
+		}
+		else {
+			this.executor = Executors.newCachedThreadPool(new ThreadFactory() {
+
+				@Override
+				public Thread newThread(Runnable runnable) {
+					final Thread thread = new Thread(runnable, "BlockingTaskRunner-" + threadsCounter.incrementAndGet());
+					thread.setDaemon(true);
+					
+					return thread;
+				}
+				
+			});
+			this.usesVirtualThreads = false;
+		}
+		
+		this.maxConcurrentTasks = maxConcurrentTasks;
+		this.activeWorkers = new AtomicInteger(0);
+		this.pendingTasks = new ConcurrentLinkedQueue<Task>();
+		
+		final BlockingTaskRunner thisTaskRunner = this;
+		
+		this.worker = new Runnable() {
+
+			@Override
+			public void run() {
+				thisTaskRunner.runPendingTasks();
+			}
+			
+		};
+	}
+	
+	/**
+	 * @post Crea la fábrica de threads virtuales, si la plataforma
+	 * 		 no los soporta devuelve null
+	 */
+	private static ThreadFactory createVirtualThreadFactory() {
+		try {
+			final Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+			
+			Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+			builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, "BlockingTaskRunner-virtual-", 0L);
+			
+			return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+		}
+		catch (ReflectiveOperationException e) {
+			return null;
+		}
+	}
+	
+	/**
+	 * @post Devuelve si usa threads virtuales
+	 */
+	public boolean usesVirtualThreads() {
+		return this.usesVirtualThreads;
+	}
+	
+	/**
+	 * @post Devuelve la cantidad máxima de tareas concurrentes
+	 */
+	public int getMaxConcurrentTasks() {
+		return this.maxConcurrentTasks;
+	}
+	
+	/**
+	 * @post Si no se alcanzó la cantidad máxima de tareas concurrentes,
+	 * 		 ocupa un lugar de worker y devuelve true, sino devuelve false
+	 */
+	private boolean tryAcquireWorkerSlot() {
+		int currentActiveWorkers;
+		
+		do {
+			currentActiveWorkers = this.activeWorkers.get();
+			
+			if ( currentActiveWorkers >= this.maxConcurrentTasks ) {
+				return false;
+			}
+		} while ( !this.activeWorkers.compareAndSet(currentActiveWorkers, currentActiveWorkers+1) );
+		
+		return true;
+	}
+	
+	/**
+	 * @post Si no se alcanzó la cantidad máxima de tareas concurrentes,
+	 * 		 inicia un worker.
+	 * 		 Si el executor lo rechaza, libera el lugar del worker y
+	 * 		 lanza RejectedExecutionException
+	 */
+	private void tryStartWorker() {
+		if ( this.tryAcquireWorkerSlot() ) {
+			try {
+				this.executor.execute(this.worker);
+			}
+			catch (RejectedExecutionException e) {
+				this.activeWorkers.decrementAndGet();
+				throw e;
+			}
+		}
+	}
+	
+	/**
+	 * @post Ejecuta las tareas pendientes, hasta que no haya más.
+	 * 		 Al terminar, libera el lugar del worker.
+	 * 
+	 * 		 Si una tarea lanza un error, libera el lugar del worker
+	 * 		 e inicia otro para las tareas pendientes antes de propagarlo
+	 */
+	private void runPendingTasks() {
+		boolean finished = false;
+		
+		try {
+			while ( !finished ) {
+				final Task task = this.pendingTasks.poll();
+				
+				if ( task != null ) {
+					try {
+						task.run(this);
+					}
+					catch (RuntimeException e) {
+						// Se informa sin perder el worker
+						final Thread currentThread = Thread.currentThread();
+						currentThread.getUncaughtExceptionHandler().uncaughtException(currentThread, e);
+					}
+				}
+				else {
+					this.activeWorkers.decrementAndGet();
+					finished = true;
+					
+					// Si llegó una tarea luego del poll, intenta seguir como worker
+					if ( !this.pendingTasks.isEmpty() ) {
+						finished = !this.tryAcquireWorkerSlot();
+					}
+				}
+			}
+		}
+		finally {
+			if ( !finished ) {
+				this.activeWorkers.decrementAndGet();
+				
+				if ( !this.pendingTasks.isEmpty() ) {
+					try {
+						this.tryStartWorker();
+					}
+					catch (RejectedExecutionException e) {
+						// Ya se apagó, no hay reemplazo
+					}
+				}
+			}
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see com.esferixis.misc.concurrency.tasking.TaskRunner#run_checked(com.esferixis.misc.concurrency.tasking.Task)
+	 */
+	@Override
+	protected void run_checked(Task task) {
+		if ( this.executor.isShutdown() ) {
+			throw new RejectedExecutionException("Task runner has been shut down");
+		}
+		
+		this.pendingTasks.offer(task);
+		
+		try {
+			this.tryStartWorker();
+		}
+		catch (RejectedExecutionException e) {
+			// Se apagó mientras tanto, si ningún worker la tomó se rechaza
+			if ( this.pendingTasks.remove(task) ) {
+				throw e;
+			}
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see com.esferixis.misc.concurrency.Shutdownable#shutdown()
+	 */
+	@Override
+	public void shutdown() {
+		this.executor.shutdown();
+	}
+
+	/* (non-Javadoc)
+	 * @see com.esferixis.misc.concurrency.Shutdownable#lockThisThreadUntilHasBeenShutdown()
+	 */
+	@Override
+	public void lockThisThreadUntilHasBeenShutdown() {
+		try {
+			while ( !this.executor.awaitTermination(10, TimeUnit.SECONDS ) ) {}
+		} catch (InterruptedException e) {
+			throw new RuntimeException(e);
+		}
+	}
+}
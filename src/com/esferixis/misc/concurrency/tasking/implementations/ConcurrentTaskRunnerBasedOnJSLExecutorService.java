@@ -31,10 +31,12 @@
  */
 package com.esferixis.misc.concurrency.tasking.implementations;
 
+import java.util.Collection;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
+import com.esferixis.misc.Preconditions;
 import com.esferixis.misc.concurrency.Shutdownable;
 import com.esferixis.misc.concurrency.tasking.TaskRunner;
 import com.esferixis.misc.concurrency.tasking.Task;
@@ -46,13 +48,75 @@ import com.esferixis.misc.concurrency.tasking.Task;
  * del Java Standard Library
  */
 public final class ConcurrentTaskRunnerBasedOnJSLExecutorService extends TaskRunner implements Shutdownable {
+	/**
+	 * Runnable que ejecuta un bloque contiguo de tareas
+	 */
+	private static final class TasksChunkRunnable implements Runnable {
+		private final TaskRunner taskRunner;
+		private final Task[] tasks;
+		private final int fromIndex;
+		private final int toIndex;
+		
+		/**
+		 * @post Crea el runnable con el ejecutador de tareas, el array de tareas
+		 * 		 y el rango especificados
+		 */
+		public TasksChunkRunnable(TaskRunner taskRunner, Task[] tasks, int fromIndex, int toIndex) {
+			this.taskRunner = taskRunner;
+			this.tasks = tasks;
+			this.fromIndex = fromIndex;
+			this.toIndex = toIndex;
+		}
+
+		/* (non-Javadoc)
+		 * @see java.lang.Runnable#run()
+		 */
+		@Override
+		public void run() {
+			for ( int i = this.fromIndex ; i < this.toIndex ; i++ ) {
+				this.tasks[i].run(this.taskRunner);
+			}
+		}
+	}
+	
+	/**
+	 * Cantidad de bloques por thread en los que se divide
+	 * un lote de tareas, para que el work stealing pueda
+	 * compensar errores de estimación
+	 */
+	private static final int CHUNKS_PER_THREAD = 4;
+	
 	private final ExecutorService executor;
+	private final int parallelism;
 	
 	/**
-	 * @post Crea el ejecutador de tareas
+	 * @post Devuelve el peso de la tarea especificada para
+	 * 		 dividir lotes en bloques.
+	 * 		 Es el tiempo de ejecución relativo, pero por lo menos
+	 * 		 uno, para que las tareas sin estimación también se repartan
+	 */
+	private static long chunkWeight(Task task) {
+		return Math.max(1, task.getRelativeRunningTime());
+	}
+	
+	/**
+	 * @post Crea el ejecutador de tareas, con tantos threads
+	 * 		 como procesadores disponibles
 	 */
 	public ConcurrentTaskRunnerBasedOnJSLExecutorService() {
-		this.executor = Executors.newWorkStealingPool();
+		this(Runtime.getRuntime().availableProcessors());
+	}
+	
+	/**
+	 * @pre El nivel de paralelismo tiene que ser positivo
+	 * @post Crea el ejecutador de tareas con el nivel de paralelismo
+	 * 		 especificado
+	 */
+	public ConcurrentTaskRunnerBasedOnJSLExecutorService(int parallelism) {
+		Preconditions.checkIsPositive(parallelism, "parallelism");
+		
+		this.executor = Executors.newWorkStealingPool(parallelism);
+		this.parallelism = parallelism;
 	}
 	
 	/* (non-Javadoc)
@@ -62,6 +126,49 @@ public final class ConcurrentTaskRunnerBasedOnJSLExecutorService extends TaskRun
 	protected void run_checked(final Task task) {	
 		this.executor.execute( TaskRunnerUtil.createRunnable(this, task) );
 	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.misc.concurrency.tasking.TaskRunner#runAll_checked(java.util.Collection)
+	 */
+	@Override
+	protected void runAll_checked(Collection<? extends Task> tasks) {
+		final Task[] tasksArray = tasks.toArray(new Task[tasks.size()]);
+		final int chunksCount = Math.min(tasksArray.length, this.parallelism * CHUNKS_PER_THREAD);
+		
+		if ( chunksCount > 1 ) {
+			// Divide las tareas en bloques contiguos con tiempo de ejecución relativo similar
+			long totalRelativeRunningTime = 0;
+			
+			for ( Task eachTask : tasksArray ) {
+				totalRelativeRunningTime += chunkWeight(eachTask);
+			}
+			
+			final double relativeRunningTimePerChunk = (double) totalRelativeRunningTime / (double) chunksCount;
+			
+			int chunkBeginIndex = 0;
+			int remainingChunks = chunksCount;
+			long accumulatedRelativeRunningTime = 0;
+			
+			for ( int i = 0 ; i < tasksArray.length ; i++ ) {
+				accumulatedRelativeRunningTime += chunkWeight(tasksArray[i]);
+				
+				final int remainingTasks = tasksArray.length - ( i + 1 );
+				
+				if ( ( remainingChunks > 1 ) && ( ( accumulatedRelativeRunningTime >= relativeRunningTimePerChunk * ( chunksCount - remainingChunks + 1 ) ) || ( remainingTasks < remainingChunks ) ) ) {
+					this.executor.execute( new TasksChunkRunnable(this, tasksArray, chunkBeginIndex, i + 1) );
+					chunkBeginIndex = i + 1;
+					remainingChunks--;
+				}
+			}
+			
+			if ( chunkBeginIndex != tasksArray.length ) {
+				this.executor.execute( new TasksChunkRunnable(this, tasksArray, chunkBeginIndex, tasksArray.length) );
+			}
+		}
+		else {
+			this.executor.execute( new TasksChunkRunnable(this, tasksArray, 0, tasksArray.length) );
+		}
+	}
 
 	/* (non-Javadoc)
 	 * @see com.esferixis.misc.concurrency.Shutdownable#shutdown()
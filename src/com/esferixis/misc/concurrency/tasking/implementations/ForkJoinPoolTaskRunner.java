@@ -0,0 +1,243 @@
+/**
+ * Copyright (c) 2018 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.misc.concurrency.tasking.implementations;
+
+import java.util.Collection;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+
+import com.esferixis.misc.Preconditions;
+import com.esferixis.misc.concurrency.Shutdownable;
+import com.esferixis.misc.concurrency.tasking.Task;
+import com.esferixis.misc.concurrency.tasking.TaskRunner;
+
+/**
+ * @author Ariel Favio Carrizo
+ * 
+ * Ejecutador de tareas concurrente basado en un ForkJoinPool
+ * 
+ * Si la tarea es lanzada desde un worker del pool, se apila
+ * en la cola local del worker (fork), evitando pasar por la
+ * cola de envío externa.
+ * Si es lanzada desde afuera, se envía al pool.
+ */
+public final class ForkJoinPoolTaskRunner extends TaskRunner implements Shutdownable {
+	/**
+	 * Acción de fork/join que ejecuta una tarea
+	 */
+	private static final class TaskAction extends RecursiveAction {
+		private static final long serialVersionUID = -5263925426513592817L;
+		
+		private final ForkJoinPoolTaskRunner taskRunner;
+		private final Task task;
+		
+		/**
+		 * @post Crea la acción con el ejecutador de tareas y la tarea especificados
+		 */
+		public TaskAction(ForkJoinPoolTaskRunner taskRunner, Task task) {
+			this.taskRunner = taskRunner;
+			this.task = task;
+		}
+		
+		/* (non-Javadoc)
+		 * @see java.util.concurrent.RecursiveAction#compute()
+		 */
+		@Override
+		protected void compute() {
+			this.task.run(this.taskRunner);
+		}
+	}
+	
+	/**
+	 * Acción de fork/join que forkea un lote de tareas
+	 * desde un worker
+	 */
+	private static final class TasksBatchAction extends RecursiveAction {
+		private static final long serialVersionUID = 4475006591283190338L;
+		
+		private final ForkJoinPoolTaskRunner taskRunner;
+		private final Task[] tasks;
+		
+		/**
+		 * @post Crea la acción con el ejecutador de tareas y las tareas especificadas
+		 */
+		public TasksBatchAction(ForkJoinPoolTaskRunner taskRunner, Task[] tasks) {
+			this.taskRunner = taskRunner;
+			this.tasks = tasks;
+		}
+		
+		/* (non-Javadoc)
+		 * @see java.util.concurrent.RecursiveAction#compute()
+		 */
+		@Override
+		protected void compute() {
+			this.taskRunner.forkAll(this.tasks);
+		}
+	}
+	
+	private final ForkJoinPool pool;
+	
+	/**
+	 * @post Crea el ejecutador de tareas con tantos workers
+	 * 		 como procesadores disponibles
+	 */
+	public ForkJoinPoolTaskRunner() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+	
+	/**
+	 * @pre El nivel de paralelismo tiene que ser positivo
+	 * @post Crea el ejecutador de tareas con el nivel de paralelismo
+	 * 		 especificado
+	 */
+	public ForkJoinPoolTaskRunner(int parallelism) {
+		Preconditions.checkIsPositive(parallelism, "parallelism");
+		
+		this.pool = new ForkJoinPool(parallelism);
+	}
+	
+	/**
+	 * @post Devuelve el nivel de paralelismo
+	 */
+	public int getParallelism() {
+		return this.pool.getParallelism();
+	}
+	
+	/**
+	 * @post Devuelve si el thread actual es un worker del pool
+	 */
+	private boolean isInWorkerThread() {
+		final Thread currentThread = Thread.currentThread();
+		
+		return ( currentThread instanceof ForkJoinWorkerThread ) && ( ( (ForkJoinWorkerThread) currentThread ).getPool() == this.pool );
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.misc.concurrency.tasking.TaskRunner#run_checked(com.esferixis.misc.concurrency.tasking.Task)
+	 */
+	@Override
+	protected void run_checked(Task task) {
+		final TaskAction action = new TaskAction(this, task);
+		
+		if ( this.isInWorkerThread() ) {
+			action.fork();
+		}
+		else {
+			this.pool.execute(action);
+		}
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.misc.concurrency.tasking.TaskRunner#runAll_checked(java.util.Collection)
+	 */
+	@Override
+	protected void runAll_checked(Collection<? extends Task> tasks) {
+		final Task[] tasksArray = tasks.toArray(new Task[tasks.size()]);
+		
+		if ( this.isInWorkerThread() ) {
+			this.forkAll(tasksArray);
+		}
+		else {
+			// Un solo envío externo, el worker que lo toma forkea el resto
+			this.pool.execute(new TasksBatchAction(this, tasksArray));
+		}
+	}
+	
+	/**
+	 * @pre Tiene que ser llamado desde un worker del pool
+	 * @post Forkea las tareas especificadas en la cola local,
+	 * 		 en orden inverso para que en la cola LIFO se
+	 * 		 ejecuten en el orden especificado
+	 */
+	private void forkAll(Task[] tasks) {
+		for ( int i = tasks.length-1 ; i >= 0 ; i-- ) {
+			new TaskAction(this, tasks[i]).fork();
+		}
+	}
+	
+	/**
+	 * @pre La tarea no puede ser nula
+	 * @post Ejecuta la tarea especificada y espera hasta que el pool
+	 * 		 quede inactivo, es decir, hasta que la tarea y todas las
+	 * 		 subtareas que se hayan lanzado (Incluyendo las de otros
+	 * 		 orígenes) hayan terminado.
+	 * 
+	 * 		 La tarea se ejecuta en un worker del pool, que
+	 * 		 ayuda a ejecutar las tareas pendientes mientras espera.
+	 */
+	public void runAndAwaitQuiescence(final Task task) {
+		Preconditions.checkNotNull(task, "task");
+		
+		final ForkJoinPoolTaskRunner thisTaskRunner = this;
+		
+		final RecursiveAction quiescenceAction = new RecursiveAction() {
+			private static final long serialVersionUID = 8312695408112416416L;
+
+			@Override
+			protected void compute() {
+				task.run(thisTaskRunner);
+				ForkJoinTask.helpQuiesce();
+			}
+			
+		};
+		
+		if ( this.isInWorkerThread() ) {
+			quiescenceAction.invoke();
+		}
+		else {
+			this.pool.invoke(quiescenceAction);
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see com.esferixis.misc.concurrency.Shutdownable#shutdown()
+	 */
+	@Override
+	public void shutdown() {
+		this.pool.shutdown();
+	}
+
+	/* (non-Javadoc)
+	 * @see com.esferixis.misc.concurrency.Shutdownable#lockThisThreadUntilHasBeenShutdown()
+	 */
+	@Override
+	public void lockThisThreadUntilHasBeenShutdown() {
+		try {
+			while ( !this.pool.awaitTermination(10, TimeUnit.SECONDS ) ) {}
+		} catch (InterruptedException e) {
+			throw new RuntimeException(e);
+		}
+	}
+}
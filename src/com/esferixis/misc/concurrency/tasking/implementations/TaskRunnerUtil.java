@@ -31,6 +31,11 @@
  */
 package com.esferixis.misc.concurrency.tasking.implementations;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import com.esferixis.misc.Preconditions;
 import com.esferixis.misc.concurrency.tasking.Task;
 import com.esferixis.misc.concurrency.tasking.TaskRunner;
 
@@ -39,46 +44,164 @@ import com.esferixis.misc.concurrency.tasking.TaskRunner;
  *
  */
 public final class TaskRunnerUtil {
-	private TaskRunnerUtil() {}
+	/**
+	 * Tarea decorada, ejecuta la tarea original con el
+	 * ejecutador de tareas que la decora
+	 */
+	static final class DecoratedTask extends Task {
+		/**
+		 * 
+		 */
+		private static final long serialVersionUID = 2734290912621263639L;
+		
+		private final TaskRunner decoratingTaskRunner;
+		private final Task taskToDecorate;
+		
+		/**
+		 * @post Crea la tarea decorada con el ejecutador de tareas
+		 * 		 y la tarea especificados
+		 */
+		public DecoratedTask(TaskRunner decoratingTaskRunner, Task taskToDecorate) {
+			this.decoratingTaskRunner = decoratingTaskRunner;
+			this.taskToDecorate = taskToDecorate;
+		}
+
+		@Override
+		public void run(TaskRunner taskRunner) {
+			this.taskToDecorate.run(this.decoratingTaskRunner);
+		}
+		
+		@Override
+		public boolean isBlocking() {
+			return this.taskToDecorate.isBlocking();
+		}
+
+		@Override
+		protected long getRelativeRunningTime_implementation() {
+			return this.taskToDecorate.getRelativeRunningTime();
+		}
+	}
 	
 	/**
-	 * @post Decora la tarea con el taskRunner
-	 * 		 especificado
+	 * Tarea marcada como bloqueante
 	 */
-	public static final Task decorate(final TaskRunner taskRunner, final Task task) {
-		final Task taskToDecorate = task;
+	private static final class BlockingTask extends Task {
+		private static final long serialVersionUID = -2317542390148529418L;
 		
-		return new Task() {
-			/**
-			 * 
-			 */
-			private static final long serialVersionUID = 2734290912621263639L;
+		private final Task task;
+		
+		/**
+		 * @post Crea la tarea bloqueante con la tarea especificada
+		 */
+		public BlockingTask(Task task) {
+			this.task = task;
+		}
+		
+		@Override
+		public boolean isBlocking() {
+			return true;
+		}
 
-			@Override
-			public void run(TaskRunner taskRunner) {
-				taskRunner.run(taskToDecorate);
-			}
+		@Override
+		public void run(TaskRunner taskRunner) {
+			this.task.run(taskRunner);
+		}
 
-			@Override
-			protected long getRelativeRunningTime_implementation() {
-				return taskToDecorate.getRelativeRunningTime();
-			}
-			
-		};
+		@Override
+		protected long getRelativeRunningTime_implementation() {
+			return this.task.getRelativeRunningTime();
+		}
 	}
 	
 	/**
-	 * @post Realiza la composición de task runners
+	 * Composición de ejecutadores de tareas
 	 */
-	public static TaskRunner compose(final TaskRunner outer, final TaskRunner inner) {
-		return new TaskRunner() {
+	static final class ComposedTaskRunner extends TaskRunner {
+		private final TaskRunner outer;
+		private final TaskRunner inner;
+		
+		/**
+		 * @post Crea la composición con los ejecutadores de tareas
+		 * 		 exterior e interior especificados
+		 */
+		public ComposedTaskRunner(TaskRunner outer, TaskRunner inner) {
+			this.outer = outer;
+			this.inner = inner;
+		}
 
-			@Override
-			public void run_checked(Task task) {
-				outer.run( TaskRunnerUtil.decorate(inner, task) );
+		@Override
+		public void run_checked(Task task) {
+			if ( this.outer instanceof TrampolineTaskRunner ) {
+				// Se apila directamente como frame, sin decorar la tarea
+				( (TrampolineTaskRunner) this.outer ).run(task, this.inner);
 			}
-			
-		};
+			else {
+				this.outer.run( TaskRunnerUtil.decorate(this.inner, task) );
+			}
+		}
+		
+		@Override
+		protected void runAll_checked(Collection<? extends Task> tasks) {
+			if ( this.outer instanceof TrampolineTaskRunner ) {
+				( (TrampolineTaskRunner) this.outer ).runAll(tasks, this.inner);
+			}
+			else {
+				final List<Task> decoratedTasks = new ArrayList<Task>(tasks.size());
+				
+				for ( Task eachTask : tasks ) {
+					decoratedTasks.add( TaskRunnerUtil.decorate(this.inner, eachTask) );
+				}
+				
+				this.outer.runAll(decoratedTasks);
+			}
+		}
+	}
+	
+	private TaskRunnerUtil() {}
+	
+	/**
+	 * @post Decora la tarea con el taskRunner
+	 * 		 especificado.
+	 * 
+	 * 		 Al ejecutarse, la tarea decorada ejecuta la tarea original
+	 * 		 con el taskRunner especificado, que recibe las subtareas.
+	 * 
+	 * 		 Si la tarea ya está decorada, la decoración exterior no
+	 * 		 tiene efecto, y devuelve la misma tarea
+	 */
+	public static final Task decorate(final TaskRunner taskRunner, final Task task) {
+		if ( task instanceof DecoratedTask ) {
+			return task;
+		}
+		else {
+			return new DecoratedTask(taskRunner, task);
+		}
+	}
+	
+	/**
+	 * @pre La tarea no puede ser nula
+	 * @post Devuelve la tarea especificada marcada como bloqueante.
+	 * 		 Si ya es bloqueante, devuelve la misma tarea
+	 */
+	public static Task markAsBlocking(Task task) {
+		Preconditions.checkNotNull(task, "task");
+		
+		if ( task.isBlocking() ) {
+			return task;
+		}
+		else {
+			return new BlockingTask(task);
+		}
+	}
+	
+	/**
+	 * @post Realiza la composición de task runners.
+	 * 
+	 * 		 El ejecutador exterior ejecuta las tareas, y el
+	 * 		 interior recibe las subtareas que éstas lanzan
+	 */
+	public static TaskRunner compose(final TaskRunner outer, final TaskRunner inner) {
+		return new ComposedTaskRunner(outer, inner);
 	}
 	
 	/**
@@ -90,7 +213,7 @@ public final class TaskRunnerUtil {
 
 			@Override
 			public void run() {
-				taskRunner.run(task);
+				task.run(taskRunner);
 			}
 			
 		};
@@ -0,0 +1,366 @@
+/**
+ * Copyright (c) 2018 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.misc.concurrency.tasking.implementations;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.esferixis.misc.Preconditions;
+import com.esferixis.misc.concurrency.tasking.Task;
+import com.esferixis.misc.concurrency.tasking.TaskRunner;
+
+/**
+ * @author Ariel Favio Carrizo
+ * 
+ * Futuro de un árbol de tareas.
+ * 
+ * Se completa cuando la tarea raíz y todas las subtareas que lanzó,
+ * directa o indirectamente, a través del ejecutador de tareas
+ * terminaron de ejecutarse.
+ * No requiere apagar el ejecutador de tareas, por lo que éste
+ * puede reusarse entre lotes de tareas.
+ * 
+ * Lleva la cuenta de tareas pendientes con un contador atómico,
+ * si alguna tarea lanza una excepción, se conserva la primera y
+ * se propaga al obtener el resultado.
+ * 
+ * Si el ejecutador de tareas rechaza un envío, las tareas del envío
+ * que no comenzaron a ejecutarse no se ejecutan y se descuentan,
+ * y el futuro se completa con la excepción del rechazo.
+ */
+public final class TaskTreeFuture implements Future<Void> {
+	/**
+	 * Ejecutador de tareas que registra las tareas que recibe
+	 * en el futuro
+	 */
+	private static final class TrackingTaskRunner extends TaskRunner {
+		private final TaskTreeFuture future;
+		private final TaskRunner taskRunner;
+		
+		/**
+		 * @post Crea el ejecutador de tareas con el futuro y el
+		 * 		 ejecutador de tareas a decorar especificados
+		 */
+		public TrackingTaskRunner(TaskTreeFuture future, TaskRunner taskRunner) {
+			this.future = future;
+			this.taskRunner = taskRunner;
+		}
+		
+		/**
+		 * @post Devuelve el ejecutador de tareas que registra en el mismo futuro
+		 * 		 las tareas que recibe el ejecutador de tareas especificado.
+		 * 		 Si es el mismo que decora éste, devuelve éste
+		 */
+		public TrackingTaskRunner with(TaskRunner taskRunner) {
+			if ( taskRunner == this.taskRunner ) {
+				return this;
+			}
+			else {
+				return new TrackingTaskRunner(this.future, taskRunner);
+			}
+		}
+
+		@Override
+		protected void run_checked(Task task) {
+			final TrackedTask trackedTask = new TrackedTask(this, task);
+			
+			this.future.pendingTasks.incrementAndGet();
+			
+			try {
+				this.taskRunner.run(trackedTask);
+			}
+			catch (Throwable e) {
+				this.future.fail(e);
+				trackedTask.discard();
+				throw e;
+			}
+		}
+
+		@Override
+		protected void runAll_checked(Collection<? extends Task> tasks) {
+			final TrackedTask[] trackedTasks = new TrackedTask[tasks.size()];
+			
+			int i = 0;
+			for ( Task eachTask : tasks ) {
+				trackedTasks[i++] = new TrackedTask(this, eachTask);
+			}
+			
+			this.future.pendingTasks.addAndGet(trackedTasks.length);
+			
+			try {
+				this.taskRunner.runAll(trackedTasks);
+			}
+			catch (Throwable e) {
+				this.future.fail(e);
+				
+				// No se sabe cuáles se enviaron, se descartan las que no comenzaron
+				for ( TrackedTask eachTrackedTask : trackedTasks ) {
+					eachTrackedTask.discard();
+				}
+				
+				throw e;
+			}
+		}
+	}
+	
+	/**
+	 * Tarea registrada en el futuro
+	 */
+	private static final class TrackedTask extends Task {
+		private static final long serialVersionUID = -6082715916394071549L;
+		
+		private static final AtomicIntegerFieldUpdater<TrackedTask> claimedUpdater = AtomicIntegerFieldUpdater.newUpdater(TrackedTask.class, "claimed");
+		
+		private final TrackingTaskRunner trackingTaskRunner;
+		private final Task task;
+		
+		private volatile int claimed;
+		
+		/**
+		 * @post Crea la tarea con el ejecutador de tareas que la
+		 * 		 registró y la tarea especificados
+		 */
+		public TrackedTask(TrackingTaskRunner trackingTaskRunner, Task task) {
+			this.trackingTaskRunner = trackingTaskRunner;
+			this.task = task;
+			this.claimed = 0;
+		}
+		
+		/**
+		 * @post Si la tarea no comenzó a ejecutarse, impide que se ejecute
+		 * 		 y la descuenta de las tareas pendientes
+		 */
+		public void discard() {
+			if ( claimedUpdater.compareAndSet(this, 0, 1) ) {
+				this.trackingTaskRunner.future.releaseTask();
+			}
+		}
+		
+		@Override
+		public void run(TaskRunner taskRunner) {
+			if ( claimedUpdater.compareAndSet(this, 0, 1) ) {
+				final TaskTreeFuture future = this.trackingTaskRunner.future;
+				
+				try {
+					if ( !future.isCancelled() ) {
+						this.task.run(this.trackingTaskRunner.with(taskRunner));
+					}
+				}
+				catch (Throwable e) {
+					future.fail(e);
+				}
+				finally {
+					future.releaseTask();
+				}
+			}
+		}
+		
+		@Override
+		public boolean isBlocking() {
+			return this.task.isBlocking();
+		}
+
+		@Override
+		protected long getRelativeRunningTime_implementation() {
+			return this.task.getRelativeRunningTime();
+		}
+	}
+	
+	private final AtomicLong pendingTasks;
+	private final AtomicReference<Throwable> exception;
+	private final CountDownLatch completionLatch;
+	private volatile boolean cancelled;
+	
+	/**
+	 * @post Crea el futuro, con la tarea de guarda de lanzamiento
+	 * 		 pendiente
+	 */
+	private TaskTreeFuture() {
+		this.pendingTasks = new AtomicLong(1);
+		this.exception = new AtomicReference<Throwable>(null);
+		this.completionLatch = new CountDownLatch(1);
+		this.cancelled = false;
+	}
+	
+	/**
+	 * @pre Ni el ejecutador de tareas ni la tarea pueden ser nulos
+	 * @post Ejecuta la tarea especificada con el ejecutador de tareas especificado,
+	 * 		 y devuelve el futuro que se completa cuando terminan de ejecutarse
+	 * 		 la tarea y todas sus subtareas
+	 */
+	public static TaskTreeFuture run(TaskRunner taskRunner, Task rootTask) {
+		Preconditions.checkNotNull(rootTask, "rootTask");
+		
+		return runAll(taskRunner, Collections.singletonList(rootTask));
+	}
+	
+	/**
+	 * @pre Ni el ejecutador de tareas ni la colección de tareas ni sus elementos pueden ser nulos
+	 * @post Ejecuta las tareas especificadas con el ejecutador de tareas especificado,
+	 * 		 y devuelve el futuro que se completa cuando terminan de ejecutarse
+	 * 		 las tareas y todas sus subtareas
+	 */
+	public static TaskTreeFuture runAll(TaskRunner taskRunner, Collection<? extends Task> rootTasks) {
+		Preconditions.checkNotNull(taskRunner, "taskRunner");
+		Preconditions.checkNotNull(rootTasks, "rootTasks");
+		
+		final TaskTreeFuture future = new TaskTreeFuture();
+		
+		try {
+			new TrackingTaskRunner(future, taskRunner).runAll(rootTasks);
+		}
+		finally {
+			// Libera la guarda, evita que el futuro se complete antes de haber lanzado todas las tareas
+			future.releaseTask();
+		}
+		
+		return future;
+	}
+	
+	/**
+	 * @post Registra la excepción especificada, si es la primera
+	 */
+	private void fail(Throwable exception) {
+		this.exception.compareAndSet(null, exception);
+	}
+	
+	/**
+	 * @post Descuenta una tarea pendiente, si era la última completa el futuro
+	 */
+	private void releaseTask() {
+		if ( this.pendingTasks.decrementAndGet() == 0 ) {
+			this.completionLatch.countDown();
+		}
+	}
+	
+	/**
+	 * @post Devuelve la cantidad de tareas pendientes
+	 */
+	public long getPendingTasks() {
+		return this.pendingTasks.get();
+	}
+
+	/**
+	 * @post Cancela el árbol de tareas.
+	 * 		 Las tareas que todavía no comenzaron a ejecutarse no se ejecutan,
+	 * 		 las que están ejecutándose no se interrumpen.
+	 * 		 Devuelve si se pudo cancelar
+	 */
+	@Override
+	public boolean cancel(boolean mayInterruptIfRunning) {
+		if ( this.isDone() ) {
+			return false;
+		}
+		else {
+			this.cancelled = true;
+			return true;
+		}
+	}
+
+	@Override
+	public boolean isCancelled() {
+		return this.cancelled;
+	}
+
+	@Override
+	public boolean isDone() {
+		return this.cancelled || ( this.completionLatch.getCount() == 0 );
+	}
+
+	/**
+	 * @post Espera a que se complete el árbol de tareas.
+	 * 		 Si alguna tarea lanzó una excepción, lanza ExecutionException
+	 * 		 con la primera excepción
+	 */
+	@Override
+	public Void get() throws InterruptedException, ExecutionException {
+		if ( !this.cancelled ) {
+			this.completionLatch.await();
+		}
+		
+		return this.getResult();
+	}
+
+	/**
+	 * @post Espera a que se complete el árbol de tareas, con el tiempo
+	 * 		 máximo especificado.
+	 * 		 Si alguna tarea lanzó una excepción, lanza ExecutionException
+	 * 		 con la primera excepción
+	 */
+	@Override
+	public Void get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+		Preconditions.checkNotNull(unit, "unit");
+		
+		if ( !this.cancelled ) {
+			if ( !this.completionLatch.await(timeout, unit) ) {
+				throw new TimeoutException();
+			}
+		}
+		
+		return this.getResult();
+	}
+	
+	/**
+	 * @post Espera a que el árbol de tareas termine de ejecutarse,
+	 * 		 aunque haya sido cancelado, sin lanzar excepciones de las tareas
+	 */
+	public void awaitQuiescence() throws InterruptedException {
+		this.completionLatch.await();
+	}
+	
+	/**
+	 * @pre El futuro tiene que estar completado
+	 * @post Devuelve el resultado
+	 */
+	private Void getResult() throws ExecutionException {
+		if ( this.cancelled ) {
+			throw new CancellationException();
+		}
+		
+		final Throwable exception = this.exception.get();
+		
+		if ( exception != null ) {
+			throw new ExecutionException(exception);
+		}
+		
+		return null;
+	}
+}
@@ -31,6 +31,8 @@
  */
 package com.esferixis.misc.concurrency.tasking.implementations;
 
+import java.util.Collection;
+
 import com.esferixis.misc.Preconditions;
 import com.esferixis.misc.concurrency.tasking.TaskRunner;
 import com.esferixis.misc.concurrency.tasking.Task;
@@ -48,6 +50,9 @@ public final class ThresholdedRecursiveTaskRunner extends TaskRunner {
 	private final long recursionLevelLimit;
 	private final long recursionLevel;
 	
+	private final ThresholdedRecursiveTaskRunner rootTaskRunner;
+	private TaskRunner nextTaskRunner;
+	
 	/**
 	 * @pre Ninguno de los ejecutadores de tareas provistos pueden ser nulos,
 	 * 		y el límite de nivel de recursión tiene que ser positivo
@@ -62,7 +67,7 @@ public final class ThresholdedRecursiveTaskRunner extends TaskRunner {
 	 * 		 tarea
 	 */
 	public ThresholdedRecursiveTaskRunner(TaskRunner criticalConditionTaskRunner, TaskRunner lowerTaskRunner, long recursionLevelLimit) {
-		this(criticalConditionTaskRunner, lowerTaskRunner, recursionLevelLimit, 0);
+		this(criticalConditionTaskRunner, lowerTaskRunner, recursionLevelLimit, 0, null);
 	}
 	
 	/**
@@ -80,9 +85,12 @@ public final class ThresholdedRecursiveTaskRunner extends TaskRunner {
 	 * 		 de recursividad alcanza el valor crítico.
 	 * 		 
 	 * 		 El ejecutador de tareas inferior se ejecuta por cada
-	 * 		 tarea
+	 * 		 tarea.
+	 * 
+	 * 		 Si el ejecutador de tareas raíz es nulo, el ejecutador
+	 * 		 de tareas creado es la raíz
 	 */
-	private ThresholdedRecursiveTaskRunner(TaskRunner criticalConditionTaskRunner, TaskRunner lowerTaskRunner, long recursionLevelLimit, long recursionLevel) {
+	private ThresholdedRecursiveTaskRunner(TaskRunner criticalConditionTaskRunner, TaskRunner lowerTaskRunner, long recursionLevelLimit, long recursionLevel, ThresholdedRecursiveTaskRunner rootTaskRunner) {
 		Preconditions.checkNotNull(criticalConditionTaskRunner, "upperTaskRunner");
 		Preconditions.checkNotNull(lowerTaskRunner, "lowerTaskRunner");
 		Preconditions.checkIsPositive(recursionLevelLimit, "recursionLevelLimit");
@@ -92,6 +100,34 @@ public final class ThresholdedRecursiveTaskRunner extends TaskRunner {
 		this.lowerTaskRunner = lowerTaskRunner;
 		this.recursionLevelLimit = recursionLevelLimit;
 		this.recursionLevel = recursionLevel;
+		
+		this.rootTaskRunner = ( rootTaskRunner != null ) ? rootTaskRunner : this;
+		this.nextTaskRunner = null;
+	}
+	
+	/**
+	 * @post Devuelve el ejecutador de tareas con el que se ejecutan
+	 * 		 las tareas, cuyas subtareas son recibidas por el ejecutador
+	 * 		 del nivel siguiente.
+	 * 
+	 * 		 Se crea una sola vez por nivel, así que la cadena de niveles
+	 * 		 no crea objetos por tarea
+	 */
+	private TaskRunner getNextTaskRunner() {
+		TaskRunner nextTaskRunner = this.nextTaskRunner;
+		
+		if ( nextTaskRunner == null ) {
+			if ( this.recursionLevel >= this.recursionLevelLimit ) {
+				nextTaskRunner = TaskRunnerUtil.compose(this.criticalConditionTaskRunner, this.rootTaskRunner);
+			}
+			else {
+				nextTaskRunner = TaskRunnerUtil.compose(this.lowerTaskRunner, new ThresholdedRecursiveTaskRunner(this.criticalConditionTaskRunner, this.lowerTaskRunner, this.recursionLevelLimit, this.recursionLevel+1, this.rootTaskRunner) );
+			}
+			
+			this.nextTaskRunner = nextTaskRunner;
+		}
+		
+		return nextTaskRunner;
 	}
 
 	/* (non-Javadoc)
@@ -99,16 +135,14 @@ public final class ThresholdedRecursiveTaskRunner extends TaskRunner {
 	 */
 	@Override
 	protected void run_checked(Task task) {
-		final Task decoratedTask = TaskRunnerUtil.decorate(this.lowerTaskRunner, task);
-		final TaskRunner nextTaskRunner;
-		
-		if ( this.recursionLevel >= this.recursionLevelLimit ) {
-			nextTaskRunner = TaskRunnerUtil.compose(this.criticalConditionTaskRunner, new ThresholdedRecursiveTaskRunner(this.criticalConditionTaskRunner, this.lowerTaskRunner, this.recursionLevelLimit) );
-		}
-		else {
-			nextTaskRunner = new ThresholdedRecursiveTaskRunner(this.criticalConditionTaskRunner, this.lowerTaskRunner, this.recursionLevelLimit, this.recursionLevel+1 );
-		}
-		
-		nextTaskRunner.run(decoratedTask);
+		this.getNextTaskRunner().run(task);
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.misc.concurrency.tasking.TaskRunner#runAll_checked(java.util.Collection)
+	 */
+	@Override
+	protected void runAll_checked(Collection<? extends Task> tasks) {
+		this.getNextTaskRunner().runAll(tasks);
 	}
 }
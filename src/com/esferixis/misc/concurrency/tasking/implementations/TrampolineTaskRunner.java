@@ -31,8 +31,9 @@
  */
 package com.esferixis.misc.concurrency.tasking.implementations;
 
-import java.util.Stack;
+import java.util.Collection;
 
+import com.esferixis.misc.Preconditions;
 import com.esferixis.misc.concurrency.tasking.TaskRunner;
 import com.esferixis.misc.concurrency.tasking.Task;
 
@@ -40,36 +41,173 @@ import com.esferixis.misc.concurrency.tasking.Task;
  * @author Ariel Favio Carrizo
  *
  *		   Task runner basado en la técnica de Trampoline
+ *
+ *		   Las tareas pendientes se guardan como frames (Tarea y
+ *		   ejecutador de tareas con el que se ejecuta) en una pila
+ *		   basada en arrays que crece según se necesite, sin
+ *		   sincronización y sin crear objetos por tarea.
+ *
+ *		   No es thread-safe, sólo puede usarse desde un thread a la vez
  */
 public final class TrampolineTaskRunner extends TaskRunner {
-	private Stack<Task> tasksToExecute;
+	private static final int INITIAL_CAPACITY = 16;
+	
+	private Task[] tasksToExecute;
+	private TaskRunner[] taskRunners;
+	private int pendingFrames;
+	
 	private boolean inRunningLoop;
 	
 	/**
 	 * @post Crea el task runner
 	 */
 	public TrampolineTaskRunner() {
-		this.tasksToExecute = new Stack<Task>();
+		this.tasksToExecute = new Task[INITIAL_CAPACITY];
+		this.taskRunners = new TaskRunner[INITIAL_CAPACITY];
+		this.pendingFrames = 0;
 		
 		this.inRunningLoop = false;
 	}
-
-	/* (non-Javadoc)
-	 * @see com.esferixis.misc.concurrency.tasking.AbstractTaskRunner#run_checked(com.esferixis.misc.concurrency.tasking.Task)
+	
+	/**
+	 * @post Asegura que haya lugar para la cantidad de
+	 * 		 frames adicionales especificada
 	 */
-	@Override
-	protected void run_checked(Task task) {
-		this.tasksToExecute.push(task);
+	private void ensureCapacity(int additionalFrames) {
+		final int requiredCapacity = this.pendingFrames + additionalFrames;
+		
+		if ( requiredCapacity > this.tasksToExecute.length ) {
+			int newCapacity = this.tasksToExecute.length * 2;
+			
+			while ( newCapacity < requiredCapacity ) {
+				newCapacity *= 2;
+			}
+			
+			final Task[] newTasksToExecute = new Task[newCapacity];
+			final TaskRunner[] newTaskRunners = new TaskRunner[newCapacity];
+			
+			System.arraycopy(this.tasksToExecute, 0, newTasksToExecute, 0, this.pendingFrames);
+			System.arraycopy(this.taskRunners, 0, newTaskRunners, 0, this.pendingFrames);
+			
+			this.tasksToExecute = newTasksToExecute;
+			this.taskRunners = newTaskRunners;
+		}
+	}
+	
+	/**
+	 * @post Apila el frame con la tarea y el ejecutador de tareas
+	 * 		 especificados
+	 */
+	private void push(Task task, TaskRunner taskRunner) {
+		this.ensureCapacity(1);
 		
+		this.tasksToExecute[this.pendingFrames] = task;
+		this.taskRunners[this.pendingFrames] = taskRunner;
+		this.pendingFrames++;
+	}
+	
+	/**
+	 * @post Apila los frames con las tareas especificadas y el ejecutador
+	 * 		 de tareas especificado, de forma que las tareas se ejecuten
+	 * 		 en el orden de la colección
+	 */
+	private void pushAll(Collection<? extends Task> tasks, TaskRunner taskRunner) {
+		final int tasksCount = tasks.size();
+		
+		this.ensureCapacity(tasksCount);
+		
+		int frameIndex = this.pendingFrames + tasksCount;
+		
+		for ( Task eachTask : tasks ) {
+			frameIndex--;
+			this.tasksToExecute[frameIndex] = eachTask;
+			this.taskRunners[frameIndex] = taskRunner;
+		}
+		
+		this.pendingFrames += tasksCount;
+	}
+	
+	/**
+	 * @post Si no está en el bucle de ejecución, ejecuta
+	 * 		 los frames pendientes
+	 */
+	private void runPendingFrames() {
 		if ( !this.inRunningLoop ) {
 			this.inRunningLoop = true;
 			
-			while ( !this.tasksToExecute.empty() ) {
-				this.tasksToExecute.pop().run(this);
+			try {
+				while ( this.pendingFrames != 0 ) {
+					final int frameIndex = --this.pendingFrames;
+					
+					final Task task = this.tasksToExecute[frameIndex];
+					final TaskRunner taskRunner = this.taskRunners[frameIndex];
+					
+					this.tasksToExecute[frameIndex] = null;
+					this.taskRunners[frameIndex] = null;
+					
+					task.run(taskRunner);
+				}
+			}
+			finally {
+				this.inRunningLoop = false;
 			}
+		}
+	}
 
-			this.inRunningLoop = false;
+	/* (non-Javadoc)
+	 * @see com.esferixis.misc.concurrency.tasking.AbstractTaskRunner#run_checked(com.esferixis.misc.concurrency.tasking.Task)
+	 */
+	@Override
+	protected void run_checked(Task task) {
+		this.push(task, this);
+		this.runPendingFrames();
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.misc.concurrency.tasking.TaskRunner#runAll_checked(java.util.Collection)
+	 */
+	@Override
+	protected void runAll_checked(Collection<? extends Task> tasks) {
+		this.pushAll(tasks, this);
+		this.runPendingFrames();
+	}
+	
+	/**
+	 * @pre Ni la tarea ni el ejecutador de tareas pueden ser nulos
+	 * @post Ejecuta la tarea especificada en éste trampoline,
+	 * 		 con el ejecutador de tareas especificado, que recibe
+	 * 		 las subtareas.
+	 * 
+	 * 		 Equivale a ejecutar la tarea decorada con el ejecutador
+	 * 		 de tareas especificado, pero sin crear la tarea decorada
+	 */
+	public void run(Task task, TaskRunner taskRunner) {
+		Preconditions.checkNotNull(task, "task");
+		Preconditions.checkNotNull(taskRunner, "taskRunner");
+		
+		this.push(task, taskRunner);
+		this.runPendingFrames();
+	}
+	
+	/**
+	 * @pre Ni la colección de tareas, ni sus elementos, ni el ejecutador
+	 * 		de tareas pueden ser nulos
+	 * @post Ejecuta las tareas especificadas en éste trampoline,
+	 * 		 en el orden de la colección, con el ejecutador de tareas
+	 * 		 especificado, que recibe las subtareas.
+	 * 
+	 * 		 Las tareas se apilan en bloque
+	 */
+	public void runAll(Collection<? extends Task> tasks, TaskRunner taskRunner) {
+		Preconditions.checkNotNull(tasks, "tasks");
+		Preconditions.checkNotNull(taskRunner, "taskRunner");
+		
+		for ( Task eachTask : tasks ) {
+			Preconditions.checkNotNull(eachTask, "task");
 		}
+		
+		this.pushAll(tasks, taskRunner);
+		this.runPendingFrames();
 	}
 
 }
@@ -0,0 +1,243 @@
+/**
+ * Copyright (c) 2018 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.misc.concurrency.tasking.metrics;
+
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.esferixis.misc.Preconditions;
+
+/**
+ * @author Ariel Favio Carrizo
+ * 
+ * Histograma concurrente de valores no negativos (Por ejemplo
+ * duraciones en nanosegundos).
+ * 
+ * Agrupa los valores en intervalos logarítmicos, cada potencia
+ * de dos se divide en cuatro intervalos, con lo que el error
+ * relativo de los percentiles es de a lo sumo 25%.
+ * Cada intervalo es un contador distribuido, para que el registro
+ * desde varios threads no compita por la misma línea de caché.
+ */
+public final class Histogram {
+	private static final int SUBBUCKETS_BITS = 2;
+	private static final int SUBBUCKETS = 1 << SUBBUCKETS_BITS;
+	private static final int BUCKETS = SUBBUCKETS + (63 - SUBBUCKETS_BITS) * SUBBUCKETS;
+	
+	/**
+	 * Instantánea del histograma
+	 */
+	public static final class Snapshot implements Serializable {
+		private static final long serialVersionUID = 4718349541839026177L;
+		
+		private final long[] counts;
+		private final long count;
+		private final long sum;
+		private final long max;
+		
+		/**
+		 * @post Crea la instantánea con los contadores, la cantidad, la suma
+		 * 		 y el máximo especificados
+		 */
+		private Snapshot(long[] counts, long count, long sum, long max) {
+			this.counts = counts;
+			this.count = count;
+			this.sum = sum;
+			this.max = max;
+		}
+		
+		/**
+		 * @post Devuelve la cantidad de valores registrados
+		 */
+		public long getCount() {
+			return this.count;
+		}
+		
+		/**
+		 * @post Devuelve la suma de los valores registrados
+		 */
+		public long getSum() {
+			return this.sum;
+		}
+		
+		/**
+		 * @post Devuelve el máximo valor registrado, si no hay
+		 * 		 valores devuelve cero
+		 */
+		public long getMax() {
+			return this.max;
+		}
+		
+		/**
+		 * @post Devuelve el promedio de los valores registrados, si
+		 * 		 no hay valores devuelve cero
+		 */
+		public double getMean() {
+			if ( this.count != 0 ) {
+				return (double) this.sum / (double) this.count;
+			}
+			else {
+				return 0.0d;
+			}
+		}
+		
+		/**
+		 * @pre El percentil tiene que estar entre 0 y 100
+		 * @post Devuelve una cota superior del valor con el percentil especificado.
+		 * 		 Si no hay valores devuelve cero
+		 */
+		public long getPercentile(double percentile) {
+			if ( ( percentile < 0.0d ) || ( percentile > 100.0d ) ) {
+				throw new IllegalArgumentException("Expected percentile between 0 and 100");
+			}
+			
+			if ( this.count == 0 ) {
+				return 0;
+			}
+			
+			final long rank = Math.max(1, (long) Math.ceil( percentile / 100.0d * (double) this.count ) );
+			
+			long accumulated = 0;
+			for ( int i = 0 ; i < this.counts.length ; i++ ) {
+				accumulated += this.counts[i];
+				
+				if ( accumulated >= rank ) {
+					return Math.min(upperBound(i), this.max);
+				}
+			}
+			
+			return this.max;
+		}
+		
+		/* (non-Javadoc)
+		 * @see java.lang.Object#toString()
+		 */
+		@Override
+		public String toString() {
+			return "count=" + this.count + ", mean=" + this.getMean() + ", p50=" + this.getPercentile(50.0d) + ", p99=" + this.getPercentile(99.0d) + ", max=" + this.max;
+		}
+	}
+	
+	private final LongAdder[] counts;
+	private final LongAdder sum;
+	private final AtomicLong max;
+	
+	/**
+	 * @post Crea el histograma
+	 */
+	public Histogram() {
+		this.counts = new LongAdder[BUCKETS];
+		
+		for ( int i = 0 ; i < BUCKETS ; i++ ) {
+			this.counts[i] = new LongAdder();
+		}
+		
+		this.sum = new LongAdder();
+		this.max = new AtomicLong(0);
+	}
+	
+	/**
+	 * @post Devuelve el índice del intervalo del valor especificado
+	 */
+	private static int bucketIndex(long value) {
+		if ( value < SUBBUCKETS ) {
+			return (int) value;
+		}
+		else {
+			final int exponent = 63 - Long.numberOfLeadingZeros(value);
+			final int subbucket = (int) ( ( value >>> (exponent - SUBBUCKETS_BITS) ) & (SUBBUCKETS - 1) );
+			
+			return SUBBUCKETS + (exponent - SUBBUCKETS_BITS) * SUBBUCKETS + subbucket;
+		}
+	}
+	
+	/**
+	 * @post Devuelve la cota superior del intervalo con el índice especificado
+	 */
+	private static long upperBound(int bucketIndex) {
+		if ( bucketIndex < SUBBUCKETS ) {
+			return bucketIndex;
+		}
+		else {
+			final int shift = (bucketIndex - SUBBUCKETS) / SUBBUCKETS;
+			final long subbucket = (bucketIndex - SUBBUCKETS) % SUBBUCKETS;
+			
+			return ( ( (SUBBUCKETS + subbucket + 1) << shift ) - 1 );
+		}
+	}
+	
+	/**
+	 * @pre El valor no puede ser negativo
+	 * @post Registra el valor especificado
+	 */
+	public void record(long value) {
+		Preconditions.checkIsNotNegative(value, "value");
+		
+		this.counts[bucketIndex(value)].increment();
+		this.sum.add(value);
+		
+		long currentMax;
+		do {
+			currentMax = this.max.get();
+		} while ( ( value > currentMax ) && !this.max.compareAndSet(currentMax, value) );
+	}
+	
+	/**
+	 * @post Devuelve una instantánea del histograma.
+	 * 		 Si se registran valores mientras se toma, puede
+	 * 		 reflejarlos parcialmente
+	 */
+	public Snapshot getSnapshot() {
+		final long[] counts = new long[BUCKETS];
+		long count = 0;
+		
+		for ( int i = 0 ; i < BUCKETS ; i++ ) {
+			counts[i] = this.counts[i].sum();
+			count += counts[i];
+		}
+		
+		return new Snapshot(counts, count, this.sum.sum(), this.max.get());
+	}
+	
+	/**
+	 * @post Vacía el histograma
+	 */
+	public void reset() {
+		for ( int i = 0 ; i < BUCKETS ; i++ ) {
+			this.counts[i].reset();
+		}
+		
+		this.sum.reset();
+		this.max.set(0);
+	}
+}
@@ -0,0 +1,416 @@
+/**
+ * Copyright (c) 2018 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.misc.concurrency.tasking.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collection;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import com.esferixis.misc.Preconditions;
+import com.esferixis.misc.concurrency.tasking.Task;
+import com.esferixis.misc.concurrency.tasking.TaskRunner;
+
+/**
+ * @author Ariel Favio Carrizo
+ * 
+ * Decorador de ejecutador de tareas que registra métricas
+ * de las tareas que recibe, y de las subtareas que éstas lanzan.
+ * 
+ * Registra la cantidad de tareas enviadas y ejecutadas,
+ * la proporción de tareas ejecutadas en otro thread,
+ * histogramas del tiempo de espera y de ejecución, y
+ * el error del tiempo relativo estimado de las tareas
+ * respecto del medido.
+ * 
+ * Las métricas se obtienen con getMetrics(), y opcionalmente
+ * se pueden publicar por JMX
+ */
+public final class InstrumentedTaskRunnerDecorator extends TaskRunner {
+	/**
+	 * Métricas compartidas por el decorador y los decoradores
+	 * de las subtareas
+	 */
+	private static final class Recorder {
+		private final LongAdder submittedTasks;
+		private final LongAdder executedTasks;
+		private final LongAdder inlineTasks;
+		private final LongAdder failedTasks;
+		private final Histogram queueWaitNanos;
+		private final Histogram runningNanos;
+		
+		private final LongAdder estimatedTasks;
+		private final DoubleAdder nanosPerRelativeTimeUnitSum;
+		private final DoubleAdder nanosPerRelativeTimeUnitSquaresSum;
+		
+		/**
+		 * Tiempo de ejecución de las tareas anidadas en el thread actual
+		 */
+		private final ThreadLocal<long[]> nestedRunningNanos;
+		
+		/**
+		 * @post Crea las métricas vacías
+		 */
+		public Recorder() {
+			this.submittedTasks = new LongAdder();
+			this.executedTasks = new LongAdder();
+			this.inlineTasks = new LongAdder();
+			this.failedTasks = new LongAdder();
+			this.queueWaitNanos = new Histogram();
+			this.runningNanos = new Histogram();
+			
+			this.estimatedTasks = new LongAdder();
+			this.nanosPerRelativeTimeUnitSum = new DoubleAdder();
+			this.nanosPerRelativeTimeUnitSquaresSum = new DoubleAdder();
+			
+			this.nestedRunningNanos = new ThreadLocal<long[]>() {
+				@Override
+				protected long[] initialValue() {
+					return new long[1];
+				}
+			};
+		}
+		
+		/**
+		 * @post Registra la ejecución de una tarea con el tiempo relativo estimado
+		 * 		 y el tiempo de ejecución especificados
+		 */
+		public void recordRunningTime(long relativeRunningTime, long runningNanos) {
+			this.runningNanos.record(runningNanos);
+			
+			if ( relativeRunningTime > 0 ) {
+				final double nanosPerRelativeTimeUnit = (double) runningNanos / (double) relativeRunningTime;
+				
+				this.estimatedTasks.increment();
+				this.nanosPerRelativeTimeUnitSum.add(nanosPerRelativeTimeUnit);
+				this.nanosPerRelativeTimeUnitSquaresSum.add(nanosPerRelativeTimeUnit * nanosPerRelativeTimeUnit);
+			}
+		}
+		
+		/**
+		 * @post Devuelve una instantánea de las métricas
+		 */
+		public TaskRunnerMetrics getSnapshot() {
+			// Se leen primero las ejecutadas para que no superen a las enviadas
+			final long executedTasks = this.executedTasks.sum();
+			final long submittedTasks = this.submittedTasks.sum();
+			
+			final long estimatedTasks = this.estimatedTasks.sum();
+			final double mean;
+			final double coefficientOfVariation;
+			
+			if ( estimatedTasks != 0 ) {
+				mean = this.nanosPerRelativeTimeUnitSum.sum() / (double) estimatedTasks;
+				
+				final double variance = Math.max(0.0d, this.nanosPerRelativeTimeUnitSquaresSum.sum() / (double) estimatedTasks - mean * mean);
+				
+				if ( mean != 0.0d ) {
+					coefficientOfVariation = Math.sqrt(variance) / mean;
+				}
+				else {
+					coefficientOfVariation = 0.0d;
+				}
+			}
+			else {
+				mean = 0.0d;
+				coefficientOfVariation = 0.0d;
+			}
+			
+			return new TaskRunnerMetrics(submittedTasks, executedTasks, this.inlineTasks.sum(), this.failedTasks.sum(), this.queueWaitNanos.getSnapshot(), this.runningNanos.getSnapshot(), mean, coefficientOfVariation);
+		}
+		
+		/**
+		 * @post Vacía las métricas
+		 */
+		public void reset() {
+			this.submittedTasks.reset();
+			this.executedTasks.reset();
+			this.inlineTasks.reset();
+			this.failedTasks.reset();
+			this.queueWaitNanos.reset();
+			this.runningNanos.reset();
+			this.estimatedTasks.reset();
+			this.nanosPerRelativeTimeUnitSum.reset();
+			this.nanosPerRelativeTimeUnitSquaresSum.reset();
+		}
+	}
+	
+	/**
+	 * Tarea instrumentada
+	 */
+	private static final class InstrumentedTask extends Task {
+		private static final long serialVersionUID = 5630281694731823040L;
+		
+		private final InstrumentedTaskRunnerDecorator decorator;
+		private final Task task;
+		private final transient Thread submittingThread;
+		private final long submissionNanoTime;
+		
+		/**
+		 * @post Crea la tarea instrumentada con el decorador que la
+		 * 		 recibió y la tarea especificados
+		 */
+		public InstrumentedTask(InstrumentedTaskRunnerDecorator decorator, Task task) {
+			this.decorator = decorator;
+			this.task = task;
+			this.submittingThread = Thread.currentThread();
+			this.submissionNanoTime = System.nanoTime();
+		}
+		
+		@Override
+		public void run(TaskRunner taskRunner) {
+			final Recorder recorder = this.decorator.recorder;
+			final long[] nestedRunningNanos = recorder.nestedRunningNanos.get();
+			final long outerNestedRunningNanos = nestedRunningNanos[0];
+			
+			final long startNanoTime = System.nanoTime();
+			
+			recorder.queueWaitNanos.record(Math.max(0, startNanoTime - this.submissionNanoTime));
+			
+			if ( Thread.currentThread() == this.submittingThread ) {
+				recorder.inlineTasks.increment();
+			}
+			
+			nestedRunningNanos[0] = 0;
+			
+			try {
+				this.task.run(this.decorator.with(taskRunner));
+			}
+			catch (RuntimeException | Error e) {
+				recorder.failedTasks.increment();
+				throw e;
+			}
+			finally {
+				final long elapsedNanos = Math.max(0, System.nanoTime() - startNanoTime);
+				
+				// Se descuenta el tiempo de las tareas instrumentadas anidadas
+				recorder.recordRunningTime(this.task.getRelativeRunningTime(), Math.max(0, elapsedNanos - nestedRunningNanos[0]));
+				recorder.executedTasks.increment();
+				
+				nestedRunningNanos[0] = outerNestedRunningNanos + elapsedNanos;
+			}
+		}
+		
+		@Override
+		public boolean isBlocking() {
+			return this.task.isBlocking();
+		}
+
+		@Override
+		protected long getRelativeRunningTime_implementation() {
+			return this.task.getRelativeRunningTime();
+		}
+	}
+	
+	private final TaskRunner taskRunner;
+	private final Recorder recorder;
+	
+	/**
+	 * @pre El ejecutador de tareas no puede ser nulo
+	 * @post Crea el decorador con el ejecutador de tareas
+	 * 		 especificado
+	 */
+	public InstrumentedTaskRunnerDecorator(TaskRunner taskRunner) {
+		this(taskRunner, new Recorder());
+		
+		Preconditions.checkNotNull(taskRunner, "taskRunner");
+	}
+	
+	/**
+	 * @post Crea el decorador con el ejecutador de tareas y
+	 * 		 las métricas especificados
+	 */
+	private InstrumentedTaskRunnerDecorator(TaskRunner taskRunner, Recorder recorder) {
+		this.taskRunner = taskRunner;
+		this.recorder = recorder;
+	}
+	
+	/**
+	 * @post Devuelve el decorador que registra en las mismas métricas
+	 * 		 el ejecutador de tareas especificado.
+	 * 		 Si es el mismo que decora éste, devuelve éste
+	 */
+	private InstrumentedTaskRunnerDecorator with(TaskRunner taskRunner) {
+		if ( taskRunner == this.taskRunner ) {
+			return this;
+		}
+		else {
+			return new InstrumentedTaskRunnerDecorator(taskRunner, this.recorder);
+		}
+	}
+	
+	/**
+	 * @post Devuelve una instantánea de las métricas
+	 */
+	public TaskRunnerMetrics getMetrics() {
+		return this.recorder.getSnapshot();
+	}
+	
+	/**
+	 * @post Vacía las métricas
+	 */
+	public void resetMetrics() {
+		this.recorder.reset();
+	}
+	
+	/**
+	 * @pre El nombre no puede ser nulo
+	 * @post Registra las métricas en el servidor de MBeans de la
+	 * 		 plataforma con el nombre especificado, y devuelve el
+	 * 		 nombre del objeto
+	 */
+	public ObjectName registerMBean(String name) {
+		Preconditions.checkNotNull(name, "name");
+		
+		final Recorder recorder = this.recorder;
+		
+		try {
+			final ObjectName objectName = new ObjectName("com.esferixis.misc.concurrency.tasking:type=TaskRunnerMetrics,name=" + ObjectName.quote(name));
+			
+			ManagementFactory.getPlatformMBeanServer().registerMBean(new TaskRunnerMetricsMXBean() {
+
+				@Override
+				public long getSubmittedTasks() {
+					return recorder.submittedTasks.sum();
+				}
+
+				@Override
+				public long getExecutedTasks() {
+					return recorder.executedTasks.sum();
+				}
+
+				@Override
+				public long getPendingTasks() {
+					return recorder.getSnapshot().getPendingTasks();
+				}
+
+				@Override
+				public long getFailedTasks() {
+					return recorder.failedTasks.sum();
+				}
+
+				@Override
+				public double getForkRatio() {
+					return recorder.getSnapshot().getForkRatio();
+				}
+
+				@Override
+				public double getMeanQueueWaitNanos() {
+					return recorder.queueWaitNanos.getSnapshot().getMean();
+				}
+
+				@Override
+				public long getP99QueueWaitNanos() {
+					return recorder.queueWaitNanos.getSnapshot().getPercentile(99.0d);
+				}
+
+				@Override
+				public double getMeanRunningNanos() {
+					return recorder.runningNanos.getSnapshot().getMean();
+				}
+
+				@Override
+				public long getP99RunningNanos() {
+					return recorder.runningNanos.getSnapshot().getPercentile(99.0d);
+				}
+
+				@Override
+				public double getMeanNanosPerRelativeTimeUnit() {
+					return recorder.getSnapshot().getMeanNanosPerRelativeTimeUnit();
+				}
+
+				@Override
+				public double getNanosPerRelativeTimeUnitCoefficientOfVariation() {
+					return recorder.getSnapshot().getNanosPerRelativeTimeUnitCoefficientOfVariation();
+				}
+
+				@Override
+				public void reset() {
+					recorder.reset();
+				}
+				
+			}, objectName);
+			
+			return objectName;
+		} catch (JMException e) {
+			throw new RuntimeException(e);
+		}
+	}
+	
+	/**
+	 * @pre El nombre del objeto no puede ser nulo
+	 * @post Quita el registro de las métricas del servidor de MBeans
+	 * 		 de la plataforma
+	 */
+	public static void unregisterMBean(ObjectName objectName) {
+		Preconditions.checkNotNull(objectName, "objectName");
+		
+		final MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
+		
+		try {
+			mbeanServer.unregisterMBean(objectName);
+		} catch (JMException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see com.esferixis.misc.concurrency.tasking.TaskRunner#run_checked(com.esferixis.misc.concurrency.tasking.Task)
+	 */
+	@Override
+	protected void run_checked(Task task) {
+		this.recorder.submittedTasks.increment();
+		
+		this.taskRunner.run(new InstrumentedTask(this, task));
+	}
+
+	/* (non-Javadoc)
+	 * @see com.esferixis.misc.concurrency.tasking.TaskRunner#runAll_checked(java.util.Collection)
+	 */
+	@Override
+	protected void runAll_checked(Collection<? extends Task> tasks) {
+		final Task[] instrumentedTasks = new Task[tasks.size()];
+		
+		int i = 0;
+		for ( Task eachTask : tasks ) {
+			instrumentedTasks[i++] = new InstrumentedTask(this, eachTask);
+		}
+		
+		this.recorder.submittedTasks.add(instrumentedTasks.length);
+		
+		this.taskRunner.runAll(instrumentedTasks);
+	}
+}
@@ -0,0 +1,178 @@
+/**
+ * Copyright (c) 2018 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.misc.concurrency.tasking.metrics;
+
+import java.io.Serializable;
+
+/**
+ * @author Ariel Favio Carrizo
+ * 
+ * Instantánea de las métricas de un ejecutador de tareas
+ * instrumentado
+ */
+public final class TaskRunnerMetrics implements Serializable {
+	private static final long serialVersionUID = -3580162402470712716L;
+	
+	private final long submittedTasks;
+	private final long executedTasks;
+	private final long inlineTasks;
+	private final long failedTasks;
+	private final Histogram.Snapshot queueWaitNanos;
+	private final Histogram.Snapshot runningNanos;
+	private final double meanNanosPerRelativeTimeUnit;
+	private final double nanosPerRelativeTimeUnitCoefficientOfVariation;
+	
+	/**
+	 * @post Crea la instantánea con los valores especificados
+	 */
+	TaskRunnerMetrics(long submittedTasks, long executedTasks, long inlineTasks, long failedTasks, Histogram.Snapshot queueWaitNanos, Histogram.Snapshot runningNanos, double meanNanosPerRelativeTimeUnit, double nanosPerRelativeTimeUnitCoefficientOfVariation) {
+		this.submittedTasks = submittedTasks;
+		this.executedTasks = executedTasks;
+		this.inlineTasks = inlineTasks;
+		this.failedTasks = failedTasks;
+		this.queueWaitNanos = queueWaitNanos;
+		this.runningNanos = runningNanos;
+		this.meanNanosPerRelativeTimeUnit = meanNanosPerRelativeTimeUnit;
+		this.nanosPerRelativeTimeUnitCoefficientOfVariation = nanosPerRelativeTimeUnitCoefficientOfVariation;
+	}
+	
+	/**
+	 * @post Devuelve la cantidad de tareas enviadas al ejecutador de tareas
+	 */
+	public long getSubmittedTasks() {
+		return this.submittedTasks;
+	}
+	
+	/**
+	 * @post Devuelve la cantidad de tareas que terminaron de ejecutarse,
+	 * 		 incluyendo las que lanzaron una excepción
+	 */
+	public long getExecutedTasks() {
+		return this.executedTasks;
+	}
+	
+	/**
+	 * @post Devuelve la cantidad de tareas enviadas que todavía no
+	 * 		 terminaron de ejecutarse
+	 */
+	public long getPendingTasks() {
+		return Math.max(0, this.submittedTasks - this.executedTasks);
+	}
+	
+	/**
+	 * @post Devuelve la cantidad de tareas ejecutadas en el mismo
+	 * 		 thread que las envió
+	 */
+	public long getInlineTasks() {
+		return this.inlineTasks;
+	}
+	
+	/**
+	 * @post Devuelve la cantidad de tareas ejecutadas en un thread
+	 * 		 distinto al que las envió
+	 */
+	public long getForkedTasks() {
+		return this.executedTasks - this.inlineTasks;
+	}
+	
+	/**
+	 * @post Devuelve la proporción de tareas ejecutadas en un thread
+	 * 		 distinto al que las envió, si no hay tareas ejecutadas
+	 * 		 devuelve cero
+	 */
+	public double getForkRatio() {
+		if ( this.executedTasks != 0 ) {
+			return (double) this.getForkedTasks() / (double) this.executedTasks;
+		}
+		else {
+			return 0.0d;
+		}
+	}
+	
+	/**
+	 * @post Devuelve la cantidad de tareas que lanzaron una excepción
+	 */
+	public long getFailedTasks() {
+		return this.failedTasks;
+	}
+	
+	/**
+	 * @post Devuelve el histograma del tiempo que esperan las tareas
+	 * 		 desde que se envían hasta que comienzan a ejecutarse,
+	 * 		 en nanosegundos
+	 */
+	public Histogram.Snapshot getQueueWaitNanos() {
+		return this.queueWaitNanos;
+	}
+	
+	/**
+	 * @post Devuelve el histograma del tiempo de ejecución de las tareas,
+	 * 		 en nanosegundos.
+	 * 
+	 * 		 No incluye el tiempo de las subtareas que se ejecuten
+	 * 		 en el mismo thread durante la ejecución de la tarea, igual que
+	 * 		 el tiempo relativo estimado de la tarea
+	 */
+	public Histogram.Snapshot getRunningNanos() {
+		return this.runningNanos;
+	}
+	
+	/**
+	 * @post Devuelve el promedio de nanosegundos medidos por unidad de tiempo
+	 * 		 relativo estimado, si no hay tareas ejecutadas devuelve cero
+	 */
+	public double getMeanNanosPerRelativeTimeUnit() {
+		return this.meanNanosPerRelativeTimeUnit;
+	}
+	
+	/**
+	 * @post Devuelve el coeficiente de variación de los nanosegundos medidos
+	 * 		 por unidad de tiempo relativo estimado.
+	 * 
+	 * 		 Si el tiempo relativo estimado fuese exactamente proporcional
+	 * 		 al tiempo medido sería cero, cuanto más grande mayor es el error
+	 * 		 de la estimación
+	 */
+	public double getNanosPerRelativeTimeUnitCoefficientOfVariation() {
+		return this.nanosPerRelativeTimeUnitCoefficientOfVariation;
+	}
+	
+	/* (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return "submitted=" + this.submittedTasks + ", executed=" + this.executedTasks + ", forkRatio=" + this.getForkRatio() + ", failed=" + this.failedTasks +
+				", queueWaitNanos=[" + this.queueWaitNanos + "], runningNanos=[" + this.runningNanos + "]" +
+				", nanosPerRelativeTimeUnit=" + this.meanNanosPerRelativeTimeUnit + ", estimationCV=" + this.nanosPerRelativeTimeUnitCoefficientOfVariation;
+	}
+}
@@ -0,0 +1,438 @@
+/**
+ * Copyright (c) 2018 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.misc.functional;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToLongBiFunction;
+
+import com.esferixis.misc.Preconditions;
+import com.esferixis.misc.concurrency.Cancellable;
+import com.esferixis.misc.concurrency.tasking.TaskRunner;
+import com.esferixis.misc.functional.values.CancellableValue;
+import com.esferixis.misc.functional.values.DeferredValue;
+import com.esferixis.misc.functional.values.ImmediateValue;
+import com.esferixis.misc.functional.values.Value;
+import com.esferixis.misc.functional.values.Values;
+
+/**
+ * @author Ariel Favio Carrizo
+ * 
+ * Función que memoriza los resultados de la función que decora.
+ * 
+ * Las evaluaciones con entradas iguales (Según equals) se
+ * comparten: si hay una evaluación en curso para una entrada,
+ * las siguientes esperan su resultado en lugar de volver a evaluar,
+ * y una vez obtenido el resultado se reusa.
+ * 
+ * Los resultados obtenidos se descartan cuando el peso total supera
+ * el máximo, eligiéndolos con una aproximación de CLOCK:
+ * cada resultado usado tiene una segunda oportunidad antes de ser
+ * descartado.
+ * 
+ * Es segura para usar desde varios threads.
+ * Si la función decorada lanza una excepción se descarta la
+ * evaluación en curso: la excepción se propaga a quien la inició,
+ * y se relanza en las tareas de los consumidores que la esperaban,
+ * en lugar de ejecutarlos.
+ */
+public final class MemoizingFunction<Input, Output> implements Function<Input, Output> {
+	/**
+	 * Evaluación memorizada
+	 */
+	private static final class Entry<Input, Output> implements CancellableValue<Output> {
+		private final MemoizingFunction<Input, Output> memoizingFunction;
+		private final Input input;
+		
+		/**
+		 * Resultado de la evaluación, la salida o Failure
+		 */
+		private final DeferredValue<Object> result;
+		private Consumer<Object> resultInitializer;
+		private final AtomicBoolean hasBeenStarted;
+		private volatile boolean hasFinished;
+		private volatile Output output;
+		
+		private volatile boolean isReferenced;
+		private long weight;
+		
+		/**
+		 * @post Crea la evaluación con la función memorizadora y la entrada especificadas
+		 */
+		public Entry(MemoizingFunction<Input, Output> memoizingFunction, Input input) {
+			this.memoizingFunction = memoizingFunction;
+			this.input = input;
+			this.hasBeenStarted = new AtomicBoolean(false);
+			this.hasFinished = false;
+			this.output = null;
+			this.isReferenced = false;
+			this.weight = 0;
+			
+			final Entry<Input, Output> thisEntry = this;
+			
+			this.result = new DeferredValue<Object>(new Consumer<Consumer<Object>>() {
+
+				@Override
+				public void accept(Consumer<Object> resultInitializer, TaskRunner taskRunner) {
+					thisEntry.resultInitializer = resultInitializer;
+				}
+				
+			}, null);
+		}
+		
+		/**
+		 * @post Inicia la evaluación, si no fue iniciada, con el ejecutador de tareas especificado
+		 */
+		private void start(TaskRunner taskRunner) {
+			if ( this.hasBeenStarted.compareAndSet(false, true) ) {
+				final Entry<Input, Output> thisEntry = this;
+				final Consumer<Object> resultInitializer = this.resultInitializer;
+				this.resultInitializer = null;
+				
+				try {
+					this.memoizingFunction.function.evaluate(new ImmediateValue<Input>(this.input)).get(new Consumer<Output>() {
+	
+						@Override
+						public void accept(Output output, TaskRunner taskRunner) {
+							try {
+								thisEntry.memoizingFunction.complete(thisEntry, output);
+							}
+							catch (RuntimeException | Error e) {
+								thisEntry.fail(resultInitializer, e, taskRunner);
+								throw e;
+							}
+							
+							thisEntry.hasFinished = true;
+							thisEntry.output = output;
+							resultInitializer.accept(output, taskRunner);
+						}
+						
+					}, taskRunner);
+				}
+				catch (RuntimeException | Error e) {
+					// Si ya terminó, la excepción vino de un consumidor
+					if ( !this.hasFinished ) {
+						this.fail(resultInitializer, e, taskRunner);
+					}
+					
+					throw e;
+				}
+			}
+		}
+		
+		/**
+		 * @post Descarta la evaluación por la excepción especificada,
+		 * 		 y entrega la falla a los consumidores que la esperan,
+		 * 		 con el inicializador del resultado y el ejecutador
+		 * 		 de tareas especificados
+		 */
+		private void fail(Consumer<Object> resultInitializer, Throwable exception, TaskRunner taskRunner) {
+			this.hasFinished = true;
+			this.memoizingFunction.entries.remove(this.input, this);
+			
+			resultInitializer.accept(new Failure(exception), taskRunner);
+		}
+		
+		/**
+		 * @post Devuelve el consumidor del resultado que ejecuta el consumidor
+		 * 		 de salida especificado, o relanza la excepción si falló
+		 */
+		private Consumer<Object> resultConsumer(final Consumer<Output> consumer) {
+			return new Consumer<Object>() {
+
+				@SuppressWarnings("unchecked")
+				@Override
+				public void accept(Object result, TaskRunner taskRunner) {
+					if ( result instanceof Failure ) {
+						( (Failure) result ).rethrow();
+					}
+					else {
+						consumer.accept((Output) result, taskRunner);
+					}
+				}
+				
+			};
+		}
+
+		@Override
+		public void get(Consumer<Output> consumer, TaskRunner taskRunner) {
+			final Output output = this.output;
+			
+			if ( output != null ) {
+				consumer.accept(output, taskRunner);
+			}
+			else {
+				this.start(taskRunner);
+				this.result.get(this.resultConsumer(consumer), taskRunner);
+			}
+		}
+
+		@Override
+		public Cancellable getCancellable(Consumer<Output> consumer, TaskRunner taskRunner) {
+			this.start(taskRunner);
+			return this.result.getCancellable(this.resultConsumer(consumer), taskRunner);
+		}
+	}
+	
+	/**
+	 * Falla de una evaluación
+	 */
+	private static final class Failure {
+		private final Throwable exception;
+		
+		/**
+		 * @post Crea la falla con la excepción especificada
+		 */
+		public Failure(Throwable exception) {
+			this.exception = exception;
+		}
+		
+		/**
+		 * @post Relanza la excepción
+		 */
+		public void rethrow() {
+			if ( this.exception instanceof Error ) {
+				throw (Error) this.exception;
+			}
+			else {
+				throw (RuntimeException) this.exception;
+			}
+		}
+	}
+	
+	private final Function<Input, Output> function;
+	private final long maxWeight;
+	private final ToLongBiFunction<? super Input, ? super Output> weigher;
+	
+	private final ConcurrentMap<Input, Entry<Input, Output>> entries;
+	private final Queue<Entry<Input, Output>> clock;
+	private final AtomicLong weight;
+	private final Lock evictionLock;
+	
+	private final LongAdder hits;
+	private final LongAdder misses;
+	
+	private final java.util.function.Function<Input, Value<Output>> lookupFunction;
+	
+	/**
+	 * @pre Ni la función ni el pesador pueden ser nulos, y el peso máximo
+	 * 		no puede ser negativo
+	 * @post Crea la función memorizadora con la función a decorar, el peso máximo
+	 * 		 y el pesador especificados.
+	 * 
+	 * 		 El pesador devuelve el peso de cada resultado a partir de la entrada
+	 * 		 y la salida, que no puede ser negativo
+	 */
+	public MemoizingFunction(Function<Input, Output> function, long maxWeight, ToLongBiFunction<? super Input, ? super Output> weigher) {
+		Preconditions.checkNotNull(function, "function");
+		Preconditions.checkIsNotNegative(maxWeight, "maxWeight");
+		Preconditions.checkNotNull(weigher, "weigher");
+		
+		this.function = function;
+		this.maxWeight = maxWeight;
+		this.weigher = weigher;
+		
+		this.entries = new ConcurrentHashMap<Input, Entry<Input, Output>>();
+		this.clock = new ConcurrentLinkedQueue<Entry<Input, Output>>();
+		this.weight = new AtomicLong(0);
+		this.evictionLock = new ReentrantLock();
+		
+		this.hits = new LongAdder();
+		this.misses = new LongAdder();
+		
+		final MemoizingFunction<Input, Output> thisFunction = this;
+		
+		this.lookupFunction = new java.util.function.Function<Input, Value<Output>>() {
+
+			@Override
+			public Value<Output> apply(Input input) {
+				return thisFunction.lookup(input);
+			}
+			
+		};
+	}
+	
+	/**
+	 * @pre La función no puede ser nula, y la cantidad máxima de resultados
+	 * 		no puede ser negativa
+	 * @post Crea la función memorizadora con la función a decorar y la
+	 * 		 cantidad máxima de resultados memorizados especificadas
+	 */
+	public MemoizingFunction(Function<Input, Output> function, long maxResults) {
+		this(function, maxResults, new ToLongBiFunction<Input, Output>() {
+
+			@Override
+			public long applyAsLong(Input input, Output output) {
+				return 1;
+			}
+			
+		});
+	}
+	
+	/**
+	 * @post Devuelve la evaluación para la entrada especificada,
+	 * 		 si no existe la crea
+	 */
+	private Value<Output> lookup(Input input) {
+		Entry<Input, Output> entry = this.entries.get(input);
+		
+		if ( entry == null ) {
+			final Entry<Input, Output> newEntry = new Entry<Input, Output>(this, input);
+			entry = this.entries.putIfAbsent(input, newEntry);
+			
+			if ( entry == null ) {
+				this.misses.increment();
+				return newEntry;
+			}
+		}
+		
+		if ( !entry.isReferenced ) {
+			entry.isReferenced = true;
+		}
+		
+		this.hits.increment();
+		return entry;
+	}
+	
+	/**
+	 * @post Registra la finalización de la evaluación especificada
+	 * 		 con la salida especificada
+	 */
+	private void complete(Entry<Input, Output> entry, Output output) {
+		final long entryWeight = this.weigher.applyAsLong(entry.input, output);
+		Preconditions.checkIsNotNegative(entryWeight, "weight");
+		
+		entry.weight = entryWeight;
+		this.weight.addAndGet(entryWeight);
+		this.clock.add(entry);
+		
+		this.evictIfNecessary();
+	}
+	
+	/**
+	 * @post Si el peso total supera el máximo, y ningún otro thread está
+	 * 		 descartando, descarta resultados hasta no superarlo
+	 */
+	private void evictIfNecessary() {
+		if ( ( this.weight.get() > this.maxWeight ) && this.evictionLock.tryLock() ) {
+			try {
+				while ( this.weight.get() > this.maxWeight ) {
+					final Entry<Input, Output> entry = this.clock.poll();
+					
+					if ( entry == null ) {
+						break;
+					}
+					
+					if ( entry.isReferenced ) {
+						// Segunda oportunidad
+						entry.isReferenced = false;
+						this.clock.add(entry);
+					}
+					else {
+						this.entries.remove(entry.input, entry);
+						this.weight.addAndGet(-entry.weight);
+					}
+				}
+			}
+			finally {
+				this.evictionLock.unlock();
+			}
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see com.esferixis.misc.functional.Function#evaluate(com.esferixis.misc.functional.values.Value)
+	 */
+	@Override
+	public Value<Output> evaluate(Value<Input> inputValue) {
+		Preconditions.checkNotNull(inputValue, "inputValue");
+		
+		return Values.flatMap(inputValue, this.lookupFunction);
+	}
+	
+	/**
+	 * @post Descarta todos los resultados obtenidos.
+	 * 		 Las evaluaciones en curso no se descartan
+	 */
+	public void clear() {
+		this.evictionLock.lock();
+		
+		try {
+			Entry<Input, Output> entry;
+			
+			while ( ( entry = this.clock.poll() ) != null ) {
+				this.entries.remove(entry.input, entry);
+				this.weight.addAndGet(-entry.weight);
+			}
+		}
+		finally {
+			this.evictionLock.unlock();
+		}
+	}
+	
+	/**
+	 * @post Devuelve la cantidad de evaluaciones memorizadas o en curso
+	 */
+	public int getSize() {
+		return this.entries.size();
+	}
+	
+	/**
+	 * @post Devuelve el peso total de los resultados memorizados
+	 */
+	public long getWeight() {
+		return this.weight.get();
+	}
+	
+	/**
+	 * @post Devuelve la cantidad de evaluaciones que reusaron una evaluación
+	 * 		 memorizada o en curso
+	 */
+	public long getHits() {
+		return this.hits.sum();
+	}
+	
+	/**
+	 * @post Devuelve la cantidad de evaluaciones que tuvieron que evaluar la
+	 * 		 función decorada
+	 */
+	public long getMisses() {
+		return this.misses.sum();
+	}
+}
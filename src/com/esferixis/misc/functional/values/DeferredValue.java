@@ -31,11 +31,15 @@
  */
 package com.esferixis.misc.functional.values;
 
-import java.util.Optional;
-import java.util.Stack;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
+import com.esferixis.misc.Preconditions;
+import com.esferixis.misc.concurrency.Cancellable;
+import com.esferixis.misc.concurrency.tasking.Task;
 import com.esferixis.misc.concurrency.tasking.TaskRunner;
 import com.esferixis.misc.functional.Consumer;
 
@@ -43,21 +47,170 @@ import com.esferixis.misc.functional.Consumer;
  * @author Ariel Favio Carrizo
  *
  *		   Valor diferido
+ *
+ *		   No usa locks, el estado es una sola referencia que se
+ *		   actualiza con CAS. Mientras el valor no está seteado es
+ *		   una pila (Treiber) de consumidores pendientes, y una vez
+ *		   seteado es el valor.
+ *
+ *		   Al setearse el valor, los consumidores pendientes se
+ *		   ejecutan como tareas en el ejecutador de tareas con el que
+ *		   se seteó, así no se serializan en un solo thread.
+ *
+ *		   Los consumidores pendientes obtenidos con getCancellable()
+ *		   se pueden cancelar. Los cancelados se saltean al setearse
+ *		   el valor, y se quitan de la pila en forma diferida, cuando
+ *		   se acumulan suficientes cancelaciones respecto de la cantidad
+ *		   de consumidores que quedaron en la última compactación.
+ *		   Así cancelar N consumidores cuesta O(N) en total, en lugar
+ *		   de recorrer la pila en cada cancelación
  */
-public final class DeferredValue<T> implements Value<T> {
-	private Optional<T> settedValue;
-	private final Stack<Consumer<T>> pendingConsumers;
+public final class DeferredValue<T> implements CancellableValue<T> {
+	private static final int PENDING_CONSUMER_STATE_PENDING = 0;
+	private static final int PENDING_CONSUMER_STATE_CANCELLED = 1;
+	private static final int PENDING_CONSUMER_STATE_DISPATCHED = 2;
+	
+	private static final int MIN_CANCELLED_CONSUMERS_TO_COMPACT = 32;
+	
+	/**
+	 * Valor seteado
+	 */
+	private static final class SettedValue<T> {
+		private final T value;
+		
+		/**
+		 * @post Crea el valor seteado con el valor especificado
+		 */
+		public SettedValue(T value) {
+			this.value = value;
+		}
+	}
+	
+	/**
+	 * Consumidor pendiente, es nodo de la pila y la tarea
+	 * que lo ejecuta al setearse el valor
+	 */
+	private static class PendingConsumer<T> extends Task {
+		private static final long serialVersionUID = -1791306911640829417L;
+		
+		@SuppressWarnings("rawtypes")
+		private static final AtomicIntegerFieldUpdater<PendingConsumer> stateUpdater = AtomicIntegerFieldUpdater.newUpdater(PendingConsumer.class, "state");
+		
+		@SuppressWarnings("rawtypes")
+		private static final AtomicReferenceFieldUpdater<PendingConsumer, PendingConsumer> nextUpdater = AtomicReferenceFieldUpdater.newUpdater(PendingConsumer.class, PendingConsumer.class, "next");
+		
+		private Consumer<T> consumer;
+		private volatile PendingConsumer<T> next;
+		private volatile int state;
+		private T value;
+		
+		/**
+		 * @post Crea el consumidor pendiente con el consumidor especificado
+		 */
+		public PendingConsumer(Consumer<T> consumer) {
+			this.consumer = consumer;
+			this.state = PENDING_CONSUMER_STATE_PENDING;
+		}
+		
+		/**
+		 * @post Devuelve si fue cancelado
+		 */
+		public final boolean isCancelled() {
+			return this.state == PENDING_CONSUMER_STATE_CANCELLED;
+		}
+		
+		/**
+		 * @post Intenta pasar al estado especificado desde el estado pendiente,
+		 * 		 devuelve si lo logró
+		 */
+		protected final boolean leavePendingState(int nextState) {
+			return stateUpdater.compareAndSet(this, PENDING_CONSUMER_STATE_PENDING, nextState);
+		}
+
+		/**
+		 * @pre Tiene que haber sido cancelado
+		 * @post Libera el consumidor
+		 */
+		protected final void releaseConsumer() {
+			this.consumer = null;
+		}
+
+		@Override
+		public final void run(TaskRunner taskRunner) {
+			final Consumer<T> consumer = this.consumer;
+			final T value = this.value;
+			
+			// Libera las referencias, el nodo puede seguir referenciado por otros nodos cancelados
+			this.consumer = null;
+			this.value = null;
+			
+			consumer.accept(value, taskRunner);
+		}
+
+		@Override
+		protected final long getRelativeRunningTime_implementation() {
+			return 1;
+		}
+	}
 	
-	private Lock stateLock;
+	/**
+	 * Consumidor pendiente cancelable
+	 */
+	private static final class CancellablePendingConsumer<T> extends PendingConsumer<T> implements Cancellable {
+		private static final long serialVersionUID = 2952741166385306213L;
+		
+		private final DeferredValue<T> deferredValue;
+		
+		/**
+		 * @post Crea el consumidor pendiente con el valor diferido
+		 * 		 y el consumidor especificados
+		 */
+		public CancellablePendingConsumer(DeferredValue<T> deferredValue, Consumer<T> consumer) {
+			super(consumer);
+			this.deferredValue = deferredValue;
+		}
+
+		@Override
+		public boolean cancel() {
+			if ( this.leavePendingState(PENDING_CONSUMER_STATE_CANCELLED) ) {
+				this.releaseConsumer();
+				this.deferredValue.onConsumerCancelled();
+				
+				return true;
+			}
+			else {
+				return false;
+			}
+		}
+	}
+	
+	@SuppressWarnings("rawtypes")
+	private static final AtomicReferenceFieldUpdater<DeferredValue, Object> stateUpdater = AtomicReferenceFieldUpdater.newUpdater(DeferredValue.class, Object.class, "state");
+	
+	@SuppressWarnings("rawtypes")
+	private static final AtomicIntegerFieldUpdater<DeferredValue> cancelledConsumersUpdater = AtomicIntegerFieldUpdater.newUpdater(DeferredValue.class, "cancelledConsumers");
+	
+	/**
+	 * Tope de la pila de consumidores pendientes (Nulo si está vacía),
+	 * o el valor seteado
+	 */
+	private volatile Object state;
+	
+	/**
+	 * Cancelaciones desde la última compactación, y cantidad de
+	 * cancelaciones a partir de la cual se compacta la pila
+	 */
+	private volatile int cancelledConsumers;
+	private volatile int cancelledConsumersToCompact;
 	
 	/**
 	 * @post Crea un valor diferido con el consumidor del consumidor que
 	 * 		 que inicializa el valor y el ejecutador de tareas especificado
 	 */
 	public DeferredValue(Consumer<Consumer<T>> consumerOfValueInitializerConsumer, TaskRunner taskRunner) {
-		this.pendingConsumers = new Stack<Consumer<T>>();
-		this.settedValue = Optional.empty();
-		this.stateLock = new ReentrantLock();
+		this.state = null;
+		this.cancelledConsumers = 0;
+		this.cancelledConsumersToCompact = MIN_CANCELLED_CONSUMERS_TO_COMPACT;
 		
 		final DeferredValue<T> thisDeferredValue = this;
 		
@@ -72,52 +225,163 @@ public final class DeferredValue<T> implements Value<T> {
 	}
 	
 	/**
-	 * @pre El valor no tiene que estar seteado
+	 * @pre El valor no tiene que estar seteado, y no puede ser nulo
 	 * @post Setea un valor con el valor
-	 * 		 y el ejecutador de tareas especificado
+	 * 		 y el ejecutador de tareas especificado.
+	 * 
+	 * 		 Los consumidores pendientes se ejecutan como tareas
+	 * 		 en el ejecutador de tareas especificado, en el orden
+	 * 		 en el que se registraron
 	 */
+	@SuppressWarnings("unchecked")
 	private void set(T value, TaskRunner taskRunner) {
-		this.stateLock.lock();
+		Preconditions.checkNotNull(value, "value");
 		
-		try {
-			if ( !this.settedValue.isPresent() ) {
-				this.settedValue = Optional.of(value);
-			}
-			else {
+		final SettedValue<T> settedValue = new SettedValue<T>(value);
+		Object currentState;
+		
+		do {
+			currentState = this.state;
+			
+			if ( currentState instanceof SettedValue ) {
 				throw new IllegalStateException("Value has been setted");
 			}
-		} finally {
-			this.stateLock.unlock();
+		} while ( !stateUpdater.compareAndSet(this, currentState, settedValue) );
+		
+		// No se modifican los enlaces de la pila, porque los consumidores cancelados pueden estar quitándose
+		PendingConsumer<T> pendingConsumer = (PendingConsumer<T>) currentState;
+		
+		if ( ( pendingConsumer != null ) && ( pendingConsumer.next == null ) ) {
+			if ( pendingConsumer.leavePendingState(PENDING_CONSUMER_STATE_DISPATCHED) ) {
+				pendingConsumer.value = value;
+				taskRunner.run(pendingConsumer);
+			}
 		}
+		else if ( pendingConsumer != null ) {
+			final List<Task> tasks = new ArrayList<Task>();
+			
+			for ( ; pendingConsumer != null ; pendingConsumer = pendingConsumer.next ) {
+				if ( pendingConsumer.leavePendingState(PENDING_CONSUMER_STATE_DISPATCHED) ) {
+					pendingConsumer.value = value;
+					tasks.add(pendingConsumer);
+				}
+			}
+			
+			// Invierte la pila, para respetar el orden de registro
+			Collections.reverse(tasks);
+			
+			taskRunner.runAll(tasks);
+		}
+	}
+	
+	/**
+	 * @post Registra la cancelación de un consumidor pendiente.
+	 * 		 Si se acumularon suficientes cancelaciones, compacta la pila,
+	 * 		 una sola de las cancelaciones concurrentes lo hace
+	 */
+	private void onConsumerCancelled() {
+		final int currentCancelledConsumers = cancelledConsumersUpdater.incrementAndGet(this);
 		
-		while ( !this.pendingConsumers.empty() ) {
-			this.pendingConsumers.pop().accept(value, taskRunner);
+		if ( ( currentCancelledConsumers >= this.cancelledConsumersToCompact ) && cancelledConsumersUpdater.compareAndSet(this, currentCancelledConsumers, 0) ) {
+			final int remainingConsumers = this.removeCancelledConsumers();
+			
+			this.cancelledConsumersToCompact = Math.max(MIN_CANCELLED_CONSUMERS_TO_COMPACT, remainingConsumers / 2);
 		}
 	}
+	
+	/**
+	 * @post Quita de la pila los consumidores pendientes cancelados,
+	 * 		 y devuelve la cantidad de consumidores que recorrió sin quitar
+	 */
+	@SuppressWarnings("unchecked")
+	private int removeCancelledConsumers() {
+		Object currentState;
+		int remainingConsumers = 0;
+		
+		// Quita los del tope
+		while ( ( ( currentState = this.state ) instanceof PendingConsumer ) && ( (PendingConsumer<T>) currentState ).isCancelled() ) {
+			stateUpdater.compareAndSet(this, currentState, ( (PendingConsumer<T>) currentState ).next);
+		}
+		
+		if ( currentState instanceof PendingConsumer ) {
+			PendingConsumer<T> previous = (PendingConsumer<T>) currentState;
+			PendingConsumer<T> current = previous.next;
+			
+			remainingConsumers++;
+			
+			while ( current != null ) {
+				final PendingConsumer<T> next = current.next;
+				
+				if ( current.isCancelled() ) {
+					PendingConsumer.nextUpdater.compareAndSet(previous, current, next);
+				}
+				else {
+					previous = current;
+					remainingConsumers++;
+				}
+				
+				current = next;
+			}
+		}
+		
+		return remainingConsumers;
+	}
+	
+	/**
+	 * @post Obtiene el valor si está seteado y devuelve verdadero,
+	 * 		 sino apila el consumidor pendiente especificado
+	 * 		 y devuelve falso
+	 */
+	@SuppressWarnings("unchecked")
+	private boolean getOrPush(PendingConsumer<T> pendingConsumer, Consumer<T> consumer, TaskRunner taskRunner) {
+		Object currentState;
+		
+		do {
+			currentState = this.state;
+			
+			if ( currentState instanceof SettedValue ) {
+				consumer.accept( ( (SettedValue<T>) currentState ).value, taskRunner);
+				return true;
+			}
+			
+			pendingConsumer.next = (PendingConsumer<T>) currentState;
+		} while ( !stateUpdater.compareAndSet(this, currentState, pendingConsumer) );
+		
+		return false;
+	}
 
 	/* (non-Javadoc)
 	 * @see com.esferixis.misc.functional.Value#get(java.util.function.Consumer, com.esferixis.misc.concurrency.tasking.TaskRunner)
 	 */
+	@SuppressWarnings("unchecked")
 	@Override
 	public void get(Consumer<T> consumer, TaskRunner taskRunner) {
-		this.stateLock.lock();
-		boolean valueHasBeenSetted;
+		Preconditions.checkNotNull(consumer, "consumer");
 		
-		try {
-			if ( this.settedValue.isPresent() ) {
-				valueHasBeenSetted = true;
-			}
-			else {
-				this.pendingConsumers.push(consumer);
-				valueHasBeenSetted = false;
-			}
+		final Object currentState = this.state;
+		
+		if ( currentState instanceof SettedValue ) {
+			consumer.accept( ( (SettedValue<T>) currentState ).value, taskRunner);
 		}
-		finally {
-			this.stateLock.unlock();
+		else {
+			this.getOrPush(new PendingConsumer<T>(consumer), consumer, taskRunner);
 		}
+	}
+
+	/* (non-Javadoc)
+	 * @see com.esferixis.misc.functional.values.CancellableValue#getCancellable(com.esferixis.misc.functional.Consumer, com.esferixis.misc.concurrency.tasking.TaskRunner)
+	 */
+	@Override
+	public Cancellable getCancellable(Consumer<T> consumer, TaskRunner taskRunner) {
+		Preconditions.checkNotNull(consumer, "consumer");
+		
+		final CancellablePendingConsumer<T> pendingConsumer = new CancellablePendingConsumer<T>(this, consumer);
 		
-		if ( valueHasBeenSetted ) {
-			consumer.accept(this.settedValue.get(), taskRunner);
+		if ( this.getOrPush(pendingConsumer, consumer, taskRunner) ) {
+			return Values.uncancellable;
+		}
+		else {
+			return pendingConsumer;
 		}
 	}
 }
@@ -54,6 +54,13 @@ public final class ImmediateValue<T> implements Value<T> {
 		this.value = value;
 	}
 
+	/**
+	 * @post Devuelve el valor
+	 */
+	T getValue() {
+		return this.value;
+	}
+
 	/* (non-Javadoc)
 	 * @see com.esferixis.misc.functional.values.Value#get(com.esferixis.misc.functional.Consumer, com.esferixis.misc.concurrency.tasking.TaskRunner)
 	 */
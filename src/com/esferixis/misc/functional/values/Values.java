@@ -0,0 +1,792 @@
+/**
+ * Copyright (c) 2018 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.misc.functional.values;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import com.esferixis.misc.Preconditions;
+import com.esferixis.misc.concurrency.Cancellable;
+import com.esferixis.misc.concurrency.HashedWheelTimer;
+import com.esferixis.misc.concurrency.tasking.Task;
+import com.esferixis.misc.concurrency.tasking.TaskRunner;
+import com.esferixis.misc.functional.Consumer;
+
+/**
+ * @author Ariel Favio Carrizo
+ * 
+ * Combinadores de valores.
+ * 
+ * Los combinadores sobre valores inmediatos se evalúan en el momento,
+ * y devuelven valores inmediatos.
+ * Sobre los demás valores son perezosos: no crean valores diferidos,
+ * sino que se evalúan cada vez que se obtiene el valor, y las cadenas
+ * de transformaciones se fusionan en una sola.
+ * Por eso las funciones no deberían tener efectos secundarios, si se
+ * va a obtener el valor varias veces y no se desea reevaluar, se lo
+ * puede materializar con materialize().
+ * 
+ * Los valores que devuelven los combinadores perezosos son cancelables,
+ * al cancelarse la obtención se cancela la de los valores de los
+ * que dependen.
+ * 
+ * Ninguna de las funciones puede devolver nulo
+ */
+public final class Values {
+	/**
+	 * Cancelación de una obtención que no se puede cancelar, o que ya se realizó
+	 */
+	static final Cancellable uncancellable = new Cancellable() {
+
+		@Override
+		public boolean cancel() {
+			return false;
+		}
+		
+	};
+	
+	/**
+	 * Cancelación compuesta, cancela todas las cancelaciones
+	 */
+	private static final class CompositeCancellable implements Cancellable {
+		private final Cancellable[] cancellables;
+		
+		/**
+		 * @post Crea la cancelación compuesta con las cancelaciones especificadas
+		 */
+		public CompositeCancellable(Cancellable[] cancellables) {
+			this.cancellables = cancellables;
+		}
+
+		@Override
+		public boolean cancel() {
+			boolean hasBeenCancelled = false;
+			
+			for ( Cancellable eachCancellable : this.cancellables ) {
+				if ( eachCancellable != null ) {
+					hasBeenCancelled = eachCancellable.cancel() || hasBeenCancelled;
+				}
+			}
+			
+			return hasBeenCancelled;
+		}
+	}
+	
+	/**
+	 * Cancelación encadenada, cancela la obtención en curso,
+	 * que puede ser reemplazada por la siguiente
+	 */
+	private static final class ChainedCancellable implements Cancellable {
+		private static final Cancellable cancelled = new Cancellable() {
+
+			@Override
+			public boolean cancel() {
+				return false;
+			}
+			
+		};
+		
+		private final AtomicReference<Cancellable> current;
+		
+		/**
+		 * @post Crea la cancelación encadenada sin obtención en curso
+		 */
+		public ChainedCancellable() {
+			this.current = new AtomicReference<Cancellable>(null);
+		}
+		
+		/**
+		 * @post Establece la primera obtención, si no fue reemplazada por otra.
+		 * 		 Si fue cancelada, la cancela
+		 */
+		public void setFirst(Cancellable cancellable) {
+			if ( !this.current.compareAndSet(null, cancellable) && ( this.current.get() == cancelled ) ) {
+				cancellable.cancel();
+			}
+		}
+		
+		/**
+		 * @post Reemplaza la obtención en curso por la especificada.
+		 * 		 Si fue cancelada, la cancela
+		 */
+		public void setNext(Cancellable cancellable) {
+			Cancellable currentCancellable;
+			
+			do {
+				currentCancellable = this.current.get();
+				
+				if ( currentCancellable == cancelled ) {
+					cancellable.cancel();
+					return;
+				}
+			} while ( !this.current.compareAndSet(currentCancellable, cancellable) );
+		}
+		
+		/**
+		 * @post Devuelve si fue cancelada
+		 */
+		public boolean isCancelled() {
+			return this.current.get() == cancelled;
+		}
+
+		@Override
+		public boolean cancel() {
+			final Cancellable currentCancellable = this.current.getAndSet(cancelled);
+			
+			return ( currentCancellable != null ) && currentCancellable.cancel();
+		}
+	}
+	
+	/**
+	 * Valor transformado con una función
+	 */
+	private static final class MappedValue<S, T> implements CancellableValue<T> {
+		private final Value<S> source;
+		private final Function<? super S, ? extends T> function;
+		
+		/**
+		 * @post Crea el valor transformado con el valor original
+		 * 		 y la función especificados
+		 */
+		public MappedValue(Value<S> source, Function<? super S, ? extends T> function) {
+			this.source = source;
+			this.function = function;
+		}
+		
+		/**
+		 * @post Devuelve el valor transformado con la composición de
+		 * 		 la función de éste valor y la función especificada
+		 */
+		public <R> MappedValue<S, R> andThen(final Function<? super T, ? extends R> nextFunction) {
+			final Function<? super S, ? extends T> function = this.function;
+			
+			return new MappedValue<S, R>(this.source, new Function<S, R>() {
+
+				@Override
+				public R apply(S value) {
+					return nextFunction.apply(function.apply(value));
+				}
+				
+			});
+		}
+		
+		/**
+		 * @post Crea el consumidor del valor original, que transforma el
+		 * 		 valor y lo pasa al consumidor especificado
+		 */
+		private Consumer<S> createSourceConsumer(final Consumer<T> consumer) {
+			final Function<? super S, ? extends T> function = this.function;
+			
+			return new Consumer<S>() {
+
+				@Override
+				public void accept(S value, TaskRunner taskRunner) {
+					consumer.accept(function.apply(value), taskRunner);
+				}
+				
+			};
+		}
+
+		@Override
+		public void get(Consumer<T> consumer, TaskRunner taskRunner) {
+			this.source.get(this.createSourceConsumer(consumer), taskRunner);
+		}
+
+		@Override
+		public Cancellable getCancellable(Consumer<T> consumer, TaskRunner taskRunner) {
+			return Values.getCancellable(this.source, this.createSourceConsumer(consumer), taskRunner);
+		}
+	}
+	
+	/**
+	 * Valor transformado con una función que devuelve un valor
+	 */
+	private static final class FlatMappedValue<S, T> implements CancellableValue<T> {
+		private final Value<S> source;
+		private final Function<? super S, ? extends Value<T>> function;
+		
+		/**
+		 * @post Crea el valor transformado con el valor original
+		 * 		 y la función especificados
+		 */
+		public FlatMappedValue(Value<S> source, Function<? super S, ? extends Value<T>> function) {
+			this.source = source;
+			this.function = function;
+		}
+
+		@Override
+		public void get(Consumer<T> consumer, TaskRunner taskRunner) {
+			this.getCancellable(consumer, taskRunner);
+		}
+
+		@Override
+		public Cancellable getCancellable(final Consumer<T> consumer, TaskRunner taskRunner) {
+			final Function<? super S, ? extends Value<T>> function = this.function;
+			final ChainedCancellable cancellable = new ChainedCancellable();
+			
+			cancellable.setFirst(Values.getCancellable(this.source, new Consumer<S>() {
+
+				@Override
+				public void accept(S value, TaskRunner taskRunner) {
+					if ( !cancellable.isCancelled() ) {
+						cancellable.setNext(Values.getCancellable(function.apply(value), consumer, taskRunner));
+					}
+				}
+				
+			}, taskRunner));
+			
+			return cancellable;
+		}
+	}
+	
+	/**
+	 * Combinación de dos valores
+	 */
+	private static final class ZippedValue<A, B, T> implements CancellableValue<T> {
+		private final Value<A> first;
+		private final Value<B> second;
+		private final BiFunction<? super A, ? super B, ? extends T> function;
+		
+		/**
+		 * @post Crea la combinación con los valores y la función especificados
+		 */
+		public ZippedValue(Value<A> first, Value<B> second, BiFunction<? super A, ? super B, ? extends T> function) {
+			this.first = first;
+			this.second = second;
+			this.function = function;
+		}
+
+		@Override
+		public void get(Consumer<T> consumer, TaskRunner taskRunner) {
+			this.getCancellable(consumer, taskRunner);
+		}
+
+		@Override
+		public Cancellable getCancellable(final Consumer<T> consumer, TaskRunner taskRunner) {
+			final BiFunction<? super A, ? super B, ? extends T> function = this.function;
+			final Object[] values = new Object[2];
+			final AtomicInteger remainingValues = new AtomicInteger(2);
+			final Cancellable[] cancellables = new Cancellable[2];
+			
+			cancellables[0] = Values.getCancellable(this.first, new Consumer<A>() {
+
+				@SuppressWarnings("unchecked")
+				@Override
+				public void accept(A value, TaskRunner taskRunner) {
+					values[0] = value;
+					
+					if ( remainingValues.decrementAndGet() == 0 ) {
+						consumer.accept(function.apply(value, (B) values[1]), taskRunner);
+					}
+				}
+				
+			}, taskRunner);
+			
+			cancellables[1] = Values.getCancellable(this.second, new Consumer<B>() {
+
+				@SuppressWarnings("unchecked")
+				@Override
+				public void accept(B value, TaskRunner taskRunner) {
+					values[1] = value;
+					
+					if ( remainingValues.decrementAndGet() == 0 ) {
+						consumer.accept(function.apply((A) values[0], value), taskRunner);
+					}
+				}
+				
+			}, taskRunner);
+			
+			return new CompositeCancellable(cancellables);
+		}
+	}
+	
+	/**
+	 * Lista de los valores de una colección de valores
+	 */
+	private static final class AllOfValue<T> implements CancellableValue<List<T>> {
+		private final Value<T>[] values;
+		
+		/**
+		 * @post Crea el valor con los valores especificados
+		 */
+		public AllOfValue(Value<T>[] values) {
+			this.values = values;
+		}
+
+		@Override
+		public void get(Consumer<List<T>> consumer, TaskRunner taskRunner) {
+			this.getCancellable(consumer, taskRunner);
+		}
+
+		@Override
+		public Cancellable getCancellable(final Consumer<List<T>> consumer, TaskRunner taskRunner) {
+			final Object[] results = new Object[this.values.length];
+			final AtomicInteger remainingValues = new AtomicInteger(this.values.length);
+			final Cancellable[] cancellables = new Cancellable[this.values.length];
+			
+			for ( int i = 0 ; i < this.values.length ; i++ ) {
+				final int valueIndex = i;
+				
+				cancellables[i] = Values.getCancellable(this.values[i], new Consumer<T>() {
+
+					@SuppressWarnings("unchecked")
+					@Override
+					public void accept(T value, TaskRunner taskRunner) {
+						results[valueIndex] = value;
+						
+						if ( remainingValues.decrementAndGet() == 0 ) {
+							consumer.accept( (List<T>) Collections.unmodifiableList(Arrays.asList(results)), taskRunner);
+						}
+					}
+					
+				}, taskRunner);
+			}
+			
+			return new CompositeCancellable(cancellables);
+		}
+	}
+	
+	/**
+	 * Primer valor disponible de una colección de valores
+	 */
+	private static final class FirstOfValue<T> implements CancellableValue<T> {
+		private final Value<T>[] values;
+		
+		/**
+		 * @post Crea el valor con los valores especificados
+		 */
+		public FirstOfValue(Value<T>[] values) {
+			this.values = values;
+		}
+
+		@Override
+		public void get(Consumer<T> consumer, TaskRunner taskRunner) {
+			this.getCancellable(consumer, taskRunner);
+		}
+
+		@Override
+		public Cancellable getCancellable(final Consumer<T> consumer, TaskRunner taskRunner) {
+			final AtomicBoolean hasBeenConsumed = new AtomicBoolean(false);
+			final AtomicBoolean hasBeenRegistered = new AtomicBoolean(false);
+			final CompositeCancellable cancellable = new CompositeCancellable(new Cancellable[this.values.length]);
+			
+			final Consumer<T> firstConsumer = new Consumer<T>() {
+
+				@Override
+				public void accept(T value, TaskRunner taskRunner) {
+					if ( hasBeenConsumed.compareAndSet(false, true) ) {
+						// Descarta la obtención de los demás valores
+						if ( hasBeenRegistered.get() ) {
+							cancellable.cancel();
+						}
+						
+						consumer.accept(value, taskRunner);
+					}
+				}
+				
+			};
+			
+			for ( int i = 0 ; ( i < this.values.length ) && !hasBeenConsumed.get() ; i++ ) {
+				cancellable.cancellables[i] = Values.getCancellable(this.values[i], firstConsumer, taskRunner);
+			}
+			
+			hasBeenRegistered.set(true);
+			
+			if ( hasBeenConsumed.get() ) {
+				cancellable.cancel();
+			}
+			
+			return new Cancellable() {
+
+				@Override
+				public boolean cancel() {
+					if ( hasBeenConsumed.compareAndSet(false, true) ) {
+						cancellable.cancel();
+						return true;
+					}
+					else {
+						return false;
+					}
+				}
+				
+			};
+		}
+	}
+	
+	/**
+	 * Valor con tiempo límite
+	 */
+	private static final class TimeoutValue<T> implements CancellableValue<T> {
+		private final Value<T> source;
+		private final long timeoutNanos;
+		private final T fallbackValue;
+		private final HashedWheelTimer timer;
+		
+		/**
+		 * @post Crea el valor con tiempo límite con el valor original,
+		 * 		 el tiempo límite, el valor alternativo y el temporizador especificados
+		 */
+		public TimeoutValue(Value<T> source, long timeoutNanos, T fallbackValue, HashedWheelTimer timer) {
+			this.source = source;
+			this.timeoutNanos = timeoutNanos;
+			this.fallbackValue = fallbackValue;
+			this.timer = timer;
+		}
+
+		@Override
+		public void get(Consumer<T> consumer, TaskRunner taskRunner) {
+			this.getCancellable(consumer, taskRunner);
+		}
+
+		@Override
+		public Cancellable getCancellable(final Consumer<T> consumer, final TaskRunner taskRunner) {
+			final T fallbackValue = this.fallbackValue;
+			final AtomicBoolean hasBeenConsumed = new AtomicBoolean(false);
+			final AtomicReference<Cancellable> timeout = new AtomicReference<Cancellable>(null);
+			
+			final Cancellable sourceCancellable = Values.getCancellable(this.source, new Consumer<T>() {
+
+				@Override
+				public void accept(T value, TaskRunner taskRunner) {
+					if ( hasBeenConsumed.compareAndSet(false, true) ) {
+						final Cancellable currentTimeout = timeout.get();
+						
+						if ( currentTimeout != null ) {
+							currentTimeout.cancel();
+						}
+						
+						consumer.accept(value, taskRunner);
+					}
+				}
+				
+			}, taskRunner);
+			
+			if ( !hasBeenConsumed.get() ) {
+				timeout.set(this.timer.schedule(new Runnable() {
+
+					@Override
+					public void run() {
+						if ( hasBeenConsumed.compareAndSet(false, true) ) {
+							sourceCancellable.cancel();
+							
+							// El valor alternativo se consume en el ejecutador de tareas, no en el thread del temporizador
+							taskRunner.run(new Task() {
+								private static final long serialVersionUID = 1L;
+
+								@Override
+								public void run(TaskRunner taskRunner) {
+									consumer.accept(fallbackValue, taskRunner);
+								}
+
+								@Override
+								protected long getRelativeRunningTime_implementation() {
+									return 1;
+								}
+								
+							});
+						}
+					}
+					
+				}, this.timeoutNanos, TimeUnit.NANOSECONDS));
+				
+				// Si se obtuvo el valor mientras se programaba, no espera el vencimiento
+				if ( hasBeenConsumed.get() ) {
+					timeout.get().cancel();
+				}
+			}
+			
+			return new Cancellable() {
+
+				@Override
+				public boolean cancel() {
+					if ( hasBeenConsumed.compareAndSet(false, true) ) {
+						sourceCancellable.cancel();
+						
+						final Cancellable currentTimeout = timeout.get();
+						
+						if ( currentTimeout != null ) {
+							currentTimeout.cancel();
+						}
+						
+						return true;
+					}
+					else {
+						return false;
+					}
+				}
+				
+			};
+		}
+	}
+	
+	private Values() {}
+	
+	/**
+	 * @pre Ni el valor ni la función pueden ser nulos
+	 * @post Devuelve el valor transformado con la función especificada.
+	 * 
+	 * 		 Si el valor es inmediato, lo transforma en el momento.
+	 * 		 Si ya es un valor transformado, fusiona las funciones
+	 */
+	public static <S, T> Value<T> map(Value<S> value, Function<? super S, ? extends T> function) {
+		Preconditions.checkNotNull(value, "value");
+		Preconditions.checkNotNull(function, "function");
+		
+		if ( value instanceof ImmediateValue ) {
+			return new ImmediateValue<T>(function.apply( ( (ImmediateValue<S>) value ).getValue() ));
+		}
+		else if ( value instanceof MappedValue ) {
+			return ( (MappedValue<?, S>) value ).andThen(function);
+		}
+		else {
+			return new MappedValue<S, T>(value, function);
+		}
+	}
+	
+	/**
+	 * @pre Ni el valor ni la función pueden ser nulos
+	 * @post Devuelve el valor que resulta de obtener el valor que
+	 * 		 devuelve la función especificada con el valor especificado.
+	 * 
+	 * 		 Si el valor es inmediato, evalúa la función en el momento
+	 */
+	public static <S, T> Value<T> flatMap(Value<S> value, Function<? super S, ? extends Value<T>> function) {
+		Preconditions.checkNotNull(value, "value");
+		Preconditions.checkNotNull(function, "function");
+		
+		if ( value instanceof ImmediateValue ) {
+			return function.apply( ( (ImmediateValue<S>) value ).getValue() );
+		}
+		else {
+			return new FlatMappedValue<S, T>(value, function);
+		}
+	}
+	
+	/**
+	 * @pre Ni los valores ni la función pueden ser nulos
+	 * @post Devuelve la combinación de los valores con la función especificada.
+	 * 
+	 * 		 Si alguno de los valores es inmediato, se reduce a una
+	 * 		 transformación del otro
+	 */
+	public static <A, B, T> Value<T> zip(Value<A> first, Value<B> second, final BiFunction<? super A, ? super B, ? extends T> function) {
+		Preconditions.checkNotNull(first, "first");
+		Preconditions.checkNotNull(second, "second");
+		Preconditions.checkNotNull(function, "function");
+		
+		if ( first instanceof ImmediateValue ) {
+			final A firstValue = ( (ImmediateValue<A>) first ).getValue();
+			
+			return map(second, new Function<B, T>() {
+
+				@Override
+				public T apply(B secondValue) {
+					return function.apply(firstValue, secondValue);
+				}
+				
+			});
+		}
+		else if ( second instanceof ImmediateValue ) {
+			final B secondValue = ( (ImmediateValue<B>) second ).getValue();
+			
+			return map(first, new Function<A, T>() {
+
+				@Override
+				public T apply(A firstValue) {
+					return function.apply(firstValue, secondValue);
+				}
+				
+			});
+		}
+		else {
+			return new ZippedValue<A, B, T>(first, second, function);
+		}
+	}
+	
+	/**
+	 * @pre Ni la colección ni sus elementos pueden ser nulos
+	 * @post Devuelve la lista inmodificable de los valores de la colección
+	 * 		 especificada, en el mismo orden.
+	 * 
+	 * 		 Si todos los valores son inmediatos, devuelve un valor inmediato
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> Value<List<T>> allOf(Collection<? extends Value<T>> values) {
+		Preconditions.checkNotNull(values, "values");
+		
+		final Value<T>[] valuesArray = (Value<T>[]) values.toArray(new Value<?>[values.size()]);
+		boolean areImmediate = true;
+		
+		for ( Value<T> eachValue : valuesArray ) {
+			Preconditions.checkNotNull(eachValue, "value");
+			
+			areImmediate = areImmediate && ( eachValue instanceof ImmediateValue );
+		}
+		
+		if ( areImmediate ) {
+			final List<T> immediateValues = new ArrayList<T>(valuesArray.length);
+			
+			for ( Value<T> eachValue : valuesArray ) {
+				immediateValues.add( ( (ImmediateValue<T>) eachValue ).getValue() );
+			}
+			
+			return new ImmediateValue<List<T>>(Collections.unmodifiableList(immediateValues));
+		}
+		else {
+			return new AllOfValue<T>(valuesArray);
+		}
+	}
+	
+	/**
+	 * @pre Ni la colección ni sus elementos pueden ser nulos, y la colección
+	 * 		no puede estar vacía
+	 * @post Devuelve el primer valor disponible de la colección especificada.
+	 * 
+	 * 		 Si alguno de los valores es inmediato, devuelve el primero
+	 * 		 de ellos
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> Value<T> firstOf(Collection<? extends Value<T>> values) {
+		Preconditions.checkNotNull(values, "values");
+		
+		if ( values.isEmpty() ) {
+			throw new IllegalArgumentException("Expected at least one value");
+		}
+		
+		final Value<T>[] valuesArray = (Value<T>[]) values.toArray(new Value<?>[values.size()]);
+		
+		for ( Value<T> eachValue : valuesArray ) {
+			Preconditions.checkNotNull(eachValue, "value");
+		}
+		
+		for ( Value<T> eachValue : valuesArray ) {
+			if ( eachValue instanceof ImmediateValue ) {
+				return eachValue;
+			}
+		}
+		
+		return new FirstOfValue<T>(valuesArray);
+	}
+	
+	/**
+	 * @pre Ni el valor ni el ejecutador de tareas pueden ser nulos
+	 * @post Materializa el valor especificado, obteniéndolo con el ejecutador
+	 * 		 de tareas especificado.
+	 * 
+	 * 		 El valor devuelto se evalúa una sola vez.
+	 * 		 Si el valor ya es inmediato o diferido, devuelve el mismo valor
+	 */
+	public static <T> Value<T> materialize(final Value<T> value, TaskRunner taskRunner) {
+		Preconditions.checkNotNull(value, "value");
+		Preconditions.checkNotNull(taskRunner, "taskRunner");
+		
+		if ( ( value instanceof ImmediateValue ) || ( value instanceof DeferredValue ) ) {
+			return value;
+		}
+		else {
+			return new DeferredValue<T>(new Consumer<Consumer<T>>() {
+
+				@Override
+				public void accept(Consumer<T> valueInitializer, TaskRunner taskRunner) {
+					value.get(valueInitializer, taskRunner);
+				}
+				
+			}, taskRunner);
+		}
+	}
+	
+	/**
+	 * @pre Ni el valor, ni el consumidor, ni el ejecutador de tareas pueden ser nulos
+	 * @post Obtiene el valor especificado en el consumidor especificado, con el
+	 * 		 ejecutador de tareas especificado, y devuelve la cancelación de la obtención.
+	 * 
+	 * 		 Si el valor no es cancelable, la cancelación no tiene efecto
+	 */
+	public static <T> Cancellable getCancellable(Value<T> value, Consumer<T> consumer, TaskRunner taskRunner) {
+		Preconditions.checkNotNull(value, "value");
+		Preconditions.checkNotNull(consumer, "consumer");
+		
+		if ( value instanceof CancellableValue ) {
+			return ( (CancellableValue<T>) value ).getCancellable(consumer, taskRunner);
+		}
+		else {
+			value.get(consumer, taskRunner);
+			
+			return uncancellable;
+		}
+	}
+	
+	/**
+	 * @pre Ni el valor, ni la unidad, ni el valor alternativo, ni el temporizador
+	 * 		pueden ser nulos, y el tiempo límite no puede ser negativo
+	 * @post Devuelve el valor especificado con el tiempo límite especificado,
+	 * 		 medido por el temporizador especificado.
+	 * 
+	 * 		 Si el valor no se obtiene antes del tiempo límite, se cancela su
+	 * 		 obtención y se consume el valor alternativo especificado, en el
+	 * 		 ejecutador de tareas con el que se obtuvo el valor.
+	 * 		 El tiempo límite se cuenta desde cada obtención
+	 */
+	public static <T> Value<T> timeout(Value<T> value, long timeout, TimeUnit unit, T fallbackValue, HashedWheelTimer timer) {
+		Preconditions.checkNotNull(value, "value");
+		Preconditions.checkIsNotNegative(timeout, "timeout");
+		Preconditions.checkNotNull(unit, "unit");
+		Preconditions.checkNotNull(fallbackValue, "fallbackValue");
+		Preconditions.checkNotNull(timer, "timer");
+		
+		if ( value instanceof ImmediateValue ) {
+			return value;
+		}
+		else {
+			return new TimeoutValue<T>(value, unit.toNanos(timeout), fallbackValue, timer);
+		}
+	}
+	
+	/**
+	 * @pre Ni el valor, ni la unidad, ni el valor alternativo pueden ser nulos,
+	 * 		y el tiempo límite no puede ser negativo
+	 * @post Devuelve el valor especificado con el tiempo límite especificado,
+	 * 		 medido por el temporizador compartido
+	 */
+	public static <T> Value<T> timeout(Value<T> value, long timeout, TimeUnit unit, T fallbackValue) {
+		return timeout(value, timeout, unit, fallbackValue, HashedWheelTimer.getShared());
+	}
+}
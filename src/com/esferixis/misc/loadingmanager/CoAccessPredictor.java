@@ -0,0 +1,206 @@
+/**
+ * Copyright (c) 2018 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.misc.loadingmanager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * @author Ariel Favio Carrizo
+ * 
+ * Predictor de coacceso.
+ * 
+ * Aprende qué elementos se piden en el pedido siguiente al que contiene
+ * a cada elemento. Para cada elemento guarda a lo sumo una cantidad fija
+ * de sucesores con sus cuentas: si no hay lugar, el sucesor nuevo reemplaza
+ * al de menor cuenta y hereda esa cuenta más uno (Space-Saving), y la
+ * cantidad de elementos con historia también está acotada (LRU).
+ * 
+ * No es thread-safe
+ */
+final class CoAccessPredictor<T> {
+	private static final int MAX_SUCCESSORS = 4;
+	private static final int MAX_CONTEXT_ELEMENTS = 8;
+	
+	private final class Successors {
+		private final List<T> elements;
+		private final List<Integer> counts;
+		
+		/**
+		 * @post Crea la tabla de sucesores vacía
+		 */
+		public Successors() {
+			this.elements = new ArrayList<T>(MAX_SUCCESSORS);
+			this.counts = new ArrayList<Integer>(MAX_SUCCESSORS);
+		}
+		
+		/**
+		 * @post Incrementa la cuenta del sucesor especificado
+		 */
+		public void increment(T element) {
+			final int index = this.elements.indexOf(element);
+			
+			if ( index != -1 ) {
+				this.counts.set(index, this.counts.get(index) + 1);
+			}
+			else if ( this.elements.size() < MAX_SUCCESSORS ) {
+				this.elements.add(element);
+				this.counts.add(1);
+			}
+			else {
+				int minIndex = 0;
+				
+				for ( int i = 1 ; i < this.counts.size() ; i++ ) {
+					if ( this.counts.get(i) < this.counts.get(minIndex) ) {
+						minIndex = i;
+					}
+				}
+				
+				this.elements.set(minIndex, element);
+				this.counts.set(minIndex, this.counts.get(minIndex) + 1);
+			}
+		}
+	}
+	
+	private final Map<T, Successors> successorsPerElement;
+	private List<T> lastRequest;
+	
+	/**
+	 * @post Crea el predictor con la cantidad máxima de elementos
+	 * 		 con historia especificada
+	 */
+	public CoAccessPredictor(final int maxTrackedElements) {
+		this.successorsPerElement = new LinkedHashMap<T, Successors>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<T, Successors> eldest) {
+				return this.size() > maxTrackedElements;
+			}
+		};
+		
+		this.lastRequest = Collections.emptyList();
+	}
+	
+	/**
+	 * @post Devuelve los primeros elementos del pedido especificado,
+	 * 		 que se usan como contexto
+	 */
+	private List<T> context(Collection<T> request) {
+		final List<T> context = new ArrayList<T>(Math.min(request.size(), MAX_CONTEXT_ELEMENTS));
+		
+		for ( T eachElement : request ) {
+			if ( context.size() == MAX_CONTEXT_ELEMENTS ) {
+				break;
+			}
+			
+			context.add(eachElement);
+		}
+		
+		return context;
+	}
+	
+	/**
+	 * @post Registra el pedido especificado, como sucesor del anterior
+	 */
+	public void record(Collection<T> request) {
+		final List<T> context = this.context(request);
+		
+		for ( T eachPreviousElement : this.lastRequest ) {
+			Successors successors = this.successorsPerElement.get(eachPreviousElement);
+			
+			if ( successors == null ) {
+				successors = new Successors();
+				this.successorsPerElement.put(eachPreviousElement, successors);
+			}
+			
+			for ( T eachElement : context ) {
+				if ( !eachElement.equals(eachPreviousElement) ) {
+					successors.increment(eachElement);
+				}
+			}
+		}
+		
+		this.lastRequest = context;
+	}
+	
+	/**
+	 * @post Devuelve los elementos que probablemente se pidan después del
+	 * 		 pedido especificado, ordenados de más a menos probable,
+	 * 		 hasta la cantidad máxima especificada
+	 */
+	public List<T> predict(Collection<T> request, int maxPredictions) {
+		final Set<T> requestElements = new HashSet<T>(request);
+		final Map<T, Integer> scorePerElement = new HashMap<T, Integer>();
+		
+		for ( T eachElement : this.context(request) ) {
+			final Successors successors = this.successorsPerElement.get(eachElement);
+			
+			if ( successors != null ) {
+				for ( int i = 0 ; i < successors.elements.size() ; i++ ) {
+					final T eachSuccessor = successors.elements.get(i);
+					
+					if ( !requestElements.contains(eachSuccessor) ) {
+						final Integer score = scorePerElement.get(eachSuccessor);
+						scorePerElement.put(eachSuccessor, ( score != null ? score : 0 ) + successors.counts.get(i));
+					}
+				}
+			}
+		}
+		
+		final List<T> predictions = new ArrayList<T>(scorePerElement.keySet());
+		
+		Collections.sort(predictions, new Comparator<T>() {
+
+			@Override
+			public int compare(T element1, T element2) {
+				return Integer.compare(scorePerElement.get(element2), scorePerElement.get(element1));
+			}
+			
+		});
+		
+		if ( predictions.size() > maxPredictions ) {
+			return new ArrayList<T>(predictions.subList(0, maxPredictions));
+		}
+		else {
+			return predictions;
+		}
+	}
+}
@@ -0,0 +1,764 @@
+/**
+ * Copyright (c) 2018 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.misc.loadingmanager;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.esferixis.misc.Preconditions;
+import com.esferixis.misc.concurrency.tasking.TaskRunner;
+import com.esferixis.misc.dynamicFields.DynamicFieldsContainerObject;
+import com.esferixis.misc.loader.DataLoadingErrorException;
+
+/**
+ * @author Ariel Favio Carrizo
+ * 
+ * Variante concurrente de LinkedMruLoadingManager.
+ * 
+ * Si todos los elementos pedidos ya están cargados, la consulta no toma
+ * ningún lock: se busca cada elemento en un mapa concurrente y el acceso se
+ * registra en un buffer de lectura particionado por hilo.
+ * Los buffers se vacían en la lista MRU cuando se llenan, o antes de
+ * planificar una carga, bajo el lock de la lista.
+ * 
+ * Las cargas se serializan entre pedidos. Dentro de cada pedido se eligen
+ * primero los elementos a desalojar, si el pedido no entra se lanza OutOfSpace
+ * sin haber desalojado nada. Un elemento fijado sólo se cuenta como liberable
+ * si todos sus usuarios conocidos, según getDependencies(), están entre las
+ * víctimas anteriores a él. Luego se desalojan, se reserva el espacio de
+ * todos los elementos faltantes, y se cargan por niveles de dependencia: los elementos de un mismo
+ * nivel se cargan en paralelo con el ejecutador de tareas especificado.
+ * 
+ * La estrategia de carga tiene que soportar la carga concurrente de elementos
+ * distintos, y las notificaciones a los observers pueden llegar desde los
+ * hilos del ejecutador de tareas. Los elementos sólo pueden tener usuarios
+ * cargados por éste administrador.
+ */
+public final class ConcurrentLinkedMruLoadingManager<T extends DynamicFieldsContainerObject> extends LoadingManager<T> {
+	private static final int READ_BUFFER_SIZE = 32;
+	private static final int READ_BUFFER_MASK = READ_BUFFER_SIZE - 1;
+	
+	private final class Node {
+		private Node beforeNode;
+		private Node afterNode;
+		private boolean linked;
+		
+		private final T element;
+		private final long occupiedSpace;
+		private final Collection<T> dependencies;
+		private final int level;
+		
+		private volatile boolean loaded;
+		private volatile boolean resident;
+		
+		private final NodeElementObserver nodeElementObserver;
+		
+		/**
+		 * @post Crea el nodo con el elemento, el espacio ocupado,
+		 * 		 las dependencias y el nivel de dependencia especificados
+		 */
+		public Node(T element, long occupiedSpace, Collection<T> dependencies, int level) {
+			if ( element != null ) {
+				this.element = element;
+				this.occupiedSpace = occupiedSpace;
+				this.dependencies = dependencies;
+				this.level = level;
+				
+				this.beforeNode = null;
+				this.afterNode = null;
+				this.linked = false;
+				
+				this.loaded = false;
+				this.resident = false;
+				
+				this.nodeElementObserver = new NodeElementObserver(this);
+			}
+			else {
+				throw new NullPointerException();
+			}
+		}
+	}
+	
+	private final class NodeElementObserver implements LoadingStrategy.Observer {
+		private final Node node;
+		
+		/**
+		 * @post Crea el observer de nodo
+		 */
+		public NodeElementObserver(Node node) {
+			this.node = node;
+		}
+		
+		/* (non-Javadoc)
+		 * @see com.esferixis.misc.loadingmanager.LoadingStrategy.Observer#notifyHasLoadedUsers()
+		 */
+		@Override
+		public void notifyHasLoadedUsers() {
+			final ReentrantLock listLock = ConcurrentLinkedMruLoadingManager.this.listLock;
+			
+			listLock.lock();
+			try {
+				ConcurrentLinkedMruLoadingManager.this.removeNodeInLinkedLists(this.node);
+			}
+			finally {
+				listLock.unlock();
+			}
+		}
+
+		/* (non-Javadoc)
+		 * @see com.esferixis.misc.loadingmanager.LoadingStrategy.Observer#notifyHasNotLoadedUsers()
+		 */
+		@Override
+		public void notifyHasNotLoadedUsers() {
+			final ReentrantLock listLock = ConcurrentLinkedMruLoadingManager.this.listLock;
+			
+			listLock.lock();
+			try {
+				ConcurrentLinkedMruLoadingManager.this.insertNodeAtFirstPosition(this.node);
+			}
+			finally {
+				listLock.unlock();
+			}
+		}
+		
+	}
+	
+	/**
+	 * Buffer de lectura con pérdida.
+	 * 
+	 * Los hilos que registran accesos reservan una posición con CAS,
+	 * si el buffer está lleno o pierden la carrera el acceso se descarta.
+	 * Sólo se vacía bajo el lock de la lista.
+	 */
+	private final class ReadBuffer {
+		private final AtomicReferenceArray<Node> slots;
+		private final AtomicLong writeCounter;
+		private volatile long readCounter;
+		
+		/**
+		 * @post Crea el buffer vacío
+		 */
+		public ReadBuffer() {
+			this.slots = new AtomicReferenceArray<Node>(READ_BUFFER_SIZE);
+			this.writeCounter = new AtomicLong(0);
+			this.readCounter = 0;
+		}
+		
+		/**
+		 * @post Registra el acceso al nodo especificado, si hay lugar.
+		 * 		 Devuelve si el buffer está lleno y conviene vaciarlo
+		 */
+		public boolean offer(Node node) {
+			final long readCounter = this.readCounter;
+			final long writeCounter = this.writeCounter.get();
+			
+			if ( writeCounter - readCounter < READ_BUFFER_SIZE ) {
+				if ( this.writeCounter.compareAndSet(writeCounter, writeCounter + 1) ) {
+					this.slots.lazySet( (int) ( writeCounter & READ_BUFFER_MASK ), node);
+					
+					return ( writeCounter + 1 - readCounter ) == READ_BUFFER_SIZE;
+				}
+				else {
+					return false;
+				}
+			}
+			else {
+				return true;
+			}
+		}
+		
+		/**
+		 * @pre Se tiene que tener el lock de la lista
+		 * @post Promueve los nodos registrados, en orden de acceso
+		 */
+		public void drain() {
+			long readCounter = this.readCounter;
+			final long writeCounter = this.writeCounter.get();
+			
+			while ( readCounter < writeCounter ) {
+				final int index = (int) ( readCounter & READ_BUFFER_MASK );
+				final Node node = this.slots.get(index);
+				
+				// Reservado pero todavía no publicado
+				if ( node == null ) {
+					break;
+				}
+				
+				this.slots.lazySet(index, null);
+				ConcurrentLinkedMruLoadingManager.this.promoteNode(node);
+				
+				readCounter++;
+			}
+			
+			this.readCounter = readCounter;
+		}
+	}
+	
+	private final TaskRunner taskRunner;
+	
+	private final ConcurrentHashMap<T, Node> nodePerElement;
+	private final ReadBuffer[] readBuffers;
+	
+	private final ReentrantLock loadLock;
+	private final ReentrantLock listLock;
+	
+	private Node firstNode;
+	private Node lastNode;
+	
+	private long nodesQuantity;
+	private long freeSpace;
+	
+	/**
+	 * @pre Ni la estrategia de carga ni el ejecutador de tareas pueden ser nulos.
+	 * 		La estrategia de carga tiene que soportar la carga concurrente
+	 * 		de elementos distintos
+	 * @post Crea el administrador de carga con la estrategia de carga, el límite de elementos,
+	 * 		 la capacidad y el ejecutador de tareas para las cargas especificados
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	public ConcurrentLinkedMruLoadingManager(LoadingStrategy<T> loadingStrategy, long maxElements, long capacity, TaskRunner taskRunner) {
+		super(loadingStrategy, maxElements, capacity);
+		
+		Preconditions.checkNotNull(taskRunner, "taskRunner");
+		
+		this.taskRunner = taskRunner;
+		
+		this.nodePerElement = new ConcurrentHashMap<T, Node>();
+		
+		int readBuffersQuantity = 1;
+		while ( readBuffersQuantity < Runtime.getRuntime().availableProcessors() ) {
+			readBuffersQuantity <<= 1;
+		}
+		
+		this.readBuffers = new ConcurrentLinkedMruLoadingManager.ReadBuffer[readBuffersQuantity];
+		for ( int i = 0 ; i < readBuffersQuantity ; i++ ) {
+			this.readBuffers[i] = new ReadBuffer();
+		}
+		
+		this.loadLock = new ReentrantLock();
+		this.listLock = new ReentrantLock();
+		
+		this.firstNode = null;
+		this.lastNode = null;
+		
+		this.nodesQuantity = 0;
+		this.freeSpace = capacity;
+	}
+	
+	/**
+	 * @pre Se tiene que tener el lock de la lista
+	 * @post Inserta el nodo en la primera posición
+	 */
+	private void insertNodeAtFirstPosition(Node node) {
+		if ( !node.linked ) {
+			node.beforeNode = null;
+			node.afterNode = this.firstNode;
+			
+			if ( this.firstNode != null ) {
+				this.firstNode.beforeNode = node;
+			}
+			
+			this.firstNode = node;
+			
+			if ( this.lastNode == null ) {
+				this.lastNode = node;
+			}
+			
+			node.linked = true;
+		}
+	}
+	
+	/**
+	 * @pre Se tiene que tener el lock de la lista
+	 * @post Borra el nodo solamente de las listas enlazadas
+	 */
+	private void removeNodeInLinkedLists(Node node) {
+		if ( node.linked ) {
+			if ( node.beforeNode != null ) {
+				node.beforeNode.afterNode = node.afterNode;
+			}
+			else {
+				this.firstNode = node.afterNode;
+			}
+			
+			if ( node.afterNode != null ) {
+				node.afterNode.beforeNode = node.beforeNode;
+			}
+			else {
+				this.lastNode = node.beforeNode;
+			}
+			
+			node.beforeNode = null;
+			node.afterNode = null;
+			node.linked = false;
+		}
+	}
+	
+	/**
+	 * @pre Se tiene que tener el lock de la lista
+	 * @post Mueve el nodo al principio, si está presente y no está reservado
+	 * 		 por usuarios cargados
+	 */
+	private void promoteNode(Node node) {
+		if ( node.resident && node.linked && ( node != this.firstNode ) ) {
+			this.removeNodeInLinkedLists(node);
+			this.insertNodeAtFirstPosition(node);
+		}
+	}
+	
+	/**
+	 * @post Registra el acceso al nodo especificado, sin bloquear.
+	 * 		 Si el buffer de lectura del hilo se llenó, intenta vaciarlos
+	 */
+	private void recordAccess(Node node) {
+		final int hash = (int) Thread.currentThread().getId() * 0x9E3779B9;
+		final ReadBuffer readBuffer = this.readBuffers[ ( hash >>> 16 ) & ( this.readBuffers.length - 1 ) ];
+		
+		if ( readBuffer.offer(node) && this.listLock.tryLock() ) {
+			try {
+				this.drainReadBuffers();
+			}
+			finally {
+				this.listLock.unlock();
+			}
+		}
+	}
+	
+	/**
+	 * @pre Se tiene que tener el lock de la lista
+	 * @post Vacía los buffers de lectura
+	 */
+	private void drainReadBuffers() {
+		for ( ReadBuffer eachReadBuffer : this.readBuffers ) {
+			eachReadBuffer.drain();
+		}
+	}
+	
+	/**
+	 * @pre Se tiene que tener el lock de carga y el de la lista.
+	 * 		El nodo tiene que estar presente y no tiene
+	 * 		que tener usuarios cargados
+	 * @post Descarga el nodo, y sólo el nodo especificado
+	 */
+	private void unloadNode(Node node) {
+		this.loadingStrategy.detachObserver(node.element, node.nodeElementObserver);
+		this.loadingStrategy.unload(node.element);
+		
+		node.resident = false;
+		this.nodePerElement.remove(node.element);
+		
+		this.removeNodeInLinkedLists(node);
+		
+		this.freeSpace += node.occupiedSpace;
+		this.nodesQuantity--;
+	}
+	
+	/**
+	 * @post Carga el elemento del nodo especificado
+	 */
+	private void loadNode(Node node) {
+		this.loadingStrategy.load(node.element);
+		node.loaded = true;
+	}
+	
+	/**
+	 * @pre Se tiene que tener el lock de carga
+	 * @post Agrega el elemento especificado y sus dependencias que no estén cargadas
+	 * 		 a la clausura, después de sus dependencias.
+	 * 
+	 * 		 Recorre con una pila explícita para soportar cadenas de
+	 * 		 dependencias profundas
+	 */
+	private void addToClosure(T element, Set<T> visitedElements, List<T> closure, Map<T, Collection<T>> dependenciesPerMissingElement) {
+		if ( visitedElements.add(element) ) {
+			final ArrayDeque<T> elementStack = new ArrayDeque<T>();
+			final ArrayDeque<Iterator<T>> dependenciesStack = new ArrayDeque<Iterator<T>>();
+			
+			this.pushClosureElement(element, elementStack, dependenciesStack, dependenciesPerMissingElement);
+			
+			while ( !elementStack.isEmpty() ) {
+				final Iterator<T> dependencies = dependenciesStack.peek();
+				
+				if ( dependencies.hasNext() ) {
+					final T eachDependency = dependencies.next();
+					
+					if ( visitedElements.add(eachDependency) ) {
+						this.pushClosureElement(eachDependency, elementStack, dependenciesStack, dependenciesPerMissingElement);
+					}
+				}
+				else {
+					// Todas sus dependencias ya están en la clausura
+					dependenciesStack.pop();
+					closure.add(elementStack.pop());
+				}
+			}
+		}
+	}
+	
+	/**
+	 * @pre Se tiene que tener el lock de carga
+	 * @post Apila el elemento especificado con sus dependencias, y si falta
+	 * 		 las registra. Si ya está presente no hace falta recorrerlas
+	 */
+	private void pushClosureElement(T element, ArrayDeque<T> elementStack, ArrayDeque<Iterator<T>> dependenciesStack, Map<T, Collection<T>> dependenciesPerMissingElement) {
+		elementStack.push(element);
+		
+		if ( this.nodePerElement.get(element) == null ) {
+			final Collection<T> dependencies = this.loadingStrategy.getDependencies(element);
+			dependenciesPerMissingElement.put(element, dependencies);
+			
+			dependenciesStack.push(dependencies.iterator());
+		}
+		else {
+			dependenciesStack.push(Collections.<T>emptyIterator());
+		}
+	}
+	
+	/**
+	 * @pre Se tiene que tener el lock de carga y el de la lista
+	 * @post Devuelve los nodos a desalojar, en el orden en que se tienen que
+	 * 		 desalojar, sin tocar los elementos del pedido, para que haya espacio
+	 * 		 para el tamaño y la cantidad de elementos faltantes especificados.
+	 * 		 No desaloja nada, si no alcanza lanza OutOfSpace.
+	 * 
+	 * 		 Recorre la lista desde el final. Los nodos fijados por usuarios
+	 * 		 cargados no están en la lista, pero al desalojar todos sus usuarios
+	 * 		 conocidos se insertarían al principio, así que se consideran
+	 * 		 después del principio de la lista, en ese orden
+	 */
+	private List<Node> planVictims(long requiredSpace, int missingElementsQuantity, Set<T> requestedElements) {
+		final List<Node> victims = new ArrayList<Node>();
+		
+		long freeSpace = this.freeSpace;
+		long nodesQuantity = this.nodesQuantity + missingElementsQuantity;
+		Node eachNode = this.lastNode;
+		
+		final ArrayDeque<Node> unpinnedNodes = new ArrayDeque<Node>();
+		Map<Node, Integer> residentUsersPerPinnedNode = null;
+		
+		while ( ( freeSpace < requiredSpace ) || ( nodesQuantity > this.maxElements ) ) {
+			final Node candidate;
+			
+			if ( eachNode != null ) {
+				candidate = eachNode;
+				eachNode = eachNode.beforeNode;
+			}
+			else if ( !unpinnedNodes.isEmpty() ) {
+				candidate = unpinnedNodes.poll();
+			}
+			else {
+				throw new OutOfSpace("Too many elements");
+			}
+			
+			if ( !requestedElements.contains(candidate.element) ) {
+				victims.add(candidate);
+				freeSpace += candidate.occupiedSpace;
+				nodesQuantity--;
+				
+				if ( !candidate.dependencies.isEmpty() ) {
+					if ( residentUsersPerPinnedNode == null ) {
+						residentUsersPerPinnedNode = this.countResidentUsersPerPinnedNode();
+					}
+					
+					for ( T eachDependency : candidate.dependencies ) {
+						final Node dependencyNode = this.nodePerElement.get(eachDependency);
+						final Integer residentUsers = residentUsersPerPinnedNode.get(dependencyNode);
+						
+						if ( residentUsers != null ) {
+							if ( residentUsers == 1 ) {
+								residentUsersPerPinnedNode.remove(dependencyNode);
+								unpinnedNodes.add(dependencyNode);
+							}
+							else {
+								residentUsersPerPinnedNode.put(dependencyNode, residentUsers - 1);
+							}
+						}
+					}
+				}
+			}
+		}
+		
+		return victims;
+	}
+	
+	/**
+	 * @pre Se tiene que tener el lock de carga y el de la lista
+	 * @post Devuelve la cantidad de usuarios presentes de cada nodo fijado,
+	 * 		 según las dependencias de los nodos
+	 */
+	private Map<Node, Integer> countResidentUsersPerPinnedNode() {
+		final Map<Node, Integer> residentUsersPerPinnedNode = new HashMap<Node, Integer>();
+		
+		for ( Node eachNode : this.nodePerElement.values() ) {
+			if ( eachNode.resident ) {
+				for ( T eachDependency : eachNode.dependencies ) {
+					final Node dependencyNode = this.nodePerElement.get(eachDependency);
+					
+					if ( ( dependencyNode != null ) && dependencyNode.resident && !dependencyNode.linked ) {
+						final Integer residentUsers = residentUsersPerPinnedNode.get(dependencyNode);
+						residentUsersPerPinnedNode.put(dependencyNode, ( residentUsers != null ) ? residentUsers + 1 : 1);
+					}
+				}
+			}
+		}
+		
+		return residentUsersPerPinnedNode;
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.misc.loadingmanager.LoadingManager#loadElements_internal(java.util.Collection)
+	 */
+	@Override
+	protected void loadElements_internal(Collection<T> elements) throws NullPointerException, DataLoadingErrorException, OutOfSpace {
+		if ( elements.size() > this.maxElements ) {
+			throw new OutOfSpace("Too many elements");
+		}
+		
+		boolean allResident = true;
+		
+		for ( T eachElement : elements ) {
+			final Node node = this.nodePerElement.get(eachElement);
+			
+			if ( ( node != null ) && node.resident ) {
+				this.recordAccess(node);
+			}
+			else {
+				allResident = false;
+				break;
+			}
+		}
+		
+		if ( !allResident ) {
+			this.loadMissingElements(elements);
+		}
+	}
+	
+	/**
+	 * @post Carga los elementos especificados que falten, con sus dependencias
+	 */
+	private void loadMissingElements(Collection<T> elements) throws DataLoadingErrorException {
+		this.loadLock.lock();
+		try {
+			final List<T> closure = new ArrayList<T>(elements.size() * 2);
+			final Set<T> closureElements = new HashSet<T>();
+			final Map<T, Collection<T>> dependenciesPerMissingElement = new HashMap<T, Collection<T>>();
+			
+			for ( T eachElement : elements ) {
+				this.addToClosure(eachElement, closureElements, closure, dependenciesPerMissingElement);
+			}
+			
+			final List<List<Node>> nodesPerLevel = new ArrayList<List<Node>>();
+			
+			this.listLock.lock();
+			try {
+				this.drainReadBuffers();
+				
+				// Verifica que entre antes de desalojar
+				long residentSpace = 0, requiredSpace = 0;
+				final Map<T, Long> occupiedSpacePerMissingElement = new HashMap<T, Long>();
+				
+				for ( T eachElement : closure ) {
+					final Node node = this.nodePerElement.get(eachElement);
+					
+					if ( node != null ) {
+						residentSpace += node.occupiedSpace;
+					}
+					else {
+						final long occupiedSpace = this.loadingStrategy.getOccupiedSpace(eachElement);
+						occupiedSpacePerMissingElement.put(eachElement, occupiedSpace);
+						requiredSpace += occupiedSpace;
+					}
+				}
+				
+				if ( ( residentSpace + requiredSpace > this.capacity ) || ( closure.size() > this.maxElements ) ) {
+					throw new OutOfSpace("Too many elements");
+				}
+				
+				// Elige todas las víctimas antes de desalojar
+				final List<Node> victims = this.planVictims(requiredSpace, occupiedSpacePerMissingElement.size(), closureElements);
+				
+				for ( Node eachVictim : victims ) {
+					// Los fijados se planifican sólo si se desalojan todos sus usuarios presentes,
+					// así que si sigue fijado lo fijó un usuario que no cargó éste administrador
+					if ( !eachVictim.linked ) {
+						throw new IllegalStateException("Element " + eachVictim.element + " is pinned by an element that is not loaded by this loading manager");
+					}
+					
+					this.unloadNode(eachVictim);
+				}
+				
+				// Promueve los presentes y reserva los faltantes
+				final Map<T, Node> newNodePerElement = new HashMap<T, Node>();
+				
+				for ( T eachElement : closure ) {
+					final Node node = this.nodePerElement.get(eachElement);
+					
+					if ( node != null ) {
+						this.promoteNode(node);
+					}
+					else {
+						final long occupiedSpace = occupiedSpacePerMissingElement.get(eachElement);
+						
+						int level = 0;
+						for ( T eachDependency : dependenciesPerMissingElement.get(eachElement) ) {
+							final Node dependencyNode = newNodePerElement.get(eachDependency);
+							
+							if ( dependencyNode != null ) {
+								level = Math.max(level, dependencyNode.level + 1);
+							}
+						}
+						
+						final Node newNode = new Node(eachElement, occupiedSpace, dependenciesPerMissingElement.get(eachElement), level);
+						
+						this.freeSpace -= occupiedSpace;
+						this.nodesQuantity++;
+						
+						newNodePerElement.put(eachElement, newNode);
+						
+						while ( nodesPerLevel.size() <= level ) {
+							nodesPerLevel.add(new ArrayList<Node>());
+						}
+						nodesPerLevel.get(level).add(newNode);
+					}
+				}
+			}
+			finally {
+				this.listLock.unlock();
+			}
+			
+			this.loadLevels(nodesPerLevel);
+		}
+		finally {
+			this.loadLock.unlock();
+		}
+	}
+	
+	/**
+	 * @pre Se tiene que tener el lock de carga, y el espacio de los nodos
+	 * 		tiene que estar reservado
+	 * @post Carga los nodos por niveles, en paralelo dentro de cada nivel,
+	 * 		 y los registra. Si falla alguna carga libera la reserva
+	 * 		 de los nodos que no se cargaron
+	 */
+	private void loadLevels(List<List<Node>> nodesPerLevel) throws DataLoadingErrorException {
+		final ParallelLoader<Node> parallelLoader = new ParallelLoader<Node>(this.taskRunner) {
+
+			@Override
+			protected void load(Node node) {
+				ConcurrentLinkedMruLoadingManager.this.loadNode(node);
+			}
+			
+		};
+		
+		for ( List<Node> eachLevel : nodesPerLevel ) {
+			if ( !parallelLoader.hasFailed() ) {
+				this.loadLevel(parallelLoader, eachLevel);
+			}
+			
+			this.listLock.lock();
+			try {
+				for ( Node eachNode : eachLevel ) {
+					if ( eachNode.loaded ) {
+						eachNode.resident = true;
+						eachNode.nodeElementObserver.notifyHasNotLoadedUsers();
+						this.loadingStrategy.attachObserver(eachNode.element, eachNode.nodeElementObserver);
+						
+						this.nodePerElement.put(eachNode.element, eachNode);
+					}
+					else {
+						this.freeSpace += eachNode.occupiedSpace;
+						this.nodesQuantity--;
+					}
+				}
+			}
+			finally {
+				this.listLock.unlock();
+			}
+		}
+		
+		parallelLoader.rethrowFailure();
+	}
+	
+	/**
+	 * @post Carga los nodos especificados en paralelo con el cargador especificado,
+	 * 		 y espera a que terminen
+	 */
+	private void loadLevel(ParallelLoader<Node> parallelLoader, List<Node> nodes) {
+		if ( nodes.size() == 1 ) {
+			parallelLoader.loadInCurrentThread(nodes.get(0));
+		}
+		else {
+			for ( Node eachNode : nodes ) {
+				if ( !parallelLoader.hasFailed() ) {
+					parallelLoader.start(eachNode, eachNode.occupiedSpace);
+				}
+			}
+			
+			parallelLoader.awaitAll();
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see com.esferixis.misc.loadingmanager.LoadingManager#destroy_internal()
+	 */
+	@Override
+	protected void destroy_internal() {
+		this.loadLock.lock();
+		try {
+			this.listLock.lock();
+			try {
+				while ( this.firstNode != null ) {
+					this.unloadNode(this.firstNode);
+				}
+			}
+			finally {
+				this.listLock.unlock();
+			}
+		}
+		finally {
+			this.loadLock.unlock();
+		}
+	}
+	
+}
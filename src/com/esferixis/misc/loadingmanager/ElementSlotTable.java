@@ -0,0 +1,385 @@
+/**
+ * Copyright (c) 2018 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.misc.loadingmanager;
+
+import java.util.Arrays;
+
+/**
+ * @author Ariel Favio Carrizo
+ * 
+ * Tabla compacta de elementos cargados.
+ * 
+ * Cada elemento ocupa una ranura, identificada por un entero.
+ * Los datos de las ranuras se guardan en arrays paralelos (elemento, espacio ocupado,
+ * anterior y siguiente en la lista MRU), así que no hay objetos por elemento.
+ * Las ranuras libres se reusan, encadenadas por el array de siguientes.
+ * 
+ * El índice de elemento a ranura es una tabla hash de direccionamiento abierto
+ * con sondeo lineal, que compara por igualdad y borra desplazando hacia atrás,
+ * sin lápidas.
+ * 
+ * No es thread-safe
+ */
+final class ElementSlotTable<T> {
+	/**
+	 * Ranura nula
+	 */
+	public static final int NO_SLOT = -1;
+	
+	// Marca de ranura que no está en la lista
+	private static final int UNLINKED = -2;
+	
+	private static final int INITIAL_SLOTS_CAPACITY = 16;
+	
+	private Object[] elements;
+	private long[] occupiedSpaces;
+	private int[] beforeSlots;
+	private int[] afterSlots;
+	
+	private int nextUnusedSlot;
+	private int freeSlotsHead;
+	private int size;
+	
+	private int firstSlot;
+	private int lastSlot;
+	
+	// Ranura + 1 de cada posición, cero si está vacía
+	private int[] index;
+	
+	/**
+	 * @post Crea la tabla vacía
+	 */
+	public ElementSlotTable() {
+		this.elements = new Object[INITIAL_SLOTS_CAPACITY];
+		this.occupiedSpaces = new long[INITIAL_SLOTS_CAPACITY];
+		this.beforeSlots = new int[INITIAL_SLOTS_CAPACITY];
+		this.afterSlots = new int[INITIAL_SLOTS_CAPACITY];
+		
+		this.nextUnusedSlot = 0;
+		this.freeSlotsHead = NO_SLOT;
+		this.size = 0;
+		
+		this.firstSlot = NO_SLOT;
+		this.lastSlot = NO_SLOT;
+		
+		this.index = new int[INITIAL_SLOTS_CAPACITY * 2];
+	}
+	
+	/**
+	 * @post Devuelve la cantidad de elementos
+	 */
+	public int size() {
+		return this.size;
+	}
+	
+	/**
+	 * @post Devuelve la cantidad de ranuras reservadas.
+	 * 		 Todas las ranuras son menores
+	 */
+	public int getSlotsCapacity() {
+		return this.elements.length;
+	}
+	
+	/**
+	 * @post Dispersa el hash del elemento especificado
+	 */
+	private static int hash(Object element) {
+		final int hash = element.hashCode() * 0x9E3779B9;
+		
+		return hash ^ ( hash >>> 16 );
+	}
+	
+	/**
+	 * @pre El elemento no puede ser nulo
+	 * @post Devuelve la ranura del elemento especificado, o NO_SLOT si no está
+	 */
+	public int find(Object element) {
+		final int mask = this.index.length - 1;
+		
+		for ( int position = hash(element) & mask ; ; position = ( position + 1 ) & mask ) {
+			final int slot = this.index[position] - 1;
+			
+			if ( slot == NO_SLOT ) {
+				return NO_SLOT;
+			}
+			else if ( this.elements[slot].equals(element) ) {
+				return slot;
+			}
+		}
+	}
+	
+	/**
+	 * @pre El elemento no puede ser nulo, y no tiene que estar
+	 * @post Agrega el elemento especificado con el espacio ocupado especificado,
+	 * 		 fuera de la lista, y devuelve su ranura
+	 */
+	public int add(T element, long occupiedSpace) {
+		final int slot;
+		
+		if ( this.freeSlotsHead != NO_SLOT ) {
+			slot = this.freeSlotsHead;
+			this.freeSlotsHead = this.afterSlots[slot];
+		}
+		else {
+			if ( this.nextUnusedSlot == this.elements.length ) {
+				this.growSlots();
+			}
+			
+			slot = this.nextUnusedSlot++;
+		}
+		
+		this.elements[slot] = element;
+		this.occupiedSpaces[slot] = occupiedSpace;
+		this.beforeSlots[slot] = UNLINKED;
+		this.afterSlots[slot] = UNLINKED;
+		
+		this.size++;
+		
+		if ( this.size * 2 > this.index.length ) {
+			this.rebuildIndex(this.index.length * 2);
+		}
+		else {
+			this.insertInIndex(slot);
+		}
+		
+		return slot;
+	}
+	
+	/**
+	 * @pre La ranura tiene que estar ocupada
+	 * @post Quita el elemento de la ranura especificada, sacándolo de la lista
+	 * 		 si está, y libera la ranura
+	 */
+	public void remove(int slot) {
+		if ( this.isLinked(slot) ) {
+			this.unlink(slot);
+		}
+		
+		this.removeFromIndex(slot);
+		
+		this.elements[slot] = null;
+		this.beforeSlots[slot] = UNLINKED;
+		this.afterSlots[slot] = this.freeSlotsHead;
+		this.freeSlotsHead = slot;
+		
+		this.size--;
+	}
+	
+	/**
+	 * @pre La ranura tiene que estar ocupada
+	 * @post Devuelve el elemento de la ranura especificada
+	 */
+	@SuppressWarnings("unchecked")
+	public T getElement(int slot) {
+		return (T) this.elements[slot];
+	}
+	
+	/**
+	 * @pre La ranura tiene que estar ocupada
+	 * @post Devuelve el espacio ocupado por el elemento de la ranura especificada
+	 */
+	public long getOccupiedSpace(int slot) {
+		return this.occupiedSpaces[slot];
+	}
+	
+	/**
+	 * @pre La ranura tiene que estar ocupada
+	 * @post Devuelve si la ranura especificada está en la lista
+	 */
+	public boolean isLinked(int slot) {
+		return this.beforeSlots[slot] != UNLINKED;
+	}
+	
+	/**
+	 * @post Devuelve la primera ranura de la lista, o NO_SLOT si está vacía
+	 */
+	public int getFirstSlot() {
+		return this.firstSlot;
+	}
+	
+	/**
+	 * @post Devuelve la última ranura de la lista, o NO_SLOT si está vacía
+	 */
+	public int getLastSlot() {
+		return this.lastSlot;
+	}
+	
+	/**
+	 * @pre La ranura tiene que estar en la lista
+	 * @post Devuelve la ranura anterior, o NO_SLOT si es la primera
+	 */
+	public int getBeforeSlot(int slot) {
+		return this.beforeSlots[slot];
+	}
+	
+	/**
+	 * @pre La ranura tiene que estar en la lista
+	 * @post Devuelve la ranura siguiente, o NO_SLOT si es la última
+	 */
+	public int getAfterSlot(int slot) {
+		return this.afterSlots[slot];
+	}
+	
+	/**
+	 * @pre La ranura tiene que estar ocupada y fuera de la lista
+	 * @post Inserta la ranura en la primera posición
+	 */
+	public void linkFirst(int slot) {
+		this.beforeSlots[slot] = NO_SLOT;
+		this.afterSlots[slot] = this.firstSlot;
+		
+		if ( this.firstSlot != NO_SLOT ) {
+			this.beforeSlots[this.firstSlot] = slot;
+		}
+		
+		this.firstSlot = slot;
+		
+		if ( this.lastSlot == NO_SLOT ) {
+			this.lastSlot = slot;
+		}
+	}
+	
+	/**
+	 * @pre La ranura tiene que estar ocupada y fuera de la lista
+	 * @post Inserta la ranura en la última posición
+	 */
+	public void linkLast(int slot) {
+		this.beforeSlots[slot] = this.lastSlot;
+		this.afterSlots[slot] = NO_SLOT;
+		
+		if ( this.lastSlot != NO_SLOT ) {
+			this.afterSlots[this.lastSlot] = slot;
+		}
+		
+		this.lastSlot = slot;
+		
+		if ( this.firstSlot == NO_SLOT ) {
+			this.firstSlot = slot;
+		}
+	}
+	
+	/**
+	 * @pre La ranura tiene que estar en la lista
+	 * @post Saca la ranura de la lista
+	 */
+	public void unlink(int slot) {
+		final int beforeSlot = this.beforeSlots[slot];
+		final int afterSlot = this.afterSlots[slot];
+		
+		if ( beforeSlot != NO_SLOT ) {
+			this.afterSlots[beforeSlot] = afterSlot;
+		}
+		else {
+			this.firstSlot = afterSlot;
+		}
+		
+		if ( afterSlot != NO_SLOT ) {
+			this.beforeSlots[afterSlot] = beforeSlot;
+		}
+		else {
+			this.lastSlot = beforeSlot;
+		}
+		
+		this.beforeSlots[slot] = UNLINKED;
+		this.afterSlots[slot] = UNLINKED;
+	}
+	
+	/**
+	 * @post Duplica la cantidad de ranuras
+	 */
+	private void growSlots() {
+		final int newCapacity = this.elements.length * 2;
+		
+		this.elements = Arrays.copyOf(this.elements, newCapacity);
+		this.occupiedSpaces = Arrays.copyOf(this.occupiedSpaces, newCapacity);
+		this.beforeSlots = Arrays.copyOf(this.beforeSlots, newCapacity);
+		this.afterSlots = Arrays.copyOf(this.afterSlots, newCapacity);
+	}
+	
+	/**
+	 * @pre El índice tiene que tener posiciones vacías
+	 * @post Agrega la ranura especificada al índice
+	 */
+	private void insertInIndex(int slot) {
+		final int mask = this.index.length - 1;
+		
+		int position = hash(this.elements[slot]) & mask;
+		
+		while ( this.index[position] != 0 ) {
+			position = ( position + 1 ) & mask;
+		}
+		
+		this.index[position] = slot + 1;
+	}
+	
+	/**
+	 * @pre La ranura tiene que estar en el índice
+	 * @post Quita la ranura especificada del índice, desplazando hacia atrás
+	 * 		 las posiciones siguientes del mismo grupo
+	 */
+	private void removeFromIndex(int slot) {
+		final int mask = this.index.length - 1;
+		
+		int position = hash(this.elements[slot]) & mask;
+		
+		while ( this.index[position] != slot + 1 ) {
+			position = ( position + 1 ) & mask;
+		}
+		
+		int hole = position;
+		
+		for ( position = ( hole + 1 ) & mask ; this.index[position] != 0 ; position = ( position + 1 ) & mask ) {
+			final int idealPosition = hash(this.elements[this.index[position] - 1]) & mask;
+			
+			// Se mueve si su posición ideal no está entre el hueco y la posición actual
+			if ( ( ( position - idealPosition ) & mask ) >= ( ( position - hole ) & mask ) ) {
+				this.index[hole] = this.index[position];
+				hole = position;
+			}
+		}
+		
+		this.index[hole] = 0;
+	}
+	
+	/**
+	 * @post Reconstruye el índice con la cantidad de posiciones especificada
+	 */
+	private void rebuildIndex(int indexLength) {
+		this.index = new int[indexLength];
+		
+		for ( int slot = 0 ; slot < this.nextUnusedSlot ; slot++ ) {
+			if ( this.elements[slot] != null ) {
+				this.insertInIndex(slot);
+			}
+		}
+	}
+}
@@ -31,63 +31,41 @@
  */
 package com.esferixis.misc.loadingmanager;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Stack;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
+import com.esferixis.misc.Preconditions;
+import com.esferixis.misc.concurrency.tasking.TaskRunner;
 import com.esferixis.misc.dynamicFields.DynamicFieldsContainerObject;
 import com.esferixis.misc.loader.DataLoadingErrorException;
-import com.esferixis.misc.map.DynamicFieldCachedHashMap;
-import com.esferixis.misc.reference.DynamicReference;
 
 /**
  * @author ariel
  *
  */
 public final class LinkedMruLoadingManager<T extends DynamicFieldsContainerObject> extends LoadingManager<T> {
-	private final class Node {
-		private Node beforeNode;
-		private Node afterNode;
-		
-		private final T element;
-		private long occupiedSpace;
-		
-		private final NodeElementObserver nodeElementObserver;
-		
-		public Node(DynamicReference<Node> nodeReference, T element) {
-			if ( element != null ) {
-				this.element = element;
-				
-				this.beforeNode = null;
-				this.afterNode = null;
-				
-				this.nodeElementObserver = new NodeElementObserver(nodeReference, this);
-			}
-			else {
-				throw new NullPointerException();
-			}
-		}
-	}
-	
-	private final class NodeElementObserver implements LoadingStrategy.Observer {
-		private final DynamicReference<Node> nodeReference;
-		private final Node node;
+	/**
+	 * Observer de la ranura de un elemento cargado.
+	 * Se reusa entre los elementos que ocupan la misma ranura
+	 */
+	private final class SlotObserver implements LoadingStrategy.Observer {
+		private final int slot;
 		
 		/**
-		 * @post Crea el observer de nodo
+		 * @post Crea el observer de la ranura especificada
 		 */
-		public NodeElementObserver(DynamicReference<Node> nodeReference, Node node) {
-			if ( nodeReference != null ) {
-				this.nodeReference = nodeReference;
-				this.node = node;
-				this.nodeReference.set(this.node);
-			}
-			else {
-				throw new NullPointerException();
-			}
+		public SlotObserver(int slot) {
+			this.slot = slot;
 		}
 		
 		/* (non-Javadoc)
@@ -95,8 +73,12 @@ public final class LinkedMruLoadingManager<T extends DynamicFieldsContainerObjec
 		 */
 		@Override
 		public void notifyHasLoadedUsers() {
-			LinkedMruLoadingManager.this.removeNodeInLinkedLists(this.node);
-			this.nodeReference.set(null);
+			if ( LinkedMruLoadingManager.this.isDeferringObserverEvents() ) {
+				LinkedMruLoadingManager.this.deferredObserverEvents.add(new DeferredObserverEvent(this, true));
+			}
+			else {
+				this.applyHasLoadedUsers();
+			}
 		}
 
 		/* (non-Javadoc)
@@ -104,92 +86,249 @@ public final class LinkedMruLoadingManager<T extends DynamicFieldsContainerObjec
 		 */
 		@Override
 		public void notifyHasNotLoadedUsers() {
-			this.nodeReference.set(this.node);
-			LinkedMruLoadingManager.this.insertNodeAtFirstPosition(this.node);
+			if ( LinkedMruLoadingManager.this.isDeferringObserverEvents() ) {
+				LinkedMruLoadingManager.this.deferredObserverEvents.add(new DeferredObserverEvent(this, false));
+			}
+			else {
+				this.applyHasNotLoadedUsers();
+			}
+		}
+		
+		/**
+		 * @post Saca la ranura de la lista, porque tiene usuarios cargados
+		 */
+		private void applyHasLoadedUsers() {
+			LinkedMruLoadingManager.this.slotTable.unlink(this.slot);
+		}
+		
+		/**
+		 * @post Vuelve a poner la ranura en la lista, porque no tiene usuarios cargados
+		 */
+		private void applyHasNotLoadedUsers() {
+			LinkedMruLoadingManager.this.slotTable.linkFirst(this.slot);
 		}
 		
 	}
 	
-	private final Map<T, DynamicReference< Node > > nodePerElement;
+	/**
+	 * Notificación de la estrategia de carga recibida desde otro thread
+	 * durante una carga en paralelo, se aplica en el thread que carga
+	 */
+	private final class DeferredObserverEvent {
+		private final SlotObserver slotObserver;
+		private final boolean hasLoadedUsers;
+		
+		/**
+		 * @post Crea la notificación
+		 */
+		public DeferredObserverEvent(SlotObserver slotObserver, boolean hasLoadedUsers) {
+			this.slotObserver = slotObserver;
+			this.hasLoadedUsers = hasLoadedUsers;
+		}
+		
+		/**
+		 * @post Aplica la notificación
+		 */
+		public void apply() {
+			if ( this.hasLoadedUsers ) {
+				this.slotObserver.applyHasLoadedUsers();
+			}
+			else {
+				this.slotObserver.applyHasNotLoadedUsers();
+			}
+		}
+	}
 	
-	private Node firstNode;
-	private Node lastNode;
+	private final ElementSlotTable<T> slotTable;
+	private SlotObserver[] slotObservers;
 	
-	private long nodesQuantity;
-	private long freeSpace;
+	private volatile long nodesQuantity;
+	private volatile long freeSpace;
+	
+	private final LoadingManagerStatisticsRecorder<T> statisticsRecorder;
 	
 	private final List<T> oldLoadedElements;
 	
+	private final TaskRunner taskRunner;
+	private final int maxParallelLoads;
+	
+	private volatile Thread loadingThread;
+	private final ConcurrentLinkedQueue<DeferredObserverEvent> deferredObserverEvents;
+	
 	/**
 	 * @param loadingStrategy
 	 * @param maxElements
 	 * @param capacity
 	 */
 	public LinkedMruLoadingManager(LoadingStrategy<T> loadingStrategy, long maxElements, long capacity) {
+		this(loadingStrategy, maxElements, capacity, null, 1);
+	}
+	
+	/**
+	 * @pre La estrategia de carga no puede ser nula, y la cantidad máxima de cargas
+	 * 		en paralelo tiene que ser positiva.
+	 * 		Si hay ejecutador de tareas, la estrategia de carga tiene que soportar
+	 * 		la carga concurrente de elementos distintos, y puede notificar a los
+	 * 		observers desde cualquier thread
+	 * @post Crea el administrador de carga con la estrategia de carga, el límite de elementos,
+	 * 		 la capacidad, el ejecutador de tareas y la cantidad máxima de cargas en paralelo
+	 * 		 especificados.
+	 * 		 Cada elemento se carga en cuanto terminan de cargarse sus dependencias.
+	 * 		 Si el ejecutador de tareas es nulo, los elementos se cargan en serie
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	public LinkedMruLoadingManager(LoadingStrategy<T> loadingStrategy, long maxElements, long capacity, TaskRunner taskRunner, int maxParallelLoads) {
 		super(loadingStrategy, maxElements, capacity);
 		
-		this.firstNode = null;
+		Preconditions.checkIsPositive(maxParallelLoads, "maxParallelLoads");
+		
+		this.taskRunner = taskRunner;
+		this.maxParallelLoads = maxParallelLoads;
+		
+		this.loadingThread = null;
+		this.deferredObserverEvents = new ConcurrentLinkedQueue<DeferredObserverEvent>();
+		
+		this.slotTable = new ElementSlotTable<T>();
+		this.slotObservers = new LinkedMruLoadingManager.SlotObserver[this.slotTable.getSlotsCapacity()];
+		
 		this.nodesQuantity = 0;
 		
 		this.freeSpace = capacity;
 		
-		this.nodePerElement = new DynamicFieldCachedHashMap<T, DynamicReference< Node > >();
-		
 		this.oldLoadedElements = new ArrayList<T>();
+		
+		this.statisticsRecorder = new LoadingManagerStatisticsRecorder<T>();
 	}
 	
 	/**
-	 * @post Inserta el nodo en la primera posición
+	 * @post Devuelve una instantánea de las estadísticas.
+	 * 		 Se puede llamar desde cualquier thread
 	 */
-	private void insertNodeAtFirstPosition(Node node) {
-		node.beforeNode = null;
-		node.afterNode = this.firstNode;
+	public LoadingManagerStatistics getStatistics() {
+		final long freeSpace = this.freeSpace;
 		
-		if ( this.firstNode != null ) {
-			this.firstNode.beforeNode = node;
+		return this.statisticsRecorder.snapshot(this.capacity - freeSpace, this.capacity, this.nodesQuantity, this.maxElements);
+	}
+	
+	/**
+	 * @pre El listener no puede ser nulo
+	 * @post Agrega el listener especificado
+	 */
+	public void addListener(LoadingManagerListener<T> listener) {
+		this.statisticsRecorder.addListener(listener);
+	}
+	
+	/**
+	 * @post Quita el listener especificado
+	 */
+	public void removeListener(LoadingManagerListener<T> listener) {
+		this.statisticsRecorder.removeListener(listener);
+	}
+	
+	/**
+	 * @post Devuelve el observer de la ranura especificada, creándolo
+	 * 		 la primera vez que se usa la ranura
+	 */
+	private SlotObserver getSlotObserver(int slot) {
+		if ( slot >= this.slotObservers.length ) {
+			this.slotObservers = Arrays.copyOf(this.slotObservers, this.slotTable.getSlotsCapacity());
 		}
 		
-		this.firstNode = node;
+		SlotObserver slotObserver = this.slotObservers[slot];
 		
-		if ( this.lastNode == null ) {
-			this.lastNode = node;
+		if ( slotObserver == null ) {
+			slotObserver = new SlotObserver(slot);
+			this.slotObservers[slot] = slotObserver;
 		}
+		
+		return slotObserver;
 	}
 	
 	/**
-	 * @post Borra el nodo solamente de las listas enlazadas
+	 * @pre La ranura tiene que estar ocupada, y su elemento
+	 * 		no tiene que tener usuarios cargados
+	 * @post Descarga el elemento de la ranura, y sólo ése, por el motivo especificado
 	 */
-	private void removeNodeInLinkedLists(Node node) {		
-		if ( node.beforeNode != null ) {
-			node.beforeNode.afterNode = node.afterNode;
-		}
-		else {
-			this.firstNode = node.afterNode;
-		}
+	private void unloadNode(int slot, EvictionReason reason) {
+		final T element = this.slotTable.getElement(slot);
+		final long occupiedSpace = this.slotTable.getOccupiedSpace(slot);
 		
-		if ( node.afterNode != null ) {
-			node.afterNode.beforeNode = node.beforeNode;
-		}
-		else {
-			this.lastNode = node.beforeNode;
-		}
+		this.loadingStrategy.detachObserver(element, this.slotObservers[slot]);
+		this.loadingStrategy.unload(element);
+		
+		this.slotTable.remove(slot);
+		
+		this.freeSpace += occupiedSpace;
+		this.nodesQuantity--;
+		
+		this.statisticsRecorder.recordUnload(element, occupiedSpace, reason);
 	}
 	
 	/**
-	 * @pre El nodo tiene que estar presente y no tiene
-	 * 		que tener dependencias cargadas
-	 * @post Descarga el nodo, y sólo el nodo especificado
+	 * @post Carga el elemento especificado, y devuelve el tiempo de carga
+	 * 		 en nanosegundos
 	 */
-	private void unloadNode(Node node) {
-		this.loadingStrategy.detachObserver(node.element, node.nodeElementObserver);
-		this.loadingStrategy.unload(node.element);
+	private long loadElement(T element) {
+		final long startTime = System.nanoTime();
 		
-		this.nodePerElement.remove(node.element);
+		this.loadingStrategy.load(element);
 		
-		this.removeNodeInLinkedLists(node);
+		return System.nanoTime() - startTime;
+	}
+	
+	/**
+	 * @post Devuelve los elementos especificados con sus dependencias no cargadas,
+	 * 		 en orden topológico (cada elemento después de sus dependencias),
+	 * 		 y los agrega al conjunto de visitados especificado.
+	 * 
+	 * 		 Recorre cada dependencia compartida una sola vez, con una pila
+	 * 		 explícita para soportar cadenas de dependencias profundas
+	 */
+	private List<T> computeClosure(Collection<T> elements, Set<T> visitedElements) {
+		final List<T> closure = new ArrayList<T>(elements.size() * 2);
 		
-		this.freeSpace += node.occupiedSpace;
-		this.nodesQuantity--;
+		final ArrayDeque<T> elementStack = new ArrayDeque<T>();
+		final ArrayDeque<Iterator<T>> dependenciesStack = new ArrayDeque<Iterator<T>>();
+		
+		for ( T eachElement : elements ) {
+			if ( visitedElements.add(eachElement) ) {
+				this.pushClosureElement(eachElement, elementStack, dependenciesStack);
+				
+				while ( !elementStack.isEmpty() ) {
+					final Iterator<T> dependencies = dependenciesStack.peek();
+					
+					if ( dependencies.hasNext() ) {
+						final T eachDependency = dependencies.next();
+						
+						if ( visitedElements.add(eachDependency) ) {
+							this.pushClosureElement(eachDependency, elementStack, dependenciesStack);
+						}
+					}
+					else {
+						// Todas sus dependencias ya están en la clausura
+						dependenciesStack.pop();
+						closure.add(elementStack.pop());
+					}
+				}
+			}
+		}
+		
+		return closure;
+	}
+	
+	/**
+	 * @post Apila el elemento especificado con sus dependencias,
+	 * 		 si ya está cargado no hace falta recorrerlas
+	 */
+	private void pushClosureElement(T element, ArrayDeque<T> elementStack, ArrayDeque<Iterator<T>> dependenciesStack) {
+		elementStack.push(element);
+		
+		if ( this.loadingStrategy.isLoaded(element) ) {
+			dependenciesStack.push(Collections.<T>emptyIterator());
+		}
+		else {
+			dependenciesStack.push(this.loadingStrategy.getDependencies(element).iterator());
+		}
 	}
 	
 	/* (non-Javadoc)
@@ -200,98 +339,327 @@ public final class LinkedMruLoadingManager<T extends DynamicFieldsContainerObjec
 		int quantity = elements.size();
 		
 		if ( quantity > this.maxElements ) {
+			this.statisticsRecorder.recordOutOfSpace(elements);
 			throw new OutOfSpace("Too many elements");
 		}
 		
-		final List<T> elementsToBeLoaded;
+		final Set<T> elementsToBeLoadedSet = new HashSet<T>(quantity * 2);
+		final List<T> elementsToBeLoaded = this.computeClosure(elements, elementsToBeLoadedSet);
 		
-		{
-			List<T> elementsToBeLoadedOriginal = new ArrayList<T>(elements.size()*2);
-			
-			final Stack<T> elementStack = new Stack<T>();
-			elementStack.addAll(elements);
-			
-			boolean hasUnloadedDependencies = false;
-			
-			while ( !elementStack.isEmpty() ) {
-				final T eachElement = elementStack.pop();
-				
-				elementsToBeLoadedOriginal.add(eachElement);
+		// Planifica: espacio y nodos que faltan
+		final Map<T, Long> requiredSpacePerElement = new HashMap<T, Long>();
+		long requiredSpace = 0;
+		
+		for ( T eachElement : elementsToBeLoaded ) {
+			if ( ( this.slotTable.find(eachElement) == ElementSlotTable.NO_SLOT ) ) {
+				final long eachRequiredSpace = this.loadingStrategy.getOccupiedSpace(eachElement);
 				
-				if ( !this.loadingStrategy.isLoaded(eachElement) ) {
-					Collection<T> dependencies = this.loadingStrategy.getDependencies(eachElement);
-					
-					hasUnloadedDependencies |= !dependencies.isEmpty();
-					
-					for ( T eachDependency : dependencies ) {
-						elementStack.push(eachDependency);
-					}
-				}
+				requiredSpacePerElement.put(eachElement, eachRequiredSpace);
+				requiredSpace += eachRequiredSpace;
+			}
+		}
+		
+		final long requiredNodes = requiredSpacePerElement.size();
+		
+		// Planifica los desalojos desde el final, antes de tocar nada
+		int[] slotsToBeUnloaded = new int[8];
+		final List<EvictionReason> evictionReasons = new ArrayList<EvictionReason>();
+		long reclaimedSpace = 0;
+		
+		int eachSlot = this.slotTable.getLastSlot();
+		
+		while ( ( this.freeSpace + reclaimedSpace < requiredSpace ) || ( this.nodesQuantity - evictionReasons.size() + requiredNodes > this.maxElements ) ) {
+			// ¡SIN ESPACIO! No se descargó ni se cargó nada
+			if ( eachSlot == ElementSlotTable.NO_SLOT ) {
+				this.statisticsRecorder.recordOutOfSpace(elements);
+				throw new OutOfSpace("Too many elements");
 			}
 			
-			// Importante para que las dependencias se carguen en el orden correcto
-			if ( hasUnloadedDependencies ) {
-				Collections.reverse(elementsToBeLoadedOriginal);
+			if ( !elementsToBeLoadedSet.contains(this.slotTable.getElement(eachSlot)) ) {
+				if ( evictionReasons.size() == slotsToBeUnloaded.length ) {
+					slotsToBeUnloaded = Arrays.copyOf(slotsToBeUnloaded, slotsToBeUnloaded.length * 2);
+				}
+				
+				slotsToBeUnloaded[evictionReasons.size()] = eachSlot;
+				evictionReasons.add( ( this.freeSpace + reclaimedSpace < requiredSpace ) ? EvictionReason.SPACE : EvictionReason.MAX_ELEMENTS );
+				reclaimedSpace += this.slotTable.getOccupiedSpace(eachSlot);
 			}
 			
-			elementsToBeLoaded = Collections.unmodifiableList(new ArrayList<T>(elementsToBeLoadedOriginal));
+			eachSlot = this.slotTable.getBeforeSlot(eachSlot);
+		}
+		
+		// Ejecuta el plan
+		for ( int i = 0 ; i < evictionReasons.size() ; i++ ) {
+			this.unloadNode(slotsToBeUnloaded[i], evictionReasons.get(i));
+		}
+		
+		if ( ( this.taskRunner != null ) && ( this.maxParallelLoads > 1 ) && ( requiredSpacePerElement.size() > 1 ) ) {
+			this.loadInParallel(elementsToBeLoaded, requiredSpacePerElement);
 		}
 		
 		for ( T eachElement : elementsToBeLoaded ) {
-			DynamicReference<Node> associatedNodeReference = this.nodePerElement.get(eachElement);
+			final int associatedSlot = this.slotTable.find(eachElement);
 			
 			// Si ya está cargado, no está reservado y no está al principio
-			if ( associatedNodeReference != null ) {
-				if ( ( associatedNodeReference.get() != null ) && ( associatedNodeReference.get() != this.firstNode ) ) {
-					this.removeNodeInLinkedLists(associatedNodeReference.get());
-					
-					this.insertNodeAtFirstPosition(associatedNodeReference.get());
+			if ( associatedSlot != ElementSlotTable.NO_SLOT ) {
+				// Los cargados en paralelo no son aciertos, pero se ordenan igual
+				if ( !requiredSpacePerElement.containsKey(eachElement) ) {
+					this.statisticsRecorder.recordHit(eachElement);
+				}
+				
+				if ( this.slotTable.isLinked(associatedSlot) && ( associatedSlot != this.slotTable.getFirstSlot() ) ) {
+					this.slotTable.unlink(associatedSlot);
+					this.slotTable.linkFirst(associatedSlot);
 				}
 			}
 			else {
-				long requiredSpace = this.loadingStrategy.getOccupiedSpace(eachElement);
+				final long eachRequiredSpace = requiredSpacePerElement.get(eachElement);
 				
-				// Descargar el último elemento que se pueda descargar, hasta que haya suficiente espacio
-				Node eachNode = this.lastNode;
+				// Cargar el elemento y crear el nodo, recién entonces se notifica
+				final long loadingNanos = this.loadElement(eachElement);
+				this.registerNode(eachElement, eachRequiredSpace);
 				
-				while ( ( this.freeSpace < requiredSpace ) || ( this.nodesQuantity == this.capacity ) ) {
-					if ( !elementsToBeLoaded.contains(eachNode.element) ) {
-						this.unloadNode(eachNode);
-						eachNode = this.lastNode;
-					}
-					else {
-						eachNode = eachNode.beforeNode;
+				this.statisticsRecorder.recordLoad(eachElement, eachRequiredSpace, loadingNanos);
+			}
+		}
+		
+		this.oldLoadedElements.clear();
+		this.oldLoadedElements.addAll(elements);
+	}
+
+	/**
+	 * @pre El elemento tiene que haberse cargado
+	 * @post Crea el nodo del elemento especificado, con el espacio especificado,
+	 * 		 y lo inserta en la primera posición
+	 */
+	private void registerNode(T element, long occupiedSpace) {
+		final int slot = this.slotTable.add(element, occupiedSpace);
+		final SlotObserver slotObserver = this.getSlotObserver(slot);
+		
+		slotObserver.notifyHasNotLoadedUsers();
+		
+		this.loadingStrategy.attachObserver(element, slotObserver);
+		
+		this.freeSpace -= occupiedSpace;
+		this.nodesQuantity++;
+	}
+	
+	/**
+	 * @post Devuelve si las notificaciones de la estrategia de carga
+	 * 		 tienen que diferirse, porque llegan desde otro thread durante
+	 * 		 una carga en paralelo
+	 */
+	private boolean isDeferringObserverEvents() {
+		final Thread loadingThread = this.loadingThread;
+		
+		return ( loadingThread != null ) && ( loadingThread != Thread.currentThread() );
+	}
+	
+	/**
+	 * @post Aplica las notificaciones diferidas, en orden de llegada
+	 */
+	private void applyDeferredObserverEvents() {
+		DeferredObserverEvent eachEvent;
+		
+		while ( ( eachEvent = this.deferredObserverEvents.poll() ) != null ) {
+			eachEvent.apply();
+		}
+	}
+	
+	/**
+	 * @pre Los desalojos planificados tienen que haberse hecho
+	 * @post Carga en paralelo los elementos faltantes especificados, como un grafo
+	 * 		 de dependencias. Cada elemento se lanza en cuanto sus dependencias
+	 * 		 faltantes se cargaron y se registraron, sin superar la cantidad
+	 * 		 máxima de cargas en paralelo.
+	 * 		 Los nodos se registran y las cargas se notifican en el thread que llama,
+	 * 		 así el espacio libre y la lista sólo se modifican desde él.
+	 * 		 Si falla alguna carga no se lanzan más, se esperan las que están en curso
+	 * 		 y se propaga la primera excepción. Los elementos cargados quedan registrados
+	 */
+	private void loadInParallel(List<T> elementsToBeLoaded, Map<T, Long> requiredSpacePerElement) throws DataLoadingErrorException {
+		final Map<T, Integer> pendingDependenciesPerElement = new HashMap<T, Integer>();
+		final Map<T, List<T>> usersPerElement = new HashMap<T, List<T>>();
+		final ArrayDeque<T> readyElements = new ArrayDeque<T>();
+		
+		for ( T eachElement : elementsToBeLoaded ) {
+			if ( requiredSpacePerElement.containsKey(eachElement) ) {
+				int pendingDependencies = 0;
+				
+				for ( T eachDependency : this.loadingStrategy.getDependencies(eachElement) ) {
+					if ( requiredSpacePerElement.containsKey(eachDependency) ) {
+						List<T> users = usersPerElement.get(eachDependency);
 						
-						// ¡SIN ESPACIO!
-						if ( eachNode == null ) {
-							// Vuelve al estado anterior
-							this.loadElements(this.oldLoadedElements);
-							
-							throw new OutOfSpace("Too many elements");
+						if ( users == null ) {
+							users = new ArrayList<T>();
+							usersPerElement.put(eachDependency, users);
 						}
+						
+						users.add(eachElement);
+						pendingDependencies++;
 					}
 				}
 				
-				// Cargar el elemento y crear el nodo
-				this.loadingStrategy.load(eachElement);
-				
-				associatedNodeReference = new DynamicReference<Node>();
-				associatedNodeReference.set(new Node(associatedNodeReference, eachElement));
-				
-				associatedNodeReference.get().occupiedSpace = requiredSpace;
-				associatedNodeReference.get().nodeElementObserver.notifyHasNotLoadedUsers();
-				
-				this.loadingStrategy.attachObserver(associatedNodeReference.get().element, associatedNodeReference.get().nodeElementObserver);
+				if ( pendingDependencies == 0 ) {
+					readyElements.add(eachElement);
+				}
+				else {
+					pendingDependenciesPerElement.put(eachElement, pendingDependencies);
+				}
+			}
+		}
+		
+		final ParallelLoader<T> parallelLoader = new ParallelLoader<T>(this.taskRunner) {
+
+			@Override
+			protected void load(T element) {
+				LinkedMruLoadingManager.this.loadingStrategy.load(element);
+			}
+			
+		};
+		
+		this.loadingThread = Thread.currentThread();
+		
+		try {
+			do {
+				while ( !parallelLoader.hasFailed() && ( parallelLoader.getRunningLoads() < this.maxParallelLoads ) && !readyElements.isEmpty() ) {
+					final T eachElement = readyElements.poll();
+					
+					parallelLoader.start(eachElement, requiredSpacePerElement.get(eachElement));
+				}
 				
-				this.freeSpace -= requiredSpace;
-				this.nodesQuantity++;
+				if ( parallelLoader.getRunningLoads() != 0 ) {
+					final ParallelLoader.Completion<T> completion = parallelLoader.takeCompletion();
+					
+					this.applyDeferredObserverEvents();
+					
+					if ( completion.getFailure() == null ) {
+						final long occupiedSpace = requiredSpacePerElement.get(completion.getElement());
+						
+						this.registerNode(completion.getElement(), occupiedSpace);
+						this.statisticsRecorder.recordLoad(completion.getElement(), occupiedSpace, completion.getLoadingNanos());
+						
+						final List<T> users = usersPerElement.get(completion.getElement());
+						
+						if ( users != null ) {
+							for ( T eachUser : users ) {
+								final int pendingDependencies = pendingDependenciesPerElement.get(eachUser) - 1;
+								
+								if ( pendingDependencies == 0 ) {
+									pendingDependenciesPerElement.remove(eachUser);
+									readyElements.add(eachUser);
+								}
+								else {
+									pendingDependenciesPerElement.put(eachUser, pendingDependencies);
+								}
+							}
+						}
+					}
+				}
+			} while ( ( parallelLoader.getRunningLoads() != 0 ) || ( !parallelLoader.hasFailed() && !readyElements.isEmpty() ) );
+		}
+		finally {
+			this.loadingThread = null;
+			this.applyDeferredObserverEvents();
+		}
+		
+		parallelLoader.rethrowFailure();
+	}
+	
+	/**
+	 * @post Desaloja nodos desde el final de la lista, sin tocar los elementos
+	 * 		 de la clausura ni los protegidos especificados, hasta que haya espacio
+	 * 		 para los elementos faltantes de la clausura.
+	 * 		 Si no alcanza, no desaloja nada y devuelve false
+	 */
+	private boolean makeRoomForPrefetch(List<T> closure, Set<T> closureSet, Set<T> protectedElements, Map<T, Long> requiredSpacePerElement) {
+		long requiredSpace = 0;
+		
+		for ( T eachElement : closure ) {
+			if ( ( this.slotTable.find(eachElement) == ElementSlotTable.NO_SLOT ) ) {
+				final long eachRequiredSpace = this.loadingStrategy.getOccupiedSpace(eachElement);
 				
-				this.nodePerElement.put(eachElement, associatedNodeReference);
+				requiredSpacePerElement.put(eachElement, eachRequiredSpace);
+				requiredSpace += eachRequiredSpace;
 			}
 		}
 		
-		this.oldLoadedElements.clear();
-		this.oldLoadedElements.addAll(elements);
+		final long requiredNodes = requiredSpacePerElement.size();
+		
+		// Verifica que alcance antes de desalojar
+		long reclaimableSpace = 0, reclaimableNodes = 0;
+		int eachSlot = this.slotTable.getLastSlot();
+		
+		while ( ( ( this.freeSpace + reclaimableSpace < requiredSpace ) || ( this.nodesQuantity - reclaimableNodes + requiredNodes > this.maxElements ) ) && ( eachSlot != ElementSlotTable.NO_SLOT ) ) {
+			final T eachElement = this.slotTable.getElement(eachSlot);
+			
+			if ( !closureSet.contains(eachElement) && !protectedElements.contains(eachElement) ) {
+				reclaimableSpace += this.slotTable.getOccupiedSpace(eachSlot);
+				reclaimableNodes++;
+			}
+			
+			eachSlot = this.slotTable.getBeforeSlot(eachSlot);
+		}
+		
+		if ( ( this.freeSpace + reclaimableSpace < requiredSpace ) || ( this.nodesQuantity - reclaimableNodes + requiredNodes > this.maxElements ) ) {
+			return false;
+		}
+		
+		eachSlot = this.slotTable.getLastSlot();
+		
+		while ( ( this.freeSpace < requiredSpace ) || ( this.nodesQuantity + requiredNodes > this.maxElements ) ) {
+			final int beforeSlot = this.slotTable.getBeforeSlot(eachSlot);
+			final T eachElement = this.slotTable.getElement(eachSlot);
+			
+			if ( !closureSet.contains(eachElement) && !protectedElements.contains(eachElement) ) {
+				this.unloadNode(eachSlot, EvictionReason.PREFETCH);
+			}
+			
+			eachSlot = beforeSlot;
+		}
+		
+		return true;
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.misc.loadingmanager.LoadingManager#prefetchElements_internal(java.util.Collection)
+	 */
+	@Override
+	protected void prefetchElements_internal(Collection<T> elements) throws NullPointerException, DataLoadingErrorException {
+		// No desaloja los elementos del último pedido explícito, ni los precargados en esta misma llamada
+		final Set<T> protectedElements = new HashSet<T>(this.oldLoadedElements);
+		
+		for ( T eachElement : elements ) {
+			if ( ( this.slotTable.find(eachElement) == ElementSlotTable.NO_SLOT ) ) {
+				final Set<T> closureSet = new HashSet<T>();
+				final List<T> closure = this.computeClosure(Collections.singletonList(eachElement), closureSet);
+				final Map<T, Long> requiredSpacePerElement = new HashMap<T, Long>();
+				
+				if ( this.makeRoomForPrefetch(closure, closureSet, protectedElements, requiredSpacePerElement) ) {
+					for ( T eachClosureElement : closure ) {
+						final Long requiredSpace = requiredSpacePerElement.get(eachClosureElement);
+						
+						if ( requiredSpace != null ) {
+							final long loadingNanos = this.loadElement(eachClosureElement);
+							
+							final int slot = this.slotTable.add(eachClosureElement, requiredSpace);
+							
+							// Los precargados son los primeros en desalojarse
+							this.slotTable.linkLast(slot);
+							
+							this.loadingStrategy.attachObserver(eachClosureElement, this.getSlotObserver(slot));
+							
+							this.freeSpace -= requiredSpace;
+							this.nodesQuantity++;
+							
+							this.statisticsRecorder.recordPrefetchLoad(eachClosureElement, requiredSpace, loadingNanos);
+						}
+					}
+					
+					protectedElements.addAll(closureSet);
+				}
+			}
+		}
 	}
 
 	/* (non-Javadoc)
@@ -299,8 +667,8 @@ public final class LinkedMruLoadingManager<T extends DynamicFieldsContainerObjec
 	 */
 	@Override
 	protected void destroy_internal() {
-		while ( this.firstNode != null ) {
-			this.unloadNode(this.firstNode);
+		while ( this.slotTable.getFirstSlot() != ElementSlotTable.NO_SLOT ) {
+			this.unloadNode(this.slotTable.getFirstSlot(), EvictionReason.DESTROY);
 		}
 	}
 	
@@ -121,6 +121,52 @@ public abstract class LoadingManager<T extends DynamicFieldsContainerObject> {
 	 */
 	protected abstract void loadElements_internal(Collection<T> elements) throws NullPointerException, DataLoadingErrorException;
 	
+	/**
+	 * @post Sugiere cargar los elementos especificados, con sus dependencias,
+	 * 		 porque es probable que se pidan pronto.
+	 * 		 Es sólo una sugerencia: no desaloja los elementos del último pedido
+	 * 		 explícito, los elementos precargados son los primeros en desalojarse,
+	 * 		 y si no hay espacio los ignora sin lanzar OutOfSpace
+	 */
+	public final void prefetchElements(Collection<T> elements) throws NullPointerException, DataLoadingErrorException {
+		this.checkDestroyed();
+		
+		if ( elements != null ) {
+			this.prefetchElements_internal(elements);
+		}
+		else {
+			throw new NullPointerException();
+		}
+	}
+	
+	/**
+	 * @post Sugiere cargar los elementos especificados, con sus dependencias,
+	 * 		 porque es probable que se pidan pronto.
+	 * 		 Es sólo una sugerencia: no desaloja los elementos del último pedido
+	 * 		 explícito, los elementos precargados son los primeros en desalojarse,
+	 * 		 y si no hay espacio los ignora sin lanzar OutOfSpace
+	 */
+	@SafeVarargs
+	@SuppressWarnings("varargs")
+	public final void prefetchElements(T... elements) throws NullPointerException, DataLoadingErrorException {
+		this.checkDestroyed();
+		
+		if ( elements != null ) {
+			this.prefetchElements(Arrays.asList(elements));
+		}
+		else {
+			throw new NullPointerException();
+		}
+	}
+	
+	/**
+	 * @post Sugiere cargar los elementos especificados (Implementación interna).
+	 * 		 Por defecto ignora la sugerencia
+	 */
+	protected void prefetchElements_internal(Collection<T> elements) throws NullPointerException, DataLoadingErrorException {
+		
+	}
+	
 	/**
 	 * @post Destruye el "garbage collector"
 	 */
@@ -0,0 +1,67 @@
+/**
+ * Copyright (c) 2018 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.misc.loadingmanager;
+
+import java.util.Collection;
+
+import com.esferixis.misc.dynamicFields.DynamicFieldsContainerObject;
+
+/**
+ * @author Ariel Favio Carrizo
+ * 
+ * Observador de los eventos de un administrador de carga.
+ * Se notifica en el thread que hizo el pedido, por lo que
+ * tiene que ser rápido
+ */
+public interface LoadingManagerListener<T extends DynamicFieldsContainerObject> {
+	/**
+	 * @post Notifica que el elemento especificado ya estaba cargado
+	 */
+	public void notifyHit(T element);
+	
+	/**
+	 * @post Notifica que se cargó el elemento especificado, con el espacio
+	 * 		 que ocupa y los nanosegundos que llevó cargarlo
+	 */
+	public void notifyLoaded(T element, long occupiedSpace, long loadingNanos);
+	
+	/**
+	 * @post Notifica que se desalojó el elemento especificado, con el espacio
+	 * 		 que ocupaba y el motivo
+	 */
+	public void notifyUnloaded(T element, long occupiedSpace, EvictionReason reason);
+	
+	/**
+	 * @post Notifica que no hubo espacio para los elementos especificados
+	 */
+	public void notifyOutOfSpace(Collection<T> elements);
+}
@@ -0,0 +1,235 @@
+/**
+ * Copyright (c) 2018 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.misc.loadingmanager;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * @author Ariel Favio Carrizo
+ * 
+ * Instantánea de las estadísticas de un administrador de carga.
+ * Los aciertos y fallos se cuentan sobre los elementos pedidos
+ * y las dependencias que hizo falta recorrer, las cargas por
+ * precargas se cuentan aparte
+ */
+public final class LoadingManagerStatistics implements Serializable {
+	private static final long serialVersionUID = 2946390413553417180L;
+	
+	private final long hits;
+	private final long misses;
+	private final long prefetchLoads;
+	private final long loadedSpace;
+	private final long loadingNanos;
+	private final long unloadedSpace;
+	private final long[] evictionsPerReason;
+	private final long outOfSpaceFailures;
+	private final long occupiedSpace;
+	private final long capacity;
+	private final long elementsQuantity;
+	private final long maxElements;
+	
+	/**
+	 * @post Crea la instantánea con los valores especificados
+	 */
+	LoadingManagerStatistics(long hits, long misses, long prefetchLoads, long loadedSpace, long loadingNanos, long unloadedSpace, long[] evictionsPerReason, long outOfSpaceFailures, long occupiedSpace, long capacity, long elementsQuantity, long maxElements) {
+		this.hits = hits;
+		this.misses = misses;
+		this.prefetchLoads = prefetchLoads;
+		this.loadedSpace = loadedSpace;
+		this.loadingNanos = loadingNanos;
+		this.unloadedSpace = unloadedSpace;
+		this.evictionsPerReason = evictionsPerReason;
+		this.outOfSpaceFailures = outOfSpaceFailures;
+		this.occupiedSpace = occupiedSpace;
+		this.capacity = capacity;
+		this.elementsQuantity = elementsQuantity;
+		this.maxElements = maxElements;
+	}
+	
+	/**
+	 * @post Devuelve la cantidad de elementos que ya estaban cargados
+	 */
+	public long getHits() {
+		return this.hits;
+	}
+	
+	/**
+	 * @post Devuelve la cantidad de elementos pedidos, o dependencias de ellos,
+	 * 		 que hubo que cargar
+	 */
+	public long getMisses() {
+		return this.misses;
+	}
+	
+	/**
+	 * @post Devuelve la cantidad de elementos que se cargaron por precargas
+	 */
+	public long getPrefetchLoads() {
+		return this.prefetchLoads;
+	}
+	
+	/**
+	 * @post Devuelve la cantidad de cargas, por fallos y por precargas
+	 */
+	public long getLoads() {
+		return this.misses + this.prefetchLoads;
+	}
+	
+	/**
+	 * @post Devuelve la proporción de aciertos, si no hubo accesos devuelve cero
+	 */
+	public double getHitRatio() {
+		final long accesses = this.hits + this.misses;
+		
+		if ( accesses != 0 ) {
+			return (double) this.hits / (double) accesses;
+		}
+		else {
+			return 0.0d;
+		}
+	}
+	
+	/**
+	 * @post Devuelve la suma del espacio de los elementos cargados
+	 */
+	public long getLoadedSpace() {
+		return this.loadedSpace;
+	}
+	
+	/**
+	 * @post Devuelve la suma del espacio de los elementos descargados
+	 */
+	public long getUnloadedSpace() {
+		return this.unloadedSpace;
+	}
+	
+	/**
+	 * @post Devuelve el tiempo medio de carga de la estrategia de carga,
+	 * 		 en nanosegundos. Si no hubo cargas devuelve cero
+	 */
+	public double getMeanLoadingNanos() {
+		final long loads = this.getLoads();
+		
+		if ( loads != 0 ) {
+			return (double) this.loadingNanos / (double) loads;
+		}
+		else {
+			return 0.0d;
+		}
+	}
+	
+	/**
+	 * @post Devuelve la cantidad de desalojos con el motivo especificado
+	 */
+	public long getEvictions(EvictionReason reason) {
+		if ( reason != null ) {
+			return this.evictionsPerReason[reason.ordinal()];
+		}
+		else {
+			throw new NullPointerException();
+		}
+	}
+	
+	/**
+	 * @post Devuelve la cantidad total de desalojos
+	 */
+	public long getEvictions() {
+		long evictions = 0;
+		
+		for ( long eachEvictions : this.evictionsPerReason ) {
+			evictions += eachEvictions;
+		}
+		
+		return evictions;
+	}
+	
+	/**
+	 * @post Devuelve la cantidad de pedidos que fallaron por falta de espacio
+	 */
+	public long getOutOfSpaceFailures() {
+		return this.outOfSpaceFailures;
+	}
+	
+	/**
+	 * @post Devuelve el espacio ocupado
+	 */
+	public long getOccupiedSpace() {
+		return this.occupiedSpace;
+	}
+	
+	/**
+	 * @post Devuelve la capacidad
+	 */
+	public long getCapacity() {
+		return this.capacity;
+	}
+	
+	/**
+	 * @post Devuelve la proporción de la capacidad ocupada
+	 */
+	public double getOccupancy() {
+		if ( this.capacity != 0 ) {
+			return (double) this.occupiedSpace / (double) this.capacity;
+		}
+		else {
+			return 0.0d;
+		}
+	}
+	
+	/**
+	 * @post Devuelve la cantidad de elementos cargados
+	 */
+	public long getElementsQuantity() {
+		return this.elementsQuantity;
+	}
+	
+	/**
+	 * @post Devuelve el límite de elementos
+	 */
+	public long getMaxElements() {
+		return this.maxElements;
+	}
+	
+	/**
+	 * @post Devuelve la representación en cadena de carácteres
+	 */
+	@Override
+	public String toString() {
+		return "LoadingManagerStatistics( hits=" + this.hits + ", misses=" + this.misses +
+				", prefetchLoads=" + this.prefetchLoads +
+				", loadedSpace=" + this.loadedSpace + ", unloadedSpace=" + this.unloadedSpace +
+				", meanLoadingNanos=" + this.getMeanLoadingNanos() + ", evictions=" + Arrays.toString(this.evictionsPerReason) +
+				", outOfSpaceFailures=" + this.outOfSpaceFailures + ", occupiedSpace=" + this.occupiedSpace + "/" + this.capacity +
+				", elements=" + this.elementsQuantity + "/" + this.maxElements + " )";
+	}
+}
@@ -0,0 +1,207 @@
+/**
+ * Copyright (c) 2018 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.misc.loadingmanager;
+
+import java.util.Collection;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.esferixis.misc.Preconditions;
+import com.esferixis.misc.dynamicFields.DynamicFieldsContainerObject;
+
+/**
+ * @author Ariel Favio Carrizo
+ * 
+ * Registro de las estadísticas de un administrador de carga,
+ * que además notifica los eventos a los listeners.
+ * 
+ * Los contadores se pueden leer desde cualquier thread.
+ * Las excepciones de los listeners no se propagan, para no
+ * dejar a medias la operación del administrador: se entregan
+ * al manejador de excepciones no capturadas del thread
+ */
+final class LoadingManagerStatisticsRecorder<T extends DynamicFieldsContainerObject> {
+	private final LongAdder hits;
+	private final LongAdder misses;
+	private final LongAdder prefetchLoads;
+	private final LongAdder loadedSpace;
+	private final LongAdder loadingNanos;
+	private final LongAdder unloadedSpace;
+	private final LongAdder[] evictionsPerReason;
+	private final LongAdder outOfSpaceFailures;
+	
+	private final CopyOnWriteArrayList<LoadingManagerListener<T>> listeners;
+	
+	/**
+	 * @post Crea el registro vacío
+	 */
+	public LoadingManagerStatisticsRecorder() {
+		this.hits = new LongAdder();
+		this.misses = new LongAdder();
+		this.prefetchLoads = new LongAdder();
+		this.loadedSpace = new LongAdder();
+		this.loadingNanos = new LongAdder();
+		this.unloadedSpace = new LongAdder();
+		
+		this.evictionsPerReason = new LongAdder[EvictionReason.values().length];
+		for ( int i = 0 ; i < this.evictionsPerReason.length ; i++ ) {
+			this.evictionsPerReason[i] = new LongAdder();
+		}
+		
+		this.outOfSpaceFailures = new LongAdder();
+		
+		this.listeners = new CopyOnWriteArrayList<LoadingManagerListener<T>>();
+	}
+	
+	/**
+	 * @pre El listener no puede ser nulo
+	 * @post Agrega el listener especificado
+	 */
+	public void addListener(LoadingManagerListener<T> listener) {
+		Preconditions.checkNotNull(listener, "listener");
+		
+		this.listeners.add(listener);
+	}
+	
+	/**
+	 * @post Quita el listener especificado
+	 */
+	public void removeListener(LoadingManagerListener<T> listener) {
+		this.listeners.remove(listener);
+	}
+	
+	/**
+	 * @post Registra un acierto del elemento especificado
+	 */
+	public void recordHit(T element) {
+		this.hits.increment();
+		
+		for ( LoadingManagerListener<T> eachListener : this.listeners ) {
+			try {
+				eachListener.notifyHit(element);
+			}
+			catch (RuntimeException e) {
+				notifyListenerFailure(e);
+			}
+		}
+	}
+	
+	/**
+	 * @post Registra la carga del elemento especificado, pedido explícitamente
+	 * 		 o como dependencia de uno pedido
+	 */
+	public void recordLoad(T element, long occupiedSpace, long loadingNanos) {
+		this.misses.increment();
+		this.notifyLoaded(element, occupiedSpace, loadingNanos);
+	}
+	
+	/**
+	 * @post Registra la carga del elemento especificado, por una precarga
+	 */
+	public void recordPrefetchLoad(T element, long occupiedSpace, long loadingNanos) {
+		this.prefetchLoads.increment();
+		this.notifyLoaded(element, occupiedSpace, loadingNanos);
+	}
+	
+	/**
+	 * @post Registra el espacio y el tiempo de la carga del elemento especificado,
+	 * 		 y la notifica
+	 */
+	private void notifyLoaded(T element, long occupiedSpace, long loadingNanos) {
+		this.loadedSpace.add(occupiedSpace);
+		this.loadingNanos.add(loadingNanos);
+		
+		for ( LoadingManagerListener<T> eachListener : this.listeners ) {
+			try {
+				eachListener.notifyLoaded(element, occupiedSpace, loadingNanos);
+			}
+			catch (RuntimeException e) {
+				notifyListenerFailure(e);
+			}
+		}
+	}
+	
+	/**
+	 * @post Registra la descarga del elemento especificado
+	 */
+	public void recordUnload(T element, long occupiedSpace, EvictionReason reason) {
+		this.unloadedSpace.add(occupiedSpace);
+		this.evictionsPerReason[reason.ordinal()].increment();
+		
+		for ( LoadingManagerListener<T> eachListener : this.listeners ) {
+			try {
+				eachListener.notifyUnloaded(element, occupiedSpace, reason);
+			}
+			catch (RuntimeException e) {
+				notifyListenerFailure(e);
+			}
+		}
+	}
+	
+	/**
+	 * @post Registra que no hubo espacio para los elementos especificados
+	 */
+	public void recordOutOfSpace(Collection<T> elements) {
+		this.outOfSpaceFailures.increment();
+		
+		for ( LoadingManagerListener<T> eachListener : this.listeners ) {
+			try {
+				eachListener.notifyOutOfSpace(elements);
+			}
+			catch (RuntimeException e) {
+				notifyListenerFailure(e);
+			}
+		}
+	}
+	
+	/**
+	 * @post Entrega la excepción lanzada por un listener al manejador
+	 * 		 de excepciones no capturadas del thread actual
+	 */
+	private static void notifyListenerFailure(RuntimeException e) {
+		final Thread thread = Thread.currentThread();
+		thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+	}
+	
+	/**
+	 * @post Devuelve la instantánea de las estadísticas, con la ocupación especificada
+	 */
+	public LoadingManagerStatistics snapshot(long occupiedSpace, long capacity, long elementsQuantity, long maxElements) {
+		final long[] evictionsPerReason = new long[this.evictionsPerReason.length];
+		
+		for ( int i = 0 ; i < evictionsPerReason.length ; i++ ) {
+			evictionsPerReason[i] = this.evictionsPerReason[i].sum();
+		}
+		
+		return new LoadingManagerStatistics(this.hits.sum(), this.misses.sum(), this.prefetchLoads.sum(), this.loadedSpace.sum(), this.loadingNanos.sum(), this.unloadedSpace.sum(), evictionsPerReason, this.outOfSpaceFailures.sum(), occupiedSpace, capacity, elementsQuantity, maxElements);
+	}
+}
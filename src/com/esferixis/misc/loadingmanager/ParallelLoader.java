@@ -0,0 +1,302 @@
+/**
+ * Copyright (c) 2018 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.misc.loadingmanager;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.esferixis.misc.Preconditions;
+import com.esferixis.misc.concurrency.tasking.Task;
+import com.esferixis.misc.concurrency.tasking.TaskRunner;
+import com.esferixis.misc.loader.DataLoadingErrorException;
+
+/**
+ * @author Ariel Favio Carrizo
+ * 
+ * Cargador en paralelo compartido por los administradores de carga.
+ * Lanza cada carga como una tarea, midiendo su duración, y entrega
+ * los resultados al thread que lo usa, que tiene que ser siempre el mismo.
+ * 
+ * Registra la primera excepción de las cargas, o del lanzamiento
+ * de ellas, para propagarla cuando terminaron todas
+ */
+abstract class ParallelLoader<E> {
+	/**
+	 * Resultado de la carga de un elemento
+	 */
+	public static final class Completion<E> {
+		private final E element;
+		private final long loadingNanos;
+		private final Throwable failure;
+		
+		/**
+		 * @post Crea el resultado con el elemento, la duración de la carga
+		 * 		 en nanosegundos y la excepción especificados, que es nula
+		 * 		 si la carga tuvo éxito
+		 */
+		private Completion(E element, long loadingNanos, Throwable failure) {
+			this.element = element;
+			this.loadingNanos = loadingNanos;
+			this.failure = failure;
+		}
+		
+		/**
+		 * @post Devuelve el elemento
+		 */
+		public E getElement() {
+			return this.element;
+		}
+		
+		/**
+		 * @post Devuelve la duración de la carga en nanosegundos
+		 */
+		public long getLoadingNanos() {
+			return this.loadingNanos;
+		}
+		
+		/**
+		 * @post Devuelve la excepción de la carga, o null si tuvo éxito
+		 */
+		public Throwable getFailure() {
+			return this.failure;
+		}
+	}
+	
+	private final class LoadTask extends Task {
+		private static final long serialVersionUID = 1L;
+		
+		private final E element;
+		private final long occupiedSpace;
+		
+		private final AtomicBoolean claimed;
+		
+		/**
+		 * @post Crea la tarea de carga del elemento especificado, con el espacio
+		 * 		 que ocupa
+		 */
+		public LoadTask(E element, long occupiedSpace) {
+			this.element = element;
+			this.occupiedSpace = occupiedSpace;
+			this.claimed = new AtomicBoolean(false);
+		}
+		
+		/**
+		 * @post Descarta la tarea si todavía no se ejecutó, y devuelve si la descartó.
+		 * 		 Si la descartó no se ejecutará
+		 */
+		public boolean discard() {
+			return this.claimed.compareAndSet(false, true);
+		}
+		
+		@Override
+		public void run(TaskRunner taskRunner) {
+			if ( this.claimed.compareAndSet(false, true) ) {
+				final long startTime = System.nanoTime();
+				Throwable failure = null;
+				
+				try {
+					ParallelLoader.this.load(this.element);
+				}
+				catch (RuntimeException | Error e) {
+					failure = e;
+				}
+				finally {
+					ParallelLoader.this.completions.add(new Completion<E>(this.element, System.nanoTime() - startTime, failure));
+				}
+			}
+		}
+
+		// Las cargas suelen hacer entrada/salida
+		@Override
+		public boolean isBlocking() {
+			return true;
+		}
+
+		@Override
+		protected long getRelativeRunningTime_implementation() {
+			return this.occupiedSpace;
+		}
+	}
+	
+	private final TaskRunner taskRunner;
+	private final LinkedBlockingQueue<Completion<E>> completions;
+	
+	private int runningLoads;
+	private Throwable failure;
+	
+	/**
+	 * @pre El ejecutador de tareas no puede ser nulo
+	 * @post Crea el cargador con el ejecutador de tareas especificado
+	 */
+	public ParallelLoader(TaskRunner taskRunner) {
+		Preconditions.checkNotNull(taskRunner, "taskRunner");
+		
+		this.taskRunner = taskRunner;
+		this.completions = new LinkedBlockingQueue<Completion<E>>();
+		
+		this.runningLoads = 0;
+		this.failure = null;
+	}
+	
+	/**
+	 * @post Carga el elemento especificado, desde el thread de la tarea
+	 */
+	protected abstract void load(E element);
+	
+	/**
+	 * @post Lanza la carga del elemento especificado, con el espacio que ocupa.
+	 * 		 Si el ejecutador de tareas la rechaza, registra la excepción
+	 * 		 y sólo espera la carga si la tarea llegó a ejecutarse
+	 */
+	public final void start(E element, long occupiedSpace) {
+		final LoadTask task = new LoadTask(element, occupiedSpace);
+		
+		this.runningLoads++;
+		
+		try {
+			this.taskRunner.run(task);
+		}
+		catch (RuntimeException | Error e) {
+			if ( task.discard() ) {
+				this.runningLoads--;
+			}
+			
+			this.recordFailure(e);
+		}
+	}
+	
+	/**
+	 * @post Carga el elemento especificado en el thread actual,
+	 * 		 registrando la excepción si falla
+	 */
+	public final void loadInCurrentThread(E element) {
+		try {
+			this.load(element);
+		}
+		catch (RuntimeException | Error e) {
+			this.recordFailure(e);
+		}
+	}
+	
+	/**
+	 * @post Devuelve la cantidad de cargas en curso
+	 */
+	public final int getRunningLoads() {
+		return this.runningLoads;
+	}
+	
+	/**
+	 * @post Devuelve si falló alguna carga
+	 */
+	public final boolean hasFailed() {
+		return this.failure != null;
+	}
+	
+	/**
+	 * @pre Tiene que haber cargas en curso
+	 * @post Espera a que termine alguna de las cargas en curso, y devuelve
+	 * 		 su resultado.
+	 * 		 Las cargas no se pueden abandonar, así que espera aunque se
+	 * 		 interrumpa el thread, y después restaura la interrupción
+	 */
+	public final Completion<E> takeCompletion() {
+		if ( this.runningLoads == 0 ) {
+			throw new IllegalStateException("There are no running loads");
+		}
+		
+		Completion<E> completion = null;
+		boolean interrupted = false;
+		
+		try {
+			while ( completion == null ) {
+				try {
+					completion = this.completions.take();
+				}
+				catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+		}
+		finally {
+			if ( interrupted ) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		
+		this.runningLoads--;
+		
+		if ( completion.failure != null ) {
+			this.recordFailure(completion.failure);
+		}
+		
+		return completion;
+	}
+	
+	/**
+	 * @post Espera a que terminen todas las cargas en curso
+	 */
+	public final void awaitAll() {
+		while ( this.runningLoads != 0 ) {
+			this.takeCompletion();
+		}
+	}
+	
+	/**
+	 * @post Si falló alguna carga lanza la primera excepción,
+	 * 		 las que no son RuntimeException ni Error se envuelven
+	 * 		 en DataLoadingErrorException
+	 */
+	public final void rethrowFailure() throws DataLoadingErrorException {
+		final Throwable failure = this.failure;
+		
+		if ( failure != null ) {
+			if ( failure instanceof RuntimeException ) {
+				throw (RuntimeException) failure;
+			}
+			else if ( failure instanceof Error ) {
+				throw (Error) failure;
+			}
+			else {
+				throw new DataLoadingErrorException(failure);
+			}
+		}
+	}
+	
+	/**
+	 * @post Registra la excepción especificada, si es la primera
+	 */
+	private void recordFailure(Throwable failure) {
+		if ( this.failure == null ) {
+			this.failure = failure;
+		}
+	}
+}
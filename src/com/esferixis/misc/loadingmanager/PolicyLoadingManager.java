@@ -0,0 +1,370 @@
+/**
+ * Copyright (c) 2018 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.misc.loadingmanager;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.esferixis.misc.Preconditions;
+import com.esferixis.misc.dynamicFields.DynamicFieldsContainerObject;
+import com.esferixis.misc.loader.DataLoadingErrorException;
+import com.esferixis.misc.loadingmanager.eviction.EvictionPolicy;
+import com.esferixis.misc.map.DynamicFieldCachedHashMap;
+
+/**
+ * @author Ariel Favio Carrizo
+ * 
+ * Administrador de carga con política de desalojo intercambiable.
+ * 
+ * La política recibe las cargas, los aciertos y las descargas con el
+ * espacio ocupado por cada elemento, y las reservas de los elementos
+ * con usuarios cargados que notifica la estrategia de carga.
+ * 
+ * Antes de desalojar verifica que el pedido entre, contando los elementos
+ * reservados cuyos usuarios conocidos se desalojarían, así que si no entra
+ * lanza OutOfSpace sin haber descargado ni cargado nada.
+ */
+public final class PolicyLoadingManager<T extends DynamicFieldsContainerObject> extends LoadingManager<T> {
+	private final class Node {
+		private final T element;
+		private final long occupiedSpace;
+		private final Collection<T> dependencies;
+		
+		private final NodeElementObserver nodeElementObserver;
+		
+		/**
+		 * @post Crea el nodo con el elemento, el espacio ocupado y las dependencias especificados
+		 */
+		public Node(T element, long occupiedSpace, Collection<T> dependencies) {
+			if ( element != null ) {
+				this.element = element;
+				this.occupiedSpace = occupiedSpace;
+				this.dependencies = dependencies;
+				this.nodeElementObserver = new NodeElementObserver(element);
+			}
+			else {
+				throw new NullPointerException();
+			}
+		}
+	}
+	
+	private final class NodeElementObserver implements LoadingStrategy.Observer {
+		private final T element;
+		private boolean pinned;
+		
+		/**
+		 * @post Crea el observer del elemento especificado
+		 */
+		public NodeElementObserver(T element) {
+			this.element = element;
+			this.pinned = false;
+		}
+		
+		/* (non-Javadoc)
+		 * @see com.esferixis.misc.loadingmanager.LoadingStrategy.Observer#notifyHasLoadedUsers()
+		 */
+		@Override
+		public void notifyHasLoadedUsers() {
+			this.pinned = true;
+			PolicyLoadingManager.this.evictionPolicy.pin(this.element);
+		}
+
+		/* (non-Javadoc)
+		 * @see com.esferixis.misc.loadingmanager.LoadingStrategy.Observer#notifyHasNotLoadedUsers()
+		 */
+		@Override
+		public void notifyHasNotLoadedUsers() {
+			this.pinned = false;
+			PolicyLoadingManager.this.evictionPolicy.unpin(this.element);
+		}
+		
+	}
+	
+	private final EvictionPolicy<T> evictionPolicy;
+	
+	private final Map<T, Node> nodePerElement;
+	
+	private long nodesQuantity;
+	private long freeSpace;
+	
+	/**
+	 * @pre Ni la estrategia de carga ni la política de desalojo pueden ser nulas.
+	 * 		La política de desalojo tiene que estar vacía
+	 * @post Crea el administrador de carga con la estrategia de carga, el límite de elementos,
+	 * 		 la capacidad y la política de desalojo especificados
+	 */
+	public PolicyLoadingManager(LoadingStrategy<T> loadingStrategy, long maxElements, long capacity, EvictionPolicy<T> evictionPolicy) {
+		super(loadingStrategy, maxElements, capacity);
+		
+		Preconditions.checkNotNull(evictionPolicy, "evictionPolicy");
+		
+		this.evictionPolicy = evictionPolicy;
+		
+		this.nodePerElement = new DynamicFieldCachedHashMap<T, Node>();
+		
+		this.nodesQuantity = 0;
+		this.freeSpace = capacity;
+	}
+	
+	/**
+	 * @pre El nodo tiene que estar presente y no tiene
+	 * 		que tener usuarios cargados
+	 * @post Descarga el nodo, y sólo el nodo especificado
+	 */
+	private void unloadNode(Node node) {
+		this.loadingStrategy.detachObserver(node.element, node.nodeElementObserver);
+		this.loadingStrategy.unload(node.element);
+		
+		this.nodePerElement.remove(node.element);
+		this.evictionPolicy.remove(node.element);
+		
+		this.freeSpace += node.occupiedSpace;
+		this.nodesQuantity--;
+	}
+	
+	/**
+	 * @post Agrega el elemento especificado y sus dependencias que no estén cargadas
+	 * 		 a la clausura, después de sus dependencias.
+	 * 
+	 * 		 Recorre con una pila explícita para soportar cadenas de
+	 * 		 dependencias profundas
+	 */
+	private void addToClosure(T element, Set<T> visitedElements, List<T> closure) {
+		if ( visitedElements.add(element) ) {
+			final ArrayDeque<T> elementStack = new ArrayDeque<T>();
+			final ArrayDeque<Iterator<T>> dependenciesStack = new ArrayDeque<Iterator<T>>();
+			
+			this.pushClosureElement(element, elementStack, dependenciesStack);
+			
+			while ( !elementStack.isEmpty() ) {
+				final Iterator<T> dependencies = dependenciesStack.peek();
+				
+				if ( dependencies.hasNext() ) {
+					final T eachDependency = dependencies.next();
+					
+					if ( visitedElements.add(eachDependency) ) {
+						this.pushClosureElement(eachDependency, elementStack, dependenciesStack);
+					}
+				}
+				else {
+					// Todas sus dependencias ya están en la clausura
+					dependenciesStack.pop();
+					closure.add(elementStack.pop());
+				}
+			}
+		}
+	}
+	
+	/**
+	 * @post Apila el elemento especificado con sus dependencias,
+	 * 		 si ya está cargado no hace falta recorrerlas
+	 */
+	private void pushClosureElement(T element, ArrayDeque<T> elementStack, ArrayDeque<Iterator<T>> dependenciesStack) {
+		elementStack.push(element);
+		
+		if ( this.nodePerElement.containsKey(element) ) {
+			dependenciesStack.push(Collections.<T>emptyIterator());
+		}
+		else {
+			dependenciesStack.push(this.loadingStrategy.getDependencies(element).iterator());
+		}
+	}
+
+	/**
+	 * @post Devuelve si desalojando nodos fuera de los elementos protegidos
+	 * 		 especificados puede haber lugar para el espacio y la cantidad de
+	 * 		 elementos faltantes especificados. No desaloja nada.
+	 * 
+	 * 		 Los nodos reservados sólo se cuentan si se desalojarían
+	 * 		 todos sus usuarios conocidos
+	 */
+	private boolean canMakeRoom(long requiredSpace, long missingElementsQuantity, Set<T> protectedElements) {
+		long freeSpace = this.freeSpace;
+		long nodesQuantity = this.nodesQuantity + missingElementsQuantity;
+		
+		if ( ( freeSpace >= requiredSpace ) && ( nodesQuantity <= this.maxElements ) ) {
+			return true;
+		}
+		
+		final Map<Node, Integer> residentUsersPerPinnedNode = new HashMap<Node, Integer>();
+		final ArrayDeque<Node> unpinnedNodes = new ArrayDeque<Node>();
+		
+		for ( Node eachNode : this.nodePerElement.values() ) {
+			if ( !eachNode.nodeElementObserver.pinned ) {
+				unpinnedNodes.add(eachNode);
+			}
+			
+			for ( T eachDependency : eachNode.dependencies ) {
+				final Node dependencyNode = this.nodePerElement.get(eachDependency);
+				
+				if ( ( dependencyNode != null ) && dependencyNode.nodeElementObserver.pinned ) {
+					final Integer residentUsers = residentUsersPerPinnedNode.get(dependencyNode);
+					residentUsersPerPinnedNode.put(dependencyNode, ( residentUsers != null ) ? residentUsers + 1 : 1);
+				}
+			}
+		}
+		
+		while ( ( freeSpace < requiredSpace ) || ( nodesQuantity > this.maxElements ) ) {
+			final Node candidate = unpinnedNodes.poll();
+			
+			if ( candidate == null ) {
+				return false;
+			}
+			
+			if ( !protectedElements.contains(candidate.element) ) {
+				freeSpace += candidate.occupiedSpace;
+				nodesQuantity--;
+				
+				// Al desalojar el último usuario se libera la dependencia
+				for ( T eachDependency : candidate.dependencies ) {
+					final Node dependencyNode = this.nodePerElement.get(eachDependency);
+					final Integer residentUsers = residentUsersPerPinnedNode.get(dependencyNode);
+					
+					if ( residentUsers != null ) {
+						if ( residentUsers == 1 ) {
+							residentUsersPerPinnedNode.remove(dependencyNode);
+							unpinnedNodes.add(dependencyNode);
+						}
+						else {
+							residentUsersPerPinnedNode.put(dependencyNode, residentUsers - 1);
+						}
+					}
+				}
+			}
+		}
+		
+		return true;
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.misc.loadingmanager.LoadingManager#loadElements_internal(java.util.Collection)
+	 */
+	@Override
+	protected void loadElements_internal(Collection<T> elements) throws NullPointerException, DataLoadingErrorException, OutOfSpace {
+		if ( elements.size() > this.maxElements ) {
+			throw new OutOfSpace("Too many elements");
+		}
+		
+		final List<T> closure = new ArrayList<T>(elements.size() * 2);
+		final Set<T> closureElements = new HashSet<T>();
+		
+		for ( T eachElement : elements ) {
+			this.addToClosure(eachElement, closureElements, closure);
+		}
+		
+		// Verifica que entre antes de desalojar
+		long closureSpace = 0, requiredSpace = 0;
+		final Map<T, Long> requiredSpacePerElement = new HashMap<T, Long>();
+		
+		for ( T eachElement : closure ) {
+			final Node node = this.nodePerElement.get(eachElement);
+			
+			if ( node != null ) {
+				closureSpace += node.occupiedSpace;
+			}
+			else {
+				final long eachRequiredSpace = this.loadingStrategy.getOccupiedSpace(eachElement);
+				
+				requiredSpacePerElement.put(eachElement, eachRequiredSpace);
+				closureSpace += eachRequiredSpace;
+				requiredSpace += eachRequiredSpace;
+			}
+		}
+		
+		if ( ( closureSpace > this.capacity ) || ( closure.size() > this.maxElements ) ) {
+			throw new OutOfSpace("Too many elements");
+		}
+		
+		final long missingElementsQuantity = requiredSpacePerElement.size();
+		
+		if ( !this.canMakeRoom(requiredSpace, missingElementsQuantity, closureElements) ) {
+			throw new OutOfSpace("Too many elements");
+		}
+		
+		// Desaloja todo lo necesario antes de cargar
+		while ( ( this.freeSpace < requiredSpace ) || ( this.nodesQuantity + missingElementsQuantity > this.maxElements ) ) {
+			final T victim = this.evictionPolicy.selectVictim(closureElements);
+			
+			// Sólo si la estrategia reserva elementos por usuarios que no cargó éste administrador
+			if ( victim == null ) {
+				throw new OutOfSpace("Too many elements");
+			}
+			
+			this.unloadNode(this.nodePerElement.get(victim));
+		}
+		
+		for ( T eachElement : closure ) {
+			final Node node = this.nodePerElement.get(eachElement);
+			
+			if ( node != null ) {
+				this.evictionPolicy.access(eachElement);
+			}
+			else {
+				final long eachRequiredSpace = requiredSpacePerElement.get(eachElement);
+				
+				this.loadingStrategy.load(eachElement);
+				
+				final Node newNode = new Node(eachElement, eachRequiredSpace, this.loadingStrategy.getDependencies(eachElement));
+				
+				this.evictionPolicy.insert(eachElement, eachRequiredSpace);
+				this.loadingStrategy.attachObserver(eachElement, newNode.nodeElementObserver);
+				
+				this.freeSpace -= eachRequiredSpace;
+				this.nodesQuantity++;
+				
+				this.nodePerElement.put(eachElement, newNode);
+			}
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see com.esferixis.misc.loadingmanager.LoadingManager#destroy_internal()
+	 */
+	@Override
+	protected void destroy_internal() {
+		final Set<T> noProtectedElements = new HashSet<T>();
+		
+		T victim;
+		while ( ( victim = this.evictionPolicy.selectVictim(noProtectedElements) ) != null ) {
+			this.unloadNode(this.nodePerElement.get(victim));
+		}
+	}
+	
+}
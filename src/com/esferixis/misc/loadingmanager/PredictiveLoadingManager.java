@@ -0,0 +1,201 @@
+/**
+ * Copyright (c) 2018 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.misc.loadingmanager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.esferixis.misc.Preconditions;
+import com.esferixis.misc.concurrency.tasking.Task;
+import com.esferixis.misc.concurrency.tasking.TaskRunner;
+import com.esferixis.misc.dynamicFields.DynamicFieldsContainerObject;
+import com.esferixis.misc.loader.DataLoadingErrorException;
+
+/**
+ * @author Ariel Favio Carrizo
+ * 
+ * Decorador de administrador de carga que aprende secuencias de coacceso
+ * de los pedidos, y después de cada pedido precarga en segundo plano,
+ * con el ejecutador de tareas especificado, los elementos que
+ * probablemente se pidan a continuación.
+ * 
+ * Los accesos al administrador decorado se serializan con un lock.
+ * La precarga tiene menor prioridad: si hay un pedido en curso se descarta,
+ * y el pedido siguiente programa una predicción nueva.
+ * Sólo hay una precarga pendiente a la vez, la predicción más nueva
+ * reemplaza a la anterior. Si el ejecutador de tareas rechaza la precarga
+ * se descarta, sin hacer fallar el pedido.
+ */
+public final class PredictiveLoadingManager<T extends DynamicFieldsContainerObject> extends LoadingManager<T> {
+	private final class PrefetchTask extends Task {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public void run(TaskRunner taskRunner) {
+			final PredictiveLoadingManager<T> manager = PredictiveLoadingManager.this;
+			
+			if ( manager.lock.tryLock() ) {
+				try {
+					final List<T> prediction = manager.pendingPrediction.getAndSet(null);
+					
+					if ( ( prediction != null ) && !manager.destroyed ) {
+						manager.loadingManager.prefetchElements(prediction);
+					}
+				}
+				catch (DataLoadingErrorException e) {
+					// Es sólo una sugerencia, el pedido explícito reportará el error
+				}
+				finally {
+					manager.lock.unlock();
+				}
+			}
+			else {
+				manager.pendingPrediction.set(null);
+			}
+		}
+		
+		@Override
+		public boolean isBlocking() {
+			return true;
+		}
+
+		@Override
+		protected long getRelativeRunningTime_implementation() {
+			return 1;
+		}
+	}
+	
+	private final LoadingManager<T> loadingManager;
+	private final TaskRunner taskRunner;
+	private final int maxPredictions;
+	
+	private final CoAccessPredictor<T> predictor;
+	
+	private final ReentrantLock lock;
+	private final AtomicReference<List<T>> pendingPrediction;
+	private volatile boolean destroyed;
+	
+	/**
+	 * @pre Ni el administrador de carga ni el ejecutador de tareas pueden ser nulos,
+	 * 		y las cantidades máximas tienen que ser positivas
+	 * @post Crea el decorador con el administrador de carga, el ejecutador de tareas
+	 * 		 para las precargas, la cantidad máxima de elementos a precargar por pedido
+	 * 		 y la cantidad máxima de elementos con historia especificados
+	 */
+	public PredictiveLoadingManager(LoadingManager<T> loadingManager, TaskRunner taskRunner, int maxPredictions, int maxTrackedElements) {
+		super(checkLoadingManager(loadingManager).loadingStrategy, loadingManager.maxElements, loadingManager.capacity);
+		
+		Preconditions.checkNotNull(taskRunner, "taskRunner");
+		Preconditions.checkIsPositive(maxPredictions, "maxPredictions");
+		Preconditions.checkIsPositive(maxTrackedElements, "maxTrackedElements");
+		
+		this.loadingManager = loadingManager;
+		this.taskRunner = taskRunner;
+		this.maxPredictions = maxPredictions;
+		
+		this.predictor = new CoAccessPredictor<T>(maxTrackedElements);
+		
+		this.lock = new ReentrantLock();
+		this.pendingPrediction = new AtomicReference<List<T>>(null);
+		this.destroyed = false;
+	}
+	
+	/**
+	 * @post Verifica que el administrador de carga no sea nulo, y lo devuelve
+	 */
+	private static <T extends DynamicFieldsContainerObject> LoadingManager<T> checkLoadingManager(LoadingManager<T> loadingManager) {
+		Preconditions.checkNotNull(loadingManager, "loadingManager");
+		return loadingManager;
+	}
+
+	/* (non-Javadoc)
+	 * @see com.esferixis.misc.loadingmanager.LoadingManager#loadElements_internal(java.util.Collection)
+	 */
+	@Override
+	protected void loadElements_internal(Collection<T> elements) throws NullPointerException, DataLoadingErrorException {
+		final List<T> prediction;
+		
+		this.lock.lock();
+		try {
+			this.loadingManager.loadElements(elements);
+			
+			this.predictor.record(elements);
+			prediction = this.predictor.predict(elements, this.maxPredictions);
+		}
+		finally {
+			this.lock.unlock();
+		}
+		
+		if ( !prediction.isEmpty() && ( this.pendingPrediction.getAndSet(prediction) == null ) ) {
+			try {
+				this.taskRunner.run(new PrefetchTask());
+			}
+			catch (RuntimeException e) {
+				// Es sólo una sugerencia, no hace fallar el pedido y el siguiente la vuelve a programar
+				this.pendingPrediction.set(null);
+			}
+		}
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.misc.loadingmanager.LoadingManager#prefetchElements_internal(java.util.Collection)
+	 */
+	@Override
+	protected void prefetchElements_internal(Collection<T> elements) throws NullPointerException, DataLoadingErrorException {
+		this.lock.lock();
+		try {
+			this.loadingManager.prefetchElements(elements);
+		}
+		finally {
+			this.lock.unlock();
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see com.esferixis.misc.loadingmanager.LoadingManager#destroy_internal()
+	 */
+	@Override
+	protected void destroy_internal() {
+		this.lock.lock();
+		try {
+			this.destroyed = true;
+			this.pendingPrediction.set(null);
+			
+			this.loadingManager.destroy();
+		}
+		finally {
+			this.lock.unlock();
+		}
+	}
+}
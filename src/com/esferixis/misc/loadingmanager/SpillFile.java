@@ -0,0 +1,178 @@
+/**
+ * Copyright (c) 2018 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.misc.loadingmanager;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * @author Ariel Favio Carrizo
+ * 
+ * Archivo de volcado mapeado en memoria, de tamaño fijo,
+ * con asignación de extensiones por primer ajuste.
+ * Las extensiones libres contiguas se fusionan al liberarse.
+ * 
+ * No es thread-safe
+ */
+final class SpillFile implements Closeable {
+	private final RandomAccessFile file;
+	private final FileChannel channel;
+	private final MappedByteBuffer buffer;
+	
+	// Extensiones libres, por desplazamiento
+	private final TreeMap<Integer, Integer> freeExtents;
+	
+	/**
+	 * @pre El archivo no puede ser nulo y la capacidad tiene que ser positiva
+	 * @post Crea el archivo de volcado en el archivo especificado,
+	 * 		 con la capacidad en bytes especificada
+	 */
+	public SpillFile(File path, int capacity) throws IOException {
+		this.file = new RandomAccessFile(path, "rw");
+		
+		try {
+			this.file.setLength(capacity);
+			this.channel = this.file.getChannel();
+			this.buffer = this.channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+		}
+		catch (IOException e) {
+			this.file.close();
+			throw e;
+		}
+		
+		this.freeExtents = new TreeMap<Integer, Integer>();
+		this.freeExtents.put(0, capacity);
+	}
+	
+	/**
+	 * @post Devuelve la capacidad en bytes
+	 */
+	public int getCapacity() {
+		return this.buffer.capacity();
+	}
+	
+	/**
+	 * @pre La longitud tiene que ser positiva
+	 * @post Reserva una extensión con la longitud especificada y devuelve
+	 * 		 su desplazamiento. Si no hay una extensión libre suficiente devuelve -1
+	 */
+	public int allocate(int length) {
+		for ( Map.Entry<Integer, Integer> eachFreeExtent : this.freeExtents.entrySet() ) {
+			final int offset = eachFreeExtent.getKey();
+			final int freeLength = eachFreeExtent.getValue();
+			
+			if ( freeLength >= length ) {
+				this.freeExtents.remove(offset);
+				
+				if ( freeLength > length ) {
+					this.freeExtents.put(offset + length, freeLength - length);
+				}
+				
+				return offset;
+			}
+		}
+		
+		return -1;
+	}
+	
+	/**
+	 * @pre La extensión tiene que estar reservada
+	 * @post Libera la extensión especificada, fusionándola con las libres contiguas
+	 */
+	public void free(int offset, int length) {
+		int freeOffset = offset;
+		int freeLength = length;
+		
+		final Map.Entry<Integer, Integer> previousExtent = this.freeExtents.floorEntry(offset);
+		
+		if ( ( previousExtent != null ) && ( previousExtent.getKey() + previousExtent.getValue() == offset ) ) {
+			this.freeExtents.remove(previousExtent.getKey());
+			
+			freeOffset = previousExtent.getKey();
+			freeLength += previousExtent.getValue();
+		}
+		
+		final Integer nextExtentLength = this.freeExtents.remove(offset + length);
+		
+		if ( nextExtentLength != null ) {
+			freeLength += nextExtentLength;
+		}
+		
+		this.freeExtents.put(freeOffset, freeLength);
+	}
+	
+	/**
+	 * @pre La extensión tiene que estar reservada
+	 * @post Escribe los datos especificados en el desplazamiento especificado
+	 */
+	public void write(int offset, byte[] data) {
+		final ByteBuffer buffer = this.buffer.duplicate();
+		buffer.position(offset);
+		buffer.put(data);
+	}
+	
+	/**
+	 * @pre La extensión tiene que estar reservada
+	 * @post Lee la extensión especificada
+	 */
+	public byte[] read(int offset, int length) {
+		final byte[] data = new byte[length];
+		
+		final ByteBuffer buffer = this.buffer.duplicate();
+		buffer.position(offset);
+		buffer.get(data);
+		
+		return data;
+	}
+	
+	/**
+	 * @post Cierra el archivo.
+	 * 		 El mapeo se libera cuando el recolector de basura
+	 * 		 recolecta el buffer
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			this.channel.close();
+		}
+		finally {
+			this.file.close();
+		}
+	}
+}
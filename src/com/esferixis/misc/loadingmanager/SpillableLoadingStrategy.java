@@ -0,0 +1,60 @@
+/**
+ * Copyright (c) 2018 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.misc.loadingmanager;
+
+import com.esferixis.misc.dynamicFields.DynamicFieldsContainerObject;
+import com.esferixis.misc.loader.DataLoader;
+import com.esferixis.misc.loader.DataLoadingErrorException;
+import com.esferixis.misc.loader.SerializableDataLoader;
+
+/**
+ * @author Ariel Favio Carrizo
+ * 
+ * Estrategia de carga cuyos elementos pueden guardarse al descargarse,
+ * para restaurarlos después sin volver a leer el origen
+ */
+public interface SpillableLoadingStrategy<T extends DynamicFieldsContainerObject, D> extends LoadingStrategy<T> {
+	/**
+	 * @pre El elemento tiene que estar cargado
+	 * @post Devuelve un cargador serializable con los datos del elemento especificado,
+	 * 		 que alcanza para restaurarlo
+	 */
+	public SerializableDataLoader<D> getSpillDataLoader(T element);
+	
+	/**
+	 * @pre El elemento no tiene que estar cargado, y sus dependencias sí
+	 * @post Carga el elemento especificado con los datos del cargador especificado,
+	 * 		 en lugar de leer el origen.
+	 * 		 Si falla, el elemento queda sin cargar
+	 */
+	public void restore(T element, DataLoader<D> dataLoader) throws DataLoadingErrorException;
+}
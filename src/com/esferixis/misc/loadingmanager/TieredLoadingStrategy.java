@@ -0,0 +1,315 @@
+/**
+ * Copyright (c) 2018 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.misc.loadingmanager;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.esferixis.misc.Preconditions;
+import com.esferixis.misc.dynamicFields.DynamicFieldsContainerObject;
+import com.esferixis.misc.loader.DataLoadingErrorException;
+import com.esferixis.misc.loader.SerializableDataLoader;
+import com.esferixis.misc.loadingmanager.eviction.EvictionPolicy;
+import com.esferixis.misc.loadingmanager.eviction.LruEvictionPolicy;
+
+/**
+ * @author Ariel Favio Carrizo
+ * 
+ * Estrategia de carga en dos niveles.
+ * Al descargarse un elemento, sus datos se serializan en un archivo de volcado
+ * mapeado en memoria, con capacidad y política de desalojo propias.
+ * Al cargarse, si el elemento está volcado se restaura desde el archivo
+ * en lugar de leer el origen.
+ * 
+ * Se usa como estrategia de cualquier administrador de carga, que hace de
+ * nivel en memoria.
+ * Si la serialización o la restauración fallan, se recurre al origen.
+ * 
+ * No es thread-safe, al igual que los administradores de carga que no son concurrentes
+ */
+public final class TieredLoadingStrategy<T extends DynamicFieldsContainerObject, D> implements LoadingStrategy<T>, Closeable {
+	private static final class Extent {
+		private final int offset;
+		private final int length;
+		
+		/**
+		 * @post Crea la extensión
+		 */
+		public Extent(int offset, int length) {
+			this.offset = offset;
+			this.length = length;
+		}
+	}
+	
+	private final SpillableLoadingStrategy<T, D> spillableLoadingStrategy;
+	private final SpillFile spillFile;
+	private final EvictionPolicy<T> spillEvictionPolicy;
+	private final Map<T, Extent> extentsByElement;
+	
+	private long spills;
+	private long restores;
+	
+	/**
+	 * @pre Ninguno de los parámetros puede ser nulo, y la capacidad tiene que ser positiva
+	 * @post Crea la estrategia con la estrategia volcable especificada,
+	 * 		 el archivo de volcado especificado, su capacidad en bytes, y la política
+	 * 		 de desalojo del archivo de volcado especificada.
+	 * 		 El archivo se sobreescribe
+	 */
+	public TieredLoadingStrategy(SpillableLoadingStrategy<T, D> spillableLoadingStrategy, File spillFile, int spillCapacity, EvictionPolicy<T> spillEvictionPolicy) throws IOException {
+		Preconditions.checkNotNull(spillableLoadingStrategy, "spillableLoadingStrategy");
+		Preconditions.checkNotNull(spillFile, "spillFile");
+		Preconditions.checkIsPositive(spillCapacity, "spillCapacity");
+		Preconditions.checkNotNull(spillEvictionPolicy, "spillEvictionPolicy");
+		
+		this.spillableLoadingStrategy = spillableLoadingStrategy;
+		this.spillFile = new SpillFile(spillFile, spillCapacity);
+		this.spillEvictionPolicy = spillEvictionPolicy;
+		this.extentsByElement = new HashMap<T, Extent>();
+		
+		this.spills = 0;
+		this.restores = 0;
+	}
+	
+	/**
+	 * @pre Ninguno de los parámetros puede ser nulo, y la capacidad tiene que ser positiva
+	 * @post Crea la estrategia con la estrategia volcable especificada,
+	 * 		 el archivo de volcado especificado y su capacidad en bytes.
+	 * 		 El archivo de volcado desaloja el elemento usado menos recientemente.
+	 * 		 El archivo se sobreescribe
+	 */
+	public TieredLoadingStrategy(SpillableLoadingStrategy<T, D> spillableLoadingStrategy, File spillFile, int spillCapacity) throws IOException {
+		this(spillableLoadingStrategy, spillFile, spillCapacity, new LruEvictionPolicy<T>());
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.misc.loadingmanager.LoadingStrategy#getOccupiedSpace(com.esferixis.misc.dynamicFields.DynamicFieldsContainerObject)
+	 */
+	@Override
+	public long getOccupiedSpace(T element) {
+		return this.spillableLoadingStrategy.getOccupiedSpace(element);
+	}
+
+	/* (non-Javadoc)
+	 * @see com.esferixis.misc.loadingmanager.LoadingStrategy#getDependencies(com.esferixis.misc.dynamicFields.DynamicFieldsContainerObject)
+	 */
+	@Override
+	public Collection<T> getDependencies(T dataElement) {
+		return this.spillableLoadingStrategy.getDependencies(dataElement);
+	}
+
+	/* (non-Javadoc)
+	 * @see com.esferixis.misc.loadingmanager.LoadingStrategy#load(com.esferixis.misc.dynamicFields.DynamicFieldsContainerObject)
+	 */
+	@Override
+	public void load(T element) {
+		final Extent extent = this.extentsByElement.remove(element);
+		
+		if ( extent != null ) {
+			final byte[] data = this.spillFile.read(extent.offset, extent.length);
+			this.discardExtent(element, extent);
+			
+			try {
+				this.spillableLoadingStrategy.restore(element, TieredLoadingStrategy.<D>deserialize(data));
+				this.restores++;
+				
+				return;
+			}
+			catch (IOException | ClassNotFoundException | ClassCastException | DataLoadingErrorException e) {
+				// Se recurre al origen
+			}
+		}
+		
+		this.spillableLoadingStrategy.load(element);
+	}
+
+	/* (non-Javadoc)
+	 * @see com.esferixis.misc.loadingmanager.LoadingStrategy#unload(com.esferixis.misc.dynamicFields.DynamicFieldsContainerObject)
+	 */
+	@Override
+	public void unload(T element) {
+		byte[] data;
+		
+		try {
+			data = serialize(this.spillableLoadingStrategy.getSpillDataLoader(element));
+		}
+		catch (IOException e) {
+			data = null;
+		}
+		
+		this.spillableLoadingStrategy.unload(element);
+		
+		if ( data != null ) {
+			this.spill(element, data);
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see com.esferixis.misc.loadingmanager.LoadingStrategy#isLoaded(com.esferixis.misc.dynamicFields.DynamicFieldsContainerObject)
+	 */
+	@Override
+	public boolean isLoaded(T element) {
+		return this.spillableLoadingStrategy.isLoaded(element);
+	}
+
+	/* (non-Javadoc)
+	 * @see com.esferixis.misc.loadingmanager.LoadingStrategy#attachObserver(com.esferixis.misc.dynamicFields.DynamicFieldsContainerObject, com.esferixis.misc.loadingmanager.LoadingStrategy.Observer)
+	 */
+	@Override
+	public void attachObserver(T element, Observer observer) {
+		this.spillableLoadingStrategy.attachObserver(element, observer);
+	}
+
+	/* (non-Javadoc)
+	 * @see com.esferixis.misc.loadingmanager.LoadingStrategy#detachObserver(com.esferixis.misc.dynamicFields.DynamicFieldsContainerObject, com.esferixis.misc.loadingmanager.LoadingStrategy.Observer)
+	 */
+	@Override
+	public void detachObserver(T element, Observer observer) {
+		this.spillableLoadingStrategy.detachObserver(element, observer);
+	}
+	
+	/**
+	 * @post Devuelve si el elemento especificado está volcado
+	 */
+	public boolean isSpilled(T element) {
+		return this.extentsByElement.containsKey(element);
+	}
+	
+	/**
+	 * @post Devuelve la cantidad de elementos volcados
+	 */
+	public int getSpilledElementsQuantity() {
+		return this.extentsByElement.size();
+	}
+	
+	/**
+	 * @post Devuelve la cantidad de volcados realizados
+	 */
+	public long getSpills() {
+		return this.spills;
+	}
+	
+	/**
+	 * @post Devuelve la cantidad de elementos restaurados desde el archivo de volcado
+	 */
+	public long getRestores() {
+		return this.restores;
+	}
+	
+	/**
+	 * @post Cierra el archivo de volcado, descartando los elementos volcados
+	 */
+	@Override
+	public void close() throws IOException {
+		for ( T eachElement : this.extentsByElement.keySet() ) {
+			this.spillEvictionPolicy.remove(eachElement);
+		}
+		
+		this.extentsByElement.clear();
+		this.spillFile.close();
+	}
+	
+	/**
+	 * @post Vuelca los datos especificados del elemento especificado,
+	 * 		 desalojando elementos volcados si hace falta.
+	 * 		 Si no entran en el archivo de volcado, se descartan
+	 */
+	private void spill(T element, byte[] data) {
+		final Extent oldExtent = this.extentsByElement.remove(element);
+		
+		if ( oldExtent != null ) {
+			this.discardExtent(element, oldExtent);
+		}
+		
+		if ( data.length <= this.spillFile.getCapacity() ) {
+			int offset = this.spillFile.allocate(data.length);
+			
+			while ( offset == -1 ) {
+				final T victim = this.spillEvictionPolicy.selectVictim(Collections.<T>emptySet());
+				
+				if ( victim == null ) {
+					return;
+				}
+				
+				this.discardExtent(victim, this.extentsByElement.remove(victim));
+				offset = this.spillFile.allocate(data.length);
+			}
+			
+			this.spillFile.write(offset, data);
+			this.extentsByElement.put(element, new Extent(offset, data.length));
+			this.spillEvictionPolicy.insert(element, data.length);
+			
+			this.spills++;
+		}
+	}
+	
+	/**
+	 * @pre La extensión tiene que haberse quitado del mapa
+	 * @post Libera la extensión especificada del elemento especificado
+	 */
+	private void discardExtent(T element, Extent extent) {
+		this.spillEvictionPolicy.remove(element);
+		this.spillFile.free(extent.offset, extent.length);
+	}
+	
+	/**
+	 * @post Serializa el cargador especificado
+	 */
+	private static byte[] serialize(SerializableDataLoader<?> dataLoader) throws IOException {
+		final ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
+		
+		try ( ObjectOutputStream objectStream = new ObjectOutputStream(byteStream) ) {
+			objectStream.writeObject(dataLoader);
+		}
+		
+		return byteStream.toByteArray();
+	}
+	
+	/**
+	 * @post Deserializa el cargador especificado
+	 */
+	@SuppressWarnings("unchecked")
+	private static <D> SerializableDataLoader<D> deserialize(byte[] data) throws IOException, ClassNotFoundException {
+		try ( ObjectInputStream objectStream = new ObjectInputStream(new ByteArrayInputStream(data)) ) {
+			return (SerializableDataLoader<D>) objectStream.readObject();
+		}
+	}
+}
@@ -31,56 +31,121 @@
  */
 package com.esferixis.misc.loadingmanager;
 
-import java.util.Set;
-
-import com.esferixis.misc.collection.set.ArraySet;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @author ariel
  *
+ * Cuenta de usuarios thread-safe.
+ * Los cambios que no pasan por cero se hacen con CAS, sin bloqueos.
+ * Las transiciones entre cero y uno se serializan con un lock, así
+ * las notificaciones se emiten una sola vez por transición y en orden.
+ * Los observadores se guardan en un array copy-on-write
  */
 public final class UserCount {
-	private int userCount;
-	private final Set<LoadingStrategy.Observer> loadingStrategyObservers;
+	private static final LoadingStrategy.Observer[] NO_OBSERVERS = new LoadingStrategy.Observer[0];
+	
+	private final AtomicInteger userCount;
+	private final Object transitionLock;
+	
+	private final Object observersLock;
+	private volatile LoadingStrategy.Observer[] loadingStrategyObservers;
 	
 	/**
 	 * @post Crea un administrador de cuenta de usuarios
 	 */
 	public UserCount() {
-		this.userCount = 0;
-		this.loadingStrategyObservers = new ArraySet<LoadingStrategy.Observer>();
+		this.userCount = new AtomicInteger(0);
+		this.transitionLock = new Object();
+		
+		this.observersLock = new Object();
+		this.loadingStrategyObservers = NO_OBSERVERS;
+	}
+	
+	/**
+	 * @post Devuelve la cuenta de usuarios
+	 */
+	public int getUserCount() {
+		return this.userCount.get();
 	}
 	
 	/**
 	 * @post Incrementa la cuenta de usuarios
 	 */
 	public void incrementUserCount() {
-		if ( this.userCount != Integer.MAX_VALUE ) {
-			if ( this.userCount++ == 0 ) {
-				for ( LoadingStrategy.Observer eachObserver : this.loadingStrategyObservers ) {
-					eachObserver.notifyHasLoadedUsers();
+		if ( !this.tryIncrementNonZero() ) {
+			synchronized ( this.transitionLock ) {
+				if ( !this.tryIncrementNonZero() ) {
+					// Sólo se pasa de cero a uno con el lock tomado
+					this.userCount.set(1);
+					
+					for ( LoadingStrategy.Observer eachObserver : this.loadingStrategyObservers ) {
+						eachObserver.notifyHasLoadedUsers();
+					}
 				}
 			}
 		}
-		else {
-			throw new IllegalStateException("User count overflow");
-		}
 	}
 	
 	/**
 	 * @post Decrementa la cuenta de usuarios
 	 */
 	public void decrementUserCount() {
-		if ( this.userCount != 0 ) {
-			if ( this.userCount-- == 1 ) {
-				for ( LoadingStrategy.Observer eachObserver : this.loadingStrategyObservers ) {
-					eachObserver.notifyHasNotLoadedUsers();
+		if ( !this.tryDecrementAboveOne() ) {
+			synchronized ( this.transitionLock ) {
+				// Sólo se pasa de uno a cero con el lock tomado, pero la cuenta puede subir
+				while ( !this.tryDecrementAboveOne() ) {
+					if ( this.userCount.compareAndSet(1, 0) ) {
+						for ( LoadingStrategy.Observer eachObserver : this.loadingStrategyObservers ) {
+							eachObserver.notifyHasNotLoadedUsers();
+						}
+						
+						break;
+					}
+					else if ( this.userCount.get() == 0 ) {
+						throw new IllegalStateException("User count underflow");
+					}
 				}
 			}
 		}
-		else {
-			throw new IllegalStateException("User count underflow");
-		}
+	}
+	
+	/**
+	 * @post Intenta incrementar la cuenta si no es cero, y devuelve si lo hizo
+	 */
+	private boolean tryIncrementNonZero() {
+		int count;
+		
+		do {
+			count = this.userCount.get();
+			
+			if ( count == 0 ) {
+				return false;
+			}
+			else if ( count == Integer.MAX_VALUE ) {
+				throw new IllegalStateException("User count overflow");
+			}
+		} while ( !this.userCount.compareAndSet(count, count + 1) );
+		
+		return true;
+	}
+	
+	/**
+	 * @post Intenta decrementar la cuenta si es mayor que uno, y devuelve si lo hizo
+	 */
+	private boolean tryDecrementAboveOne() {
+		int count;
+		
+		do {
+			count = this.userCount.get();
+			
+			if ( count <= 1 ) {
+				return false;
+			}
+		} while ( !this.userCount.compareAndSet(count, count - 1) );
+		
+		return true;
 	}
 	
 	/**
@@ -89,7 +154,16 @@ public final class UserCount {
 	 */
 	public void addObserver(LoadingStrategy.Observer observer) {
 		if ( observer != null ) {
-			this.loadingStrategyObservers.add(observer);
+			synchronized ( this.observersLock ) {
+				final LoadingStrategy.Observer[] observers = this.loadingStrategyObservers;
+				
+				if ( indexOf(observers, observer) == -1 ) {
+					final LoadingStrategy.Observer[] newObservers = Arrays.copyOf(observers, observers.length + 1);
+					newObservers[observers.length] = observer;
+					
+					this.loadingStrategyObservers = newObservers;
+				}
+			}
 		}
 		else {
 			throw new NullPointerException();
@@ -101,10 +175,41 @@ public final class UserCount {
 	 */
 	public void removeObserver(LoadingStrategy.Observer observer) {
 		if ( observer != null ) {
-			this.loadingStrategyObservers.remove(observer);
+			synchronized ( this.observersLock ) {
+				final LoadingStrategy.Observer[] observers = this.loadingStrategyObservers;
+				final int index = indexOf(observers, observer);
+				
+				if ( index != -1 ) {
+					final LoadingStrategy.Observer[] newObservers;
+					
+					if ( observers.length == 1 ) {
+						newObservers = NO_OBSERVERS;
+					}
+					else {
+						newObservers = new LoadingStrategy.Observer[observers.length - 1];
+						System.arraycopy(observers, 0, newObservers, 0, index);
+						System.arraycopy(observers, index + 1, newObservers, index, observers.length - index - 1);
+					}
+					
+					this.loadingStrategyObservers = newObservers;
+				}
+			}
 		}
 		else {
 			throw new NullPointerException();
 		}
 	}
+	
+	/**
+	 * @post Devuelve el índice del observador especificado, o -1 si no está
+	 */
+	private static int indexOf(LoadingStrategy.Observer[] observers, LoadingStrategy.Observer observer) {
+		for ( int i = 0 ; i < observers.length ; i++ ) {
+			if ( observers[i].equals(observer) ) {
+				return i;
+			}
+		}
+		
+		return -1;
+	}
 }
@@ -0,0 +1,181 @@
+/**
+ * Copyright (c) 2018 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.misc.loadingmanager.eviction;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import com.esferixis.misc.Preconditions;
+
+/**
+ * @author Ariel Favio Carrizo
+ * 
+ * Política de desalojo ARC (Adaptive Replacement Cache), ponderada por espacio.
+ * 
+ * Los elementos presentes se reparten entre T1 (vistos una vez) y T2
+ * (vistos más de una vez), con las historias de desalojados B1 y B2.
+ * El peso objetivo de T1 se adapta: un acierto en B1 lo aumenta y
+ * uno en B2 lo disminuye, en proporción al espacio del elemento.
+ */
+public final class ArcEvictionPolicy<T> implements EvictionPolicy<T> {
+	private final long capacity;
+	private long targetRecentWeight;
+	
+	private final WeightedQueue<T> recentQueue;
+	private final WeightedQueue<T> frequentQueue;
+	private final WeightedQueue<T> recentGhostQueue;
+	private final WeightedQueue<T> frequentGhostQueue;
+	
+	private final Set<T> pinnedElements;
+	
+	/**
+	 * @pre La capacidad tiene que ser positiva
+	 * @post Crea la política con la capacidad especificada
+	 */
+	public ArcEvictionPolicy(long capacity) {
+		Preconditions.checkIsPositive(capacity, "capacity");
+		
+		this.capacity = capacity;
+		this.targetRecentWeight = 0;
+		
+		this.recentQueue = new WeightedQueue<T>();
+		this.frequentQueue = new WeightedQueue<T>();
+		this.recentGhostQueue = new WeightedQueue<T>();
+		this.frequentGhostQueue = new WeightedQueue<T>();
+		
+		this.pinnedElements = new HashSet<T>();
+	}
+	
+	/**
+	 * @post Devuelve el peso objetivo de T1
+	 */
+	public long getTargetRecentWeight() {
+		return this.targetRecentWeight;
+	}
+	
+	@Override
+	public void insert(T element, long occupiedSpace) {
+		if ( this.recentGhostQueue.contains(element) ) {
+			final long delta = Math.max(occupiedSpace, occupiedSpace * this.frequentGhostQueue.getWeight() / Math.max(this.recentGhostQueue.getWeight(), 1) );
+			this.targetRecentWeight = Math.min(this.capacity, this.targetRecentWeight + delta);
+			
+			this.recentGhostQueue.remove(element);
+			this.frequentQueue.addAtMru(element, occupiedSpace);
+		}
+		else if ( this.frequentGhostQueue.contains(element) ) {
+			final long delta = Math.max(occupiedSpace, occupiedSpace * this.recentGhostQueue.getWeight() / Math.max(this.frequentGhostQueue.getWeight(), 1) );
+			this.targetRecentWeight = Math.max(0, this.targetRecentWeight - delta);
+			
+			this.frequentGhostQueue.remove(element);
+			this.frequentQueue.addAtMru(element, occupiedSpace);
+		}
+		else {
+			this.recentQueue.addAtMru(element, occupiedSpace);
+		}
+		
+		this.trimGhosts();
+	}
+	
+	/**
+	 * @post Limita las historias: T1 más B1 no superan la capacidad,
+	 * 		 y el total no supera el doble de la capacidad
+	 */
+	private void trimGhosts() {
+		this.recentGhostQueue.trimTo( Math.max(0, this.capacity - this.recentQueue.getWeight()) );
+		
+		final long residentAndRecentGhostWeight = this.recentQueue.getWeight() + this.frequentQueue.getWeight() + this.recentGhostQueue.getWeight();
+		this.frequentGhostQueue.trimTo( Math.max(0, 2 * this.capacity - residentAndRecentGhostWeight) );
+	}
+
+	@Override
+	public void access(T element) {
+		final Long occupiedSpace = this.recentQueue.remove(element);
+		
+		if ( occupiedSpace != null ) {
+			this.frequentQueue.addAtMru(element, occupiedSpace);
+		}
+		else {
+			this.frequentQueue.moveToMru(element);
+		}
+	}
+
+	@Override
+	public void remove(T element) {
+		Long occupiedSpace = this.recentQueue.remove(element);
+		
+		if ( occupiedSpace != null ) {
+			this.recentGhostQueue.addAtMru(element, occupiedSpace);
+		}
+		else {
+			occupiedSpace = this.frequentQueue.remove(element);
+			
+			if ( occupiedSpace != null ) {
+				this.frequentGhostQueue.addAtMru(element, occupiedSpace);
+			}
+		}
+		
+		this.pinnedElements.remove(element);
+		this.trimGhosts();
+	}
+
+	@Override
+	public void pin(T element) {
+		this.pinnedElements.add(element);
+	}
+
+	@Override
+	public void unpin(T element) {
+		this.pinnedElements.remove(element);
+	}
+
+	@Override
+	public T selectVictim(Set<T> protectedElements) {
+		final WeightedQueue<T> firstQueue, secondQueue;
+		
+		if ( !this.recentQueue.isEmpty() && ( this.recentQueue.getWeight() > this.targetRecentWeight ) ) {
+			firstQueue = this.recentQueue;
+			secondQueue = this.frequentQueue;
+		}
+		else {
+			firstQueue = this.frequentQueue;
+			secondQueue = this.recentQueue;
+		}
+		
+		T victim = firstQueue.getEligibleLru(this.pinnedElements, protectedElements);
+		
+		if ( victim == null ) {
+			victim = secondQueue.getEligibleLru(this.pinnedElements, protectedElements);
+		}
+		
+		return victim;
+	}
+}
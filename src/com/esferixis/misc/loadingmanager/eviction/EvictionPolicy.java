@@ -0,0 +1,88 @@
+/**
+ * Copyright (c) 2018 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.misc.loadingmanager.eviction;
+
+import java.util.Set;
+
+/**
+ * @author Ariel Favio Carrizo
+ * 
+ * Política de desalojo de un administrador de carga.
+ * 
+ * Lleva el orden de los elementos presentes, ponderados por el espacio
+ * que ocupan, y elige qué elemento desalojar cuando hace falta espacio.
+ * Los elementos reservados, porque tienen usuarios cargados, no son
+ * candidatos a desalojo pero conservan su historia.
+ */
+public interface EvictionPolicy<T> {
+	/**
+	 * @pre El elemento no tiene que estar presente
+	 * @post Registra que el elemento especificado se cargó,
+	 * 		 ocupando el espacio especificado
+	 */
+	public void insert(T element, long occupiedSpace);
+	
+	/**
+	 * @pre El elemento tiene que estar presente
+	 * @post Registra un acceso al elemento especificado
+	 */
+	public void access(T element);
+	
+	/**
+	 * @pre El elemento tiene que estar presente
+	 * @post Registra que el elemento especificado se descargó
+	 */
+	public void remove(T element);
+	
+	/**
+	 * @pre El elemento tiene que estar presente
+	 * @post Registra que el elemento especificado tiene usuarios cargados,
+	 * 		 por lo que no se puede desalojar
+	 */
+	public void pin(T element);
+	
+	/**
+	 * @pre El elemento tiene que estar presente
+	 * @post Registra que el elemento especificado no tiene usuarios cargados
+	 */
+	public void unpin(T element);
+	
+	/**
+	 * @pre El conjunto de elementos protegidos no puede ser nulo
+	 * @post Devuelve el elemento a desalojar, que no esté reservado
+	 * 		 ni en el conjunto de elementos protegidos especificado.
+	 * 		 Si no hay ninguno devuelve null.
+	 * 		 Puede reordenar los elementos, el elemento devuelto tiene
+	 * 		 que desalojarse
+	 */
+	public T selectVictim(Set<T> protectedElements);
+}
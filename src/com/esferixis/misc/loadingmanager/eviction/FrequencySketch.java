@@ -0,0 +1,142 @@
+/**
+ * Copyright (c) 2018 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.misc.loadingmanager.eviction;
+
+/**
+ * @author Ariel Favio Carrizo
+ * 
+ * Estimador de frecuencia Count-Min con contadores de 4 bits.
+ * 
+ * Cada long guarda 16 contadores, y cada una de las 4 filas usa
+ * un grupo de 4 de ellos, así que las 4 lecturas de un elemento
+ * caen en pocas líneas de caché.
+ * Cuando la cantidad de incrementos llega al tamaño de muestra,
+ * todos los contadores se dividen por dos, para que la
+ * frecuencia refleje la historia reciente.
+ */
+final class FrequencySketch<T> {
+	private static final long[] SEEDS = { 0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L };
+	private static final long RESET_MASK = 0x7777777777777777L;
+	private static final int MAX_FREQUENCY = 15;
+	
+	private final long[] table;
+	private final int tableMask;
+	private final int sampleSize;
+	private int incrementsQuantity;
+	
+	/**
+	 * @pre La cantidad de elementos esperados tiene que ser positiva
+	 * @post Crea el estimador para la cantidad de elementos esperados especificada
+	 */
+	public FrequencySketch(int expectedElements) {
+		int tableLength = 16;
+		while ( ( tableLength < expectedElements ) && ( tableLength < ( 1 << 30 ) ) ) {
+			tableLength <<= 1;
+		}
+		
+		this.table = new long[tableLength];
+		this.tableMask = tableLength - 1;
+		this.sampleSize = (int) Math.min(10L * tableLength, Integer.MAX_VALUE);
+		this.incrementsQuantity = 0;
+	}
+	
+	/**
+	 * @post Mezcla el hash del elemento especificado
+	 */
+	private static int spread(Object element) {
+		int hash = element.hashCode() * 0x9E3779B9;
+		return hash ^ ( hash >>> 16 );
+	}
+	
+	/**
+	 * @post Devuelve el índice en la tabla para el hash y la fila especificados
+	 */
+	private int indexOf(int hash, int row) {
+		long rowHash = ( hash + SEEDS[row] ) * SEEDS[row];
+		rowHash += rowHash >>> 32;
+		return ( (int) rowHash ) & this.tableMask;
+	}
+	
+	/**
+	 * @post Devuelve la frecuencia estimada del elemento especificado
+	 */
+	public int frequency(T element) {
+		final int hash = spread(element);
+		final int start = ( hash & 3 ) << 2;
+		
+		int frequency = MAX_FREQUENCY;
+		
+		for ( int row = 0 ; row < 4 ; row++ ) {
+			final int shift = ( start + row ) << 2;
+			final int count = (int) ( ( this.table[this.indexOf(hash, row)] >>> shift ) & 0xfL );
+			
+			frequency = Math.min(frequency, count);
+		}
+		
+		return frequency;
+	}
+	
+	/**
+	 * @post Incrementa la frecuencia del elemento especificado
+	 */
+	public void increment(T element) {
+		final int hash = spread(element);
+		final int start = ( hash & 3 ) << 2;
+		
+		boolean incremented = false;
+		
+		for ( int row = 0 ; row < 4 ; row++ ) {
+			final int index = this.indexOf(hash, row);
+			final int shift = ( start + row ) << 2;
+			
+			if ( ( ( this.table[index] >>> shift ) & 0xfL ) < MAX_FREQUENCY ) {
+				this.table[index] += 1L << shift;
+				incremented = true;
+			}
+		}
+		
+		if ( incremented && ( ++this.incrementsQuantity >= this.sampleSize ) ) {
+			this.reset();
+		}
+	}
+	
+	/**
+	 * @post Divide todos los contadores por dos
+	 */
+	private void reset() {
+		for ( int i = 0 ; i < this.table.length ; i++ ) {
+			this.table[i] = ( this.table[i] >>> 1 ) & RESET_MASK;
+		}
+		
+		this.incrementsQuantity /= 2;
+	}
+}
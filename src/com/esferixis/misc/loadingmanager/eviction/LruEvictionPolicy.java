@@ -0,0 +1,87 @@
+/**
+ * Copyright (c) 2018 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.misc.loadingmanager.eviction;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * @author Ariel Favio Carrizo
+ * 
+ * Política de desalojo LRU: desaloja el elemento usado menos recientemente.
+ * Es la política de LinkedMruLoadingManager, no resiste barridos.
+ */
+public final class LruEvictionPolicy<T> implements EvictionPolicy<T> {
+	private final WeightedQueue<T> queue;
+	private final Set<T> pinnedElements;
+	
+	/**
+	 * @post Crea la política
+	 */
+	public LruEvictionPolicy() {
+		this.queue = new WeightedQueue<T>();
+		this.pinnedElements = new HashSet<T>();
+	}
+	
+	@Override
+	public void insert(T element, long occupiedSpace) {
+		this.queue.addAtMru(element, occupiedSpace);
+	}
+
+	@Override
+	public void access(T element) {
+		this.queue.moveToMru(element);
+	}
+
+	@Override
+	public void remove(T element) {
+		this.queue.remove(element);
+		this.pinnedElements.remove(element);
+	}
+
+	@Override
+	public void pin(T element) {
+		this.pinnedElements.add(element);
+	}
+
+	@Override
+	public void unpin(T element) {
+		if ( this.pinnedElements.remove(element) ) {
+			this.queue.moveToMru(element);
+		}
+	}
+
+	@Override
+	public T selectVictim(Set<T> protectedElements) {
+		return this.queue.getEligibleLru(this.pinnedElements, protectedElements);
+	}
+}
@@ -0,0 +1,151 @@
+/**
+ * Copyright (c) 2018 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.misc.loadingmanager.eviction;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import com.esferixis.misc.Preconditions;
+
+/**
+ * @author Ariel Favio Carrizo
+ * 
+ * Política de desalojo 2Q, ponderada por espacio.
+ * 
+ * Los elementos nuevos entran en una cola FIFO (A1in), y sólo pasan
+ * a la cola LRU principal (Am) si vuelven a cargarse mientras su clave
+ * sigue en la historia de desalojados de A1in (A1out).
+ * Un barrido sobre elementos fríos sólo recorre A1in, sin desalojar Am.
+ */
+public final class TwoQueueEvictionPolicy<T> implements EvictionPolicy<T> {
+	private final long maxInWeight;
+	private final long maxOutWeight;
+	
+	private final WeightedQueue<T> inQueue;
+	private final WeightedQueue<T> outQueue;
+	private final WeightedQueue<T> mainQueue;
+	
+	private final Set<T> pinnedElements;
+	
+	/**
+	 * @pre La capacidad tiene que ser positiva
+	 * @post Crea la política con la capacidad especificada,
+	 * 		 con A1in del 25% de la capacidad y A1out del 50%
+	 */
+	public TwoQueueEvictionPolicy(long capacity) {
+		this(capacity, capacity / 4, capacity / 2);
+	}
+	
+	/**
+	 * @pre La capacidad tiene que ser positiva, y los pesos máximos
+	 * 		de A1in y A1out no pueden ser negativos
+	 * @post Crea la política con la capacidad y los pesos máximos de
+	 * 		 A1in y A1out especificados
+	 */
+	public TwoQueueEvictionPolicy(long capacity, long maxInWeight, long maxOutWeight) {
+		Preconditions.checkIsPositive(capacity, "capacity");
+		Preconditions.checkIsNotNegative(maxInWeight, "maxInWeight");
+		Preconditions.checkIsNotNegative(maxOutWeight, "maxOutWeight");
+		
+		this.maxInWeight = maxInWeight;
+		this.maxOutWeight = maxOutWeight;
+		
+		this.inQueue = new WeightedQueue<T>();
+		this.outQueue = new WeightedQueue<T>();
+		this.mainQueue = new WeightedQueue<T>();
+		
+		this.pinnedElements = new HashSet<T>();
+	}
+	
+	@Override
+	public void insert(T element, long occupiedSpace) {
+		if ( this.outQueue.remove(element) != null ) {
+			this.mainQueue.addAtMru(element, occupiedSpace);
+		}
+		else {
+			this.inQueue.addAtMru(element, occupiedSpace);
+		}
+	}
+
+	@Override
+	public void access(T element) {
+		// En A1in no se reordena, es FIFO
+		this.mainQueue.moveToMru(element);
+	}
+
+	@Override
+	public void remove(T element) {
+		final Long occupiedSpace = this.inQueue.remove(element);
+		
+		if ( occupiedSpace != null ) {
+			this.outQueue.addAtMru(element, occupiedSpace);
+			this.outQueue.trimTo(this.maxOutWeight);
+		}
+		else {
+			this.mainQueue.remove(element);
+		}
+		
+		this.pinnedElements.remove(element);
+	}
+
+	@Override
+	public void pin(T element) {
+		this.pinnedElements.add(element);
+	}
+
+	@Override
+	public void unpin(T element) {
+		this.pinnedElements.remove(element);
+	}
+
+	@Override
+	public T selectVictim(Set<T> protectedElements) {
+		final WeightedQueue<T> firstQueue, secondQueue;
+		
+		if ( this.inQueue.getWeight() > this.maxInWeight ) {
+			firstQueue = this.inQueue;
+			secondQueue = this.mainQueue;
+		}
+		else {
+			firstQueue = this.mainQueue;
+			secondQueue = this.inQueue;
+		}
+		
+		T victim = firstQueue.getEligibleLru(this.pinnedElements, protectedElements);
+		
+		if ( victim == null ) {
+			victim = secondQueue.getEligibleLru(this.pinnedElements, protectedElements);
+		}
+		
+		return victim;
+	}
+}
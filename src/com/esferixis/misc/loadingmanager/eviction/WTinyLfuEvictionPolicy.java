@@ -0,0 +1,207 @@
+/**
+ * Copyright (c) 2018 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.misc.loadingmanager.eviction;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import com.esferixis.misc.Preconditions;
+
+/**
+ * @author Ariel Favio Carrizo
+ * 
+ * Política de desalojo W-TinyLFU, ponderada por espacio.
+ * 
+ * Los elementos nuevos entran en una ventana LRU pequeña. Cuando la ventana
+ * se excede, su elemento menos reciente compite con la víctima de la región
+ * principal (SLRU, con segmentos de prueba y protegido), según la frecuencia
+ * estimada por un Count-Min sketch: el de menor frecuencia se desaloja,
+ * el otro queda o pasa a la región principal.
+ * Un barrido de elementos fríos queda contenido en la ventana, porque su
+ * frecuencia no supera la del conjunto caliente.
+ */
+public final class WTinyLfuEvictionPolicy<T> implements EvictionPolicy<T> {
+	private final long maxWindowWeight;
+	private final long maxMainWeight;
+	private final long maxProtectedWeight;
+	
+	private final WeightedQueue<T> windowQueue;
+	private final WeightedQueue<T> probationQueue;
+	private final WeightedQueue<T> protectedQueue;
+	
+	private final FrequencySketch<T> sketch;
+	
+	private final Set<T> pinnedElements;
+	
+	/**
+	 * @pre La capacidad y la cantidad de elementos esperados tienen que ser positivas
+	 * @post Crea la política con la capacidad y la cantidad de elementos esperados
+	 * 		 especificadas, con una ventana del 1% de la capacidad y el 80% de
+	 * 		 la región principal para el segmento protegido
+	 */
+	public WTinyLfuEvictionPolicy(long capacity, int expectedElements) {
+		this(capacity, expectedElements, 0.01d);
+	}
+	
+	/**
+	 * @pre La capacidad y la cantidad de elementos esperados tienen que ser positivas,
+	 * 		y la fracción de la ventana tiene que estar entre 0 y 1
+	 * @post Crea la política con la capacidad, la cantidad de elementos esperados y
+	 * 		 la fracción de la capacidad para la ventana especificadas
+	 */
+	public WTinyLfuEvictionPolicy(long capacity, int expectedElements, double windowFraction) {
+		Preconditions.checkIsPositive(capacity, "capacity");
+		Preconditions.checkIsPositive(expectedElements, "expectedElements");
+		
+		if ( ( windowFraction < 0.0d ) || ( windowFraction > 1.0d ) ) {
+			throw new IllegalArgumentException("Expected window fraction between 0 and 1");
+		}
+		
+		this.maxWindowWeight = (long) ( capacity * windowFraction );
+		this.maxMainWeight = capacity - this.maxWindowWeight;
+		this.maxProtectedWeight = (long) ( this.maxMainWeight * 0.8d );
+		
+		this.windowQueue = new WeightedQueue<T>();
+		this.probationQueue = new WeightedQueue<T>();
+		this.protectedQueue = new WeightedQueue<T>();
+		
+		this.sketch = new FrequencySketch<T>(expectedElements);
+		
+		this.pinnedElements = new HashSet<T>();
+	}
+	
+	/**
+	 * @post Devuelve la frecuencia estimada del elemento especificado
+	 */
+	public int getFrequency(T element) {
+		return this.sketch.frequency(element);
+	}
+	
+	@Override
+	public void insert(T element, long occupiedSpace) {
+		this.sketch.increment(element);
+		this.windowQueue.addAtMru(element, occupiedSpace);
+		
+		// Mientras la región principal tenga lugar, el excedente de la ventana se admite sin competir
+		while ( this.windowQueue.getWeight() > this.maxWindowWeight ) {
+			final T lruElement = this.windowQueue.getLru();
+			
+			if ( this.probationQueue.getWeight() + this.protectedQueue.getWeight() + this.windowQueue.getOccupiedSpace(lruElement) <= this.maxMainWeight ) {
+				this.admit(lruElement);
+			}
+			else {
+				break;
+			}
+		}
+	}
+
+	@Override
+	public void access(T element) {
+		this.sketch.increment(element);
+		
+		if ( !this.windowQueue.moveToMru(element) && !this.protectedQueue.moveToMru(element) ) {
+			final Long occupiedSpace = this.probationQueue.remove(element);
+			
+			if ( occupiedSpace != null ) {
+				this.protectedQueue.addAtMru(element, occupiedSpace);
+				
+				// Degrada los menos recientes del segmento protegido
+				while ( this.protectedQueue.getWeight() > this.maxProtectedWeight ) {
+					final T demotedElement = this.protectedQueue.getLru();
+					this.probationQueue.addAtMru(demotedElement, this.protectedQueue.remove(demotedElement));
+				}
+			}
+		}
+	}
+
+	@Override
+	public void remove(T element) {
+		if ( ( this.windowQueue.remove(element) == null ) && ( this.probationQueue.remove(element) == null ) ) {
+			this.protectedQueue.remove(element);
+		}
+		
+		this.pinnedElements.remove(element);
+	}
+
+	@Override
+	public void pin(T element) {
+		this.pinnedElements.add(element);
+	}
+
+	@Override
+	public void unpin(T element) {
+		this.pinnedElements.remove(element);
+	}
+
+	/**
+	 * @post Devuelve la víctima de la región principal, si no hay devuelve null
+	 */
+	private T getMainVictim(Set<T> protectedElements) {
+		final T victim = this.probationQueue.getEligibleLru(this.pinnedElements, protectedElements);
+		
+		if ( victim != null ) {
+			return victim;
+		}
+		else {
+			return this.protectedQueue.getEligibleLru(this.pinnedElements, protectedElements);
+		}
+	}
+	
+	/**
+	 * @post Pasa el elemento especificado de la ventana al segmento de prueba
+	 */
+	private void admit(T element) {
+		this.probationQueue.addAtMru(element, this.windowQueue.remove(element));
+	}
+
+	@Override
+	public T selectVictim(Set<T> protectedElements) {
+		final T candidate = this.windowQueue.getEligibleLru(this.pinnedElements, protectedElements);
+		final T victim = this.getMainVictim(protectedElements);
+		
+		if ( ( candidate != null ) && ( this.windowQueue.getWeight() > this.maxWindowWeight ) ) {
+			if ( ( victim != null ) && ( this.sketch.frequency(candidate) > this.sketch.frequency(victim) ) ) {
+				this.admit(candidate);
+				return victim;
+			}
+			else {
+				return candidate;
+			}
+		}
+		else if ( victim != null ) {
+			return victim;
+		}
+		else {
+			return candidate;
+		}
+	}
+}
@@ -0,0 +1,165 @@
+/**
+ * Copyright (c) 2018 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.misc.loadingmanager.eviction;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Set;
+
+/**
+ * @author Ariel Favio Carrizo
+ * 
+ * Cola de elementos ponderados por el espacio que ocupan,
+ * ordenada desde el usado menos recientemente al más reciente
+ */
+final class WeightedQueue<T> {
+	private final LinkedHashMap<T, Long> occupiedSpacePerElement;
+	private long weight;
+	
+	/**
+	 * @post Crea la cola vacía
+	 */
+	public WeightedQueue() {
+		this.occupiedSpacePerElement = new LinkedHashMap<T, Long>();
+		this.weight = 0;
+	}
+	
+	/**
+	 * @post Devuelve si contiene el elemento especificado
+	 */
+	public boolean contains(T element) {
+		return this.occupiedSpacePerElement.containsKey(element);
+	}
+	
+	/**
+	 * @post Devuelve la suma del espacio ocupado por los elementos
+	 */
+	public long getWeight() {
+		return this.weight;
+	}
+	
+	/**
+	 * @post Devuelve el espacio ocupado por el elemento especificado,
+	 * 		 si no está presente devuelve null
+	 */
+	public Long getOccupiedSpace(T element) {
+		return this.occupiedSpacePerElement.get(element);
+	}
+	
+	/**
+	 * @post Devuelve si está vacía
+	 */
+	public boolean isEmpty() {
+		return this.occupiedSpacePerElement.isEmpty();
+	}
+	
+	/**
+	 * @pre El elemento no tiene que estar presente
+	 * @post Agrega el elemento como el usado más recientemente
+	 */
+	public void addAtMru(T element, long occupiedSpace) {
+		this.occupiedSpacePerElement.put(element, occupiedSpace);
+		this.weight += occupiedSpace;
+	}
+	
+	/**
+	 * @post Quita el elemento especificado y devuelve el espacio que ocupaba,
+	 * 		 si no está presente devuelve null
+	 */
+	public Long remove(T element) {
+		final Long occupiedSpace = this.occupiedSpacePerElement.remove(element);
+		
+		if ( occupiedSpace != null ) {
+			this.weight -= occupiedSpace;
+		}
+		
+		return occupiedSpace;
+	}
+	
+	/**
+	 * @post Mueve el elemento especificado a la posición del usado más
+	 * 		 recientemente. Devuelve si estaba presente
+	 */
+	public boolean moveToMru(T element) {
+		final Long occupiedSpace = this.occupiedSpacePerElement.remove(element);
+		
+		if ( occupiedSpace != null ) {
+			this.occupiedSpacePerElement.put(element, occupiedSpace);
+			return true;
+		}
+		else {
+			return false;
+		}
+	}
+	
+	/**
+	 * @post Devuelve el elemento usado menos recientemente,
+	 * 		 si está vacía devuelve null
+	 */
+	public T getLru() {
+		final Iterator<T> iterator = this.occupiedSpacePerElement.keySet().iterator();
+		
+		if ( iterator.hasNext() ) {
+			return iterator.next();
+		}
+		else {
+			return null;
+		}
+	}
+	
+	/**
+	 * @post Devuelve el elemento usado menos recientemente que no esté
+	 * 		 en ninguno de los conjuntos especificados, si no hay ninguno devuelve null
+	 */
+	public T getEligibleLru(Set<T> pinnedElements, Set<T> protectedElements) {
+		for ( T eachElement : this.occupiedSpacePerElement.keySet() ) {
+			if ( !pinnedElements.contains(eachElement) && !protectedElements.contains(eachElement) ) {
+				return eachElement;
+			}
+		}
+		
+		return null;
+	}
+	
+	/**
+	 * @post Quita elementos desde el usado menos recientemente hasta que
+	 * 		 el peso no supere el máximo especificado
+	 */
+	public void trimTo(long maxWeight) {
+		final Iterator<Long> iterator = this.occupiedSpacePerElement.values().iterator();
+		
+		while ( ( this.weight > maxWeight ) && iterator.hasNext() ) {
+			this.weight -= iterator.next();
+			iterator.remove();
+		}
+	}
+}
@@ -0,0 +1,282 @@
+/**
+ * Copyright (c) 2018 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.misc.slotlocator;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * @author Ariel Favio Carrizo
+ * 
+ * Anillo de slots con reemplazo CLOCK-Pro, resistente a recorridos.
+ * 
+ * Los elementos residentes son calientes o fríos. Los fríos recién
+ * asignados están en período de prueba: si se referencian antes de que
+ * la aguja fría vuelva a pasar, pasan a ser calientes.
+ * Los fríos en prueba que se desalojan se recuerdan como fantasmas,
+ * si se vuelven a pedir entran directamente como calientes.
+ * 
+ * La aguja fría sólo desaloja elementos fríos, así un recorrido de
+ * elementos que se usan una sola vez no desaloja a los calientes.
+ * La aguja caliente enfría los calientes no referenciados cuando
+ * superan su cuota.
+ * 
+ * La cuota de fríos se adapta: crece cuando se vuelve a pedir un
+ * fantasma, y decrece cuando un fantasma se olvida sin haberse pedido.
+ * Los fantasmas son a lo sumo tantos como slots.
+ * 
+ * No es thread-safe
+ */
+final class ClockProSlotRing<S extends Slot> implements SlotRing<S> {
+	private final Object[] slots;
+	private final LinkedAllocatableElement<S>[] elements;
+	private final boolean[] hot;
+	private final boolean[] inTest;
+	
+	private final int[] freeIndices;
+	private int freeIndicesQuantity;
+	
+	private int coldHand;
+	private int hotHand;
+	
+	private int hotQuantity;
+	private int coldTarget;
+	
+	private final Map<LinkedAllocatableElement<S>, Boolean> ghosts;
+	private final ArrayDeque<LinkedAllocatableElement<S>> ghostsQueue;
+	
+	/**
+	 * @pre Los slots no pueden ser nulos ni estar vacíos
+	 * @post Crea el anillo con los slots especificados
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	public ClockProSlotRing(Collection<S> slots) {
+		this.slots = slots.toArray();
+		this.elements = new LinkedAllocatableElement[this.slots.length];
+		this.hot = new boolean[this.slots.length];
+		this.inTest = new boolean[this.slots.length];
+		
+		this.freeIndices = new int[this.slots.length];
+		this.freeIndicesQuantity = this.slots.length;
+		
+		// Los primeros slots se asignan primero
+		for ( int i = 0 ; i < this.slots.length ; i++ ) {
+			this.freeIndices[i] = this.slots.length - 1 - i;
+		}
+		
+		this.coldHand = 0;
+		this.hotHand = 0;
+		
+		this.hotQuantity = 0;
+		this.coldTarget = Math.max(1, this.slots.length / 4);
+		
+		this.ghosts = new IdentityHashMap<LinkedAllocatableElement<S>, Boolean>();
+		this.ghostsQueue = new ArrayDeque<LinkedAllocatableElement<S>>();
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.misc.slotlocator.SlotRing#size()
+	 */
+	@Override
+	public int size() {
+		return this.slots.length;
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.misc.slotlocator.SlotRing#getFreeSlotsQuantity()
+	 */
+	@Override
+	public int getFreeSlotsQuantity() {
+		return this.freeIndicesQuantity;
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.misc.slotlocator.SlotRing#acquire(com.esferixis.misc.slotlocator.LinkedAllocatableElement)
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public S acquire(LinkedAllocatableElement<S> element) {
+		if ( this.freeIndicesQuantity == 0 ) {
+			this.balanceHot();
+			this.evict();
+		}
+		
+		final boolean wasGhost = ( this.ghosts.remove(element) != null );
+		
+		// Los fríos no duraron lo suficiente
+		if ( wasGhost && ( this.coldTarget < this.slots.length - 1 ) ) {
+			this.coldTarget++;
+		}
+		
+		final int index = this.freeIndices[--this.freeIndicesQuantity];
+		final S slot = (S) this.slots[index];
+		
+		this.elements[index] = element;
+		
+		if ( wasGhost && ( this.slots.length > 1 ) ) {
+			this.hot[index] = true;
+			this.inTest[index] = false;
+			this.hotQuantity++;
+		}
+		else {
+			this.hot[index] = false;
+			this.inTest[index] = true;
+		}
+		
+		element.setSlotIndex(index);
+		element.setReferenced(false);
+		element.setSlot(slot);
+		
+		this.balanceHot();
+		
+		return slot;
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.misc.slotlocator.SlotRing#release(com.esferixis.misc.slotlocator.LinkedAllocatableElement)
+	 */
+	@Override
+	public void release(LinkedAllocatableElement<S> element) {
+		final int index = element.getSlotIndex();
+		
+		if ( this.hot[index] ) {
+			this.hotQuantity--;
+		}
+		
+		element.setSlot(null);
+		element.setSlotIndex(-1);
+		element.setReferenced(false);
+		
+		this.elements[index] = null;
+		this.hot[index] = false;
+		this.inTest[index] = false;
+		
+		this.freeIndices[this.freeIndicesQuantity++] = index;
+	}
+	
+	/**
+	 * @pre No tiene que haber slots libres
+	 * @post Avanza la aguja fría hasta un frío no referenciado ni fijado y lo desaloja.
+	 * 		 Los fríos referenciados en prueba pasan a ser calientes,
+	 * 		 y los demás referenciados empiezan otra prueba.
+	 * 		 Si en dos vueltas no lo encuentra, porque los fríos están fijados,
+	 * 		 desaloja el primer caliente sin fijar.
+	 * 		 Si todos están fijados lanza IllegalStateException
+	 */
+	private void evict() {
+		for ( int steps = 0 ; steps < 2 * this.elements.length ; steps++ ) {
+			final int index = this.coldHand;
+			this.coldHand = ( index + 1 == this.elements.length ) ? 0 : index + 1;
+			
+			if ( !this.hot[index] && !this.elements[index].isPinned() ) {
+				final LinkedAllocatableElement<S> element = this.elements[index];
+				
+				if ( element.isReferenced() ) {
+					element.setReferenced(false);
+					
+					if ( this.inTest[index] && ( this.slots.length > 1 ) ) {
+						this.hot[index] = true;
+						this.inTest[index] = false;
+						this.hotQuantity++;
+						
+						this.balanceHot();
+					}
+					else {
+						this.inTest[index] = true;
+					}
+				}
+				else {
+					if ( this.inTest[index] ) {
+						this.addGhost(element);
+					}
+					
+					this.release(element);
+					return;
+				}
+			}
+		}
+		
+		for ( LinkedAllocatableElement<S> eachElement : this.elements ) {
+			if ( !eachElement.isPinned() ) {
+				this.release(eachElement);
+				return;
+			}
+		}
+		
+		throw new IllegalStateException("All slots are pinned");
+	}
+	
+	/**
+	 * @post Enfría calientes no referenciados con la aguja caliente,
+	 * 		 hasta que no superen su cuota
+	 */
+	private void balanceHot() {
+		while ( this.hotQuantity > this.slots.length - this.coldTarget ) {
+			final int index = this.hotHand;
+			this.hotHand = ( index + 1 == this.elements.length ) ? 0 : index + 1;
+			
+			if ( this.hot[index] ) {
+				final LinkedAllocatableElement<S> element = this.elements[index];
+				
+				if ( element.isReferenced() ) {
+					element.setReferenced(false);
+				}
+				else {
+					this.hot[index] = false;
+					this.inTest[index] = false;
+					this.hotQuantity--;
+				}
+			}
+		}
+	}
+	
+	/**
+	 * @post Recuerda el elemento especificado como fantasma,
+	 * 		 olvidando el más antiguo si hay demasiados
+	 */
+	private void addGhost(LinkedAllocatableElement<S> element) {
+		this.ghosts.put(element, Boolean.TRUE);
+		this.ghostsQueue.add(element);
+		
+		// La cola puede tener entradas de fantasmas que ya se volvieron a pedir
+		while ( ( this.ghosts.size() > this.slots.length ) || ( this.ghostsQueue.size() > 2 * this.slots.length ) ) {
+			final LinkedAllocatableElement<S> oldestGhost = this.ghostsQueue.poll();
+			
+			// Los fríos sobraron
+			if ( ( this.ghosts.remove(oldestGhost) != null ) && ( this.coldTarget > 1 ) ) {
+				this.coldTarget--;
+			}
+		}
+	}
+}
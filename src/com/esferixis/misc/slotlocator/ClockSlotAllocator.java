@@ -0,0 +1,169 @@
+/**
+ * Copyright (c) 2018 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.misc.slotlocator;
+
+import java.util.Collection;
+
+import com.esferixis.misc.Preconditions;
+
+/**
+ * @author Ariel Favio Carrizo
+ * 
+ * Asignador de slots con reemplazo por reloj.
+ * 
+ * Un acierto sólo marca el elemento como referenciado, sin tocar
+ * ninguna lista. Al faltar slots se recorre un array circular.
+ * 
+ * No es thread-safe
+ */
+public final class ClockSlotAllocator<S extends Slot> implements PinningSlotAllocator<S> {
+	/**
+	 * Modo de reemplazo
+	 */
+	public enum Mode {
+		/**
+		 * Segunda oportunidad, aproxima LRU
+		 */
+		CLOCK,
+		
+		/**
+		 * CLOCK-Pro, distingue elementos calientes y fríos
+		 * para resistir recorridos
+		 */
+		CLOCK_PRO
+	}
+	
+	private final SlotRing<S> ring;
+	private final SlotPins<S> pins;
+	
+	/**
+	 * @pre Los slots no pueden ser nulos ni estar vacíos, y el modo no puede ser nulo
+	 * @post Crea el asignador con los slots y el modo de reemplazo especificados
+	 */
+	public ClockSlotAllocator(Collection<S> slots, Mode mode) {
+		Preconditions.checkNotNull(slots, "slots");
+		Preconditions.checkNotNull(mode, "mode");
+		
+		if ( slots.isEmpty() ) {
+			throw new IllegalArgumentException("Expected at least one slot");
+		}
+		
+		this.ring = createRing(slots, mode);
+		this.pins = new SlotPins<S>(this);
+	}
+	
+	/**
+	 * @pre Los slots no pueden ser nulos ni estar vacíos
+	 * @post Crea el asignador con los slots especificados,
+	 * 		 con reemplazo de segunda oportunidad
+	 */
+	public ClockSlotAllocator(Collection<S> slots) {
+		this(slots, Mode.CLOCK);
+	}
+	
+	/**
+	 * @pre Los slots no pueden estar vacíos
+	 * @post Crea un anillo con los slots y el modo de reemplazo especificados
+	 */
+	static <S extends Slot> SlotRing<S> createRing(Collection<S> slots, Mode mode) {
+		switch ( mode ) {
+		case CLOCK:
+			return new ClockSlotRing<S>(slots);
+			
+		case CLOCK_PRO:
+			return new ClockProSlotRing<S>(slots);
+			
+		default:
+			throw new IllegalArgumentException("Unexpected mode");
+		}
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.misc.slotlocator.SlotAllocator#get(com.esferixis.misc.slotlocator.LinkedAllocatableElement)
+	 */
+	@Override
+	public S get(LinkedAllocatableElement<S> element) {
+		Preconditions.checkNotNull(element, "element");
+		
+		element.checkSlotAllocator(this);
+		
+		S slot = element.getSlot();
+		
+		if ( slot == null ) {
+			slot = this.ring.acquire(element);
+		}
+		else if ( !element.isReferenced() ) {
+			element.setReferenced(true);
+		}
+		
+		return slot;
+	}
+
+	/* (non-Javadoc)
+	 * @see com.esferixis.misc.slotlocator.SlotAllocator#detach(com.esferixis.misc.slotlocator.LinkedAllocatableElement)
+	 */
+	@Override
+	public void detach(LinkedAllocatableElement<S> element) {
+		Preconditions.checkNotNull(element, "element");
+		
+		element.checkSlotAllocator(this);
+		
+		this.pins.unpin(element);
+		
+		if ( element.getSlot() != null ) {
+			this.ring.release(element);
+		}
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.misc.slotlocator.PinningSlotAllocator#acquireAll(java.util.Collection)
+	 */
+	@Override
+	public int acquireAll(Collection<? extends LinkedAllocatableElement<S>> elements) {
+		final int unallocatedElements = this.pins.pinAll(elements, this.ring.size());
+		final int evictions = Math.max(0, unallocatedElements - this.ring.getFreeSlotsQuantity());
+		
+		for ( LinkedAllocatableElement<S> eachElement : elements ) {
+			this.get(eachElement);
+		}
+		
+		return evictions;
+	}
+
+	/* (non-Javadoc)
+	 * @see com.esferixis.misc.slotlocator.PinningSlotAllocator#unpinAll()
+	 */
+	@Override
+	public void unpinAll() {
+		this.pins.unpinAll();
+	}
+}
@@ -0,0 +1,166 @@
+/**
+ * Copyright (c) 2018 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.misc.slotlocator;
+
+import java.util.Collection;
+
+/**
+ * @author Ariel Favio Carrizo
+ * 
+ * Anillo de slots con reemplazo CLOCK (segunda oportunidad).
+ * 
+ * Cada posición del anillo tiene un slot fijo, y a lo sumo un elemento.
+ * Un acierto sólo marca el elemento como referenciado; al faltar slots
+ * la aguja recorre el anillo, quitando la marca de los referenciados,
+ * hasta encontrar uno sin marca y lo desaloja.
+ * 
+ * No es thread-safe
+ */
+final class ClockSlotRing<S extends Slot> implements SlotRing<S> {
+	private final Object[] slots;
+	private final LinkedAllocatableElement<S>[] elements;
+	
+	private final int[] freeIndices;
+	private int freeIndicesQuantity;
+	
+	private int hand;
+	
+	/**
+	 * @pre Los slots no pueden ser nulos ni estar vacíos
+	 * @post Crea el anillo con los slots especificados
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	public ClockSlotRing(Collection<S> slots) {
+		this.slots = slots.toArray();
+		this.elements = new LinkedAllocatableElement[this.slots.length];
+		
+		this.freeIndices = new int[this.slots.length];
+		this.freeIndicesQuantity = this.slots.length;
+		
+		// Los primeros slots se asignan primero
+		for ( int i = 0 ; i < this.slots.length ; i++ ) {
+			this.freeIndices[i] = this.slots.length - 1 - i;
+		}
+		
+		this.hand = 0;
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.misc.slotlocator.SlotRing#size()
+	 */
+	@Override
+	public int size() {
+		return this.slots.length;
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.misc.slotlocator.SlotRing#getFreeSlotsQuantity()
+	 */
+	@Override
+	public int getFreeSlotsQuantity() {
+		return this.freeIndicesQuantity;
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.misc.slotlocator.SlotRing#acquire(com.esferixis.misc.slotlocator.LinkedAllocatableElement)
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public S acquire(LinkedAllocatableElement<S> element) {
+		if ( this.freeIndicesQuantity == 0 ) {
+			this.release(this.elements[this.selectVictimIndex()]);
+		}
+		
+		final int index = this.freeIndices[--this.freeIndicesQuantity];
+		final S slot = (S) this.slots[index];
+		
+		this.elements[index] = element;
+		element.setSlotIndex(index);
+		element.setReferenced(false);
+		element.setSlot(slot);
+		
+		return slot;
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.misc.slotlocator.SlotRing#release(com.esferixis.misc.slotlocator.LinkedAllocatableElement)
+	 */
+	@Override
+	public void release(LinkedAllocatableElement<S> element) {
+		final int index = element.getSlotIndex();
+		
+		element.setSlot(null);
+		element.setSlotIndex(-1);
+		element.setReferenced(false);
+		
+		this.elements[index] = null;
+		this.freeIndices[this.freeIndicesQuantity++] = index;
+	}
+	
+	/**
+	 * @pre No tiene que haber slots libres
+	 * @post Avanza la aguja hasta un elemento sin referenciar ni fijar,
+	 * 		 quitando la marca de los referenciados, y devuelve su índice.
+	 * 		 Si en dos vueltas no lo encuentra, porque los aciertos concurrentes
+	 * 		 vuelven a marcarlos, devuelve el primero sin fijar desde la aguja
+	 * 		 aunque esté referenciado. Si todos están fijados lanza IllegalStateException
+	 */
+	private int selectVictimIndex() {
+		for ( int steps = 0 ; steps < 2 * this.elements.length ; steps++ ) {
+			final int index = this.hand;
+			final LinkedAllocatableElement<S> element = this.elements[index];
+			
+			this.hand = ( index + 1 == this.elements.length ) ? 0 : index + 1;
+			
+			if ( !element.isPinned() ) {
+				if ( element.isReferenced() ) {
+					element.setReferenced(false);
+				}
+				else {
+					return index;
+				}
+			}
+		}
+		
+		for ( int steps = 0 ; steps < this.elements.length ; steps++ ) {
+			final int index = this.hand;
+			
+			this.hand = ( index + 1 == this.elements.length ) ? 0 : index + 1;
+			
+			if ( !this.elements[index].isPinned() ) {
+				return index;
+			}
+		}
+		
+		throw new IllegalStateException("All slots are pinned");
+	}
+}
@@ -37,8 +37,14 @@ package com.esferixis.misc.slotlocator;
  */
 public abstract class LinkedAllocatableElement<S extends Slot> {
 	private LinkedAllocatableElement<S> before, after;
-	private S slot;
-	private MRULinkedSlotAllocator<S> slotAllocator;
+	private volatile S slot;
+	private volatile SlotAllocator<S> slotAllocator;
+	
+	// Estado de los asignadores CLOCK
+	private volatile boolean referenced;
+	private int slotIndex;
+	
+	private boolean pinned;
 	
 	/**
 	 * @post Crea un elemento
@@ -48,12 +54,17 @@ public abstract class LinkedAllocatableElement<S extends Slot> {
 		this.after = null;
 		this.slot = null;
 		this.slotAllocator = null;
+		
+		this.referenced = false;
+		this.slotIndex = -1;
+		
+		this.pinned = false;
 	}
 	
 	/**
 	 * @post Verifica que el asignador no haya sido modificado
 	 */
-	void checkSlotAllocator(MRULinkedSlotAllocator<S> slotAllocator) {
+	void checkSlotAllocator(SlotAllocator<S> slotAllocator) {
 		if ( this.slotAllocator != null ) {
 			if ( slotAllocator != this.slotAllocator ) {
 				throw new IllegalStateException("Cannot use a element with different slot allocator");
@@ -64,6 +75,18 @@ public abstract class LinkedAllocatableElement<S extends Slot> {
 		}
 	}
 	
+	/**
+	 * @post Verifica que el elemento no pertenezca a otro asignador,
+	 * 		 sin asociarlo
+	 */
+	void checkNotForeign(SlotAllocator<S> slotAllocator) {
+		final SlotAllocator<S> currentSlotAllocator = this.slotAllocator;
+		
+		if ( ( currentSlotAllocator != null ) && ( currentSlotAllocator != slotAllocator ) ) {
+			throw new IllegalStateException("Cannot use a element with different slot allocator");
+		}
+	}
+	
 	/**
 	 * @post Asigna el slot especificado,
 	 * 		 si es nulo, lo desasocia del asignador de slots
@@ -113,6 +136,48 @@ public abstract class LinkedAllocatableElement<S extends Slot> {
 		this.after = after;
 	}
 	
+	/**
+	 * @post Devuelve si fue referenciado desde la última pasada del reloj
+	 */
+	boolean isReferenced() {
+		return this.referenced;
+	}
+	
+	/**
+	 * @post Asigna si fue referenciado desde la última pasada del reloj
+	 */
+	void setReferenced(boolean referenced) {
+		this.referenced = referenced;
+	}
+	
+	/**
+	 * @post Devuelve el índice del slot en el asignador
+	 */
+	int getSlotIndex() {
+		return this.slotIndex;
+	}
+	
+	/**
+	 * @post Asigna el índice del slot en el asignador
+	 */
+	void setSlotIndex(int slotIndex) {
+		this.slotIndex = slotIndex;
+	}
+	
+	/**
+	 * @post Devuelve si está fijado, en cuyo caso no se puede desalojar
+	 */
+	boolean isPinned() {
+		return this.pinned;
+	}
+	
+	/**
+	 * @post Asigna si está fijado
+	 */
+	void setPinned(boolean pinned) {
+		this.pinned = pinned;
+	}
+	
 	/**
 	 * @post Notifica la existencia de cambio de slot,
 	 * 		 El slot actual es el anterior.
@@ -39,15 +39,19 @@ import java.util.List;
  * @author ariel
  *
  */
-public final class MRULinkedSlotAllocator<S extends Slot> {
+public final class MRULinkedSlotAllocator<S extends Slot> implements PinningSlotAllocator<S> {
 	protected LinkedAllocatableElement<S> first, last;
 	private final List<S> emptySlots;
+	private final int slotsQuantity;
+	private final SlotPins<S> pins;
 	
 	/**
 	 * @post Crea el asignador con los slots especificados
 	 */
 	public MRULinkedSlotAllocator(Collection<S> slots) {
 		this.emptySlots = new ArrayList<S>(slots);
+		this.slotsQuantity = this.emptySlots.size();
+		this.pins = new SlotPins<S>(this);
 		this.first = null;
 		this.last = null;
 	}
@@ -55,16 +59,19 @@ public final class MRULinkedSlotAllocator<S extends Slot> {
 	/**
 	 * @pre El elemento no puede ser nulo
 	 * @post Devuelve el slot asociado,
-	 * 		 si no hay suficientes slots, desasocia un slot.
+	 * 		 si no hay suficientes slots, desasocia el slot
+	 * 		 del último elemento que no esté fijado.
+	 * 		 Si todos están fijados lanza IllegalStateException
 	 */
+	@Override
 	public S get(LinkedAllocatableElement<S> element) {
 		if ( element != null ) {
 			element.checkSlotAllocator(this);
 			
 			if ( element.getSlot() == null ) {
-				// Si no hay slots libres, liberar el slot del último elemento
+				// Si no hay slots libres, liberar el slot del último elemento sin fijar
 				if ( this.emptySlots.isEmpty() ) {
-					this.detach(this.last);
+					this.detach(this.findVictim());
 				}
 				
 				// Asignar el slot del último elemento de la lista
@@ -91,6 +98,47 @@ public final class MRULinkedSlotAllocator<S extends Slot> {
 		}
 	}
 	
+	/* (non-Javadoc)
+	 * @see com.esferixis.misc.slotlocator.PinningSlotAllocator#acquireAll(java.util.Collection)
+	 */
+	@Override
+	public int acquireAll(Collection<? extends LinkedAllocatableElement<S>> elements) {
+		final int unallocatedElements = this.pins.pinAll(elements, this.slotsQuantity);
+		final int evictions = Math.max(0, unallocatedElements - this.emptySlots.size());
+		
+		for ( LinkedAllocatableElement<S> eachElement : elements ) {
+			this.get(eachElement);
+		}
+		
+		return evictions;
+	}
+
+	/* (non-Javadoc)
+	 * @see com.esferixis.misc.slotlocator.PinningSlotAllocator#unpinAll()
+	 */
+	@Override
+	public void unpinAll() {
+		this.pins.unpinAll();
+	}
+	
+	/**
+	 * @pre No tiene que haber slots libres
+	 * @post Devuelve el último elemento que no está fijado
+	 */
+	private LinkedAllocatableElement<S> findVictim() {
+		LinkedAllocatableElement<S> victim = this.last;
+		
+		while ( ( victim != null ) && victim.isPinned() ) {
+			victim = victim.getBefore();
+		}
+		
+		if ( victim == null ) {
+			throw new IllegalStateException("All slots are pinned");
+		}
+		
+		return victim;
+	}
+	
 	/**
 	 * @post Agrega un elemento en la lista
 	 */
@@ -133,10 +181,13 @@ public final class MRULinkedSlotAllocator<S extends Slot> {
 	 * @post Desasocia el slot del elemento especificado,
 	 * 		 si no tiene slot, no ocurre nada
 	 */
+	@Override
 	public void detach(LinkedAllocatableElement<S> element) {
 		if ( element != null ) {
 			element.checkSlotAllocator(this);
 			
+			this.pins.unpin(element);
+			
 			final S slot = element.getSlot();
 			if ( slot != null ) {
 				element.setSlot(null);
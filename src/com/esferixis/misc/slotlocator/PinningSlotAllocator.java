@@ -0,0 +1,58 @@
+/**
+ * Copyright (c) 2018 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.misc.slotlocator;
+
+import java.util.Collection;
+
+/**
+ * @author Ariel Favio Carrizo
+ * 
+ * Asignador de slots que puede asignar lotes de elementos
+ * y fijarlos, para que no se desalojen mientras se usan
+ */
+public interface PinningSlotAllocator<S extends Slot> extends SlotAllocator<S> {
+	/**
+	 * @pre Ni la colección ni sus elementos pueden ser nulos
+	 * @post Asigna slots a todos los elementos especificados y los fija hasta
+	 * 		 que se llame a unpinAll, los desalojos no los eligen.
+	 * 		 Devuelve la cantidad de elementos que se desalojaron.
+	 * 		 Si los elementos fijados no entran en los slots lanza
+	 * 		 IllegalStateException, sin asignar ni desalojar nada
+	 */
+	public int acquireAll(Collection<? extends LinkedAllocatableElement<S>> elements);
+	
+	/**
+	 * @post Libera todos los elementos fijados, por ejemplo al terminar un cuadro.
+	 * 		 Conservan sus slots
+	 */
+	public void unpinAll();
+}
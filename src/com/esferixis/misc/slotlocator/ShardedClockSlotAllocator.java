@@ -0,0 +1,191 @@
+/**
+ * Copyright (c) 2018 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.misc.slotlocator;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.esferixis.misc.Preconditions;
+
+/**
+ * @author Ariel Favio Carrizo
+ * 
+ * Asignador de slots thread-safe.
+ * 
+ * Reparte los slots entre segmentos independientes, cada uno con su lock
+ * y su anillo de reloj. Cada elemento pertenece siempre al mismo segmento,
+ * según su hash de identidad, así los cambios de slot de un elemento
+ * se hacen con el mismo lock y se notifican en orden.
+ * 
+ * Un acierto no toma locks, sólo marca el elemento como referenciado.
+ * El slot devuelto puede desalojarse desde otro thread en cualquier
+ * momento posterior, lo cual se notifica al elemento como siempre.
+ * 
+ * El reemplazo es LRU aproximado por segmento, un segmento
+ * puede desalojar aunque otros tengan slots libres
+ */
+public final class ShardedClockSlotAllocator<S extends Slot> implements SlotAllocator<S> {
+	private final SlotRing<S>[] rings;
+	private final ReentrantLock[] locks;
+	
+	/**
+	 * @pre Los slots y el modo no pueden ser nulos, y tiene que haber
+	 * 		por lo menos un slot por segmento
+	 * @post Crea el asignador con los slots especificados,
+	 * 		 repartidos en la cantidad de segmentos especificada,
+	 * 		 con el modo de reemplazo especificado en cada segmento
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	public ShardedClockSlotAllocator(Collection<S> slots, int shardsQuantity, ClockSlotAllocator.Mode mode) {
+		Preconditions.checkNotNull(slots, "slots");
+		Preconditions.checkIsPositive(shardsQuantity, "shardsQuantity");
+		Preconditions.checkNotNull(mode, "mode");
+		
+		if ( slots.size() < shardsQuantity ) {
+			throw new IllegalArgumentException("Expected at least one slot per shard");
+		}
+		
+		final List<List<S>> slotsPerShard = new ArrayList<List<S>>(shardsQuantity);
+		for ( int i = 0 ; i < shardsQuantity ; i++ ) {
+			slotsPerShard.add(new ArrayList<S>());
+		}
+		
+		int i = 0;
+		for ( S eachSlot : slots ) {
+			slotsPerShard.get(i++ % shardsQuantity).add(eachSlot);
+		}
+		
+		this.rings = new SlotRing[shardsQuantity];
+		this.locks = new ReentrantLock[shardsQuantity];
+		
+		for ( i = 0 ; i < shardsQuantity ; i++ ) {
+			this.rings[i] = ClockSlotAllocator.createRing(slotsPerShard.get(i), mode);
+			this.locks[i] = new ReentrantLock();
+		}
+	}
+	
+	/**
+	 * @pre Los slots no pueden ser nulos, y tiene que haber
+	 * 		por lo menos un slot por segmento
+	 * @post Crea el asignador con los slots especificados,
+	 * 		 repartidos en la cantidad de segmentos especificada,
+	 * 		 con reemplazo de segunda oportunidad
+	 */
+	public ShardedClockSlotAllocator(Collection<S> slots, int shardsQuantity) {
+		this(slots, shardsQuantity, ClockSlotAllocator.Mode.CLOCK);
+	}
+	
+	/**
+	 * @pre Los slots no pueden ser nulos ni estar vacíos
+	 * @post Crea el asignador con los slots especificados,
+	 * 		 con un segmento por cada procesador (hasta uno por slot)
+	 */
+	public ShardedClockSlotAllocator(Collection<S> slots) {
+		this(slots, Math.max(1, Math.min(slots.size(), Runtime.getRuntime().availableProcessors())));
+	}
+	
+	/**
+	 * @post Devuelve el segmento del elemento especificado
+	 */
+	private int shardOf(LinkedAllocatableElement<S> element) {
+		final int hash = System.identityHashCode(element) * 0x9E3779B9;
+		
+		return ( ( hash ^ ( hash >>> 16 ) ) & Integer.MAX_VALUE ) % this.rings.length;
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.esferixis.misc.slotlocator.SlotAllocator#get(com.esferixis.misc.slotlocator.LinkedAllocatableElement)
+	 */
+	@Override
+	public S get(LinkedAllocatableElement<S> element) {
+		Preconditions.checkNotNull(element, "element");
+		
+		S slot = element.getSlot();
+		
+		if ( slot != null ) {
+			element.checkNotForeign(this);
+			
+			// Evita escribir si ya está marcado
+			if ( !element.isReferenced() ) {
+				element.setReferenced(true);
+			}
+		}
+		else {
+			final int shard = this.shardOf(element);
+			final ReentrantLock lock = this.locks[shard];
+			
+			lock.lock();
+			try {
+				element.checkSlotAllocator(this);
+				
+				slot = element.getSlot();
+				
+				if ( slot == null ) {
+					slot = this.rings[shard].acquire(element);
+				}
+				else {
+					element.setReferenced(true);
+				}
+			}
+			finally {
+				lock.unlock();
+			}
+		}
+		
+		return slot;
+	}
+
+	/* (non-Javadoc)
+	 * @see com.esferixis.misc.slotlocator.SlotAllocator#detach(com.esferixis.misc.slotlocator.LinkedAllocatableElement)
+	 */
+	@Override
+	public void detach(LinkedAllocatableElement<S> element) {
+		Preconditions.checkNotNull(element, "element");
+		
+		final int shard = this.shardOf(element);
+		final ReentrantLock lock = this.locks[shard];
+		
+		lock.lock();
+		try {
+			element.checkSlotAllocator(this);
+			
+			if ( element.getSlot() != null ) {
+				this.rings[shard].release(element);
+			}
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+}
@@ -0,0 +1,140 @@
+/**
+ * Copyright (c) 2018 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.misc.slotlocator;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import com.esferixis.misc.Preconditions;
+
+/**
+ * @author Ariel Favio Carrizo
+ * 
+ * Elementos fijados de un asignador de slots
+ * 
+ * No es thread-safe
+ */
+final class SlotPins<S extends Slot> {
+	private final SlotAllocator<S> slotAllocator;
+	private final List<LinkedAllocatableElement<S>> pinnedElements;
+	
+	/**
+	 * @post Crea los elementos fijados del asignador especificado
+	 */
+	public SlotPins(SlotAllocator<S> slotAllocator) {
+		this.slotAllocator = slotAllocator;
+		this.pinnedElements = new ArrayList<LinkedAllocatableElement<S>>();
+	}
+	
+	/**
+	 * @pre Ni la colección ni sus elementos pueden ser nulos
+	 * @post Verifica que los elementos especificados entren en la cantidad
+	 * 		 de slots especificada junto con los ya fijados, y los fija.
+	 * 		 Devuelve la cantidad de ellos que necesitan un slot.
+	 * 		 Si no entran lanza IllegalStateException, sin fijar nada
+	 */
+	public int pinAll(Collection<? extends LinkedAllocatableElement<S>> elements, int slotsQuantity) {
+		Preconditions.checkNotNull(elements, "elements");
+		
+		final Set<LinkedAllocatableElement<S>> distinctElements = Collections.newSetFromMap(new IdentityHashMap<LinkedAllocatableElement<S>, Boolean>());
+		int newPins = 0;
+		int unallocatedElements = 0;
+		
+		for ( LinkedAllocatableElement<S> eachElement : elements ) {
+			Preconditions.checkNotNull(eachElement, "element");
+			
+			eachElement.checkNotForeign(this.slotAllocator);
+			
+			if ( distinctElements.add(eachElement) ) {
+				if ( !eachElement.isPinned() ) {
+					newPins++;
+				}
+				
+				if ( eachElement.getSlot() == null ) {
+					unallocatedElements++;
+				}
+			}
+		}
+		
+		if ( this.pinnedElements.size() + newPins > slotsQuantity ) {
+			throw new IllegalStateException("Not enough slots for the pinned elements");
+		}
+		
+		for ( LinkedAllocatableElement<S> eachElement : distinctElements ) {
+			this.pin(eachElement);
+		}
+		
+		return unallocatedElements;
+	}
+	
+	/**
+	 * @post Fija el elemento especificado, si no está fijado
+	 */
+	private void pin(LinkedAllocatableElement<S> element) {
+		if ( !element.isPinned() ) {
+			element.setPinned(true);
+			this.pinnedElements.add(element);
+		}
+	}
+	
+	/**
+	 * @post Libera el elemento especificado, si está fijado
+	 */
+	public void unpin(LinkedAllocatableElement<S> element) {
+		if ( element.isPinned() ) {
+			element.setPinned(false);
+			
+			// Por identidad, los elementos pueden redefinir equals
+			for ( int i = 0 ; i < this.pinnedElements.size() ; i++ ) {
+				if ( this.pinnedElements.get(i) == element ) {
+					this.pinnedElements.remove(i);
+					break;
+				}
+			}
+		}
+	}
+	
+	/**
+	 * @post Libera todos los elementos fijados
+	 */
+	public void unpinAll() {
+		for ( LinkedAllocatableElement<S> eachElement : this.pinnedElements ) {
+			eachElement.setPinned(false);
+		}
+		
+		this.pinnedElements.clear();
+	}
+}
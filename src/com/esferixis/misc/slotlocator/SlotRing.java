@@ -0,0 +1,65 @@
+/**
+ * Copyright (c) 2018 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.misc.slotlocator;
+
+/**
+ * @author Ariel Favio Carrizo
+ * 
+ * Anillo de slots con reemplazo por reloj.
+ * 
+ * No es thread-safe
+ */
+interface SlotRing<S extends Slot> {
+	/**
+	 * @post Devuelve la cantidad de slots
+	 */
+	public int size();
+	
+	/**
+	 * @post Devuelve la cantidad de slots libres
+	 */
+	public int getFreeSlotsQuantity();
+	
+	/**
+	 * @pre El elemento no tiene que tener slot
+	 * @post Asigna un slot al elemento especificado y lo devuelve,
+	 * 		 si no hay slots libres desaloja un elemento que no esté fijado.
+	 * 		 Si todos están fijados lanza IllegalStateException, sin desalojar
+	 */
+	public S acquire(LinkedAllocatableElement<S> element);
+	
+	/**
+	 * @pre El elemento tiene que tener un slot del anillo
+	 * @post Desasocia el slot del elemento especificado
+	 */
+	public void release(LinkedAllocatableElement<S> element);
+}
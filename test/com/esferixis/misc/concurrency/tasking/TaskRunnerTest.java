@@ -0,0 +1,673 @@
+/**
+ * Copyright (c) 2018 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.misc.concurrency.tasking;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.esferixis.misc.concurrency.tasking.implementations.AdaptiveGranularityTaskRunnerDecorator;
+import com.esferixis.misc.concurrency.tasking.implementations.BlockingAwareTaskRunner;
+import com.esferixis.misc.concurrency.tasking.implementations.BlockingTaskRunner;
+import com.esferixis.misc.concurrency.tasking.implementations.ConcurrentTaskRunnerBasedOnJSLExecutorService;
+import com.esferixis.misc.concurrency.tasking.implementations.ForkJoinPoolTaskRunner;
+import com.esferixis.misc.concurrency.tasking.implementations.TaskRunnerUtil;
+import com.esferixis.misc.concurrency.tasking.implementations.TaskTreeFuture;
+import com.esferixis.misc.concurrency.tasking.implementations.ThresholdedRecursiveTaskRunner;
+import com.esferixis.misc.concurrency.tasking.implementations.TrampolineTaskRunner;
+import com.esferixis.misc.concurrency.tasking.metrics.InstrumentedTaskRunnerDecorator;
+import com.esferixis.misc.concurrency.tasking.metrics.TaskRunnerMetrics;
+
+public class TaskRunnerTest {
+	/**
+	 * Tarea que genera un árbol binario de subtareas
+	 * y cuenta las hojas
+	 */
+	private static final class BinaryTreeTask extends Task {
+		private static final long serialVersionUID = 1L;
+		
+		private final int depth;
+		private final AtomicLong leavesCounter;
+		
+		public BinaryTreeTask(int depth, AtomicLong leavesCounter) {
+			this.depth = depth;
+			this.leavesCounter = leavesCounter;
+		}
+		
+		@Override
+		public void run(TaskRunner taskRunner) {
+			if ( this.depth == 0 ) {
+				this.leavesCounter.incrementAndGet();
+			}
+			else {
+				taskRunner.run(new BinaryTreeTask(this.depth-1, this.leavesCounter));
+				taskRunner.run(new BinaryTreeTask(this.depth-1, this.leavesCounter));
+			}
+		}
+
+		@Override
+		protected long getRelativeRunningTime_implementation() {
+			return 1;
+		}
+	}
+	
+	/**
+	 * Tarea que genera una cadena de subtareas
+	 * y cuenta los eslabones
+	 */
+	private static final class ChainTask extends Task {
+		private static final long serialVersionUID = 1L;
+		
+		private final int length;
+		private final AtomicLong linksCounter;
+		
+		public ChainTask(int length, AtomicLong linksCounter) {
+			this.length = length;
+			this.linksCounter = linksCounter;
+		}
+		
+		@Override
+		public void run(TaskRunner taskRunner) {
+			this.linksCounter.incrementAndGet();
+			
+			if ( this.length > 1 ) {
+				taskRunner.run(new ChainTask(this.length-1, this.linksCounter));
+			}
+		}
+
+		@Override
+		protected long getRelativeRunningTime_implementation() {
+			return 1;
+		}
+	}
+	
+	/**
+	 * Tarea que lanza en bloque la cantidad de subtareas
+	 * especificada, que cuentan hojas
+	 */
+	private static final class FanOutTask extends Task {
+		private static final long serialVersionUID = 1L;
+		
+		private final int width;
+		private final AtomicLong leavesCounter;
+		
+		public FanOutTask(int width, AtomicLong leavesCounter) {
+			this.width = width;
+			this.leavesCounter = leavesCounter;
+		}
+		
+		@Override
+		public void run(TaskRunner taskRunner) {
+			taskRunner.runAll(createLeaves(this.width, this.leavesCounter));
+		}
+
+		@Override
+		protected long getRelativeRunningTime_implementation() {
+			return this.width;
+		}
+	}
+	
+	/**
+	 * Tarea hoja que ocupa el procesador durante el tiempo
+	 * especificado y registra cuánto tardó y en qué thread
+	 */
+	private static final class SpinTask extends Task {
+		private static final long serialVersionUID = 1L;
+		
+		private final long spinNanos;
+		private long elapsedNanos;
+		private volatile Thread runningThread;
+		
+		public SpinTask(long spinNanos) {
+			this.spinNanos = spinNanos;
+			this.runningThread = null;
+		}
+		
+		@Override
+		public void run(TaskRunner taskRunner) {
+			final long startTime = System.nanoTime();
+			
+			while ( System.nanoTime() - startTime < this.spinNanos );
+			
+			this.elapsedNanos = System.nanoTime() - startTime;
+			this.runningThread = Thread.currentThread();
+		}
+
+		@Override
+		protected long getRelativeRunningTime_implementation() {
+			return 1;
+		}
+	}
+	
+	/**
+	 * @post Crea la cantidad especificada de tareas hoja
+	 */
+	private static List<Task> createLeaves(int quantity, AtomicLong leavesCounter) {
+		final List<Task> leaves = new ArrayList<Task>(quantity);
+		
+		for ( int i = 0 ; i < quantity ; i++ ) {
+			leaves.add(new BinaryTreeTask(0, leavesCounter));
+		}
+		
+		return leaves;
+	}
+	
+	@Test
+	public void testTrampolineTaskRunnerRunAllOrder() {
+		final List<Integer> executionOrder = new ArrayList<Integer>();
+		final List<Task> tasks = new ArrayList<Task>();
+		
+		for ( int i = 0 ; i < 5 ; i++ ) {
+			final int taskIndex = i;
+			
+			tasks.add(new Task() {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				public void run(TaskRunner taskRunner) {
+					executionOrder.add(taskIndex);
+				}
+
+				@Override
+				protected long getRelativeRunningTime_implementation() {
+					return 1;
+				}
+				
+			});
+		}
+		
+		new TrampolineTaskRunner().runAll(tasks);
+		
+		Assert.assertEquals(Arrays.asList(0, 1, 2, 3, 4), executionOrder);
+	}
+	
+	@Test
+	public void testTrampolineTaskRunnerDeepChain() {
+		final AtomicLong linksCounter = new AtomicLong(0);
+		
+		new TrampolineTaskRunner().run(new ChainTask(1000000, linksCounter));
+		
+		Assert.assertEquals(1000000, linksCounter.get());
+	}
+	
+	@Test
+	public void testTrampolineTaskRunnerWithFrames() {
+		final AtomicLong leavesCounter = new AtomicLong(0);
+		final TrampolineTaskRunner trampolineTaskRunner = new TrampolineTaskRunner();
+		
+		trampolineTaskRunner.run(new BinaryTreeTask(12, leavesCounter), TaskRunnerUtil.compose(trampolineTaskRunner, trampolineTaskRunner));
+		
+		Assert.assertEquals(1 << 12, leavesCounter.get());
+	}
+	
+	@Test
+	public void testThresholdedRecursiveTaskRunner() {
+		final AtomicLong leavesCounter = new AtomicLong(0);
+		final TrampolineTaskRunner trampolineTaskRunner = new TrampolineTaskRunner();
+		
+		new ThresholdedRecursiveTaskRunner(trampolineTaskRunner, trampolineTaskRunner, 4).run(new BinaryTreeTask(12, leavesCounter));
+		
+		Assert.assertEquals(1 << 12, leavesCounter.get());
+	}
+	
+	@Test
+	public void testForkJoinPoolTaskRunner() {
+		final ForkJoinPoolTaskRunner taskRunner = new ForkJoinPoolTaskRunner(4);
+		
+		try {
+			final AtomicLong leavesCounter = new AtomicLong(0);
+			
+			taskRunner.runAndAwaitQuiescence(new BinaryTreeTask(16, leavesCounter));
+			
+			Assert.assertEquals(1 << 16, leavesCounter.get());
+		}
+		finally {
+			taskRunner.shutdown();
+			taskRunner.lockThisThreadUntilHasBeenShutdown();
+		}
+	}
+	
+	@Test
+	public void testForkJoinPoolTaskRunnerRunAll() {
+		final ForkJoinPoolTaskRunner taskRunner = new ForkJoinPoolTaskRunner(4);
+		
+		try {
+			final AtomicLong leavesCounter = new AtomicLong(0);
+			
+			taskRunner.runAndAwaitQuiescence(new FanOutTask(10000, leavesCounter));
+			
+			Assert.assertEquals(10000, leavesCounter.get());
+		}
+		finally {
+			taskRunner.shutdown();
+			taskRunner.lockThisThreadUntilHasBeenShutdown();
+		}
+	}
+	
+	@Test
+	public void testConcurrentTaskRunnerBasedOnJSLExecutorServiceRunAll() {
+		final ConcurrentTaskRunnerBasedOnJSLExecutorService taskRunner = new ConcurrentTaskRunnerBasedOnJSLExecutorService(4);
+		final AtomicLong leavesCounter = new AtomicLong(0);
+		
+		taskRunner.runAll(createLeaves(10000, leavesCounter));
+		
+		taskRunner.shutdown();
+		taskRunner.lockThisThreadUntilHasBeenShutdown();
+		
+		Assert.assertEquals(10000, leavesCounter.get());
+	}
+	
+	@Test
+	public void testAdaptiveGranularityTaskRunnerDecorator() {
+		final ForkJoinPoolTaskRunner taskRunner = new ForkJoinPoolTaskRunner(4);
+		
+		try {
+			final AtomicLong leavesCounter = new AtomicLong(0);
+			
+			final AdaptiveGranularityTaskRunnerDecorator decorator = new AdaptiveGranularityTaskRunnerDecorator(taskRunner, new Supplier<TaskRunner>() {
+
+				@Override
+				public TaskRunner get() {
+					return new TrampolineTaskRunner();
+				}
+				
+			}, 50000, 500000);
+			
+			taskRunner.runAndAwaitQuiescence(TaskRunnerUtil.decorate(decorator, new BinaryTreeTask(16, leavesCounter)));
+			
+			Assert.assertEquals(1 << 16, leavesCounter.get());
+			Assert.assertTrue(decorator.getNanosPerRelativeTimeUnit() > 0.0d);
+			
+			/**
+			 * Una tarea raíz lanza hojas de costo conocido, las que se ejecutan
+			 * en línea forman la unidad actual, hasta que se forkea una.
+			 * Una vez aprendido el costo, el costo real de cada unidad tiene
+			 * que quedar dentro de la ventana configurada
+			 */
+			final long leafNanos = 20000;
+			final long minForkedRunningNanos = 200000;
+			final long maxForkedRunningNanos = 1000000;
+			final int leavesQuantity = 3000;
+			final int warmUpLeaves = 1000;
+			
+			final List<Long> unitsRunningNanos = new ArrayList<Long>();
+			
+			final AdaptiveGranularityTaskRunnerDecorator windowDecorator = new AdaptiveGranularityTaskRunnerDecorator(taskRunner, new Supplier<TaskRunner>() {
+
+				@Override
+				public TaskRunner get() {
+					return new TrampolineTaskRunner();
+				}
+				
+			}, minForkedRunningNanos, maxForkedRunningNanos);
+			
+			taskRunner.runAndAwaitQuiescence(TaskRunnerUtil.decorate(windowDecorator, new Task() {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				public void run(TaskRunner taskRunner) {
+					long unitRunningNanos = 0;
+					
+					for ( int i = 0 ; i < leavesQuantity ; i++ ) {
+						final SpinTask leaf = new SpinTask(leafNanos);
+						
+						taskRunner.run(leaf);
+						
+						// Una hoja forkeada no corre en este thread mientras la raíz no termine
+						if ( leaf.runningThread == Thread.currentThread() ) {
+							unitRunningNanos += leaf.elapsedNanos;
+						}
+						else {
+							if ( i >= warmUpLeaves ) {
+								unitsRunningNanos.add(unitRunningNanos);
+							}
+							
+							unitRunningNanos = 0;
+						}
+					}
+				}
+
+				@Override
+				protected long getRelativeRunningTime_implementation() {
+					return 1;
+				}
+				
+			}));
+			
+			Assert.assertFalse(unitsRunningNanos.isEmpty());
+			
+			long totalUnitsRunningNanos = 0;
+			for ( long eachUnitRunningNanos : unitsRunningNanos ) {
+				totalUnitsRunningNanos += eachUnitRunningNanos;
+			}
+			
+			final long averageUnitRunningNanos = totalUnitsRunningNanos / unitsRunningNanos.size();
+			
+			Assert.assertTrue("Average unit running nanos: " + averageUnitRunningNanos, averageUnitRunningNanos >= minForkedRunningNanos / 2);
+			Assert.assertTrue("Average unit running nanos: " + averageUnitRunningNanos, averageUnitRunningNanos <= maxForkedRunningNanos);
+		}
+		finally {
+			taskRunner.shutdown();
+			taskRunner.lockThisThreadUntilHasBeenShutdown();
+		}
+	}
+	
+	@Test
+	public void testBlockingAwareTaskRunner() throws InterruptedException {
+		final ForkJoinPoolTaskRunner computingTaskRunner = new ForkJoinPoolTaskRunner(2);
+		final BlockingTaskRunner blockingTaskRunner = new BlockingTaskRunner(8);
+		
+		try {
+			final TaskRunner taskRunner = new BlockingAwareTaskRunner(computingTaskRunner, blockingTaskRunner);
+			
+			final int blockingTasksCount = 40;
+			final CountDownLatch finishedTasksLatch = new CountDownLatch(blockingTasksCount);
+			final AtomicInteger concurrentTasks = new AtomicInteger(0);
+			final AtomicInteger maxConcurrentTasks = new AtomicInteger(0);
+			final AtomicInteger tasksInComputingThreads = new AtomicInteger(0);
+			
+			final List<Task> blockingTasks = new ArrayList<Task>();
+			
+			for ( int i = 0 ; i < blockingTasksCount ; i++ ) {
+				blockingTasks.add(TaskRunnerUtil.markAsBlocking(new Task() {
+					private static final long serialVersionUID = 1L;
+
+					@Override
+					public void run(TaskRunner taskRunner) {
+						final int currentConcurrentTasks = concurrentTasks.incrementAndGet();
+						
+						int currentMax;
+						do {
+							currentMax = maxConcurrentTasks.get();
+						} while ( ( currentConcurrentTasks > currentMax ) && !maxConcurrentTasks.compareAndSet(currentMax, currentConcurrentTasks) );
+						
+						if ( Thread.currentThread() instanceof ForkJoinWorkerThread ) {
+							tasksInComputingThreads.incrementAndGet();
+						}
+						
+						try {
+							Thread.sleep(10);
+						} catch (InterruptedException e) {
+							throw new RuntimeException(e);
+						}
+						
+						concurrentTasks.decrementAndGet();
+						finishedTasksLatch.countDown();
+					}
+
+					@Override
+					protected long getRelativeRunningTime_implementation() {
+						return 1;
+					}
+					
+				}));
+			}
+			
+			taskRunner.run(new Task() {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				public void run(TaskRunner taskRunner) {
+					taskRunner.runAll(blockingTasks);
+				}
+
+				@Override
+				protected long getRelativeRunningTime_implementation() {
+					return 1;
+				}
+				
+			});
+			
+			finishedTasksLatch.await();
+			
+			Assert.assertEquals(0, tasksInComputingThreads.get());
+			Assert.assertTrue(maxConcurrentTasks.get() <= 8);
+		}
+		finally {
+			computingTaskRunner.shutdown();
+			blockingTaskRunner.shutdown();
+			computingTaskRunner.lockThisThreadUntilHasBeenShutdown();
+			blockingTaskRunner.lockThisThreadUntilHasBeenShutdown();
+		}
+	}
+	
+	@Test
+	public void testBlockingTaskRunnerErrorsAndShutdown() throws InterruptedException {
+		final BlockingTaskRunner taskRunner = new BlockingTaskRunner(1);
+		
+		final int tasksCount = 10;
+		final CountDownLatch finishedTasksLatch = new CountDownLatch(tasksCount);
+		
+		// Un error no tiene que hacer perder el único lugar de worker
+		for ( int i = 0 ; i < tasksCount ; i++ ) {
+			final boolean fails = ( i % 2 == 0 );
+			
+			taskRunner.run(new Task() {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				public void run(TaskRunner taskRunner) {
+					finishedTasksLatch.countDown();
+					
+					if ( fails ) {
+						throw new AssertionError("Expected error");
+					}
+				}
+
+				@Override
+				protected long getRelativeRunningTime_implementation() {
+					return 1;
+				}
+				
+			});
+		}
+		
+		Assert.assertTrue(finishedTasksLatch.await(10, TimeUnit.SECONDS));
+		
+		taskRunner.shutdown();
+		
+		try {
+			taskRunner.run(new BinaryTreeTask(0, new AtomicLong(0)));
+			Assert.fail("Expected RejectedExecutionException");
+		}
+		catch (RejectedExecutionException e) {
+			
+		}
+		
+		taskRunner.lockThisThreadUntilHasBeenShutdown();
+	}
+	
+	@Test
+	public void testTaskTreeFuture() throws InterruptedException, ExecutionException {
+		final ConcurrentTaskRunnerBasedOnJSLExecutorService taskRunner = new ConcurrentTaskRunnerBasedOnJSLExecutorService(4);
+		
+		try {
+			// El mismo ejecutador de tareas se reusa entre lotes
+			for ( int i = 0 ; i < 4 ; i++ ) {
+				final AtomicLong leavesCounter = new AtomicLong(0);
+				
+				final TaskTreeFuture future = TaskTreeFuture.run(taskRunner, new BinaryTreeTask(12, leavesCounter));
+				future.get();
+				
+				Assert.assertTrue(future.isDone());
+				Assert.assertEquals(0, future.getPendingTasks());
+				Assert.assertEquals(1 << 12, leavesCounter.get());
+			}
+		}
+		finally {
+			taskRunner.shutdown();
+			taskRunner.lockThisThreadUntilHasBeenShutdown();
+		}
+	}
+	
+	@Test
+	public void testTaskTreeFutureExceptionPropagation() throws InterruptedException {
+		final ForkJoinPoolTaskRunner taskRunner = new ForkJoinPoolTaskRunner(4);
+		final IllegalStateException exception = new IllegalStateException();
+		
+		try {
+			final AtomicLong leavesCounter = new AtomicLong(0);
+			
+			final TaskTreeFuture future = TaskTreeFuture.run(taskRunner, new Task() {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				public void run(TaskRunner taskRunner) {
+					taskRunner.run(new BinaryTreeTask(10, leavesCounter));
+					taskRunner.run(new Task() {
+						private static final long serialVersionUID = 1L;
+
+						@Override
+						public void run(TaskRunner taskRunner) {
+							throw exception;
+						}
+
+						@Override
+						protected long getRelativeRunningTime_implementation() {
+							return 1;
+						}
+						
+					});
+				}
+
+				@Override
+				protected long getRelativeRunningTime_implementation() {
+					return 1;
+				}
+				
+			});
+			
+			try {
+				future.get();
+				Assert.fail();
+			}
+			catch (ExecutionException e) {
+				Assert.assertSame(exception, e.getCause());
+			}
+			
+			// Las tareas hermanas terminan igual
+			Assert.assertEquals(1 << 10, leavesCounter.get());
+		}
+		finally {
+			taskRunner.shutdown();
+			taskRunner.lockThisThreadUntilHasBeenShutdown();
+		}
+	}
+	
+	@Test
+	public void testTaskTreeFutureRejectedSubmission() throws InterruptedException, TimeoutException {
+		final TrampolineTaskRunner trampolineTaskRunner = new TrampolineTaskRunner();
+		final AtomicInteger acceptedSubmissions = new AtomicInteger(10);
+		
+		// Acepta una cantidad limitada de envíos, después rechaza
+		final TaskRunner rejectingTaskRunner = new TaskRunner() {
+
+			@Override
+			protected void run_checked(Task task) {
+				if ( acceptedSubmissions.decrementAndGet() < 0 ) {
+					throw new RejectedExecutionException();
+				}
+				
+				trampolineTaskRunner.run(task, this);
+			}
+			
+		};
+		
+		final TaskTreeFuture future = TaskTreeFuture.run(rejectingTaskRunner, new BinaryTreeTask(4, new AtomicLong(0)));
+		
+		try {
+			future.get(10, TimeUnit.SECONDS);
+			Assert.fail();
+		}
+		catch (ExecutionException e) {
+			Assert.assertTrue(e.getCause() instanceof RejectedExecutionException);
+		}
+		
+		Assert.assertEquals(0, future.getPendingTasks());
+		
+		// Si se rechaza la raíz, se propaga al lanzar
+		try {
+			TaskTreeFuture.run(rejectingTaskRunner, new BinaryTreeTask(0, new AtomicLong(0)));
+			Assert.fail();
+		}
+		catch (RejectedExecutionException e) {
+			
+		}
+	}
+	
+	@Test
+	public void testInstrumentedTaskRunnerDecorator() {
+		final InstrumentedTaskRunnerDecorator inlineDecorator = new InstrumentedTaskRunnerDecorator(new TrampolineTaskRunner());
+		
+		inlineDecorator.run(new BinaryTreeTask(10, new AtomicLong(0)));
+		
+		final TaskRunnerMetrics inlineMetrics = inlineDecorator.getMetrics();
+		
+		Assert.assertEquals((1 << 11) - 1, inlineMetrics.getSubmittedTasks());
+		Assert.assertEquals((1 << 11) - 1, inlineMetrics.getExecutedTasks());
+		Assert.assertEquals(0, inlineMetrics.getPendingTasks());
+		Assert.assertEquals(0.0d, inlineMetrics.getForkRatio(), 0.0d);
+		Assert.assertEquals((1 << 11) - 1, inlineMetrics.getRunningNanos().getCount());
+		Assert.assertTrue(inlineMetrics.getRunningNanos().getPercentile(50.0d) <= inlineMetrics.getRunningNanos().getPercentile(99.0d));
+		Assert.assertTrue(inlineMetrics.getRunningNanos().getPercentile(99.0d) <= inlineMetrics.getRunningNanos().getMax());
+		
+		inlineDecorator.resetMetrics();
+		Assert.assertEquals(0, inlineDecorator.getMetrics().getSubmittedTasks());
+		
+		final ForkJoinPoolTaskRunner taskRunner = new ForkJoinPoolTaskRunner(4);
+		final InstrumentedTaskRunnerDecorator decorator = new InstrumentedTaskRunnerDecorator(taskRunner);
+		
+		decorator.run(new FanOutTask(1000, new AtomicLong(0)));
+		
+		taskRunner.shutdown();
+		taskRunner.lockThisThreadUntilHasBeenShutdown();
+		
+		final TaskRunnerMetrics metrics = decorator.getMetrics();
+		
+		Assert.assertEquals(1001, metrics.getExecutedTasks());
+		Assert.assertEquals(0, metrics.getFailedTasks());
+		Assert.assertTrue(metrics.getForkRatio() > 0.0d);
+		Assert.assertEquals(1001, metrics.getQueueWaitNanos().getCount());
+	}
+}
@@ -0,0 +1,290 @@
+/**
+ * Copyright (c) 2018 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.misc.functional;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.esferixis.misc.concurrency.tasking.Task;
+import com.esferixis.misc.concurrency.tasking.TaskRunner;
+import com.esferixis.misc.concurrency.tasking.implementations.ConcurrentTaskRunnerBasedOnJSLExecutorService;
+import com.esferixis.misc.concurrency.tasking.implementations.TrampolineTaskRunner;
+import com.esferixis.misc.functional.values.DeferredValue;
+import com.esferixis.misc.functional.values.ImmediateValue;
+import com.esferixis.misc.functional.values.Value;
+
+public class MemoizingFunctionTest {
+	/**
+	 * Función que duplica la entrada y cuenta las evaluaciones
+	 */
+	private static final class DoublingFunction implements Function<Integer, Integer> {
+		private final AtomicInteger evaluations = new AtomicInteger(0);
+		private final AtomicReference<Consumer<Integer>> pendingInitializer = new AtomicReference<Consumer<Integer>>();
+		private final boolean isDeferred;
+		
+		public DoublingFunction(boolean isDeferred) {
+			this.isDeferred = isDeferred;
+		}
+		
+		@Override
+		public Value<Integer> evaluate(final Value<Integer> inputValue) {
+			final AtomicReference<Consumer<Integer>> pendingInitializer = this.pendingInitializer;
+			final AtomicInteger evaluations = this.evaluations;
+			final boolean isDeferred = this.isDeferred;
+			
+			return new DeferredValue<Integer>(new Consumer<Consumer<Integer>>() {
+
+				@Override
+				public void accept(final Consumer<Integer> outputInitializer, TaskRunner taskRunner) {
+					evaluations.incrementAndGet();
+					
+					inputValue.get(new Consumer<Integer>() {
+
+						@Override
+						public void accept(final Integer input, TaskRunner taskRunner) {
+							if ( isDeferred ) {
+								pendingInitializer.set(new Consumer<Integer>() {
+
+									@Override
+									public void accept(Integer value, TaskRunner taskRunner) {
+										outputInitializer.accept(input * 2, taskRunner);
+									}
+									
+								});
+							}
+							else {
+								outputInitializer.accept(input * 2, taskRunner);
+							}
+						}
+						
+					}, taskRunner);
+				}
+				
+			}, new TrampolineTaskRunner());
+		}
+	}
+	
+	@Test
+	public void testSingleFlight() throws InterruptedException {
+		final DoublingFunction function = new DoublingFunction(true);
+		final MemoizingFunction<Integer, Integer> memoizingFunction = new MemoizingFunction<Integer, Integer>(function, 100);
+		final ConcurrentTaskRunnerBasedOnJSLExecutorService taskRunner = new ConcurrentTaskRunnerBasedOnJSLExecutorService(4);
+		
+		try {
+			final int evaluations = 1000;
+			final CountDownLatch resultsLatch = new CountDownLatch(evaluations);
+			final AtomicInteger wrongResults = new AtomicInteger(0);
+			final CountDownLatch requestedLatch = new CountDownLatch(evaluations);
+			
+			for ( int i = 0 ; i < evaluations ; i++ ) {
+				taskRunner.run(new Task() {
+					private static final long serialVersionUID = 1L;
+
+					@Override
+					public void run(TaskRunner taskRunner) {
+						memoizingFunction.evaluate(new ImmediateValue<Integer>(21)).get(new Consumer<Integer>() {
+
+							@Override
+							public void accept(Integer value, TaskRunner taskRunner) {
+								if ( value.intValue() != 42 ) {
+									wrongResults.incrementAndGet();
+								}
+								
+								resultsLatch.countDown();
+							}
+							
+						}, taskRunner);
+						
+						requestedLatch.countDown();
+					}
+
+					@Override
+					protected long getRelativeRunningTime_implementation() {
+						return 1;
+					}
+					
+				});
+			}
+			
+			Assert.assertTrue(requestedLatch.await(10, TimeUnit.SECONDS));
+			
+			// Todas las evaluaciones esperan a la única en curso
+			Assert.assertEquals(1, function.evaluations.get());
+			Assert.assertEquals(evaluations, resultsLatch.getCount());
+			
+			function.pendingInitializer.get().accept(0, taskRunner);
+			
+			Assert.assertTrue(resultsLatch.await(10, TimeUnit.SECONDS));
+			Assert.assertEquals(0, wrongResults.get());
+			Assert.assertEquals(1, memoizingFunction.getMisses());
+			Assert.assertEquals(evaluations - 1, memoizingFunction.getHits());
+		}
+		finally {
+			taskRunner.shutdown();
+			taskRunner.lockThisThreadUntilHasBeenShutdown();
+		}
+	}
+	
+	@Test
+	public void testEviction() {
+		final DoublingFunction function = new DoublingFunction(false);
+		final MemoizingFunction<Integer, Integer> memoizingFunction = new MemoizingFunction<Integer, Integer>(function, 10);
+		final TaskRunner taskRunner = new TrampolineTaskRunner();
+		
+		final AtomicInteger result = new AtomicInteger(0);
+		final Consumer<Integer> consumer = new Consumer<Integer>() {
+
+			@Override
+			public void accept(Integer value, TaskRunner taskRunner) {
+				result.set(value);
+			}
+			
+		};
+		
+		for ( int i = 0 ; i < 100 ; i++ ) {
+			memoizingFunction.evaluate(new ImmediateValue<Integer>(i)).get(consumer, taskRunner);
+			Assert.assertEquals(i * 2, result.get());
+			
+			// La entrada 0 se usa continuamente, así que debe conservarse
+			memoizingFunction.evaluate(new ImmediateValue<Integer>(0)).get(consumer, taskRunner);
+		}
+		
+		Assert.assertTrue(memoizingFunction.getWeight() <= 10);
+		Assert.assertTrue(memoizingFunction.getSize() <= 10);
+		Assert.assertEquals(100, function.evaluations.get());
+		
+		memoizingFunction.clear();
+		Assert.assertEquals(0, memoizingFunction.getSize());
+		Assert.assertEquals(0, memoizingFunction.getWeight());
+	}
+	
+	@Test
+	public void testFailureReachesWaitingConsumers() throws InterruptedException {
+		final IllegalStateException exception = new IllegalStateException("Expected failure");
+		final CountDownLatch startedLatch = new CountDownLatch(1);
+		final CountDownLatch proceedLatch = new CountDownLatch(1);
+		final AtomicInteger evaluations = new AtomicInteger(0);
+		
+		// La primera evaluación espera y luego lanza una excepción
+		final MemoizingFunction<Integer, Integer> memoizingFunction = new MemoizingFunction<Integer, Integer>(new Function<Integer, Integer>() {
+
+			@Override
+			public Value<Integer> evaluate(Value<Integer> inputValue) {
+				if ( evaluations.getAndIncrement() == 0 ) {
+					startedLatch.countDown();
+					
+					try {
+						proceedLatch.await();
+					} catch (InterruptedException e) {
+						throw new RuntimeException(e);
+					}
+					
+					throw exception;
+				}
+				else {
+					return new ImmediateValue<Integer>(42);
+				}
+			}
+			
+		}, 100);
+		
+		final List<Throwable> taskExceptions = Collections.synchronizedList(new ArrayList<Throwable>());
+		
+		// Ejecuta en línea y registra las excepciones de las tareas
+		final TaskRunner taskRunner = new TaskRunner() {
+
+			@Override
+			protected void run_checked(Task task) {
+				try {
+					task.run(this);
+				}
+				catch (RuntimeException e) {
+					taskExceptions.add(e);
+				}
+			}
+			
+		};
+		
+		final AtomicInteger result = new AtomicInteger(0);
+		final Consumer<Integer> consumer = new Consumer<Integer>() {
+
+			@Override
+			public void accept(Integer value, TaskRunner taskRunner) {
+				result.set(value);
+			}
+			
+		};
+		
+		final AtomicReference<Throwable> starterException = new AtomicReference<Throwable>();
+		
+		final Thread starterThread = new Thread() {
+			@Override
+			public void run() {
+				try {
+					memoizingFunction.evaluate(new ImmediateValue<Integer>(21)).get(consumer, taskRunner);
+				}
+				catch (IllegalStateException e) {
+					starterException.set(e);
+				}
+			}
+		};
+		
+		starterThread.start();
+		Assert.assertTrue(startedLatch.await(10, TimeUnit.SECONDS));
+		
+		// Espera a la evaluación en curso
+		memoizingFunction.evaluate(new ImmediateValue<Integer>(21)).get(consumer, taskRunner);
+		
+		proceedLatch.countDown();
+		starterThread.join();
+		
+		Assert.assertSame(exception, starterException.get());
+		Assert.assertEquals(1, taskExceptions.size());
+		Assert.assertSame(exception, taskExceptions.get(0));
+		Assert.assertEquals(0, result.get());
+		Assert.assertEquals(0, memoizingFunction.getSize());
+		
+		// La evaluación fallida no se memoriza
+		memoizingFunction.evaluate(new ImmediateValue<Integer>(21)).get(consumer, taskRunner);
+		
+		Assert.assertEquals(42, result.get());
+		Assert.assertEquals(2, evaluations.get());
+	}
+}
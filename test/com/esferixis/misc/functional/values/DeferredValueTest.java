@@ -0,0 +1,249 @@
+/**
+ * Copyright (c) 2018 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.misc.functional.values;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.esferixis.misc.concurrency.Cancellable;
+import com.esferixis.misc.concurrency.tasking.TaskRunner;
+import com.esferixis.misc.concurrency.tasking.implementations.ForkJoinPoolTaskRunner;
+import com.esferixis.misc.concurrency.tasking.implementations.TrampolineTaskRunner;
+import com.esferixis.misc.functional.Consumer;
+
+public class DeferredValueTest {
+	/**
+	 * @post Crea un valor diferido y guarda su inicializador en la
+	 * 		 referencia especificada
+	 */
+	private static <T> DeferredValue<T> createDeferredValue(final AtomicReference<Consumer<T>> initializer, TaskRunner taskRunner) {
+		return new DeferredValue<T>(new Consumer<Consumer<T>>() {
+
+			@Override
+			public void accept(Consumer<T> value, TaskRunner taskRunner) {
+				initializer.set(value);
+			}
+			
+		}, taskRunner);
+	}
+	
+	@Test
+	public void testConsumersRunInRegistrationOrder() {
+		final TrampolineTaskRunner taskRunner = new TrampolineTaskRunner();
+		final AtomicReference<Consumer<Integer>> initializer = new AtomicReference<Consumer<Integer>>();
+		final DeferredValue<Integer> value = createDeferredValue(initializer, taskRunner);
+		
+		final List<Integer> order = new ArrayList<Integer>();
+		
+		for ( int i = 0 ; i < 100 ; i++ ) {
+			final int consumerIndex = i;
+			
+			value.get(new Consumer<Integer>() {
+
+				@Override
+				public void accept(Integer value, TaskRunner taskRunner) {
+					Assert.assertEquals(42, value.intValue());
+					order.add(consumerIndex);
+				}
+				
+			}, taskRunner);
+		}
+		
+		Assert.assertTrue(order.isEmpty());
+		
+		initializer.get().accept(42, taskRunner);
+		
+		Assert.assertEquals(100, order.size());
+		for ( int i = 0 ; i < 100 ; i++ ) {
+			Assert.assertEquals(i, order.get(i).intValue());
+		}
+		
+		// Después de seteado se consume inmediatamente
+		value.get(new Consumer<Integer>() {
+
+			@Override
+			public void accept(Integer value, TaskRunner taskRunner) {
+				order.add(-1);
+			}
+			
+		}, taskRunner);
+		
+		Assert.assertEquals(-1, order.get(100).intValue());
+		
+		try {
+			initializer.get().accept(43, taskRunner);
+			Assert.fail();
+		}
+		catch (IllegalStateException e) {
+			
+		}
+	}
+	
+	@Test
+	public void testConcurrentRegistrationAndSet() throws InterruptedException {
+		final ForkJoinPoolTaskRunner taskRunner = new ForkJoinPoolTaskRunner(4);
+		
+		try {
+			final int threadsCount = 4;
+			final int consumersPerThread = 5000;
+			
+			final AtomicReference<Consumer<Integer>> initializer = new AtomicReference<Consumer<Integer>>();
+			final DeferredValue<Integer> value = createDeferredValue(initializer, taskRunner);
+			
+			final AtomicInteger consumedCount = new AtomicInteger(0);
+			final CountDownLatch consumedLatch = new CountDownLatch(threadsCount * consumersPerThread);
+			final CountDownLatch startLatch = new CountDownLatch(1);
+			
+			final Consumer<Integer> consumer = new Consumer<Integer>() {
+
+				@Override
+				public void accept(Integer value, TaskRunner taskRunner) {
+					Assert.assertEquals(7, value.intValue());
+					consumedCount.incrementAndGet();
+					consumedLatch.countDown();
+				}
+				
+			};
+			
+			final List<Thread> threads = new ArrayList<Thread>();
+			
+			for ( int i = 0 ; i < threadsCount ; i++ ) {
+				final Thread thread = new Thread() {
+					@Override
+					public void run() {
+						try {
+							startLatch.await();
+						} catch (InterruptedException e) {
+							throw new RuntimeException(e);
+						}
+						
+						for ( int j = 0 ; j < consumersPerThread ; j++ ) {
+							value.get(consumer, taskRunner);
+						}
+					}
+				};
+				
+				threads.add(thread);
+				thread.start();
+			}
+			
+			startLatch.countDown();
+			initializer.get().accept(7, taskRunner);
+			
+			for ( Thread eachThread : threads ) {
+				eachThread.join();
+			}
+			
+			consumedLatch.await();
+			
+			Assert.assertEquals(threadsCount * consumersPerThread, consumedCount.get());
+		}
+		finally {
+			taskRunner.shutdown();
+			taskRunner.lockThisThreadUntilHasBeenShutdown();
+		}
+	}
+	
+	@Test
+	public void testConcurrentCancellation() throws InterruptedException {
+		final TrampolineTaskRunner taskRunner = new TrampolineTaskRunner();
+		
+		final int threadsCount = 4;
+		final int consumersPerThread = 20000;
+		
+		final AtomicReference<Consumer<Integer>> initializer = new AtomicReference<Consumer<Integer>>();
+		final DeferredValue<Integer> value = createDeferredValue(initializer, taskRunner);
+		
+		final AtomicInteger consumedCount = new AtomicInteger(0);
+		final AtomicInteger keptCount = new AtomicInteger(0);
+		final CountDownLatch startLatch = new CountDownLatch(1);
+		
+		final Consumer<Integer> consumer = new Consumer<Integer>() {
+
+			@Override
+			public void accept(Integer value, TaskRunner taskRunner) {
+				consumedCount.incrementAndGet();
+			}
+			
+		};
+		
+		final List<Thread> threads = new ArrayList<Thread>();
+		
+		// Registra y cancela consumidores concurrentemente, conservando uno de cada cinco
+		for ( int i = 0 ; i < threadsCount ; i++ ) {
+			final Thread thread = new Thread() {
+				@Override
+				public void run() {
+					try {
+						startLatch.await();
+					} catch (InterruptedException e) {
+						throw new RuntimeException(e);
+					}
+					
+					final List<Cancellable> cancellables = new ArrayList<Cancellable>();
+					
+					for ( int j = 0 ; j < consumersPerThread ; j++ ) {
+						cancellables.add(value.getCancellable(consumer, taskRunner));
+					}
+					
+					for ( int j = 0 ; j < consumersPerThread ; j++ ) {
+						if ( j % 5 == 0 ) {
+							keptCount.incrementAndGet();
+						}
+						else {
+							Assert.assertTrue(cancellables.get(j).cancel());
+						}
+					}
+				}
+			};
+			
+			threads.add(thread);
+			thread.start();
+		}
+		
+		startLatch.countDown();
+		
+		for ( Thread eachThread : threads ) {
+			eachThread.join();
+		}
+		
+		initializer.get().accept(7, taskRunner);
+		
+		Assert.assertEquals(keptCount.get(), consumedCount.get());
+	}
+}
@@ -0,0 +1,358 @@
+/**
+ * Copyright (c) 2018 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.misc.functional.values;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.esferixis.misc.concurrency.Cancellable;
+import com.esferixis.misc.concurrency.HashedWheelTimer;
+import com.esferixis.misc.concurrency.tasking.TaskRunner;
+import com.esferixis.misc.concurrency.tasking.implementations.TrampolineTaskRunner;
+import com.esferixis.misc.functional.Consumer;
+
+public class ValuesTest {
+	private static final Function<Integer, Integer> increment = new Function<Integer, Integer>() {
+
+		@Override
+		public Integer apply(Integer value) {
+			return value + 1;
+		}
+		
+	};
+	
+	private static final BiFunction<Integer, Integer, Integer> sum = new BiFunction<Integer, Integer, Integer>() {
+
+		@Override
+		public Integer apply(Integer first, Integer second) {
+			return first + second;
+		}
+		
+	};
+	
+	private final TaskRunner taskRunner = new TrampolineTaskRunner();
+	
+	/**
+	 * @post Crea un valor diferido y guarda su inicializador en la
+	 * 		 referencia especificada
+	 */
+	private <T> DeferredValue<T> createDeferredValue(final AtomicReference<Consumer<T>> initializer) {
+		return new DeferredValue<T>(new Consumer<Consumer<T>>() {
+
+			@Override
+			public void accept(Consumer<T> value, TaskRunner taskRunner) {
+				initializer.set(value);
+			}
+			
+		}, this.taskRunner);
+	}
+	
+	/**
+	 * @post Obtiene el valor especificado, si no está disponible devuelve nulo
+	 */
+	private <T> T getValue(Value<T> value) {
+		final AtomicReference<T> result = new AtomicReference<T>();
+		
+		value.get(new Consumer<T>() {
+
+			@Override
+			public void accept(T value, TaskRunner taskRunner) {
+				result.set(value);
+			}
+			
+		}, this.taskRunner);
+		
+		return result.get();
+	}
+	
+	@Test
+	public void testMapOverImmediateValueIsEager() {
+		final Value<Integer> value = Values.map(Values.map(new ImmediateValue<Integer>(1), increment), increment);
+		
+		Assert.assertTrue(value instanceof ImmediateValue);
+		Assert.assertEquals(3, this.getValue(value).intValue());
+	}
+	
+	@Test
+	public void testMapOverDeferredValue() {
+		final AtomicReference<Consumer<Integer>> initializer = new AtomicReference<Consumer<Integer>>();
+		final DeferredValue<Integer> source = this.createDeferredValue(initializer);
+		
+		Value<Integer> value = source;
+		for ( int i = 0 ; i < 10 ; i++ ) {
+			value = Values.map(value, increment);
+		}
+		
+		Assert.assertNull(this.getValue(value));
+		
+		initializer.get().accept(5, this.taskRunner);
+		
+		Assert.assertEquals(15, this.getValue(value).intValue());
+	}
+	
+	@Test
+	public void testFlatMap() {
+		final AtomicReference<Consumer<Integer>> initializer = new AtomicReference<Consumer<Integer>>();
+		final DeferredValue<Integer> inner = this.createDeferredValue(initializer);
+		
+		final Value<Integer> value = Values.flatMap(new ImmediateValue<Integer>(2), new Function<Integer, Value<Integer>>() {
+
+			@Override
+			public Value<Integer> apply(final Integer value) {
+				return Values.map(inner, new Function<Integer, Integer>() {
+
+					@Override
+					public Integer apply(Integer innerValue) {
+						return innerValue * value;
+					}
+					
+				});
+			}
+			
+		});
+		
+		initializer.get().accept(21, this.taskRunner);
+		
+		Assert.assertEquals(42, this.getValue(value).intValue());
+	}
+	
+	@Test
+	public void testZipAndAllOf() {
+		final AtomicReference<Consumer<Integer>> firstInitializer = new AtomicReference<Consumer<Integer>>();
+		final AtomicReference<Consumer<Integer>> secondInitializer = new AtomicReference<Consumer<Integer>>();
+		final DeferredValue<Integer> first = this.createDeferredValue(firstInitializer);
+		final DeferredValue<Integer> second = this.createDeferredValue(secondInitializer);
+		
+		final Value<Integer> zipped = Values.zip(first, second, sum);
+		final Value<List<Integer>> all = Values.allOf(Arrays.<Value<Integer>>asList(first, new ImmediateValue<Integer>(7), second));
+		
+		final AtomicReference<Integer> zippedResult = new AtomicReference<Integer>();
+		zipped.get(new Consumer<Integer>() {
+
+			@Override
+			public void accept(Integer value, TaskRunner taskRunner) {
+				zippedResult.set(value);
+			}
+			
+		}, this.taskRunner);
+		
+		secondInitializer.get().accept(2, this.taskRunner);
+		Assert.assertNull(zippedResult.get());
+		Assert.assertNull(this.getValue(all));
+		
+		firstInitializer.get().accept(1, this.taskRunner);
+		Assert.assertEquals(3, zippedResult.get().intValue());
+		Assert.assertEquals(Arrays.asList(1, 7, 2), this.getValue(all));
+		
+		Assert.assertTrue(Values.zip(new ImmediateValue<Integer>(1), new ImmediateValue<Integer>(2), sum) instanceof ImmediateValue);
+	}
+	
+	@Test
+	public void testFirstOf() {
+		final AtomicReference<Consumer<Integer>> firstInitializer = new AtomicReference<Consumer<Integer>>();
+		final AtomicReference<Consumer<Integer>> secondInitializer = new AtomicReference<Consumer<Integer>>();
+		final DeferredValue<Integer> first = this.createDeferredValue(firstInitializer);
+		final DeferredValue<Integer> second = this.createDeferredValue(secondInitializer);
+		
+		final Value<Integer> value = Values.firstOf(Arrays.<Value<Integer>>asList(first, second));
+		
+		final AtomicInteger consumptions = new AtomicInteger(0);
+		final AtomicReference<Integer> result = new AtomicReference<Integer>();
+		
+		value.get(new Consumer<Integer>() {
+
+			@Override
+			public void accept(Integer value, TaskRunner taskRunner) {
+				consumptions.incrementAndGet();
+				result.set(value);
+			}
+			
+		}, this.taskRunner);
+		
+		secondInitializer.get().accept(2, this.taskRunner);
+		firstInitializer.get().accept(1, this.taskRunner);
+		
+		Assert.assertEquals(1, consumptions.get());
+		Assert.assertEquals(2, result.get().intValue());
+	}
+	
+	@Test
+	public void testMaterialize() {
+		final AtomicReference<Consumer<Integer>> initializer = new AtomicReference<Consumer<Integer>>();
+		final AtomicInteger evaluations = new AtomicInteger(0);
+		
+		final Value<Integer> value = Values.materialize(Values.map(this.createDeferredValue(initializer), new Function<Integer, Integer>() {
+
+			@Override
+			public Integer apply(Integer value) {
+				evaluations.incrementAndGet();
+				return value * 2;
+			}
+			
+		}), this.taskRunner);
+		
+		initializer.get().accept(4, this.taskRunner);
+		
+		Assert.assertEquals(8, this.getValue(value).intValue());
+		Assert.assertEquals(8, this.getValue(value).intValue());
+		Assert.assertEquals(1, evaluations.get());
+	}
+	
+	@Test
+	public void testCancellationPropagatesUpstream() {
+		final AtomicReference<Consumer<Integer>> firstInitializer = new AtomicReference<Consumer<Integer>>();
+		final AtomicReference<Consumer<Integer>> secondInitializer = new AtomicReference<Consumer<Integer>>();
+		final DeferredValue<Integer> first = this.createDeferredValue(firstInitializer);
+		final DeferredValue<Integer> second = this.createDeferredValue(secondInitializer);
+		
+		final Value<Integer> value = Values.map(Values.zip(first, second, sum), increment);
+		final AtomicInteger consumptions = new AtomicInteger(0);
+		
+		final Consumer<Integer> consumer = new Consumer<Integer>() {
+
+			@Override
+			public void accept(Integer value, TaskRunner taskRunner) {
+				consumptions.incrementAndGet();
+			}
+			
+		};
+		
+		final Cancellable cancelled = Values.getCancellable(value, consumer, this.taskRunner);
+		Values.getCancellable(value, consumer, this.taskRunner);
+		
+		Assert.assertTrue(cancelled.cancel());
+		Assert.assertFalse(cancelled.cancel());
+		
+		firstInitializer.get().accept(1, this.taskRunner);
+		secondInitializer.get().accept(2, this.taskRunner);
+		
+		Assert.assertEquals(1, consumptions.get());
+		Assert.assertEquals(4, this.getValue(value).intValue());
+		
+		// Después de obtenido ya no se puede cancelar
+		Assert.assertFalse(Values.getCancellable(value, consumer, this.taskRunner).cancel());
+	}
+	
+	@Test
+	public void testDeferredValueCancellation() {
+		final AtomicReference<Consumer<Integer>> initializer = new AtomicReference<Consumer<Integer>>();
+		final DeferredValue<Integer> value = this.createDeferredValue(initializer);
+		final AtomicInteger consumptions = new AtomicInteger(0);
+		
+		final Consumer<Integer> consumer = new Consumer<Integer>() {
+
+			@Override
+			public void accept(Integer value, TaskRunner taskRunner) {
+				consumptions.incrementAndGet();
+			}
+			
+		};
+		
+		final Cancellable[] cancellables = new Cancellable[100];
+		for ( int i = 0 ; i < cancellables.length ; i++ ) {
+			cancellables[i] = value.getCancellable(consumer, this.taskRunner);
+		}
+		
+		// Cancela los pares
+		for ( int i = 0 ; i < cancellables.length ; i += 2 ) {
+			Assert.assertTrue(cancellables[i].cancel());
+		}
+		
+		initializer.get().accept(1, this.taskRunner);
+		
+		Assert.assertEquals(50, consumptions.get());
+		
+		for ( int i = 1 ; i < cancellables.length ; i += 2 ) {
+			Assert.assertFalse(cancellables[i].cancel());
+		}
+	}
+	
+	@Test
+	public void testTimeout() throws InterruptedException {
+		final HashedWheelTimer timer = new HashedWheelTimer(1, TimeUnit.MILLISECONDS, 64);
+		
+		try {
+			final AtomicReference<Consumer<Integer>> initializer = new AtomicReference<Consumer<Integer>>();
+			final DeferredValue<Integer> neverSetted = this.createDeferredValue(initializer);
+			
+			final CountDownLatch fallbackLatch = new CountDownLatch(1);
+			final AtomicReference<Integer> result = new AtomicReference<Integer>();
+			
+			Values.timeout(neverSetted, 20, TimeUnit.MILLISECONDS, -1, timer).get(new Consumer<Integer>() {
+
+				@Override
+				public void accept(Integer value, TaskRunner taskRunner) {
+					result.set(value);
+					fallbackLatch.countDown();
+				}
+				
+			}, new TrampolineTaskRunner());
+			
+			Assert.assertTrue(fallbackLatch.await(5, TimeUnit.SECONDS));
+			Assert.assertEquals(-1, result.get().intValue());
+			
+			// Si el valor llega antes, no se consume el alternativo
+			final AtomicReference<Consumer<Integer>> otherInitializer = new AtomicReference<Consumer<Integer>>();
+			final DeferredValue<Integer> setted = this.createDeferredValue(otherInitializer);
+			final AtomicInteger consumptions = new AtomicInteger(0);
+			
+			Values.timeout(setted, 20, TimeUnit.MILLISECONDS, -1, timer).get(new Consumer<Integer>() {
+
+				@Override
+				public void accept(Integer value, TaskRunner taskRunner) {
+					Assert.assertEquals(5, value.intValue());
+					consumptions.incrementAndGet();
+				}
+				
+			}, this.taskRunner);
+			
+			otherInitializer.get().accept(5, this.taskRunner);
+			
+			Thread.sleep(60);
+			
+			Assert.assertEquals(1, consumptions.get());
+		}
+		finally {
+			timer.shutdown();
+			timer.lockThisThreadUntilHasBeenShutdown();
+		}
+	}
+}
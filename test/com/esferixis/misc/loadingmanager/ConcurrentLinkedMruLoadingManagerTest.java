@@ -0,0 +1,259 @@
+/**
+ * Copyright (c) 2018 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.misc.loadingmanager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.esferixis.misc.concurrency.tasking.implementations.ForkJoinPoolTaskRunner;
+import com.esferixis.misc.loader.DataLoadingErrorException;
+
+public class ConcurrentLinkedMruLoadingManagerTest {
+	private static final long CAPACITY = 25;
+	
+	private MockLoadingStrategy mockLoadingStrategy;
+	private SynchronizedLoadingStrategy loadingStrategy;
+	private ForkJoinPoolTaskRunner taskRunner;
+	private LoadingManager<MockLoadableElement> loadingManager;
+	
+	/**
+	 * @post Crea el administrador de carga
+	 */
+	@Before
+	public void prepare() {
+		this.mockLoadingStrategy = new MockLoadingStrategy();
+		this.loadingStrategy = new SynchronizedLoadingStrategy(this.mockLoadingStrategy);
+		this.taskRunner = new ForkJoinPoolTaskRunner(4);
+		this.loadingManager = new ConcurrentLinkedMruLoadingManager<MockLoadableElement>(this.loadingStrategy, 5, CAPACITY, this.taskRunner);
+	}
+	
+	/**
+	 * @post Apaga el ejecutador de tareas
+	 */
+	@After
+	public void finish() {
+		this.taskRunner.shutdown();
+		this.taskRunner.lockThisThreadUntilHasBeenShutdown();
+	}
+	
+	private boolean hasLoaded(MockLoadableElement... elements) {
+		synchronized ( this.mockLoadingStrategy ) {
+			return this.mockLoadingStrategy.hasLoaded(elements);
+		}
+	}
+	
+	private void testLoading(MockLoadableElement... elements) {
+		try {
+			this.loadingManager.loadElements(Arrays.asList(elements));
+		} catch (DataLoadingErrorException e) {
+			throw new RuntimeException(e);
+		}
+		
+		Assert.assertTrue(this.hasLoaded(elements));
+	}
+	
+	@Test
+	public void testElementsWithUnloading() {
+		MockLoadableElement element1 = new MockLoadableElement(new MockSource("Source 1", 5));
+		MockLoadableElement element2 = new MockLoadableElement(new MockSource("Source 2", 7));
+		MockLoadableElement element3 = new MockLoadableElement(new MockSource("Source 3", 3));
+		MockLoadableElement element4 = new MockLoadableElement(new MockSource("Source 4", 8));
+		MockLoadableElement element5 = new MockLoadableElement(new MockSource("Source 5", 6));
+		MockLoadableElement element6 = new MockLoadableElement(new MockSource("Source 6", 7));
+		MockLoadableElement element7 = new MockLoadableElement(new MockSource("Source 7", 5));
+		MockLoadableElement element8 = new MockLoadableElement(new MockSource("Source 8", 3));
+		MockLoadableElement element9 = new MockLoadableElement(new MockSource("Source 9", 2));
+		MockLoadableElement element10 = new MockLoadableElement(new MockSource("Source 10", 5));
+		
+		this.testLoading(element1, element2);
+		this.testLoading(element5, element8, element10);
+		this.testLoading(element3, element8, element4);
+		this.testLoading(element3, element10, element2, element7);
+		this.testLoading(element1, element4, element6, element9);
+		this.testLoading(element3, element5);
+		this.testLoading(element4, element6, element7);
+		
+		Assert.assertTrue(this.loadingStrategy.getMaxLoadedSpace() <= CAPACITY);
+	}
+	
+	@Test
+	public void testWithDependencies() {
+		final MockSource source1 = new MockSource("Source 1", 5);
+		final MockSource source1_2 = new MockSource("Source 1.2", 3, source1);
+		final MockSource source2 = new MockSource("Source 2", 8);
+		final MockSource source5 = new MockSource("Source 5", 2);
+		
+		MockLoadableElement element1 = new MockLoadableElement(source1);
+		MockLoadableElement element1_1 = new MockLoadableElement(new MockSource("Source 1.1", 7, source1));
+		MockLoadableElement element1_2 = new MockLoadableElement(source1_2);
+		MockLoadableElement element2 = new MockLoadableElement(source2);
+		MockLoadableElement element3 = new MockLoadableElement(new MockSource("Source 3", 6));
+		MockLoadableElement element1_2_1 = new MockLoadableElement(new MockSource("Source 1.2.1", 7, source1_2));
+		MockLoadableElement element2_1 = new MockLoadableElement(new MockSource("Source 2.1", 5, source2));
+		MockLoadableElement element4 = new MockLoadableElement(new MockSource("Source 4", 3));
+		MockLoadableElement element5 = new MockLoadableElement(source5);
+		MockLoadableElement element5_1 = new MockLoadableElement(new MockSource("Source 5.1", 5, source5));
+		
+		this.testLoading(element1, element1_1, element1_2, element1_2_1);
+		this.testLoading(element2, element3);
+		this.testLoading(element2, element2_1, element5, element5_1);
+		this.testLoading(element4, element5);
+		this.testLoading(element1_2_1, element3);
+		
+		Assert.assertTrue(this.loadingStrategy.getMaxLoadedSpace() <= CAPACITY);
+	}
+	
+	@Test
+	public void testOutOfSpaceKeepsLoadedElements() {
+		final MockSource source1 = new MockSource("Source 1", 5);
+		final MockSource source1_2 = new MockSource("Source 1.2", 3, source1);
+		final MockSource source2 = new MockSource("Source 2", 8);
+		final MockSource source5 = new MockSource("Source 5", 2);
+		
+		MockLoadableElement element3 = new MockLoadableElement(new MockSource("Source 3", 6));
+		MockLoadableElement element1_2_1 = new MockLoadableElement(new MockSource("Source 1.2.1", 7, source1_2));
+		MockLoadableElement element2_1 = new MockLoadableElement(new MockSource("Source 2.1", 5, source2));
+		MockLoadableElement element5_1 = new MockLoadableElement(new MockSource("Source 5.1", 5, source5));
+		
+		this.testLoading(element2_1, element5_1);
+		
+		try {
+			this.testLoading(element1_2_1, element3, element2_1);
+			Assert.fail("Expected OutOfSpace");
+		}
+		catch ( OutOfSpace e ) {
+			Assert.assertTrue(this.hasLoaded(element2_1, element5_1));
+		}
+	}
+	
+	@Test
+	public void testOutOfSpaceWithPinnedElementEvictsNothing() {
+		final MockSource baseSource = new MockSource("Base", 5);
+		
+		MockLoadableElement user = new MockLoadableElement(new MockSource("User", 3, baseSource));
+		MockLoadableElement other = new MockLoadableElement(new MockSource("Other", 6));
+		MockLoadableElement big = new MockLoadableElement(new MockSource("Big", 20));
+		
+		// La base queda fijada por su usuario, no se puede desalojar
+		this.testLoading(user);
+		this.testLoading(other);
+		
+		try {
+			this.testLoading(user, big);
+			Assert.fail("Expected OutOfSpace");
+		}
+		catch ( OutOfSpace e ) {
+			Assert.assertTrue(this.hasLoaded(user, other));
+		}
+	}
+	
+	@Test
+	public void testDeepDependencyChain() throws DataLoadingErrorException {
+		final LoadingManager<MockLoadableElement> loadingManager = new ConcurrentLinkedMruLoadingManager<MockLoadableElement>(this.loadingStrategy, 100000, 100000, this.taskRunner);
+		
+		MockSource eachSource = new MockSource("Chain 0", 1);
+		for ( int i = 1 ; i < 50000 ; i++ ) {
+			eachSource = new MockSource("Chain " + i, 1, eachSource);
+		}
+		
+		final MockLoadableElement element = new MockLoadableElement(eachSource);
+		
+		loadingManager.loadElements(element);
+		
+		Assert.assertTrue(this.hasLoaded(element, new MockLoadableElement(new MockSource("Chain 0", 1))));
+	}
+	
+	@Test
+	public void testConcurrentRequests() throws InterruptedException {
+		final MockSource[] baseSources = new MockSource[6];
+		for ( int i = 0 ; i < baseSources.length ; i++ ) {
+			baseSources[i] = new MockSource("Base " + i, 1 + ( i % 3 ));
+		}
+		
+		final List<MockLoadableElement> elements = new ArrayList<MockLoadableElement>();
+		for ( int i = 0 ; i < 24 ; i++ ) {
+			elements.add(new MockLoadableElement(new MockSource("Element " + i, 1 + ( i % 4 ), baseSources[i % baseSources.length])));
+		}
+		
+		final int threadsQuantity = 8;
+		final CountDownLatch startLatch = new CountDownLatch(1);
+		final CountDownLatch endLatch = new CountDownLatch(threadsQuantity);
+		final AtomicReference<Throwable> failure = new AtomicReference<Throwable>(null);
+		
+		for ( int i = 0 ; i < threadsQuantity ; i++ ) {
+			final Random random = new Random(i);
+			
+			new Thread() {
+				@Override
+				public void run() {
+					try {
+						startLatch.await();
+						
+						for ( int j = 0 ; j < 2000 ; j++ ) {
+							// Los primeros elementos son los más pedidos
+							final MockLoadableElement element = elements.get( random.nextInt( 1 + random.nextInt(elements.size()) ) );
+							
+							ConcurrentLinkedMruLoadingManagerTest.this.loadingManager.loadElements(element);
+						}
+					}
+					catch (Throwable e) {
+						failure.compareAndSet(null, e);
+					}
+					finally {
+						endLatch.countDown();
+					}
+				}
+			}.start();
+		}
+		
+		startLatch.countDown();
+		endLatch.await();
+		
+		if ( failure.get() != null ) {
+			throw new AssertionError(failure.get());
+		}
+		
+		Assert.assertTrue(this.loadingStrategy.getMaxLoadedSpace() <= CAPACITY);
+		
+		this.loadingManager.destroy();
+		Assert.assertTrue(this.loadingStrategy.getLoadedSpace() >= 0);
+	}
+}
@@ -0,0 +1,107 @@
+/**
+ * Copyright (c) 2018 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.misc.loadingmanager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ElementSlotTableTest {
+	@Test
+	public void testRandomOperations() {
+		final ElementSlotTable<Integer> slotTable = new ElementSlotTable<Integer>();
+		final Map<Integer, Integer> slotsByElement = new HashMap<Integer, Integer>();
+		final Random random = new Random(42);
+		
+		for ( int i = 0 ; i < 200000 ; i++ ) {
+			// Claves con colisiones frecuentes
+			final Integer element = random.nextInt(4096) * 64;
+			final Integer expectedSlot = slotsByElement.get(element);
+			final int slot = slotTable.find(element);
+			
+			if ( expectedSlot == null ) {
+				Assert.assertEquals(ElementSlotTable.NO_SLOT, slot);
+				
+				final int newSlot = slotTable.add(element, element);
+				slotsByElement.put(element, newSlot);
+				
+				if ( random.nextBoolean() ) {
+					slotTable.linkFirst(newSlot);
+				}
+			}
+			else {
+				Assert.assertEquals(expectedSlot.intValue(), slot);
+				Assert.assertEquals(element, slotTable.getElement(slot));
+				Assert.assertEquals(element.longValue(), slotTable.getOccupiedSpace(slot));
+				
+				slotTable.remove(slot);
+				slotsByElement.remove(element);
+			}
+			
+			Assert.assertEquals(slotsByElement.size(), slotTable.size());
+		}
+	}
+	
+	@Test
+	public void testLinkedList() {
+		final ElementSlotTable<String> slotTable = new ElementSlotTable<String>();
+		final List<Integer> slots = new ArrayList<Integer>();
+		
+		for ( int i = 0 ; i < 4 ; i++ ) {
+			final int slot = slotTable.add("Element " + i, 1);
+			slotTable.linkFirst(slot);
+			slots.add(slot);
+		}
+		
+		slotTable.unlink(slots.get(1));
+		Assert.assertFalse(slotTable.isLinked(slots.get(1)));
+		slotTable.linkLast(slots.get(1));
+		
+		final List<String> order = new ArrayList<String>();
+		for ( int slot = slotTable.getFirstSlot() ; slot != ElementSlotTable.NO_SLOT ; slot = slotTable.getAfterSlot(slot) ) {
+			order.add(slotTable.getElement(slot));
+		}
+		
+		Assert.assertEquals("[Element 3, Element 2, Element 0, Element 1]", order.toString());
+		
+		slotTable.remove(slots.get(1));
+		Assert.assertEquals(slots.get(0).intValue(), slotTable.getLastSlot());
+		
+		// Reusa la ranura liberada
+		Assert.assertEquals(slots.get(1).intValue(), slotTable.add("Element 4", 1));
+	}
+}
@@ -40,10 +40,12 @@ import com.esferixis.misc.loadingmanager.LinkedMruLoadingManager;
 import com.esferixis.misc.loadingmanager.LoadingManager;
 import com.esferixis.misc.loadingmanager.OutOfSpace;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 
 import org.junit.Assert;
 
@@ -201,4 +203,280 @@ public class LoadingManagerTest {
 			Assert.assertTrue(this.loadingStrategy.hasLoaded(element2_1, element5_1));
 		}
 	}
+	
+	@Test
+	public void testDeepSharedDependencies() {
+		final LoadingManager<MockLoadableElement> loadingManager = new LinkedMruLoadingManager<MockLoadableElement>(this.loadingStrategy, 20000, 100000);
+		
+		// Cadena profunda, y cada elemento comparte la raíz de la cadena
+		final MockSource rootSource = new MockSource("Root", 1);
+		final List<MockLoadableElement> elements = new ArrayList<MockLoadableElement>();
+		
+		MockSource previousSource = rootSource;
+		for ( int i = 0 ; i < 10000 ; i++ ) {
+			final MockSource eachSource = new MockSource("Chain " + i, 1, previousSource, rootSource);
+			elements.add(new MockLoadableElement(eachSource));
+			previousSource = eachSource;
+		}
+		
+		Collections.reverse(elements);
+		
+		try {
+			loadingManager.loadElements(elements);
+		} catch (DataLoadingErrorException e) {
+			throw new RuntimeException(e);
+		}
+		
+		Assert.assertTrue(this.loadingStrategy.hasLoaded(elements));
+		Assert.assertTrue(this.loadingStrategy.hasLoaded(new MockLoadableElement(rootSource)));
+	}
+	
+	private void prefetch(MockLoadableElement... elements) {
+		try {
+			this.garbageCollectedLoader.prefetchElements(elements);
+		} catch (DataLoadingErrorException e) {
+			throw new RuntimeException(e);
+		}
+	}
+	
+	@Test
+	public void testPrefetchEvictedFirst() {
+		MockLoadableElement element1 = new MockLoadableElement(new MockSource("Source 1", 5));
+		MockLoadableElement element2 = new MockLoadableElement(new MockSource("Source 2", 7));
+		MockLoadableElement element3 = new MockLoadableElement(new MockSource("Source 3", 3));
+		MockLoadableElement element4 = new MockLoadableElement(new MockSource("Source 4", 8));
+		MockLoadableElement element5 = new MockLoadableElement(new MockSource("Source 5", 6));
+		MockLoadableElement element6 = new MockLoadableElement(new MockSource("Source 6", 7));
+		
+		this.testLoading(element1, element2);
+		
+		this.prefetch(element3, element4);
+		Assert.assertTrue(this.loadingStrategy.hasLoaded(element1, element2, element3, element4));
+		
+		// Sólo desaloja precargados
+		this.prefetch(element5);
+		Assert.assertTrue(this.loadingStrategy.hasLoaded(element1, element2, element5));
+		
+		// Los precargados se desalojan antes que los pedidos
+		this.testLoading(element6);
+		Assert.assertTrue(this.loadingStrategy.hasLoaded(element1, element2));
+		
+		// Una sugerencia posterior no desaloja a una anterior de la misma llamada
+		this.prepare();
+		
+		final LinkedMruLoadingManager<MockLoadableElement> loadingManager = (LinkedMruLoadingManager<MockLoadableElement>) this.garbageCollectedLoader;
+		
+		MockLoadableElement elementX = new MockLoadableElement(new MockSource("Source X", 5));
+		MockLoadableElement elementA = new MockLoadableElement(new MockSource("Source A", 10));
+		MockLoadableElement elementB = new MockLoadableElement(new MockSource("Source B", 10));
+		MockLoadableElement elementC = new MockLoadableElement(new MockSource("Source C", 10));
+		
+		this.testLoading(elementX);
+		this.prefetch(elementA, elementB, elementC);
+		
+		Assert.assertTrue(this.loadingStrategy.hasLoaded(elementX, elementA, elementB));
+		Assert.assertFalse(this.loadingStrategy.hasLoaded(elementC));
+		Assert.assertEquals(0, loadingManager.getStatistics().getUnloadedSpace());
+		Assert.assertEquals(0, loadingManager.getStatistics().getEvictions());
+	}
+	
+	@Test
+	public void testPrefetchDoesNotEvictRequested() {
+		final MockSource source1 = new MockSource("Source 1", 5);
+		
+		MockLoadableElement element1 = new MockLoadableElement(source1);
+		MockLoadableElement element2 = new MockLoadableElement(new MockSource("Source 2", 7));
+		MockLoadableElement element3 = new MockLoadableElement(new MockSource("Source 3", 3));
+		MockLoadableElement element4 = new MockLoadableElement(new MockSource("Source 4", 8));
+		MockLoadableElement element5 = new MockLoadableElement(new MockSource("Source 5", 6));
+		MockLoadableElement element1_1 = new MockLoadableElement(new MockSource("Source 1.1", 1, source1));
+		
+		this.testLoading(element1, element2, element3, element4);
+		
+		this.prefetch(element5);
+		Assert.assertTrue(this.loadingStrategy.hasLoaded(element1, element2, element3, element4));
+		Assert.assertFalse(this.loadingStrategy.hasLoaded(element5));
+		
+		// Entra en el espacio libre, con su dependencia ya cargada
+		this.prefetch(element1_1);
+		Assert.assertTrue(this.loadingStrategy.hasLoaded(element1, element2, element3, element4, element1_1));
+	}
+	
+	@Test
+	public void testOutOfSpaceWithoutEvicting() {
+		MockLoadableElement element1 = new MockLoadableElement(new MockSource("Source 1", 5));
+		MockLoadableElement element2 = new MockLoadableElement(new MockSource("Source 2", 7));
+		MockLoadableElement element3 = new MockLoadableElement(new MockSource("Source 3", 3));
+		MockLoadableElement element4 = new MockLoadableElement(new MockSource("Source 4", 8));
+		MockLoadableElement element5 = new MockLoadableElement(new MockSource("Source 5", 10));
+		MockLoadableElement element6 = new MockLoadableElement(new MockSource("Source 6", 9));
+		
+		this.testLoading(element1, element2, element3, element4);
+		
+		try {
+			this.testLoading(element5, element6, element2);
+			Assert.fail("Expected OutOfSpace");
+		}
+		catch ( OutOfSpace e ) {
+			// El plan no entra, no se descargó nada
+			Assert.assertTrue(this.loadingStrategy.hasLoaded(element1, element2, element3, element4));
+			Assert.assertFalse(this.loadingStrategy.hasLoaded(element5));
+			Assert.assertFalse(this.loadingStrategy.hasLoaded(element6));
+		}
+	}
+	
+	@Test
+	public void testMaxElements() {
+		final List<MockLoadableElement> elements = new ArrayList<MockLoadableElement>();
+		
+		for ( int i = 0 ; i < 6 ; i++ ) {
+			final MockLoadableElement element = new MockLoadableElement(new MockSource("Source " + i, 1));
+			elements.add(element);
+			this.testLoading(element);
+		}
+		
+		// Se desaloja el menos reciente aunque sobre espacio
+		Assert.assertFalse(this.loadingStrategy.hasLoaded(elements.get(0)));
+		Assert.assertTrue(this.loadingStrategy.hasLoaded(elements.subList(1, 6)));
+	}
+	
+	@Test
+	public void testStatistics() {
+		final LinkedMruLoadingManager<MockLoadableElement> loadingManager = (LinkedMruLoadingManager<MockLoadableElement>) this.garbageCollectedLoader;
+		final List<String> events = new ArrayList<String>();
+		
+		loadingManager.addListener(new LoadingManagerListener<MockLoadableElement>() {
+
+			@Override
+			public void notifyHit(MockLoadableElement element) {
+				events.add("hit " + element.getMockSource().getName());
+			}
+
+			@Override
+			public void notifyLoaded(MockLoadableElement element, long occupiedSpace, long loadingNanos) {
+				events.add("loaded " + element.getMockSource().getName());
+			}
+
+			@Override
+			public void notifyUnloaded(MockLoadableElement element, long occupiedSpace, EvictionReason reason) {
+				events.add("unloaded " + element.getMockSource().getName() + " " + reason);
+			}
+
+			@Override
+			public void notifyOutOfSpace(Collection<MockLoadableElement> elements) {
+				events.add("outOfSpace");
+			}
+			
+		});
+		
+		MockLoadableElement element1 = new MockLoadableElement(new MockSource("Source 1", 10));
+		MockLoadableElement element2 = new MockLoadableElement(new MockSource("Source 2", 10));
+		MockLoadableElement element3 = new MockLoadableElement(new MockSource("Source 3", 10));
+		MockLoadableElement element4 = new MockLoadableElement(new MockSource("Source 4", 30));
+		
+		this.testLoading(element1, element2);
+		this.testLoading(element1);
+		this.testLoading(element3);
+		
+		try {
+			this.testLoading(element4);
+			Assert.fail("Expected OutOfSpace");
+		}
+		catch (OutOfSpace e) {
+			
+		}
+		
+		final LoadingManagerStatistics statistics = loadingManager.getStatistics();
+		
+		Assert.assertEquals(1, statistics.getHits());
+		Assert.assertEquals(3, statistics.getMisses());
+		Assert.assertEquals(30, statistics.getLoadedSpace());
+		Assert.assertEquals(10, statistics.getUnloadedSpace());
+		Assert.assertEquals(1, statistics.getEvictions(EvictionReason.SPACE));
+		Assert.assertEquals(1, statistics.getEvictions());
+		Assert.assertEquals(1, statistics.getOutOfSpaceFailures());
+		Assert.assertEquals(20, statistics.getOccupiedSpace());
+		Assert.assertEquals(2, statistics.getElementsQuantity());
+		Assert.assertEquals(0.8d, statistics.getOccupancy(), 0.0001d);
+		
+		Assert.assertEquals(Arrays.asList("loaded Source 1", "loaded Source 2", "hit Source 1", "unloaded Source 2 SPACE", "loaded Source 3", "outOfSpace"), events);
+		
+		// Las precargas no son fallos
+		MockLoadableElement element5 = new MockLoadableElement(new MockSource("Source 5", 5));
+		
+		this.prefetch(element5);
+		
+		final LoadingManagerStatistics prefetchStatistics = loadingManager.getStatistics();
+		
+		Assert.assertEquals(3, prefetchStatistics.getMisses());
+		Assert.assertEquals(1, prefetchStatistics.getPrefetchLoads());
+		Assert.assertEquals(4, prefetchStatistics.getLoads());
+		Assert.assertEquals(35, prefetchStatistics.getLoadedSpace());
+	}
+	
+	@Test
+	public void testListenerFailureDoesNotCorruptState() {
+		final LinkedMruLoadingManager<MockLoadableElement> loadingManager = (LinkedMruLoadingManager<MockLoadableElement>) this.garbageCollectedLoader;
+		final List<Throwable> listenerFailures = new ArrayList<Throwable>();
+		
+		loadingManager.addListener(new LoadingManagerListener<MockLoadableElement>() {
+
+			@Override
+			public void notifyHit(MockLoadableElement element) {
+				throw new IllegalStateException("hit");
+			}
+
+			@Override
+			public void notifyLoaded(MockLoadableElement element, long occupiedSpace, long loadingNanos) {
+				throw new IllegalStateException("loaded");
+			}
+
+			@Override
+			public void notifyUnloaded(MockLoadableElement element, long occupiedSpace, EvictionReason reason) {
+				throw new IllegalStateException("unloaded");
+			}
+
+			@Override
+			public void notifyOutOfSpace(Collection<MockLoadableElement> elements) {
+				throw new IllegalStateException("outOfSpace");
+			}
+			
+		});
+		
+		final Thread thread = Thread.currentThread();
+		final Thread.UncaughtExceptionHandler oldHandler = thread.getUncaughtExceptionHandler();
+		
+		thread.setUncaughtExceptionHandler(new Thread.UncaughtExceptionHandler() {
+
+			@Override
+			public void uncaughtException(Thread t, Throwable e) {
+				listenerFailures.add(e);
+			}
+			
+		});
+		
+		try {
+			MockLoadableElement element1 = new MockLoadableElement(new MockSource("Source 1", 10));
+			MockLoadableElement element2 = new MockLoadableElement(new MockSource("Source 2", 10));
+			MockLoadableElement element3 = new MockLoadableElement(new MockSource("Source 3", 10));
+			
+			this.testLoading(element1, element2);
+			this.testLoading(element1);
+			
+			// Los elementos quedaron registrados, así que se pueden desalojar
+			this.testLoading(element3);
+			Assert.assertTrue(this.loadingStrategy.hasLoaded(element1, element3));
+			Assert.assertFalse(this.loadingStrategy.hasLoaded(element2));
+			
+			final LoadingManagerStatistics statistics = loadingManager.getStatistics();
+			
+			Assert.assertEquals(20, statistics.getOccupiedSpace());
+			Assert.assertEquals(2, statistics.getElementsQuantity());
+		}
+		finally {
+			thread.setUncaughtExceptionHandler(oldHandler);
+		}
+		
+		Assert.assertEquals(5, listenerFailures.size());
+	}
 }
@@ -0,0 +1,217 @@
+/**
+ * Copyright (c) 2018 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.misc.loadingmanager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.esferixis.misc.concurrency.tasking.Task;
+import com.esferixis.misc.concurrency.tasking.TaskRunner;
+import com.esferixis.misc.concurrency.tasking.implementations.ForkJoinPoolTaskRunner;
+import com.esferixis.misc.loader.DataLoadingErrorException;
+
+public class ParallelLinkedMruLoadingManagerTest {
+	private static final int MAX_PARALLEL_LOADS = 3;
+	
+	private MockLoadingStrategy mockLoadingStrategy;
+	private SynchronizedLoadingStrategy loadingStrategy;
+	private ForkJoinPoolTaskRunner taskRunner;
+	private LinkedMruLoadingManager<MockLoadableElement> loadingManager;
+	
+	/**
+	 * @post Crea el administrador de carga
+	 */
+	@Before
+	public void prepare() {
+		this.mockLoadingStrategy = new MockLoadingStrategy();
+		this.loadingStrategy = new SynchronizedLoadingStrategy(this.mockLoadingStrategy, 2);
+		this.taskRunner = new ForkJoinPoolTaskRunner(8);
+		this.loadingManager = new LinkedMruLoadingManager<MockLoadableElement>(this.loadingStrategy, 100, 1000, this.taskRunner, MAX_PARALLEL_LOADS);
+	}
+	
+	/**
+	 * @post Apaga el ejecutador de tareas
+	 */
+	@After
+	public void finish() {
+		this.taskRunner.shutdown();
+		this.taskRunner.lockThisThreadUntilHasBeenShutdown();
+	}
+	
+	@Test
+	public void testDependencyGraph() throws DataLoadingErrorException {
+		// Dos capas de hojas independientes, una raíz que depende de todo
+		final List<MockSource> leafSources = new ArrayList<MockSource>();
+		for ( int i = 0 ; i < 12 ; i++ ) {
+			leafSources.add(new MockSource("Leaf " + i, 5));
+		}
+		
+		final List<MockSource> middleSources = new ArrayList<MockSource>();
+		for ( int i = 0 ; i < 6 ; i++ ) {
+			middleSources.add(new MockSource("Middle " + i, 5, leafSources.get(2 * i), leafSources.get(2 * i + 1)));
+		}
+		
+		final MockLoadableElement root = new MockLoadableElement(new MockSource("Root", 5, middleSources));
+		
+		this.loadingManager.loadElements(root);
+		
+		synchronized ( this.mockLoadingStrategy ) {
+			Assert.assertTrue(this.mockLoadingStrategy.hasLoaded(root));
+			
+			for ( MockSource eachSource : leafSources ) {
+				Assert.assertTrue(this.mockLoadingStrategy.hasLoaded(new MockLoadableElement(eachSource)));
+			}
+		}
+		
+		Assert.assertTrue(this.loadingStrategy.getMaxRunningLoads() > 1);
+		Assert.assertTrue(this.loadingStrategy.getMaxRunningLoads() <= MAX_PARALLEL_LOADS);
+		
+		final LoadingManagerStatistics statistics = this.loadingManager.getStatistics();
+		Assert.assertEquals(19, statistics.getElementsQuantity());
+		Assert.assertEquals(19 * 5, statistics.getOccupiedSpace());
+		Assert.assertEquals(0, statistics.getHits());
+		
+		// Sólo la raíz es desalojable, el resto tiene usuarios cargados
+		this.loadingManager.loadElements(new MockLoadableElement(new MockSource("Other", 1000 - 19 * 5 + 5)));
+		
+		synchronized ( this.mockLoadingStrategy ) {
+			Assert.assertFalse(this.mockLoadingStrategy.hasLoaded(root));
+		}
+		
+		this.loadingManager.destroy();
+		Assert.assertEquals(0, this.loadingManager.getStatistics().getElementsQuantity());
+	}
+	
+	@Test
+	public void testLoadsAreNotifiedOnRequestingThread() throws DataLoadingErrorException {
+		final List<Thread> notifyingThreads = new ArrayList<Thread>();
+		
+		this.loadingManager.addListener(new LoadingManagerListener<MockLoadableElement>() {
+
+			@Override
+			public void notifyHit(MockLoadableElement element) {
+				
+			}
+
+			@Override
+			public void notifyLoaded(MockLoadableElement element, long occupiedSpace, long loadingNanos) {
+				synchronized ( notifyingThreads ) {
+					notifyingThreads.add(Thread.currentThread());
+				}
+			}
+
+			@Override
+			public void notifyUnloaded(MockLoadableElement element, long occupiedSpace, EvictionReason reason) {
+				
+			}
+
+			@Override
+			public void notifyOutOfSpace(Collection<MockLoadableElement> elements) {
+				
+			}
+			
+		});
+		
+		final List<MockSource> leafSources = new ArrayList<MockSource>();
+		for ( int i = 0 ; i < 8 ; i++ ) {
+			leafSources.add(new MockSource("Leaf " + i, 5));
+		}
+		
+		this.loadingManager.loadElements(new MockLoadableElement(new MockSource("Root", 5, leafSources)));
+		
+		synchronized ( notifyingThreads ) {
+			Assert.assertEquals(9, notifyingThreads.size());
+			
+			for ( Thread eachThread : notifyingThreads ) {
+				Assert.assertSame(Thread.currentThread(), eachThread);
+			}
+		}
+		
+		// La carga se mide en la tarea, que demora
+		Assert.assertTrue(this.loadingManager.getStatistics().getMeanLoadingNanos() >= 2000000.0d);
+	}
+	
+	@Test
+	public void testRejectedLoadWaitsForRunningLoads() {
+		final AtomicInteger acceptedSubmissions = new AtomicInteger(MAX_PARALLEL_LOADS);
+		
+		// Acepta una cantidad limitada de cargas, después rechaza
+		final TaskRunner rejectingTaskRunner = new TaskRunner() {
+
+			@Override
+			protected void run_checked(Task task) {
+				if ( acceptedSubmissions.decrementAndGet() < 0 ) {
+					throw new RejectedExecutionException();
+				}
+				
+				ParallelLinkedMruLoadingManagerTest.this.taskRunner.run(task);
+			}
+			
+		};
+		
+		final LinkedMruLoadingManager<MockLoadableElement> loadingManager = new LinkedMruLoadingManager<MockLoadableElement>(this.loadingStrategy, 100, 1000, rejectingTaskRunner, MAX_PARALLEL_LOADS);
+		
+		final List<MockSource> leafSources = new ArrayList<MockSource>();
+		for ( int i = 0 ; i < 8 ; i++ ) {
+			leafSources.add(new MockSource("Leaf " + i, 5));
+		}
+		
+		try {
+			loadingManager.loadElements(new MockLoadableElement(new MockSource("Root", 5, leafSources)));
+			Assert.fail("Expected RejectedExecutionException");
+		}
+		catch (RejectedExecutionException e) {
+			
+		}
+		catch (DataLoadingErrorException e) {
+			throw new RuntimeException(e);
+		}
+		
+		// Las cargas aceptadas terminaron y quedaron registradas
+		final LoadingManagerStatistics statistics = loadingManager.getStatistics();
+		
+		Assert.assertEquals(MAX_PARALLEL_LOADS, statistics.getElementsQuantity());
+		Assert.assertEquals(MAX_PARALLEL_LOADS * 5, statistics.getOccupiedSpace());
+		Assert.assertEquals(MAX_PARALLEL_LOADS * 5, this.loadingStrategy.getLoadedSpace());
+		
+		loadingManager.destroy();
+		Assert.assertEquals(0, this.loadingStrategy.getLoadedSpace());
+	}
+}
@@ -0,0 +1,329 @@
+/**
+ * Copyright (c) 2018 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.misc.loadingmanager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.esferixis.misc.loader.DataLoadingErrorException;
+import com.esferixis.misc.loadingmanager.eviction.ArcEvictionPolicy;
+import com.esferixis.misc.loadingmanager.eviction.EvictionPolicy;
+import com.esferixis.misc.loadingmanager.eviction.LruEvictionPolicy;
+import com.esferixis.misc.loadingmanager.eviction.TwoQueueEvictionPolicy;
+import com.esferixis.misc.loadingmanager.eviction.WTinyLfuEvictionPolicy;
+
+public class PolicyLoadingManagerTest {
+	private static final long CAPACITY = 20;
+	
+	/**
+	 * Estrategia de carga sin dependencias, que lleva los usuarios
+	 * de cada elemento cargado con UserCount
+	 */
+	private static final class UserCountLoadingStrategy implements LoadingStrategy<MockLoadableElement> {
+		private final Map<MockLoadableElement, UserCount> userCountPerLoadedElement = new HashMap<MockLoadableElement, UserCount>();
+		
+		/**
+		 * @pre El elemento tiene que estar cargado
+		 * @post Devuelve la cuenta de usuarios del elemento especificado
+		 */
+		public UserCount getUserCount(MockLoadableElement element) {
+			return this.userCountPerLoadedElement.get(element);
+		}
+		
+		@Override
+		public long getOccupiedSpace(MockLoadableElement element) {
+			return element.getMockSource().getSize();
+		}
+
+		@Override
+		public Collection<MockLoadableElement> getDependencies(MockLoadableElement dataElement) {
+			return Collections.emptyList();
+		}
+
+		@Override
+		public void load(MockLoadableElement element) {
+			this.userCountPerLoadedElement.put(element, new UserCount());
+		}
+
+		@Override
+		public void unload(MockLoadableElement element) {
+			final UserCount userCount = this.userCountPerLoadedElement.remove(element);
+			
+			if ( userCount.getUserCount() != 0 ) {
+				throw new IllegalStateException("Element " + element + " has loaded users");
+			}
+		}
+
+		@Override
+		public boolean isLoaded(MockLoadableElement element) {
+			return this.userCountPerLoadedElement.containsKey(element);
+		}
+
+		@Override
+		public void attachObserver(MockLoadableElement element, Observer observer) {
+			this.userCountPerLoadedElement.get(element).addObserver(observer);
+		}
+
+		@Override
+		public void detachObserver(MockLoadableElement element, Observer observer) {
+			this.userCountPerLoadedElement.get(element).removeObserver(observer);
+		}
+	}
+	
+	/**
+	 * @post Crea las políticas a probar
+	 */
+	private static List<EvictionPolicy<MockLoadableElement>> createPolicies() {
+		final List<EvictionPolicy<MockLoadableElement>> policies = new ArrayList<EvictionPolicy<MockLoadableElement>>();
+		
+		policies.add(new LruEvictionPolicy<MockLoadableElement>());
+		policies.add(new TwoQueueEvictionPolicy<MockLoadableElement>(CAPACITY));
+		policies.add(new ArcEvictionPolicy<MockLoadableElement>(CAPACITY));
+		policies.add(new WTinyLfuEvictionPolicy<MockLoadableElement>(CAPACITY, 64));
+		
+		return policies;
+	}
+	
+	private static void load(LoadingManager<MockLoadableElement> loadingManager, MockLoadableElement... elements) {
+		try {
+			loadingManager.loadElements(elements);
+		} catch (DataLoadingErrorException e) {
+			throw new RuntimeException(e);
+		}
+	}
+	
+	/**
+	 * @post Carga el conjunto caliente dos veces y luego barre elementos fríos nuevos,
+	 * 		 durante la cantidad de rondas especificada.
+	 * 		 Devuelve la cantidad de veces que hubo que cargar un elemento caliente
+	 */
+	private static int countHotMisses(EvictionPolicy<MockLoadableElement> policy, int rounds) {
+		final MockLoadingStrategy loadingStrategy = new MockLoadingStrategy();
+		final LoadingManager<MockLoadableElement> loadingManager = new PolicyLoadingManager<MockLoadableElement>(loadingStrategy, CAPACITY, CAPACITY, policy);
+		
+		final MockLoadableElement[] hotElements = new MockLoadableElement[4];
+		for ( int i = 0 ; i < hotElements.length ; i++ ) {
+			hotElements[i] = new MockLoadableElement(new MockSource("Hot " + i, 1));
+		}
+		
+		int hotMisses = 0;
+		int coldIndex = 0;
+		
+		for ( int round = 0 ; round < rounds ; round++ ) {
+			for ( MockLoadableElement eachHotElement : hotElements ) {
+				if ( !loadingStrategy.isLoaded(eachHotElement) ) {
+					hotMisses++;
+				}
+				
+				load(loadingManager, eachHotElement);
+				load(loadingManager, eachHotElement);
+				
+				Assert.assertTrue(loadingStrategy.isLoaded(eachHotElement));
+			}
+			
+			for ( int i = 0 ; i < 24 ; i++ ) {
+				load(loadingManager, new MockLoadableElement(new MockSource("Cold " + coldIndex++, 1)));
+			}
+		}
+		
+		loadingManager.destroy();
+		
+		return hotMisses;
+	}
+	
+	@Test
+	public void testWithDependencies() {
+		for ( EvictionPolicy<MockLoadableElement> eachPolicy : createPolicies() ) {
+			final MockLoadingStrategy loadingStrategy = new MockLoadingStrategy();
+			final LoadingManager<MockLoadableElement> loadingManager = new PolicyLoadingManager<MockLoadableElement>(loadingStrategy, 5, 25, eachPolicy);
+			
+			final MockSource source1 = new MockSource("Source 1", 5);
+			final MockSource source1_2 = new MockSource("Source 1.2", 3, source1);
+			final MockSource source2 = new MockSource("Source 2", 8);
+			final MockSource source5 = new MockSource("Source 5", 2);
+			
+			MockLoadableElement element1 = new MockLoadableElement(source1);
+			MockLoadableElement element1_1 = new MockLoadableElement(new MockSource("Source 1.1", 7, source1));
+			MockLoadableElement element1_2 = new MockLoadableElement(source1_2);
+			MockLoadableElement element2 = new MockLoadableElement(source2);
+			MockLoadableElement element3 = new MockLoadableElement(new MockSource("Source 3", 6));
+			MockLoadableElement element1_2_1 = new MockLoadableElement(new MockSource("Source 1.2.1", 7, source1_2));
+			MockLoadableElement element2_1 = new MockLoadableElement(new MockSource("Source 2.1", 5, source2));
+			MockLoadableElement element4 = new MockLoadableElement(new MockSource("Source 4", 3));
+			MockLoadableElement element5 = new MockLoadableElement(source5);
+			MockLoadableElement element5_1 = new MockLoadableElement(new MockSource("Source 5.1", 5, source5));
+			
+			final MockLoadableElement[][] requests = new MockLoadableElement[][] {
+				{ element1, element1_1, element1_2, element1_2_1 },
+				{ element2, element3 },
+				{ element2, element2_1, element5, element5_1 },
+				{ element4, element5 },
+				{ element1_2_1, element3 },
+				{ element2_1, element5_1 }
+			};
+			
+			for ( MockLoadableElement[] eachRequest : requests ) {
+				load(loadingManager, eachRequest);
+				Assert.assertTrue(eachPolicy.getClass().getSimpleName(), loadingStrategy.hasLoaded(eachRequest));
+			}
+			
+			loadingManager.destroy();
+			Assert.assertFalse(loadingStrategy.hasLoaded(element1) || loadingStrategy.hasLoaded(element2_1));
+		}
+	}
+	
+	@Test
+	public void testOutOfSpaceBeforeEvicting() {
+		for ( EvictionPolicy<MockLoadableElement> eachPolicy : createPolicies() ) {
+			final MockLoadingStrategy loadingStrategy = new MockLoadingStrategy();
+			final LoadingManager<MockLoadableElement> loadingManager = new PolicyLoadingManager<MockLoadableElement>(loadingStrategy, 5, 25, eachPolicy);
+			
+			final MockLoadableElement element1 = new MockLoadableElement(new MockSource("Source 1", 10));
+			final MockLoadableElement element2 = new MockLoadableElement(new MockSource("Source 2", 10));
+			final MockLoadableElement element3 = new MockLoadableElement(new MockSource("Source 3", 20));
+			
+			load(loadingManager, element1);
+			
+			try {
+				load(loadingManager, element2, element3);
+				Assert.fail("Expected OutOfSpace");
+			}
+			catch (OutOfSpace e) {
+				Assert.assertTrue(loadingStrategy.hasLoaded(element1));
+			}
+		}
+	}
+	
+	@Test
+	public void testPinnedElementIsNotEvicted() {
+		for ( EvictionPolicy<MockLoadableElement> eachPolicy : createPolicies() ) {
+			final String policyName = eachPolicy.getClass().getSimpleName();
+			
+			final UserCountLoadingStrategy loadingStrategy = new UserCountLoadingStrategy();
+			final LoadingManager<MockLoadableElement> loadingManager = new PolicyLoadingManager<MockLoadableElement>(loadingStrategy, CAPACITY, CAPACITY, eachPolicy);
+			
+			final MockLoadableElement pinnedElement = new MockLoadableElement(new MockSource("Pinned", 5));
+			
+			load(loadingManager, pinnedElement);
+			loadingStrategy.getUserCount(pinnedElement).incrementUserCount();
+			
+			// Cada carga tiene que desalojar, y la víctima más vieja es el elemento fijado
+			for ( int i = 0 ; i < 30 ; i++ ) {
+				load(loadingManager, new MockLoadableElement(new MockSource("Pinned scan " + i, 5)));
+				
+				Assert.assertTrue(policyName, loadingStrategy.isLoaded(pinnedElement));
+			}
+			
+			// Al liberarlo vuelve a ser elegible
+			loadingStrategy.getUserCount(pinnedElement).decrementUserCount();
+			
+			for ( int i = 0 ; ( i < 30 ) && loadingStrategy.isLoaded(pinnedElement) ; i++ ) {
+				load(loadingManager, new MockLoadableElement(new MockSource("Unpinned scan " + i, 5)));
+			}
+			
+			Assert.assertFalse(policyName, loadingStrategy.isLoaded(pinnedElement));
+			
+			loadingManager.destroy();
+		}
+	}
+	
+	@Test
+	public void testOutOfSpaceWithPinnedElementEvictsNothing() {
+		for ( EvictionPolicy<MockLoadableElement> eachPolicy : createPolicies() ) {
+			final String policyName = eachPolicy.getClass().getSimpleName();
+			
+			final UserCountLoadingStrategy loadingStrategy = new UserCountLoadingStrategy();
+			final LoadingManager<MockLoadableElement> loadingManager = new PolicyLoadingManager<MockLoadableElement>(loadingStrategy, CAPACITY, CAPACITY, eachPolicy);
+			
+			final MockLoadableElement pinnedElement = new MockLoadableElement(new MockSource("Pinned", 10));
+			final MockLoadableElement element1 = new MockLoadableElement(new MockSource("Source 1", 5));
+			final MockLoadableElement element2 = new MockLoadableElement(new MockSource("Source 2", 5));
+			final MockLoadableElement element3 = new MockLoadableElement(new MockSource("Source 3", 10));
+			
+			load(loadingManager, pinnedElement);
+			loadingStrategy.getUserCount(pinnedElement).incrementUserCount();
+			
+			load(loadingManager, element1);
+			
+			// Desalojando todo lo que no está fijado sólo quedan 10
+			try {
+				load(loadingManager, element2, element3);
+				Assert.fail("Expected OutOfSpace");
+			}
+			catch (OutOfSpace e) {
+				Assert.assertTrue(policyName, loadingStrategy.isLoaded(element1));
+				Assert.assertFalse(policyName, loadingStrategy.isLoaded(element2));
+				Assert.assertFalse(policyName, loadingStrategy.isLoaded(element3));
+			}
+			
+			loadingStrategy.getUserCount(pinnedElement).decrementUserCount();
+			loadingManager.destroy();
+		}
+	}
+	
+	@Test
+	public void testDeepDependencyChain() {
+		final MockLoadingStrategy loadingStrategy = new MockLoadingStrategy();
+		final LoadingManager<MockLoadableElement> loadingManager = new PolicyLoadingManager<MockLoadableElement>(loadingStrategy, 100000, 100000, new LruEvictionPolicy<MockLoadableElement>());
+		
+		MockSource eachSource = new MockSource("Chain 0", 1);
+		for ( int i = 1 ; i < 50000 ; i++ ) {
+			eachSource = new MockSource("Chain " + i, 1, eachSource);
+		}
+		
+		final MockLoadableElement element = new MockLoadableElement(eachSource);
+		
+		load(loadingManager, element);
+		
+		Assert.assertTrue(loadingStrategy.hasLoaded(element));
+		Assert.assertTrue(loadingStrategy.hasLoaded(new MockLoadableElement(new MockSource("Chain 0", 1))));
+	}
+	
+	@Test
+	public void testScanResistance() {
+		final int lruHotMisses = countHotMisses(new LruEvictionPolicy<MockLoadableElement>(), 20);
+		
+		// LRU pierde el conjunto caliente en cada barrido
+		Assert.assertEquals(4 * 20, lruHotMisses);
+		
+		Assert.assertTrue(countHotMisses(new TwoQueueEvictionPolicy<MockLoadableElement>(CAPACITY), 20) <= 8);
+		Assert.assertTrue(countHotMisses(new ArcEvictionPolicy<MockLoadableElement>(CAPACITY), 20) <= 8);
+		Assert.assertTrue(countHotMisses(new WTinyLfuEvictionPolicy<MockLoadableElement>(CAPACITY, 64), 20) <= 8);
+	}
+}
@@ -0,0 +1,132 @@
+/**
+ * Copyright (c) 2018 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.misc.loadingmanager;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.esferixis.misc.concurrency.tasking.Task;
+import com.esferixis.misc.concurrency.tasking.TaskRunner;
+import com.esferixis.misc.concurrency.tasking.implementations.TrampolineTaskRunner;
+import com.esferixis.misc.loader.DataLoadingErrorException;
+
+public class PredictiveLoadingManagerTest {
+	@Test
+	public void testStreamingPrefetch() throws DataLoadingErrorException {
+		final MockLoadingStrategy loadingStrategy = new MockLoadingStrategy();
+		final LoadingManager<MockLoadableElement> loadingManager = new PredictiveLoadingManager<MockLoadableElement>(
+				new LinkedMruLoadingManager<MockLoadableElement>(loadingStrategy, 5, 25),
+				new TrampolineTaskRunner(), 2, 64);
+		
+		final MockLoadableElement[] elements = new MockLoadableElement[10];
+		for ( int i = 0 ; i < elements.length ; i++ ) {
+			elements[i] = new MockLoadableElement(new MockSource("Source " + i, 5));
+		}
+		
+		// Aprende la secuencia
+		for ( MockLoadableElement eachElement : elements ) {
+			loadingManager.loadElements(eachElement);
+		}
+		
+		int prefetchedHits = 0;
+		
+		for ( int round = 0 ; round < 3 ; round++ ) {
+			for ( MockLoadableElement eachElement : elements ) {
+				if ( loadingStrategy.isLoaded(eachElement) ) {
+					prefetchedHits++;
+				}
+				
+				loadingManager.loadElements(eachElement);
+				Assert.assertTrue(loadingStrategy.isLoaded(eachElement));
+			}
+		}
+		
+		// Sin predicción la secuencia no entra, todos serían fallos
+		Assert.assertTrue(prefetchedHits >= 25);
+		
+		loadingManager.destroy();
+	}
+	
+	@Test
+	public void testRejectedPrefetchDoesNotFailRequest() throws DataLoadingErrorException {
+		final TrampolineTaskRunner trampolineTaskRunner = new TrampolineTaskRunner();
+		final AtomicBoolean rejecting = new AtomicBoolean(true);
+		final AtomicInteger prefetchTasks = new AtomicInteger(0);
+		
+		final TaskRunner taskRunner = new TaskRunner() {
+
+			@Override
+			protected void run_checked(Task task) {
+				if ( rejecting.get() ) {
+					throw new RejectedExecutionException();
+				}
+				
+				prefetchTasks.incrementAndGet();
+				trampolineTaskRunner.run(task, this);
+			}
+			
+		};
+		
+		final MockLoadingStrategy loadingStrategy = new MockLoadingStrategy();
+		final LoadingManager<MockLoadableElement> loadingManager = new PredictiveLoadingManager<MockLoadableElement>(
+				new LinkedMruLoadingManager<MockLoadableElement>(loadingStrategy, 5, 25),
+				taskRunner, 2, 64);
+		
+		final MockLoadableElement[] elements = new MockLoadableElement[10];
+		for ( int i = 0 ; i < elements.length ; i++ ) {
+			elements[i] = new MockLoadableElement(new MockSource("Source " + i, 5));
+		}
+		
+		// Aprende la secuencia, con las precargas rechazadas
+		for ( int round = 0 ; round < 2 ; round++ ) {
+			for ( MockLoadableElement eachElement : elements ) {
+				loadingManager.loadElements(eachElement);
+				Assert.assertTrue(loadingStrategy.isLoaded(eachElement));
+			}
+		}
+		
+		// Al aceptarlas se vuelven a programar
+		rejecting.set(false);
+		
+		for ( MockLoadableElement eachElement : elements ) {
+			loadingManager.loadElements(eachElement);
+		}
+		
+		Assert.assertTrue(prefetchTasks.get() > 0);
+		
+		loadingManager.destroy();
+	}
+}
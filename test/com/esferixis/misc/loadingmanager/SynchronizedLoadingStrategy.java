@@ -0,0 +1,169 @@
+/**
+ * Copyright (c) 2018 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.misc.loadingmanager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Estrategia sincronizada sobre la estrategia de prueba,
+ * que lleva la cuenta del espacio cargado
+ */
+final class SynchronizedLoadingStrategy implements LoadingStrategy<MockLoadableElement> {
+	private final MockLoadingStrategy loadingStrategy;
+	private final AtomicLong loadedSpace;
+	private final AtomicLong maxLoadedSpace;
+	
+	private final long loadingDelayMillis;
+	private final AtomicInteger runningLoads;
+	private final AtomicInteger maxRunningLoads;
+	
+	/**
+	 * @post Crea la estrategia sobre la estrategia especificada
+	 */
+	public SynchronizedLoadingStrategy(MockLoadingStrategy loadingStrategy) {
+		this(loadingStrategy, 0);
+	}
+	
+	/**
+	 * @post Crea la estrategia sobre la estrategia especificada,
+	 * 		 cuyas cargas demoran el tiempo especificado fuera del lock
+	 */
+	public SynchronizedLoadingStrategy(MockLoadingStrategy loadingStrategy, long loadingDelayMillis) {
+		this.loadingStrategy = loadingStrategy;
+		this.loadedSpace = new AtomicLong(0);
+		this.maxLoadedSpace = new AtomicLong(0);
+		
+		this.loadingDelayMillis = loadingDelayMillis;
+		this.runningLoads = new AtomicInteger(0);
+		this.maxRunningLoads = new AtomicInteger(0);
+	}
+	
+	/**
+	 * @post Devuelve el espacio cargado
+	 */
+	public long getLoadedSpace() {
+		return this.loadedSpace.get();
+	}
+	
+	/**
+	 * @post Devuelve la máxima cantidad de cargas simultáneas
+	 */
+	public int getMaxRunningLoads() {
+		return this.maxRunningLoads.get();
+	}
+	
+	/**
+	 * @post Devuelve el máximo espacio que estuvo cargado
+	 */
+	public long getMaxLoadedSpace() {
+		return this.maxLoadedSpace.get();
+	}
+
+	@Override
+	public long getOccupiedSpace(MockLoadableElement element) {
+		return this.loadingStrategy.getOccupiedSpace(element);
+	}
+
+	@Override
+	public Collection<MockLoadableElement> getDependencies(MockLoadableElement dataElement) {
+		synchronized ( this.loadingStrategy ) {
+			return new ArrayList<MockLoadableElement>(this.loadingStrategy.getDependencies(dataElement));
+		}
+	}
+
+	@Override
+	public void load(MockLoadableElement element) {
+		final int runningLoads = this.runningLoads.incrementAndGet();
+		
+		try {
+			int maxRunningLoads;
+			
+			do {
+				maxRunningLoads = this.maxRunningLoads.get();
+			} while ( ( runningLoads > maxRunningLoads ) && !this.maxRunningLoads.compareAndSet(maxRunningLoads, runningLoads) );
+			
+			if ( this.loadingDelayMillis != 0 ) {
+				try {
+					Thread.sleep(this.loadingDelayMillis);
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			
+			synchronized ( this.loadingStrategy ) {
+				this.loadingStrategy.load(element);
+				
+				final long loadedSpace = this.loadedSpace.addAndGet(element.getMockSource().getSize());
+				
+				if ( loadedSpace > this.maxLoadedSpace.get() ) {
+					this.maxLoadedSpace.set(loadedSpace);
+				}
+			}
+		}
+		finally {
+			this.runningLoads.decrementAndGet();
+		}
+	}
+
+	@Override
+	public void unload(MockLoadableElement element) {
+		synchronized ( this.loadingStrategy ) {
+			this.loadingStrategy.unload(element);
+			this.loadedSpace.addAndGet(-element.getMockSource().getSize());
+		}
+	}
+
+	@Override
+	public boolean isLoaded(MockLoadableElement element) {
+		synchronized ( this.loadingStrategy ) {
+			return this.loadingStrategy.isLoaded(element);
+		}
+	}
+
+	@Override
+	public void attachObserver(MockLoadableElement element, Observer observer) {
+		synchronized ( this.loadingStrategy ) {
+			this.loadingStrategy.attachObserver(element, observer);
+		}
+	}
+
+	@Override
+	public void detachObserver(MockLoadableElement element, Observer observer) {
+		synchronized ( this.loadingStrategy ) {
+			this.loadingStrategy.detachObserver(element, observer);
+		}
+	}
+}
@@ -0,0 +1,186 @@
+/**
+ * Copyright (c) 2018 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.misc.loadingmanager;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.esferixis.misc.loader.DataLoader;
+import com.esferixis.misc.loader.DataLoadingErrorException;
+import com.esferixis.misc.loader.SerializableDataLoader;
+
+public class TieredLoadingStrategyTest {
+	private static final class PayloadLoader implements SerializableDataLoader<String> {
+		private static final long serialVersionUID = 1L;
+		
+		private final String payload;
+		
+		public PayloadLoader(String payload) {
+			this.payload = payload;
+		}
+		
+		@Override
+		public String get() {
+			return this.payload;
+		}
+	}
+	
+	private static final class SpillableMockLoadingStrategy implements SpillableLoadingStrategy<MockLoadableElement, String> {
+		private final MockLoadingStrategy mockLoadingStrategy;
+		private final Map<MockSource, String> payloadsBySources;
+		private int sourceLoads;
+		
+		public SpillableMockLoadingStrategy() {
+			this.mockLoadingStrategy = new MockLoadingStrategy();
+			this.payloadsBySources = new HashMap<MockSource, String>();
+			this.sourceLoads = 0;
+		}
+		
+		public String getPayload(MockLoadableElement element) {
+			return this.payloadsBySources.get(element.getMockSource());
+		}
+		
+		@Override
+		public long getOccupiedSpace(MockLoadableElement element) {
+			return this.mockLoadingStrategy.getOccupiedSpace(element);
+		}
+
+		@Override
+		public Collection<MockLoadableElement> getDependencies(MockLoadableElement dataElement) {
+			return this.mockLoadingStrategy.getDependencies(dataElement);
+		}
+
+		@Override
+		public void load(MockLoadableElement element) {
+			this.mockLoadingStrategy.load(element);
+			this.payloadsBySources.put(element.getMockSource(), "Payload of " + element.getMockSource().getName());
+			this.sourceLoads++;
+		}
+
+		@Override
+		public void unload(MockLoadableElement element) {
+			this.mockLoadingStrategy.unload(element);
+			this.payloadsBySources.remove(element.getMockSource());
+		}
+
+		@Override
+		public boolean isLoaded(MockLoadableElement element) {
+			return this.mockLoadingStrategy.isLoaded(element);
+		}
+
+		@Override
+		public void attachObserver(MockLoadableElement element, Observer observer) {
+			this.mockLoadingStrategy.attachObserver(element, observer);
+		}
+
+		@Override
+		public void detachObserver(MockLoadableElement element, Observer observer) {
+			this.mockLoadingStrategy.detachObserver(element, observer);
+		}
+
+		@Override
+		public SerializableDataLoader<String> getSpillDataLoader(MockLoadableElement element) {
+			return new PayloadLoader(this.getPayload(element));
+		}
+
+		@Override
+		public void restore(MockLoadableElement element, DataLoader<String> dataLoader) throws DataLoadingErrorException {
+			final String payload = dataLoader.get();
+			
+			this.mockLoadingStrategy.load(element);
+			this.payloadsBySources.put(element.getMockSource(), payload);
+		}
+	}
+	
+	@Test
+	public void testRestoreFromSpillFile() throws IOException, DataLoadingErrorException {
+		final File file = File.createTempFile("spill", ".bin");
+		file.deleteOnExit();
+		
+		final SpillableMockLoadingStrategy spillableLoadingStrategy = new SpillableMockLoadingStrategy();
+		final TieredLoadingStrategy<MockLoadableElement, String> tieredLoadingStrategy = new TieredLoadingStrategy<MockLoadableElement, String>(spillableLoadingStrategy, file, 1 << 16);
+		final LoadingManager<MockLoadableElement> loadingManager = new LinkedMruLoadingManager<MockLoadableElement>(tieredLoadingStrategy, 2, 10);
+		
+		final MockLoadableElement element1 = new MockLoadableElement(new MockSource("Source 1", 5));
+		final MockLoadableElement element2 = new MockLoadableElement(new MockSource("Source 2", 5));
+		final MockLoadableElement element3 = new MockLoadableElement(new MockSource("Source 3", 10));
+		
+		loadingManager.loadElements(element1, element2);
+		Assert.assertEquals(2, spillableLoadingStrategy.sourceLoads);
+		
+		loadingManager.loadElements(element3);
+		Assert.assertFalse(tieredLoadingStrategy.isLoaded(element1));
+		Assert.assertTrue(tieredLoadingStrategy.isSpilled(element1));
+		Assert.assertTrue(tieredLoadingStrategy.isSpilled(element2));
+		
+		loadingManager.loadElements(element1, element2);
+		Assert.assertEquals(3, spillableLoadingStrategy.sourceLoads);
+		Assert.assertEquals(2, tieredLoadingStrategy.getRestores());
+		Assert.assertEquals("Payload of Source 1", spillableLoadingStrategy.getPayload(element1));
+		Assert.assertEquals("Payload of Source 2", spillableLoadingStrategy.getPayload(element2));
+		Assert.assertFalse(tieredLoadingStrategy.isSpilled(element2));
+		Assert.assertTrue(tieredLoadingStrategy.isSpilled(element3));
+		
+		loadingManager.destroy();
+		tieredLoadingStrategy.close();
+	}
+	
+	@Test
+	public void testSpillEviction() throws IOException, DataLoadingErrorException {
+		final File file = File.createTempFile("spill", ".bin");
+		file.deleteOnExit();
+		
+		final SpillableMockLoadingStrategy spillableLoadingStrategy = new SpillableMockLoadingStrategy();
+		final TieredLoadingStrategy<MockLoadableElement, String> tieredLoadingStrategy = new TieredLoadingStrategy<MockLoadableElement, String>(spillableLoadingStrategy, file, 512);
+		final LoadingManager<MockLoadableElement> loadingManager = new LinkedMruLoadingManager<MockLoadableElement>(tieredLoadingStrategy, 1, 5);
+		
+		final MockLoadableElement[] elements = new MockLoadableElement[10];
+		for ( int i = 0 ; i < elements.length ; i++ ) {
+			elements[i] = new MockLoadableElement(new MockSource("Source " + i, 5));
+			loadingManager.loadElements(elements[i]);
+		}
+		
+		// El archivo de volcado sólo retiene los más recientes
+		Assert.assertTrue(tieredLoadingStrategy.getSpilledElementsQuantity() < elements.length - 1);
+		Assert.assertTrue(tieredLoadingStrategy.isSpilled(elements[elements.length - 2]));
+		Assert.assertFalse(tieredLoadingStrategy.isSpilled(elements[0]));
+		
+		loadingManager.destroy();
+		tieredLoadingStrategy.close();
+	}
+}
@@ -0,0 +1,139 @@
+/**
+ * Copyright (c) 2018 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.misc.loadingmanager;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class UserCountTest {
+	private static final class AlternationObserver implements LoadingStrategy.Observer {
+		private final AtomicBoolean hasLoadedUsers = new AtomicBoolean(false);
+		private final AtomicInteger transitions = new AtomicInteger(0);
+		private final AtomicInteger errors = new AtomicInteger(0);
+		
+		@Override
+		public void notifyHasLoadedUsers() {
+			if ( !this.hasLoadedUsers.compareAndSet(false, true) ) {
+				this.errors.incrementAndGet();
+			}
+			
+			this.transitions.incrementAndGet();
+		}
+
+		@Override
+		public void notifyHasNotLoadedUsers() {
+			if ( !this.hasLoadedUsers.compareAndSet(true, false) ) {
+				this.errors.incrementAndGet();
+			}
+			
+			this.transitions.incrementAndGet();
+		}
+	}
+	
+	@Test
+	public void testTransitions() {
+		final UserCount userCount = new UserCount();
+		final AlternationObserver observer = new AlternationObserver();
+		userCount.addObserver(observer);
+		userCount.addObserver(observer);
+		
+		userCount.incrementUserCount();
+		userCount.incrementUserCount();
+		userCount.decrementUserCount();
+		Assert.assertTrue(observer.hasLoadedUsers.get());
+		
+		userCount.decrementUserCount();
+		Assert.assertFalse(observer.hasLoadedUsers.get());
+		Assert.assertEquals(2, observer.transitions.get());
+		
+		userCount.removeObserver(observer);
+		userCount.incrementUserCount();
+		Assert.assertEquals(2, observer.transitions.get());
+		Assert.assertEquals(1, userCount.getUserCount());
+	}
+	
+	@Test(expected = IllegalStateException.class)
+	public void testUnderflow() {
+		new UserCount().decrementUserCount();
+	}
+	
+	@Test
+	public void testConcurrentTransitions() throws InterruptedException {
+		final UserCount userCount = new UserCount();
+		final AlternationObserver observer = new AlternationObserver();
+		userCount.addObserver(observer);
+		
+		final int threadsQuantity = 8;
+		final CountDownLatch startLatch = new CountDownLatch(1);
+		final Thread[] threads = new Thread[threadsQuantity];
+		
+		for ( int i = 0 ; i < threadsQuantity ; i++ ) {
+			threads[i] = new Thread() {
+				@Override
+				public void run() {
+					try {
+						startLatch.await();
+					}
+					catch (InterruptedException e) {
+						return;
+					}
+					
+					try {
+						for ( int j = 0 ; j < 100000 ; j++ ) {
+							userCount.incrementUserCount();
+							userCount.decrementUserCount();
+						}
+					}
+					catch (RuntimeException e) {
+						observer.errors.incrementAndGet();
+					}
+				}
+			};
+			threads[i].start();
+		}
+		
+		startLatch.countDown();
+		
+		for ( Thread eachThread : threads ) {
+			eachThread.join();
+		}
+		
+		Assert.assertEquals(0, userCount.getUserCount());
+		Assert.assertEquals(0, observer.errors.get());
+		Assert.assertFalse(observer.hasLoadedUsers.get());
+		Assert.assertEquals(0, observer.transitions.get() % 2);
+	}
+}
@@ -0,0 +1,193 @@
+/**
+ * Copyright (c) 2018 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.misc.slotlocator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ClockSlotAllocatorTest {
+	private static class TestSlot extends Slot {
+		private final String title;
+		
+		public TestSlot(String title) {
+			this.title = title;
+		}
+		
+		@Override
+		public String toString() {
+			return "'" + this.title + "'";
+		}
+	}
+	
+	private static class TestElement extends LinkedAllocatableElement<TestSlot> {
+		private int misses = 0;
+		
+		@Override
+		protected void notifyNewSlot(TestSlot newSlot) {
+			if ( newSlot != null ) {
+				this.misses++;
+			}
+		}
+	}
+	
+	private static List<TestSlot> createSlots(int quantity) {
+		final List<TestSlot> slots = new ArrayList<TestSlot>();
+		for ( int i = 0 ; i < quantity ; i++ ) {
+			slots.add(new TestSlot("Slot " + i));
+		}
+		
+		return slots;
+	}
+	
+	/**
+	 * @post Accede a los elementos calientes repetidamente, intercalando
+	 * 		 un recorrido de elementos que se usan una sola vez, y devuelve
+	 * 		 los fallos de los calientes después del calentamiento
+	 */
+	private static int hotMissesWithScan(ClockSlotAllocator.Mode mode) {
+		final ClockSlotAllocator<TestSlot> slotAllocator = new ClockSlotAllocator<TestSlot>(createSlots(16), mode);
+		
+		final List<TestElement> hotElements = new ArrayList<TestElement>();
+		for ( int i = 0 ; i < 8 ; i++ ) {
+			hotElements.add(new TestElement());
+		}
+		
+		int warmupMisses = 0;
+		
+		for ( int round = 0 ; round < 200 ; round++ ) {
+			if ( round == 20 ) {
+				for ( TestElement eachElement : hotElements ) {
+					warmupMisses += eachElement.misses;
+				}
+			}
+			
+			for ( TestElement eachElement : hotElements ) {
+				Assert.assertNotNull(slotAllocator.get(eachElement));
+			}
+			
+			for ( int i = 0 ; i < 12 ; i++ ) {
+				slotAllocator.get(new TestElement());
+			}
+		}
+		
+		int misses = -warmupMisses;
+		for ( TestElement eachElement : hotElements ) {
+			misses += eachElement.misses;
+		}
+		
+		return misses;
+	}
+	
+	@Test
+	public void testAllocateAll() {
+		final ClockSlotAllocator<TestSlot> slotAllocator = new ClockSlotAllocator<TestSlot>(createSlots(5));
+		final Set<TestSlot> allocatedSlots = new HashSet<TestSlot>();
+		
+		for ( int i = 0 ; i < 5 ; i++ ) {
+			final TestElement eachElement = new TestElement();
+			final TestSlot eachSlot = slotAllocator.get(eachElement);
+			
+			Assert.assertEquals(eachSlot, eachElement.getSlot());
+			Assert.assertTrue(allocatedSlots.add(eachSlot));
+		}
+	}
+	
+	@Test
+	public void testSecondChance() {
+		final ClockSlotAllocator<TestSlot> slotAllocator = new ClockSlotAllocator<TestSlot>(createSlots(2));
+		
+		final TestElement element0 = new TestElement();
+		final TestElement element1 = new TestElement();
+		final TestElement element2 = new TestElement();
+		
+		slotAllocator.get(element0);
+		slotAllocator.get(element1);
+		slotAllocator.get(element0);
+		slotAllocator.get(element2);
+		
+		Assert.assertNotNull(element0.getSlot());
+		Assert.assertNull(element1.getSlot());
+		Assert.assertNotNull(element2.getSlot());
+		
+		slotAllocator.detach(element0);
+		Assert.assertNull(element0.getSlot());
+	}
+	
+	@Test
+	public void testScanResistance() {
+		final int clockMisses = hotMissesWithScan(ClockSlotAllocator.Mode.CLOCK);
+		final int clockProMisses = hotMissesWithScan(ClockSlotAllocator.Mode.CLOCK_PRO);
+		
+		Assert.assertTrue(clockMisses > 100);
+		Assert.assertTrue(clockProMisses * 10 < clockMisses);
+	}
+	
+	@Test
+	public void testAcquireAllWithPinning() {
+		for ( ClockSlotAllocator.Mode eachMode : ClockSlotAllocator.Mode.values() ) {
+			final ClockSlotAllocator<TestSlot> slotAllocator = new ClockSlotAllocator<TestSlot>(createSlots(4), eachMode);
+			
+			final List<TestElement> pinnedElements = Arrays.asList(new TestElement(), new TestElement(), new TestElement());
+			
+			Assert.assertEquals(0, slotAllocator.acquireAll(pinnedElements));
+			
+			// El recorrido sólo puede usar el slot sin fijar
+			for ( int i = 0 ; i < 20 ; i++ ) {
+				slotAllocator.get(new TestElement());
+			}
+			
+			for ( TestElement eachElement : pinnedElements ) {
+				Assert.assertNotNull(eachElement.getSlot());
+				Assert.assertEquals(1, eachElement.misses);
+			}
+			
+			slotAllocator.unpinAll();
+			
+			final List<TestElement> newElements = Arrays.asList(new TestElement(), new TestElement(), new TestElement(), new TestElement());
+			Assert.assertEquals(4, slotAllocator.acquireAll(newElements));
+			
+			try {
+				slotAllocator.acquireAll(Arrays.asList(new TestElement()));
+				Assert.fail();
+			}
+			catch (IllegalStateException e) {
+				// No hay slots sin fijar
+			}
+		}
+	}
+}
@@ -32,6 +32,7 @@
 package com.esferixis.misc.slotlocator;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
@@ -578,4 +579,54 @@ public class MRULinkedSlotAllocatorTest {
 		 * E1->S1
 		 */
 	}
+	
+	@Test
+	public void testAcquireAllWithPinning() {
+		List<TestSlot> slots = new ArrayList<TestSlot>();
+		for ( int i = 0 ; i < 3 ; i++ ) {
+			slots.add(new TestSlot("Slot " + i));
+		}
+		
+		this.slotAllocator = new MRULinkedSlotAllocator<TestSlot>(slots);
+		
+		List<TestElement> elements = new ArrayList<TestElement>();
+		for ( int i = 0 ; i < 5 ; i++ ) {
+			elements.add( new TestElement("Element " + i) );
+		}
+		
+		Assert.assertEquals(0, this.slotAllocator.acquireAll(elements.subList(0, 3)));
+		
+		// Todos fijados, no hay víctima
+		try {
+			this.slotAllocator.get(elements.get(3));
+			Assert.fail();
+		}
+		catch (IllegalStateException e) {
+			Assert.assertNull(elements.get(3).getSlot());
+		}
+		
+		this.slotAllocator.unpinAll();
+		
+		// E0 es el menos usado, pero E0 y E3 están en el lote
+		Assert.assertEquals(1, this.slotAllocator.acquireAll(Arrays.asList(elements.get(0), elements.get(3))));
+		Assert.assertNotNull(elements.get(0).getSlot());
+		Assert.assertNull(elements.get(1).getSlot());
+		Assert.assertNotNull(elements.get(2).getSlot());
+		Assert.assertNotNull(elements.get(3).getSlot());
+		
+		// E0 y E3 siguen fijados, E2 y E4 no entran
+		try {
+			this.slotAllocator.acquireAll(Arrays.asList(elements.get(2), elements.get(4)));
+			Assert.fail();
+		}
+		catch (IllegalStateException e) {
+			Assert.assertNull(elements.get(4).getSlot());
+		}
+		
+		// E2 es el único sin fijar
+		this.testedGetSlot(elements.get(4));
+		Assert.assertNull(elements.get(2).getSlot());
+		Assert.assertNotNull(elements.get(0).getSlot());
+		Assert.assertNotNull(elements.get(3).getSlot());
+	}
 }
@@ -0,0 +1,264 @@
+/**
+ * Copyright (c) 2018 Ariel Favio Carrizo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'esferixis' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.esferixis.misc.slotlocator;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ShardedClockSlotAllocatorTest {
+	private static class TestSlot extends Slot {
+		private final String title;
+		
+		public TestSlot(String title) {
+			this.title = title;
+		}
+		
+		@Override
+		public String toString() {
+			return "'" + this.title + "'";
+		}
+	}
+	
+	private static class TestElement extends LinkedAllocatableElement<TestSlot> {
+		private final AtomicInteger errors;
+		
+		public TestElement(AtomicInteger errors) {
+			this.errors = errors;
+		}
+		
+		@Override
+		protected void notifyNewSlot(TestSlot newSlot) {
+			// Cada cambio tiene que alternar entre asignado y desasignado
+			if ( ( this.getSlot() == null ) == ( newSlot == null ) ) {
+				this.errors.incrementAndGet();
+			}
+		}
+	}
+	
+	private static List<TestSlot> createSlots(int quantity) {
+		final List<TestSlot> slots = new ArrayList<TestSlot>();
+		for ( int i = 0 ; i < quantity ; i++ ) {
+			slots.add(new TestSlot("Slot " + i));
+		}
+		
+		return slots;
+	}
+	
+	@Test
+	public void testSecondChance() {
+		final AtomicInteger errors = new AtomicInteger(0);
+		final ShardedClockSlotAllocator<TestSlot> slotAllocator = new ShardedClockSlotAllocator<TestSlot>(createSlots(3), 1);
+		
+		final TestElement element0 = new TestElement(errors);
+		final TestElement element1 = new TestElement(errors);
+		final TestElement element2 = new TestElement(errors);
+		
+		slotAllocator.get(element0);
+		slotAllocator.get(element1);
+		slotAllocator.get(element2);
+		
+		// El acierto le da una segunda oportunidad
+		final TestSlot slot0 = slotAllocator.get(element0);
+		
+		final TestElement element3 = new TestElement(errors);
+		slotAllocator.get(element3);
+		
+		Assert.assertEquals(slot0, element0.getSlot());
+		Assert.assertNull(element1.getSlot());
+		Assert.assertNotNull(element2.getSlot());
+		
+		slotAllocator.detach(element2);
+		Assert.assertNull(element2.getSlot());
+		
+		// Reusa el slot libre sin desalojar
+		slotAllocator.get(element1);
+		Assert.assertNotNull(element0.getSlot());
+		Assert.assertNotNull(element3.getSlot());
+		
+		Assert.assertEquals(0, errors.get());
+	}
+	
+	@Test
+	public void testReferencedSlotIsEvictedWhenSweepFails() {
+		final AtomicInteger errors = new AtomicInteger(0);
+		final ShardedClockSlotAllocator<TestSlot> slotAllocator = new ShardedClockSlotAllocator<TestSlot>(createSlots(1), 1);
+		
+		// Simula aciertos concurrentes que vuelven a marcarlo en cada visita
+		final TestElement hotElement = new TestElement(errors) {
+			@Override
+			boolean isReferenced() {
+				return true;
+			}
+		};
+		
+		slotAllocator.get(hotElement);
+		
+		final TestElement element = new TestElement(errors);
+		Assert.assertNotNull(slotAllocator.get(element));
+		Assert.assertNull(hotElement.getSlot());
+		
+		Assert.assertEquals(0, errors.get());
+	}
+	
+	@Test
+	public void testConcurrentHitsAndMisses() throws InterruptedException {
+		final AtomicInteger errors = new AtomicInteger(0);
+		
+		// Segmentos de un slot, donde la aguja revisita en el paso siguiente
+		final ShardedClockSlotAllocator<TestSlot> slotAllocator = new ShardedClockSlotAllocator<TestSlot>(createSlots(4), 4);
+		
+		final List<TestElement> elements = new ArrayList<TestElement>();
+		for ( int i = 0 ; i < 16 ; i++ ) {
+			elements.add(new TestElement(errors));
+		}
+		
+		final int threadsQuantity = 4;
+		final CountDownLatch startLatch = new CountDownLatch(1);
+		final Thread[] threads = new Thread[threadsQuantity];
+		
+		for ( int i = 0 ; i < threadsQuantity ; i++ ) {
+			final long seed = i;
+			final boolean hitting = ( i % 2 == 0 );
+			
+			threads[i] = new Thread() {
+				@Override
+				public void run() {
+					final Random random = new Random(seed);
+					
+					try {
+						startLatch.await();
+						
+						for ( int j = 0 ; j < 100000 ; j++ ) {
+							final TestElement element = elements.get(random.nextInt(elements.size()));
+							
+							// Los que aciertan sólo tocan elementos que tienen slot
+							if ( !hitting || ( element.getSlot() != null ) ) {
+								if ( slotAllocator.get(element) == null ) {
+									errors.incrementAndGet();
+								}
+							}
+						}
+					}
+					catch (InterruptedException | RuntimeException e) {
+						errors.incrementAndGet();
+					}
+				}
+			};
+			threads[i].start();
+		}
+		
+		startLatch.countDown();
+		
+		for ( Thread eachThread : threads ) {
+			eachThread.join();
+		}
+		
+		Assert.assertEquals(0, errors.get());
+	}
+	
+	@Test(expected = IllegalStateException.class)
+	public void testForeignElement() {
+		final TestElement element = new TestElement(new AtomicInteger(0));
+		
+		new MRULinkedSlotAllocator<TestSlot>(createSlots(2)).get(element);
+		new ShardedClockSlotAllocator<TestSlot>(createSlots(2)).get(element);
+	}
+	
+	@Test
+	public void testConcurrentAccess() throws InterruptedException {
+		final AtomicInteger errors = new AtomicInteger(0);
+		final ShardedClockSlotAllocator<TestSlot> slotAllocator = new ShardedClockSlotAllocator<TestSlot>(createSlots(64), 4);
+		
+		final List<TestElement> elements = new ArrayList<TestElement>();
+		for ( int i = 0 ; i < 256 ; i++ ) {
+			elements.add(new TestElement(errors));
+		}
+		
+		final int threadsQuantity = 8;
+		final CountDownLatch startLatch = new CountDownLatch(1);
+		final Thread[] threads = new Thread[threadsQuantity];
+		
+		for ( int i = 0 ; i < threadsQuantity ; i++ ) {
+			final long seed = i;
+			
+			threads[i] = new Thread() {
+				@Override
+				public void run() {
+					final Random random = new Random(seed);
+					
+					try {
+						startLatch.await();
+						
+						for ( int j = 0 ; j < 50000 ; j++ ) {
+							final TestElement element = elements.get(random.nextInt(elements.size()));
+							
+							if ( random.nextInt(16) == 0 ) {
+								slotAllocator.detach(element);
+							}
+							else if ( slotAllocator.get(element) == null ) {
+								errors.incrementAndGet();
+							}
+						}
+					}
+					catch (InterruptedException | RuntimeException e) {
+						errors.incrementAndGet();
+					}
+				}
+			};
+			threads[i].start();
+		}
+		
+		startLatch.countDown();
+		
+		for ( Thread eachThread : threads ) {
+			eachThread.join();
+		}
+		
+		Assert.assertEquals(0, errors.get());
+		
+		// Ningún slot está asignado a dos elementos
+		final Set<TestSlot> allocatedSlots = new HashSet<TestSlot>();
+		for ( TestElement eachElement : elements ) {
+			if ( eachElement.getSlot() != null ) {
+				Assert.assertTrue(allocatedSlots.add(eachElement.getSlot()));
+			}
+		}
+	}
+}